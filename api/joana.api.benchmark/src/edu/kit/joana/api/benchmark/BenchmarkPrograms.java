@@ -0,0 +1,187 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import edu.kit.joana.api.sdg.SDGConfig;
+import edu.kit.joana.api.sdg.SDGProgram;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+import edu.kit.joana.ifc.sdg.mhpoptimization.MHPType;
+import edu.kit.joana.ifc.sdg.mhpoptimization.PruneInterferences;
+import edu.kit.joana.ifc.sdg.util.JavaMethodSignature;
+import edu.kit.joana.util.Stubs;
+import edu.kit.joana.wala.core.NullProgressMonitor;
+import edu.kit.joana.wala.core.SDGBuilder.ExceptionAnalysis;
+import edu.kit.joana.wala.core.SDGBuilder.FieldPropagation;
+
+/**
+ * The programs the benchmarks run on, taken from joana.example.many-small-progs, and their pre-built sdgs.
+ * <p>
+ * The sdgs are stored as &lt;main class&gt;.pdg in the directory given by the property joana.benchmark.sdg.dir.
+ * They are built with interference edges and pruned with the precise mhp analysis, so the concurrent slicers can
+ * use them. Running this class builds all missing sdgs, so they are not part of the measured time.
+ */
+public final class BenchmarkPrograms {
+
+	private BenchmarkPrograms() {}
+
+	/** main class, source and sink of the ifc benchmarks - in sync with FullIFCSequentialTest and FullIFCConcurrentTest */
+	private static final String[][] PROGRAMS = {
+		{ "sequential.PraktomatLeak", "sequential.PraktomatLeak$Submission.matrNr", "sequential.PraktomatLeak$Review.failures" },
+		{ "conc.ac.AlarmClock", "conc.ac.Clock.max", "conc.ac.Client.name" },
+		{ "conc.dp.DiningPhilosophers", "conc.dp.Philosopher.id", "conc.dp.DiningServer.state" },
+		{ "conc.kn.Knapsack5", "conc.kn.Knapsack5$Item.profit", "conc.kn.PriorityRunQueue.numThreadsWaiting" },
+	};
+
+	/** the seed for the selection of slicing and chopping criteria */
+	public static final long SEED = 4711;
+
+	public static final String SDG_DIR_PROPERTY = "joana.benchmark.sdg.dir";
+	public static final String CLASSPATH_PROPERTY = "joana.many.small.programs.classpath";
+
+	public static List<String> getMainClasses() {
+		final List<String> result = new ArrayList<String>();
+		for (String[] p : PROGRAMS) {
+			result.add(p[0]);
+		}
+
+		return result;
+	}
+
+	public static String getSource(String mainClass) {
+		return find(mainClass)[1];
+	}
+
+	public static String getSink(String mainClass) {
+		return find(mainClass)[2];
+	}
+
+	private static String[] find(String mainClass) {
+		for (String[] p : PROGRAMS) {
+			if (p[0].equals(mainClass)) {
+				return p;
+			}
+		}
+
+		throw new IllegalArgumentException("Not a benchmark program: " + mainClass);
+	}
+
+	private static String property(String key) {
+		String value = System.getProperty(key);
+		if (value != null) {
+			return value;
+		}
+
+		try {
+			final InputStream in = new FileInputStream("classpaths.properties");
+			try {
+				final Properties p = new Properties();
+				p.load(in);
+				value = p.getProperty(key);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			// handled below
+		}
+
+		if (value == null) {
+			throw new IllegalStateException("Property '" + key + "' not provided! Either add file "
+					+ "'classpaths.properties' with an appropriate specification or provide property via -D flag to the jvm!");
+		}
+
+		return value;
+	}
+
+	private static File sdgFile(String mainClass) {
+		return new File(property(SDG_DIR_PROPERTY), mainClass + ".pdg");
+	}
+
+	/**
+	 * Reads the pre-built sdg of a benchmark program.
+	 */
+	public static SDG load(String mainClass) throws IOException {
+		final File file = sdgFile(mainClass);
+		if (!file.isFile()) {
+			throw new IOException("No sdg for " + mainClass + " at " + file.getAbsolutePath()
+					+ " - run " + BenchmarkPrograms.class.getName() + " first.");
+		}
+
+		return SDG.readFrom(file.getAbsolutePath());
+	}
+
+	/**
+	 * Builds the sdg of a benchmark program and stores it.
+	 */
+	public static void build(String mainClass) throws Exception {
+		final SDGConfig config = new SDGConfig(property(CLASSPATH_PROPERTY),
+				JavaMethodSignature.mainMethodOfClass(mainClass).toBCString(), Stubs.JRE_14);
+		config.setComputeInterferences(true);
+		config.setExceptionAnalysis(ExceptionAnalysis.INTRAPROC);
+		config.setFieldPropagation(FieldPropagation.OBJ_GRAPH);
+		final SDGProgram prog = SDGProgram.createSDGProgram(config, new PrintStream(new ByteArrayOutputStream()),
+				NullProgressMonitor.INSTANCE);
+		final SDG sdg = prog.getSDG();
+		PruneInterferences.preprocessAndPruneCSDG(sdg, MHPType.PRECISE);
+
+		final File file = sdgFile(mainClass);
+		file.getParentFile().mkdirs();
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			SDGSerializer.toPDGFormat(sdg, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Selects nodes of the sdg at random, with a fixed seed, so all runs use the same criteria.
+	 */
+	public static List<SDGNode> sample(SDG sdg, int count, long seed) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, new Comparator<SDGNode>() {
+			public int compare(SDGNode a, SDGNode b) {
+				return a.getId() - b.getId();
+			}
+		});
+		Collections.shuffle(nodes, new Random(seed));
+
+		return new ArrayList<SDGNode>(nodes.subList(0, Math.min(count, nodes.size())));
+	}
+
+	/**
+	 * Builds the missing sdgs of all benchmark programs.
+	 */
+	public static void main(String[] args) throws Exception {
+		for (String mainClass : getMainClasses()) {
+			if (sdgFile(mainClass).isFile()) {
+				System.out.println(mainClass + ": " + sdgFile(mainClass) + " exists.");
+			} else {
+				System.out.print(mainClass + ": building... ");
+				build(mainClass);
+				System.out.println("stored in " + sdgFile(mainClass));
+			}
+		}
+	}
+}
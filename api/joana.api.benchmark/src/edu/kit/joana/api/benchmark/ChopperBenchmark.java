@@ -0,0 +1,84 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.chopper.Chopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.FixedPointChopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.NonSameLevelChopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.RepsRosayChopper;
+
+/**
+ * Measures the throughput of chops between single nodes. One operation computes the chops of all sampled pairs of
+ * the program once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ChopperBenchmark {
+
+	private static final int PAIRS = 20;
+
+	@Param({ "sequential.PraktomatLeak", "conc.ac.AlarmClock", "conc.dp.DiningPhilosophers", "conc.kn.Knapsack5" })
+	public String program;
+
+	@Param({ "RepsRosayChopper", "NonSameLevelChopper", "FixedPointChopper" })
+	public String chopper;
+
+	private Chopper instance;
+	private List<SDGNode> sources;
+	private List<SDGNode> sinks;
+
+	static Chopper createChopper(String name, SDG sdg) {
+		if ("RepsRosayChopper".equals(name)) {
+			return new RepsRosayChopper(sdg);
+		} else if ("NonSameLevelChopper".equals(name)) {
+			return new NonSameLevelChopper(sdg);
+		} else if ("FixedPointChopper".equals(name)) {
+			return new FixedPointChopper(sdg);
+		}
+
+		throw new IllegalArgumentException("Unknown chopper: " + name);
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		final SDG sdg = BenchmarkPrograms.load(program);
+		instance = createChopper(chopper, sdg);
+		sources = BenchmarkPrograms.sample(sdg, PAIRS, BenchmarkPrograms.SEED);
+		sinks = BenchmarkPrograms.sample(sdg, PAIRS, BenchmarkPrograms.SEED + 1);
+	}
+
+	@Benchmark
+	public void chop(Blackhole bh) {
+		for (int i = 0; i < sources.size(); i++) {
+			bh.consume(instance.chop(sources.get(i), sinks.get(i)));
+		}
+	}
+}
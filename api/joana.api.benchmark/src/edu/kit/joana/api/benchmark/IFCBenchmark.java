@@ -0,0 +1,72 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.benchmark;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.kit.joana.api.IFCAnalysis;
+import edu.kit.joana.api.IFCType;
+import edu.kit.joana.api.lattice.BuiltinLattices;
+import edu.kit.joana.api.sdg.SDGProgram;
+import edu.kit.joana.api.sdg.SDGProgramPart;
+import edu.kit.joana.ifc.sdg.core.SecurityNode;
+import edu.kit.joana.ifc.sdg.core.violations.IViolation;
+
+/**
+ * Measures complete ifc checks through {@link IFCAnalysis} for each {@link IFCType}, with the source and sink
+ * annotations of the ifc tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class IFCBenchmark {
+
+	@Param({ "sequential.PraktomatLeak", "conc.ac.AlarmClock", "conc.dp.DiningPhilosophers", "conc.kn.Knapsack5" })
+	public String program;
+
+	@Param({ "CLASSICAL_NI", "LSOD", "RLSOD", "iRLSOD" })
+	public IFCType ifcType;
+
+	private IFCAnalysis ana;
+
+	@Setup
+	public void setUp() throws IOException {
+		ana = new IFCAnalysis(new SDGProgram(BenchmarkPrograms.load(program)));
+
+		final SDGProgramPart source = ana.getProgramPart(BenchmarkPrograms.getSource(program));
+		final SDGProgramPart sink = ana.getProgramPart(BenchmarkPrograms.getSink(program));
+		if (source == null || sink == null) {
+			throw new IllegalStateException("Annotated program parts not found in " + program);
+		}
+
+		ana.addSourceAnnotation(source, BuiltinLattices.STD_SECLEVEL_HIGH);
+		ana.addSinkAnnotation(sink, BuiltinLattices.STD_SECLEVEL_LOW);
+	}
+
+	@Benchmark
+	public Collection<? extends IViolation<SecurityNode>> doIFC() {
+		return ana.doIFC(ifcType);
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.NandaFactory;
+
+/**
+ * Measures the throughput of single-criterion slices. One operation slices all sampled criteria of the program once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SlicerBenchmark {
+
+	private static final int CRITERIA = 50;
+
+	@Param({ "sequential.PraktomatLeak", "conc.ac.AlarmClock", "conc.dp.DiningPhilosophers", "conc.kn.Knapsack5" })
+	public String program;
+
+	@Param({ "SummarySlicerBackward", "SummarySlicerForward", "ContextSlicerBackward", "ContextSlicerForward",
+		"I2PBackward", "I2PForward", "NandaBackward", "NandaForward" })
+	public String slicer;
+
+	private Slicer instance;
+	private List<SDGNode> criteria;
+
+	static Slicer createSlicer(String name, SDG sdg) {
+		if ("SummarySlicerBackward".equals(name)) {
+			return new SummarySlicerBackward(sdg);
+		} else if ("SummarySlicerForward".equals(name)) {
+			return new SummarySlicerForward(sdg);
+		} else if ("ContextSlicerBackward".equals(name)) {
+			return new ContextSlicerBackward(sdg, true);
+		} else if ("ContextSlicerForward".equals(name)) {
+			return new ContextSlicerForward(sdg, true);
+		} else if ("I2PBackward".equals(name)) {
+			return new I2PBackward(sdg);
+		} else if ("I2PForward".equals(name)) {
+			return new I2PForward(sdg);
+		} else if ("NandaBackward".equals(name)) {
+			return NandaFactory.createNandaBackward(sdg);
+		} else if ("NandaForward".equals(name)) {
+			return NandaFactory.createNandaForward(sdg);
+		}
+
+		throw new IllegalArgumentException("Unknown slicer: " + name);
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		final SDG sdg = BenchmarkPrograms.load(program);
+		instance = createSlicer(slicer, sdg);
+		criteria = BenchmarkPrograms.sample(sdg, CRITERIA, BenchmarkPrograms.SEED);
+	}
+
+	@Benchmark
+	public void slice(Blackhole bh) {
+		for (SDGNode c : criteria) {
+			bh.consume(instance.slice(c));
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.wala.util.CancelException;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.wala.core.NullProgressMonitor;
+import edu.kit.joana.wala.summary.SummaryComputation;
+import edu.kit.joana.wala.summary.WorkPackage;
+import edu.kit.joana.wala.summary.WorkPackage.EntryPoint;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Measures the summary edge computation on the pre-built sdgs. Before each operation the sdg is read again and its
+ * summary edges are removed, which is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SummaryComputationBenchmark {
+
+	@Param({ "sequential.PraktomatLeak", "conc.ac.AlarmClock", "conc.dp.DiningPhilosophers", "conc.kn.Knapsack5" })
+	public String program;
+
+	@Param({ "1", "4" })
+	public int threads;
+
+	@Param({ "false", "true" })
+	public boolean packedPathEdges;
+
+	private WorkPackage pack;
+
+	@Setup(Level.Invocation)
+	public void setUp() throws IOException {
+		final SDG sdg = BenchmarkPrograms.load(program);
+		final List<SDGEdge> summaries = new ArrayList<SDGEdge>();
+		for (SDGEdge e : sdg.edgeSet()) {
+			if (e.getKind() == SDGEdge.Kind.SUMMARY || e.getKind() == SDGEdge.Kind.SUMMARY_DATA
+					|| e.getKind() == SDGEdge.Kind.SUMMARY_NO_ALIAS) {
+				summaries.add(e);
+			}
+		}
+		sdg.removeAllEdges(summaries);
+
+		// the root parameters, like SDGBuilder does for the main pdg
+		final SDGNode root = sdg.getRoot();
+		final TIntSet formIns = new TIntHashSet();
+		final TIntSet formOuts = new TIntHashSet();
+		for (SDGEdge e : sdg.getOutgoingEdgesOfKind(root, SDGEdge.Kind.PARAMETER_STRUCTURE)) {
+			if (e.getTarget().getKind() == SDGNode.Kind.FORMAL_IN) {
+				formIns.add(e.getTarget().getId());
+			} else {
+				formOuts.add(e.getTarget().getId());
+			}
+		}
+
+		final Set<EntryPoint> entries = new TreeSet<EntryPoint>();
+		entries.add(new EntryPoint(root.getId(), formIns, formOuts));
+		pack = WorkPackage.create(sdg, entries, sdg.getName());
+		pack.setPackedPathEdges(packedPathEdges);
+	}
+
+	@Benchmark
+	public int compute() throws CancelException {
+		return SummaryComputation.compute(pack, threads, NullProgressMonitor.INSTANCE);
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.lattice.BuiltinLattices;
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.core.SecurityNode;
+import edu.kit.joana.ifc.sdg.core.conc.BarrierIFCSlicer;
+import edu.kit.joana.ifc.sdg.core.conc.PossibilisticNIChecker;
+import edu.kit.joana.ifc.sdg.core.violations.ClassifiedViolation;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+
+/**
+ * Checks that the parallel check of the critical points finds the same violations as the sequential one.
+ */
+public class BarrierIFCSlicerTest {
+
+	private static final int SEEDS = 20;
+	private static final int THREADS = 4;
+
+	/**
+	 * A random sdg of security nodes with some high sources, low sinks and declassifications.
+	 */
+	private static SDG create(final long seed) {
+		final SDG random = RandomSDG.create(seed, 8, 20);
+		final SDG sdg = new SDG(random.getName());
+		final Map<SDGNode, SDGNode> copies = new HashMap<SDGNode, SDGNode>();
+		for (final SDGNode n : random.vertexSet()) {
+			final SDGNode.Operation op = (n.getKind() == SDGNode.Kind.EXPRESSION ? SDGNode.Operation.ASSIGN
+					: SDGNode.Operation.valueOf(n.getKind().name()));
+			final SecurityNode copy = new SecurityNode(0, n.getId(), op, "n" + n.getId(), n.getProc(), null, null,
+					-1, -1, -1, -1, null, -1);
+			copy.setThreadNumbers(n.getThreadNumbers());
+			copies.put(n, copy);
+			sdg.addVertex(copy);
+		}
+		for (final SDGEdge e : random.edgeSet()) {
+			sdg.addEdge(new SDGEdge(copies.get(e.getSource()), copies.get(e.getTarget()), e.getKind()));
+		}
+		sdg.setRoot(copies.get(random.getRoot()));
+
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+		final Random rnd = new Random(seed);
+		for (final SDGNode n : nodes) {
+			final SecurityNode sn = (SecurityNode) n;
+			switch (rnd.nextInt(20)) {
+			case 0:
+				sn.setProvided(BuiltinLattices.STD_SECLEVEL_HIGH);
+				break;
+			case 1:
+				sn.setRequired(BuiltinLattices.STD_SECLEVEL_LOW);
+				break;
+			case 2:
+				sn.setRequired(BuiltinLattices.STD_SECLEVEL_HIGH);
+				sn.setProvided(BuiltinLattices.STD_SECLEVEL_LOW);
+				break;
+			default:
+				break;
+			}
+		}
+
+		return sdg;
+	}
+
+	@Test
+	public void testParallelCheck() {
+		final IStaticLattice<String> lattice = BuiltinLattices.getBinaryLattice();
+		int violations = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = create(seed);
+			final Set<ClassifiedViolation> expected = new BarrierIFCSlicer(sdg, lattice).checkIFlow();
+			violations += expected.size();
+
+			final BarrierIFCSlicer parallel = new BarrierIFCSlicer(sdg, lattice);
+			parallel.setParallelism(THREADS);
+			assertEquals("seed " + seed, expected, parallel.checkIFlow());
+			// the pool is reused by the next check
+			assertEquals("seed " + seed, expected, parallel.checkIFlow());
+
+			final PossibilisticNIChecker checker = new PossibilisticNIChecker(sdg, lattice);
+			checker.setParallelism(THREADS);
+			assertEquals("seed " + seed, expected, new HashSet<ClassifiedViolation>(checker.checkIFlow()));
+		}
+		assertFalse(violations == 0);
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.chopper.BatchChopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.BatchChopper.SameLevel;
+import edu.kit.joana.ifc.sdg.graph.chopper.Chopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.ChoppingCriterion;
+import edu.kit.joana.ifc.sdg.graph.chopper.NonSameLevelChopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.RepsRosayChopper;
+
+/**
+ * Checks that the {@link BatchChopper} computes the chops of {@link RepsRosayChopper} and
+ * {@link NonSameLevelChopper} on random SDGs, for batches whose criteria share sources and sinks.
+ */
+public class BatchChopperTest {
+
+	private static final int SEEDS = 20;
+	private static final int CRITERIA = 40;
+
+	private static List<SDGNode> nodes(final SDG sdg) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+
+		return nodes;
+	}
+
+	private static Set<SDGNode> randomSet(final List<SDGNode> nodes, final Random rnd) {
+		final Set<SDGNode> set = new HashSet<SDGNode>();
+		final int size = (rnd.nextInt(3) == 0 ? 2 + rnd.nextInt(3) : 1);
+		while (set.size() < size) {
+			set.add(nodes.get(rnd.nextInt(nodes.size())));
+		}
+
+		return set;
+	}
+
+	/**
+	 * Random criteria, some of which have the same sources or sinks.
+	 */
+	private static List<ChoppingCriterion> criteria(final SDG sdg, final Random rnd) {
+		final List<SDGNode> nodes = nodes(sdg);
+		final List<ChoppingCriterion> criteria = new ArrayList<ChoppingCriterion>();
+
+		for (int i = 0; i < CRITERIA; i++) {
+			final Collection<SDGNode> sources = (i > 0 && rnd.nextInt(3) == 0
+					? criteria.get(rnd.nextInt(i)).getSourceSet() : randomSet(nodes, rnd));
+			final Collection<SDGNode> sinks = (i > 0 && rnd.nextInt(3) == 0
+					? criteria.get(rnd.nextInt(i)).getTargetSet() : randomSet(nodes, rnd));
+			criteria.add(new ChoppingCriterion(sources, sinks));
+		}
+
+		return criteria;
+	}
+
+	private static Set<SDGNode> nodes(final SDG sdg, final BitSet chop) {
+		final Set<SDGNode> nodes = new HashSet<SDGNode>();
+		for (int id = chop.nextSetBit(0); id >= 0; id = chop.nextSetBit(id + 1)) {
+			nodes.add(sdg.getNode(id));
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * @return the number of non-empty chops.
+	 */
+	private static int check(final long seed, final SameLevel sameLevel) {
+		final SDG sdg = RandomSDG.create(seed, 6, 8);
+		final List<ChoppingCriterion> criteria = criteria(sdg, new Random(seed));
+		final Chopper reference = (sameLevel == SameLevel.REPS_ROSAY
+				? new RepsRosayChopper(sdg) : new NonSameLevelChopper(sdg));
+		final BatchChopper batch = new BatchChopper(sdg, sameLevel);
+
+		final List<Set<SDGNode>> expected = new ArrayList<Set<SDGNode>>();
+		int nonEmpty = 0;
+		for (final ChoppingCriterion c : criteria) {
+			final Set<SDGNode> chop = new HashSet<SDGNode>(reference.chop(c.getSourceSet(), c.getTargetSet()));
+			expected.add(chop);
+			nonEmpty += (chop.isEmpty() ? 0 : 1);
+		}
+
+		final List<BitSet> chops = batch.chopAll(criteria);
+		assertEquals(criteria.size(), chops.size());
+		for (int i = 0; i < criteria.size(); i++) {
+			final String msg = "seed " + seed + ", " + sameLevel + ", " + criteria.get(i);
+			assertEquals(msg, expected.get(i), nodes(sdg, chops.get(i)));
+			assertEquals(msg, expected.get(i), new HashSet<SDGNode>(batch.toNodes(chops.get(i))));
+		}
+
+		// the listener gets the chops in the order of the criteria
+		final int[] next = { 0 };
+		batch.chopAll(criteria, new BatchChopper.ChopListener() {
+			public void chopped(final int index, final ChoppingCriterion criterion, final BitSet chop) {
+				assertEquals(next[0]++, index);
+				assertSame(criteria.get(index), criterion);
+				assertEquals(expected.get(index), nodes(sdg, chop));
+			}
+		});
+		assertEquals(criteria.size(), next[0]);
+
+		// single chops, with and without the shared slices of the batch
+		for (int i = 0; i < criteria.size(); i++) {
+			final ChoppingCriterion c = criteria.get(i);
+			assertEquals(expected.get(i), batch.chop(c.getSourceSet(), c.getTargetSet()));
+		}
+		batch.clear();
+		for (int i = criteria.size() - 1; i >= 0; i--) {
+			final ChoppingCriterion c = criteria.get(i);
+			assertEquals(expected.get(i), batch.chop(c.getSourceSet(), c.getTargetSet()));
+		}
+
+		return nonEmpty;
+	}
+
+	@Test
+	public void testSameChopsAsRepsRosay() {
+		int nonEmpty = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			nonEmpty += check(seed, SameLevel.REPS_ROSAY);
+		}
+		assertTrue(nonEmpty > 0);
+	}
+
+	@Test
+	public void testSameChopsAsNonSameLevel() {
+		int nonEmpty = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			nonEmpty += check(seed, SameLevel.SUMMARY_MERGED);
+		}
+		assertTrue(nonEmpty > 0);
+	}
+}
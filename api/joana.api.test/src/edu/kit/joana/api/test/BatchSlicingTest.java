@@ -0,0 +1,88 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.BatchSlicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerForward;
+
+/**
+ * Checks that the batch slices of the two-phase slicers are the slices of {@link BatchSlicer#slice(SDGNode)}.
+ */
+public class BatchSlicingTest {
+
+	/**
+	 * A random sdg with some interprocedural data dependencies, like those of static fields. With them, a node may
+	 * be reached in phase 1 over a descending edge and over another edge.
+	 */
+	private static SDG create(final long seed, final int crossEdges) {
+		final SDG sdg = RandomSDG.create(seed, 8, 12);
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+		final Random rnd = new Random(seed);
+		for (int i = 0; i < crossEdges; i++) {
+			final SDGNode from = nodes.get(rnd.nextInt(nodes.size()));
+			final SDGNode to = nodes.get(rnd.nextInt(nodes.size()));
+			if (from.getProc() != to.getProc()) {
+				sdg.addEdge(new SDGEdge(from, to, SDGEdge.Kind.DATA_DEP));
+			}
+		}
+
+		return sdg;
+	}
+
+	private static void checkBatch(final BatchSlicer slicer, final SDG sdg, final long seed) {
+		final List<SDGNode> criteria = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(criteria, SDGNode.getIDComparator());
+		final List<Collection<SDGNode>> slices = slicer.sliceBatch(criteria);
+		assertEquals(criteria.size(), slices.size());
+		for (int i = 0; i < criteria.size(); i++) {
+			final SDGNode c = criteria.get(i);
+			assertEquals("seed " + seed + ", criterion " + c, new HashSet<SDGNode>(slicer.slice(c)),
+					new HashSet<SDGNode>(slices.get(i)));
+		}
+	}
+
+	private static void checkBatch(final int seeds, final int crossEdges) {
+		for (long seed = 0; seed < seeds; seed++) {
+			final SDG sdg = create(seed, crossEdges);
+			final CompactSDG compact = CompactSDG.compact(sdg);
+			checkBatch(new SummarySlicerBackward(sdg), sdg, seed);
+			checkBatch(new SummarySlicerForward(sdg), sdg, seed);
+			checkBatch(new SummarySlicerBackward(compact), compact, seed);
+			checkBatch(new SummarySlicerForward(compact), compact, seed);
+		}
+	}
+
+	@Test
+	public void testSummarySlicer() {
+		checkBatch(20, 0);
+	}
+
+	@Test
+	public void testSummarySlicerInterproceduralData() {
+		// only a few seeds result in slices that depend on the order of the traversal
+		checkBatch(100, 5);
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.CachingSlicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SliceCache;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+
+/**
+ * Checks that a {@link CachingSlicer} does not return slices of a graph that has been modified since, and that
+ * it keeps the batch slices apart from the single ones.
+ */
+public class CachingSlicerTest {
+
+	private static final int SEEDS = 10;
+
+	private static List<SDGNode> nodes(final SDG sdg) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+
+		return nodes;
+	}
+
+	private static void checkSlices(final SDG sdg, final CachingSlicer cached, final long seed) {
+		final SummarySlicerBackward fresh = new SummarySlicerBackward(sdg);
+		for (final SDGNode c : nodes(sdg)) {
+			assertEquals("seed " + seed + ", criterion " + c, new HashSet<SDGNode>(fresh.slice(c)),
+					new HashSet<SDGNode>(cached.slice(c)));
+		}
+	}
+
+	@Test
+	public void testModifiedGraph() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 8, 12);
+			final SliceCache cache = new SliceCache();
+			final CachingSlicer cached = new CachingSlicer(sdg, new SummarySlicerBackward(sdg), cache);
+			checkSlices(sdg, cached, seed);
+			checkSlices(sdg, cached, seed);
+			assertTrue(cache.getHits() > 0);
+
+			// a new node with a higher id than all others, which reaches every node of the root procedure
+			final SDGNode root = sdg.getRoot();
+			final SDGNode added = new SDGNode(SDGNode.Kind.EXPRESSION, sdg.lastId() + 100, root.getProc());
+			added.setThreadNumbers(root.getThreadNumbers());
+			sdg.addVertex(added);
+			sdg.addEdge(new SDGEdge(root, added, SDGEdge.Kind.CONTROL_DEP_EXPR));
+			for (final SDGNode n : nodes(sdg)) {
+				if (n.getProc() == root.getProc() && n != added && n != root) {
+					sdg.addEdge(new SDGEdge(added, n, SDGEdge.Kind.DATA_DEP));
+				}
+			}
+			checkSlices(sdg, cached, seed);
+
+			// and without an edge of the root procedure
+			final SDGEdge removed = sdg.getOutgoingEdgesOfKind(added, SDGEdge.Kind.DATA_DEP).get(0);
+			sdg.removeEdge(removed);
+			checkSlices(sdg, cached, seed);
+		}
+	}
+
+	@Test
+	public void testBatchSlicesApart() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 8, 12);
+			final SliceCache cache = new SliceCache();
+			final CachingSlicer cached = new CachingSlicer(sdg, new SummarySlicerBackward(sdg), cache);
+			final List<SDGNode> criteria = nodes(sdg);
+
+			final List<Collection<SDGNode>> batch = cached.sliceBatch(criteria);
+			assertEquals(0, cache.getHits());
+			assertEquals(criteria.size(), cache.getMisses());
+
+			// the single slices are not served from the batch slices
+			checkSlices(sdg, cached, seed);
+			assertEquals(0, cache.getHits());
+			assertEquals(2 * criteria.size(), cache.getMisses());
+
+			final List<Collection<SDGNode>> again = cached.sliceBatch(criteria);
+			assertEquals(criteria.size(), cache.getHits());
+			for (int i = 0; i < criteria.size(); i++) {
+				assertEquals("seed " + seed, new HashSet<SDGNode>(batch.get(i)), new HashSet<SDGNode>(again.get(i)));
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.ConcPrograms;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.CompactMHPAnalysis;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
+
+/**
+ * Checks that the precomputed MHP analysis answers all queries like the precise MHP analysis
+ * on the concurrent test programs.
+ */
+public class CompactMHPAnalysisTest {
+
+	private static final Map<String, String> testData = ConcPrograms.select(
+			"ThreadHierarchy", "RecursiveSpawning", "SpawnWithinLoop", "GiffhornFigure51", "Mantel00Page10");
+
+	@BeforeClass
+	public static void setUp() {
+		ConcPrograms.build(testData);
+	}
+
+	@Test
+	public void testSameAnswers() throws IOException {
+		for (final String sdgFile : testData.values()) {
+			final SDG sdg = SDG.readFrom(sdgFile);
+			final PreciseMHPAnalysis precise = PreciseMHPAnalysis.analyze(sdg);
+			final CompactMHPAnalysis compact = CompactMHPAnalysis.create(precise, sdg.getNumberOfThreads());
+
+			for (final SDGNode m : sdg.vertexSet()) {
+				final BitSet parallelNodes = compact.getParallelNodes(m);
+
+				for (final SDGNode n : sdg.vertexSet()) {
+					final boolean expected = precise.isParallel(m, n);
+					Assert.assertEquals(sdgFile + ": " + m + " || " + n, expected, compact.isParallel(m, n));
+					Assert.assertEquals(sdgFile + ": batch " + m + " || " + n, expected,
+							parallelNodes.get(n.getId()));
+
+					for (final int mt : m.getThreadNumbers()) {
+						for (final int nt : n.getThreadNumbers()) {
+							Assert.assertEquals(precise.isParallel(m, mt, n, nt), compact.isParallel(m, mt, n, nt));
+							Assert.assertEquals(precise.mayExist(mt, n, nt), compact.mayExist(mt, n, nt));
+						}
+					}
+				}
+			}
+		}
+	}
+}
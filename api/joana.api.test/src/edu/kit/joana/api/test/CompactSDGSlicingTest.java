@@ -0,0 +1,127 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerForward;
+
+/**
+ * Checks that the context and summary slicers compute the same slices on an SDG and on its {@link CompactSDG}, and
+ * that these are the slices of the plain two-phase slicer. Also checks that the {@link CompactSDG} answers queries
+ * for equal nodes and for null like the SDG.
+ */
+public class CompactSDGSlicingTest {
+
+	private static final int SEEDS = 20;
+	private static final int CRITERIA = 10;
+
+	private static void checkSlicers(final boolean backward, final Slicer onSDG, final Slicer onCompact,
+			final SDG sdg, final long seed) {
+		final Random rnd = new Random(seed);
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+		for (int i = 0; i < CRITERIA; i++) {
+			final Collection<SDGNode> crit = Collections.singleton(nodes.get(rnd.nextInt(nodes.size())));
+			final Set<SDGNode> expected = RandomSDG.slice(sdg, crit, backward);
+			assertEquals("seed " + seed + ", criterion " + crit, expected, new HashSet<SDGNode>(onSDG.slice(crit)));
+			assertEquals("seed " + seed + ", criterion " + crit, expected,
+					new HashSet<SDGNode>(onCompact.slice(crit)));
+		}
+	}
+
+	@Test
+	public void testContextSlicerStatic() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 6, 12);
+			final CompactSDG compact = CompactSDG.compact(sdg);
+			checkSlicers(true, new ContextSlicerBackward(sdg, true), new ContextSlicerBackward(compact, true), sdg, seed);
+			checkSlicers(false, new ContextSlicerForward(sdg, true), new ContextSlicerForward(compact, true), sdg, seed);
+		}
+	}
+
+	@Test
+	public void testContextSlicerDynamic() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 6, 12);
+			final CompactSDG compact = CompactSDG.compact(sdg);
+			checkSlicers(true, new ContextSlicerBackward(sdg, false), new ContextSlicerBackward(compact, false), sdg,
+					seed);
+			checkSlicers(false, new ContextSlicerForward(sdg, false), new ContextSlicerForward(compact, false), sdg,
+					seed);
+		}
+	}
+
+	@Test
+	public void testSummarySlicer() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 6, 12);
+			final CompactSDG compact = CompactSDG.compact(sdg);
+			checkSlicers(true, new SummarySlicerBackward(sdg), new SummarySlicerBackward(compact), sdg, seed);
+			checkSlicers(false, new SummarySlicerForward(sdg), new SummarySlicerForward(compact), sdg, seed);
+		}
+	}
+
+	@Test
+	public void testGraphContract() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 6, 12);
+			final CompactSDG compact = CompactSDG.compact(sdg);
+			final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+			Collections.sort(nodes, SDGNode.getIDComparator());
+			final String msg = "seed " + seed;
+
+			for (final SDGNode n : nodes) {
+				// a copy is equal to the node of the graph
+				final SDGNode copy = n.clone();
+				assertTrue(msg, sdg.containsVertex(copy));
+				assertTrue(msg, compact.containsVertex(copy));
+				assertEquals(msg, sdg.outDegreeOf(n), compact.outDegreeOf(copy));
+				assertEquals(msg, sdg.inDegreeOf(n), compact.inDegreeOf(copy));
+			}
+
+			final Random rnd = new Random(seed);
+			for (int i = 0; i < CRITERIA; i++) {
+				final SDGNode source = nodes.get(rnd.nextInt(nodes.size()));
+				final SDGNode target = nodes.get(rnd.nextInt(nodes.size()));
+				assertEquals(msg, sdg.getAllEdges(source, target), compact.getAllEdges(source.clone(), target));
+				assertEquals(msg, sdg.containsEdge(source, target), compact.containsEdge(source, target.clone()));
+			}
+
+			final SDGNode n = nodes.get(0);
+			assertFalse(msg, compact.containsVertex(null));
+			assertNull(msg, compact.getAllEdges(null, n));
+			assertNull(msg, compact.getAllEdges(n, null));
+			assertNull(msg, compact.getEdge(null, n));
+			assertFalse(msg, compact.containsEdge(n, null));
+			assertFalse(msg, compact.containsEdge(null));
+			assertEquals(msg, sdg.getAllEdges(null, n), compact.getAllEdges(null, n));
+		}
+	}
+}
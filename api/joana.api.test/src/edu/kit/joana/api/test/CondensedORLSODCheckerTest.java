@@ -0,0 +1,83 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.kit.joana.api.lattice.BuiltinLattices;
+import edu.kit.joana.api.test.util.ConcPrograms;
+import edu.kit.joana.ifc.sdg.core.SecurityNode;
+import edu.kit.joana.ifc.sdg.core.violations.IViolation;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.irlsod.CondensedORLSODChecker;
+import edu.kit.joana.ifc.sdg.irlsod.OptORLSODChecker;
+import edu.kit.joana.ifc.sdg.irlsod.ProbInfComputer;
+import edu.kit.joana.ifc.sdg.irlsod.ThreadModularCDomOracle;
+import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+
+/**
+ * Checks that the condensed iRLSOD checker finds the same violations as the slicing-based one
+ * on the concurrent test programs.
+ */
+public class CondensedORLSODCheckerTest {
+
+	private static final Map<String, String> testData = ConcPrograms.select(
+			"DataConflictRW", "ConditionalSpawn", "GiffhornFigure51", "Mantel00Page10");
+
+	@BeforeClass
+	public static void setUp() {
+		ConcPrograms.build(testData);
+	}
+
+	@Test
+	public void testSameViolations() throws IOException {
+		final IStaticLattice<String> lattice = BuiltinLattices.getTernaryLattice();
+		final List<String> levels = new ArrayList<String>(lattice.getElements());
+
+		for (final String sdgFile : testData.values()) {
+			final SDG sdg = SDG.readFrom(sdgFile);
+			final ProbInfComputer probInf = new ProbInfComputer(sdg, new ThreadModularCDomOracle(sdg));
+			final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+			final Random rand = new Random(sdgFile.hashCode());
+
+			for (int i = 0; i < 10; i++) {
+				final Map<SDGNode, String> userAnn = new HashMap<SDGNode, String>();
+				for (int j = 0; j < 8; j++) {
+					userAnn.put(nodes.get(rand.nextInt(nodes.size())), levels.get(rand.nextInt(levels.size())));
+				}
+
+				final Set<String> expected = toStrings(new OptORLSODChecker<String>(sdg, lattice,
+						new HashMap<SDGNode, String>(userAnn), probInf).checkIFlow());
+				final Set<String> actual = toStrings(new CondensedORLSODChecker<String>(sdg, lattice,
+						new HashMap<SDGNode, String>(userAnn), probInf).checkIFlow());
+				Assert.assertEquals(sdgFile + ": " + userAnn, expected, actual);
+			}
+		}
+	}
+
+	private static Set<String> toStrings(final Collection<? extends IViolation<SecurityNode>> violations) {
+		final Set<String> ret = new HashSet<String>();
+		for (final IViolation<SecurityNode> v : violations) {
+			ret.add(v.toString());
+		}
+		return ret;
+	}
+}
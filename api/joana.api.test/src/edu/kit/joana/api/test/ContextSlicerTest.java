@@ -0,0 +1,100 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.util.ParallelUtil;
+
+/**
+ * Checks that the context slicers compute the slices of the two-phase slicer on random recursion-free SDGs, also
+ * if several threads slice at the same time and share the interned call stacks.
+ */
+public class ContextSlicerTest {
+
+	private static final int SEEDS = 10;
+	private static final int THREADS = 4;
+
+	private static List<SDGNode> nodes(final SDG sdg) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+
+		return nodes;
+	}
+
+	private static void check(final SDG sdg, final long seed, final boolean backward, final boolean staticContexts) {
+		final Slicer slicer = (backward ? new ContextSlicerBackward(sdg, staticContexts)
+				: new ContextSlicerForward(sdg, staticContexts));
+		for (final SDGNode c : nodes(sdg)) {
+			assertEquals("seed " + seed + ", criterion " + c,
+					RandomSDG.slice(sdg, Collections.singleton(c), backward), new HashSet<SDGNode>(slicer.slice(c)));
+		}
+	}
+
+	@Test
+	public void testDynamicContexts() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 6, 8);
+			check(sdg, seed, true, false);
+			check(sdg, seed, false, false);
+		}
+	}
+
+	@Test
+	public void testStaticContexts() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 6, 8);
+			check(sdg, seed, true, true);
+			check(sdg, seed, false, true);
+		}
+	}
+
+	@Test
+	public void testConcurrentSlicing() {
+		final ExecutorService pool = ParallelUtil.newPool(THREADS, "context-slicer-test");
+		try {
+			for (long seed = 0; seed < SEEDS; seed++) {
+				// all threads slice the same graph, so they push the same call sites onto the same stacks
+				final SDG sdg = RandomSDG.create(seed, 6, 8);
+				final long s = seed;
+				final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+				for (int t = 0; t < THREADS; t++) {
+					final boolean backward = (t % 2 == 0);
+					futures.add(pool.submit(new Callable<Void>() {
+						@Override
+						public Void call() {
+							check(sdg, s, backward, false);
+							return null;
+						}
+					}));
+				}
+				for (final Future<Void> f : futures) {
+					ParallelUtil.waitFor(f);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
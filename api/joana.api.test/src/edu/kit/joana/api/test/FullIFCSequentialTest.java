@@ -49,12 +49,23 @@ public class FullIFCSequentialTest {
 	
 	public static IFCAnalysis buildAndAnnotate(final String className, final String secSrc,
 			final String pubOut, final PointsToPrecision pts, final ExceptionAnalysis exc) throws ApiTestException {
+		return buildAndAnnotate(createConfig(className, pts, exc), secSrc, pubOut);
+	}
+
+	public static SDGConfig createConfig(final String className, final PointsToPrecision pts,
+			final ExceptionAnalysis exc) {
 		JavaMethodSignature mainMethod = JavaMethodSignature.mainMethodOfClass(className);
 		SDGConfig config = new SDGConfig(JoanaPath.JOANA_MANY_SMALL_PROGRAMS_CLASSPATH, mainMethod.toBCString(), Stubs.JRE_14);
 		config.setComputeInterferences(false);
 		config.setExceptionAnalysis(exc);
 		config.setFieldPropagation(FieldPropagation.OBJ_GRAPH);
 		config.setPointsToPrecision(pts);
+
+		return config;
+	}
+
+	public static IFCAnalysis buildAndAnnotate(final SDGConfig config, final String secSrc,
+			final String pubOut) throws ApiTestException {
 		SDGProgram prog = null;
 		
 		try {
@@ -0,0 +1,353 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.ibm.wala.dataflow.graph.AbstractMeetOperator;
+import com.ibm.wala.dataflow.graph.BitVectorFramework;
+import com.ibm.wala.dataflow.graph.BitVectorIdentity;
+import com.ibm.wala.dataflow.graph.BitVectorKillGen;
+import com.ibm.wala.dataflow.graph.BitVectorSolver;
+import com.ibm.wala.dataflow.graph.BitVectorUnion;
+import com.ibm.wala.dataflow.graph.ITransferFunctionProvider;
+import com.ibm.wala.fixpoint.BitVectorVariable;
+import com.ibm.wala.fixpoint.UnaryOperator;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
+import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableMapping;
+import com.ibm.wala.util.intset.OrdinalSet;
+import com.ibm.wala.util.intset.OrdinalSetMapping;
+
+import edu.kit.joana.wala.core.NullProgressMonitor;
+import edu.kit.joana.wala.core.dataflow.GenReach;
+import edu.kit.joana.wala.core.killdef.GenKillSolver;
+
+/**
+ * Checks that the {@link GenKillSolver} used by the local killing definitions computes the same may reachable
+ * accesses and the same kill/gen solution, which decides the removed edges, as the WALA bit vector frameworks it
+ * replaced, on random control flow graphs with loops. The must reachable accesses are compared with the
+ * intersection framework on acyclic graphs, where the fixed point is unique, and with the accesses on all paths
+ * on graphs with loops.
+ */
+public class GenKillSolverTest {
+
+	private static final int SEEDS = 300;
+	/** the number of different accesses */
+	private static final int DOMAIN = 12;
+
+	/**
+	 * A random control flow graph with entry 0: a chain of all nodes, forward branches and, unless acyclic, back
+	 * edges. There are no edges to the entry, so all nodes are reachable from it.
+	 */
+	private static Graph<Integer> cfg(final Random rnd, final boolean acyclic) {
+		final SlowSparseNumberedGraph<Integer> cfg = SlowSparseNumberedGraph.make();
+		final int size = 2 + rnd.nextInt(20);
+		for (int i = 0; i < size; i++) {
+			cfg.addNode(i);
+		}
+		for (int i = 0; i + 1 < size; i++) {
+			cfg.addEdge(i, i + 1);
+		}
+		for (int i = rnd.nextInt(size); i > 0; i--) {
+			final int from = rnd.nextInt(size);
+			final int to = 1 + rnd.nextInt(size - 1);
+			if ((!acyclic || from < to) && !cfg.hasEdge(from, to)) {
+				cfg.addEdge(from, to);
+			}
+		}
+
+		return cfg;
+	}
+
+	private static Map<Integer, BitVector> randomSets(final Graph<Integer> cfg, final Random rnd, final int percent) {
+		final Map<Integer, BitVector> sets = new HashMap<Integer, BitVector>();
+		for (final Integer n : cfg) {
+			if (rnd.nextInt(100) < percent) {
+				final BitVector bv = new BitVector();
+				for (int i = 1 + rnd.nextInt(2); i > 0; i--) {
+					bv.set(rnd.nextInt(DOMAIN));
+				}
+				sets.put(n, bv);
+			}
+		}
+
+		return sets;
+	}
+
+	private static Map<Integer, Collection<Integer>> toCollections(final Map<Integer, BitVector> sets) {
+		final Map<Integer, Collection<Integer>> result = new HashMap<Integer, Collection<Integer>>();
+		for (final Map.Entry<Integer, BitVector> e : sets.entrySet()) {
+			final List<Integer> c = new LinkedList<Integer>();
+			for (int i = 0; i < DOMAIN; i++) {
+				if (e.getValue().get(i)) {
+					c.add(i);
+				}
+			}
+			result.put(e.getKey(), c);
+		}
+
+		return result;
+	}
+
+	/**
+	 * The mapping of the accesses 0 .. DOMAIN - 1 to themselves.
+	 */
+	private static MutableMapping<Integer> identity() {
+		final MutableMapping<Integer> mapping = MutableMapping.make();
+		for (int i = 0; i < DOMAIN; i++) {
+			assertEquals(i, mapping.add(i));
+		}
+
+		return mapping;
+	}
+
+	private static Set<Integer> toSet(final OrdinalSet<Integer> set) {
+		final Set<Integer> result = new TreeSet<Integer>();
+		for (final Integer i : set) {
+			result.add(i);
+		}
+
+		return result;
+	}
+
+	private static Set<Integer> toSet(final IntSet set, final OrdinalSetMapping<Integer> mapping) {
+		final Set<Integer> result = new TreeSet<Integer>();
+		if (set != null) {
+			for (final IntIterator it = set.intIterator(); it.hasNext();) {
+				result.add(mapping.getMappedObject(it.next()));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The values before all nodes computed by the new solver.
+	 */
+	private static Map<Integer, Set<Integer>> solve(final GenKillSolver<Integer> solver) throws CancelException {
+		solver.solve(NullProgressMonitor.INSTANCE);
+		final Map<Integer, Set<Integer>> result = new HashMap<Integer, Set<Integer>>();
+		for (final Map.Entry<Integer, OrdinalSet<Integer>> e : solver.getInSets(identity()).entrySet()) {
+			result.put(e.getKey(), toSet(e.getValue()));
+		}
+
+		return result;
+	}
+
+	/**
+	 * The values before all nodes computed by the WALA solver.
+	 */
+	private static Map<Integer, Set<Integer>> solve(final BitVectorFramework<Integer, Integer> framework,
+			final Graph<Integer> cfg) throws CancelException {
+		final BitVectorSolver<Integer> solver = new BitVectorSolver<Integer>(framework);
+		solver.solve(NullProgressMonitor.INSTANCE);
+		final Map<Integer, Set<Integer>> result = new HashMap<Integer, Set<Integer>>();
+		for (final Integer n : cfg) {
+			result.put(n, toSet(solver.getIn(n).getValue(), framework.getLatticeValues()));
+		}
+
+		return result;
+	}
+
+	/**
+	 * The accesses generated on every path from the entry to each node: an access is missing before a node iff
+	 * the node can be reached from the entry without passing a node that generates it.
+	 */
+	private static Map<Integer, Set<Integer>> onAllPaths(final Graph<Integer> cfg, final Map<Integer, BitVector> gen) {
+		final Map<Integer, Set<Integer>> result = new HashMap<Integer, Set<Integer>>();
+		for (final Integer n : cfg) {
+			final Set<Integer> all = new TreeSet<Integer>();
+			if (n != 0) {
+				for (int i = 0; i < DOMAIN; i++) {
+					all.add(i);
+				}
+			}
+			result.put(n, all);
+		}
+
+		for (int i = 0; i < DOMAIN; i++) {
+			final LinkedList<Integer> worklist = new LinkedList<Integer>();
+			final Set<Integer> visited = new TreeSet<Integer>();
+			worklist.add(0);
+			visited.add(0);
+			while (!worklist.isEmpty()) {
+				final Integer n = worklist.removeFirst();
+				if (gen.containsKey(n) && gen.get(n).get(i)) {
+					continue;
+				}
+
+				for (final Iterator<Integer> it = cfg.getSuccNodes(n); it.hasNext();) {
+					final Integer succ = it.next();
+					result.get(succ).remove(i);
+					if (visited.add(succ)) {
+						worklist.add(succ);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The transfer functions of the kill/gen problem of the local killing definitions before they were solved with
+	 * the {@link GenKillSolver}.
+	 */
+	private static ITransferFunctionProvider<Integer, BitVectorVariable> killGen(final Map<Integer, BitVector> gen,
+			final Map<Integer, BitVector> kill) {
+		final BitVector empty = new BitVector();
+
+		return new ITransferFunctionProvider<Integer, BitVectorVariable>() {
+			@Override
+			public UnaryOperator<BitVectorVariable> getNodeTransferFunction(final Integer node) {
+				final BitVector k = kill.get(node);
+				final BitVector g = gen.get(node);
+
+				if (k == null && g == null) {
+					return BitVectorIdentity.instance();
+				}
+
+				return new BitVectorKillGen((k == null ? empty : k), (g == null ? empty : g));
+			}
+
+			@Override
+			public boolean hasNodeTransferFunctions() {
+				return true;
+			}
+
+			@Override
+			public UnaryOperator<BitVectorVariable> getEdgeTransferFunction(final Integer src, final Integer dst) {
+				return BitVectorIdentity.instance();
+			}
+
+			@Override
+			public boolean hasEdgeTransferFunctions() {
+				return false;
+			}
+
+			@Override
+			public AbstractMeetOperator<BitVectorVariable> getMeetOperator() {
+				return BitVectorUnion.instance();
+			}
+		};
+	}
+
+	@Test
+	public void testMayReachableAccesses() throws CancelException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Random rnd = new Random(seed);
+			final Graph<Integer> cfg = cfg(rnd, false);
+			final Map<Integer, BitVector> gen = randomSets(cfg, rnd, 40);
+			final Map<Integer, BitVector> noKill = new HashMap<Integer, BitVector>();
+
+			assertEquals("seed " + seed, solve(GenReach.createUnionFramework(cfg, toCollections(gen)), cfg),
+					solve(GenKillSolver.union(cfg, gen, noKill)));
+		}
+	}
+
+	@Test
+	public void testMustReachableAccesses() throws CancelException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Random rnd = new Random(seed);
+			final Map<Integer, BitVector> noKill = new HashMap<Integer, BitVector>();
+
+			final Graph<Integer> acyclic = cfg(rnd, true);
+			final Map<Integer, BitVector> acyclicGen = randomSets(acyclic, rnd, 40);
+			final Map<Integer, Set<Integer>> expected = onAllPaths(acyclic, acyclicGen);
+			assertEquals("seed " + seed, expected,
+					solve(GenReach.createIntersectionFramework(acyclic, toCollections(acyclicGen)), acyclic));
+			assertEquals("seed " + seed, expected, solve(GenKillSolver.intersection(acyclic, acyclicGen, noKill)));
+
+			final Graph<Integer> loops = cfg(rnd, false);
+			final Map<Integer, BitVector> gen = randomSets(loops, rnd, 40);
+			assertEquals("seed " + seed, onAllPaths(loops, gen), solve(GenKillSolver.intersection(loops, gen, noKill)));
+		}
+	}
+
+	@Test
+	public void testMustReachableAccessesInLoop() throws CancelException {
+		// 0 -> 1 (gen a) -> 2 (loop head) -> 3 (gen b) -> 2 -> 4
+		final SlowSparseNumberedGraph<Integer> cfg = SlowSparseNumberedGraph.make();
+		for (int i = 0; i < 5; i++) {
+			cfg.addNode(i);
+		}
+		cfg.addEdge(0, 1);
+		cfg.addEdge(1, 2);
+		cfg.addEdge(2, 3);
+		cfg.addEdge(3, 2);
+		cfg.addEdge(2, 4);
+		final Map<Integer, BitVector> gen = new HashMap<Integer, BitVector>();
+		gen.put(1, new BitVector());
+		gen.get(1).set(0);
+		gen.put(3, new BitVector());
+		gen.get(3).set(1);
+
+		final Map<Integer, Set<Integer>> must =
+				solve(GenKillSolver.intersection(cfg, gen, new HashMap<Integer, BitVector>()));
+		final Set<Integer> a = new TreeSet<Integer>();
+		a.add(0);
+		// a is written on every path to the loop and behind it, b only within the loop
+		assertEquals(new TreeSet<Integer>(), must.get(1));
+		assertEquals(a, must.get(2));
+		assertEquals(a, must.get(3));
+		assertEquals(a, must.get(4));
+		assertEquals(onAllPaths(cfg, gen), must);
+	}
+
+	@Test
+	public void testKillGen() throws CancelException {
+		final OrdinalSetMapping<Integer> mapping = identity();
+		int nonEmpty = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Random rnd = new Random(seed);
+			final Graph<Integer> cfg = cfg(rnd, false);
+			final Map<Integer, BitVector> gen = randomSets(cfg, rnd, 30);
+			final Map<Integer, BitVector> kill = randomSets(cfg, rnd, 30);
+
+			final Map<Integer, Set<Integer>> expected =
+					solve(new BitVectorFramework<Integer, Integer>(cfg, killGen(gen, kill), mapping), cfg);
+			// the edges from writes to a read are removed iff the write is not in the solution before the read
+			assertEquals("seed " + seed, expected, solve(GenKillSolver.union(cfg, gen, kill)));
+			for (final Set<Integer> in : expected.values()) {
+				nonEmpty += (in.isEmpty() ? 0 : 1);
+			}
+		}
+		assertTrue(nonEmpty > 0);
+	}
+
+	@Test
+	public void testEvaluations() throws CancelException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Random rnd = new Random(seed);
+			final Graph<Integer> cfg = cfg(rnd, true);
+			final GenKillSolver<Integer> solver =
+					GenKillSolver.union(cfg, randomSets(cfg, rnd, 40), new HashMap<Integer, BitVector>());
+			solver.solve(NullProgressMonitor.INSTANCE);
+			// a single sweep in reverse postorder suffices without loops
+			assertEquals("seed " + seed, cfg.getNumberOfNodes(), solver.getNumberOfEvaluations());
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.ibm.wala.util.CancelException;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.wala.summary.EntryPointCache;
+import edu.kit.joana.wala.summary.EntryPointCache.LoadEntryPointException;
+import edu.kit.joana.wala.summary.EntryPointCache.StoreEntryPointException;
+import edu.kit.joana.wala.summary.IncrementalSummaryComputation;
+import edu.kit.joana.wala.summary.NullProgressMonitor;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Checks that the incremental summary computation restores the exact summary edges after some procedures have
+ * changed, that it only replaces the summary edges of procedures whose callees have changed their summary
+ * information, that it keeps summary edges of other kinds and that it reports the number of summary edges it has
+ * actually added.
+ */
+public class IncrementalSummaryComputationTest {
+
+	private static final int SEEDS = 20;
+
+	private static Set<String> summaryEdges(final SDG sdg) {
+		final Set<String> result = new TreeSet<String>();
+		for (final SDGEdge e : sdg.edgeSet()) {
+			final SDGEdge.Kind k = e.getKind();
+			if (k == SDGEdge.Kind.SUMMARY || k == SDGEdge.Kind.SUMMARY_DATA || k == SDGEdge.Kind.SUMMARY_NO_ALIAS) {
+				result.add(e.getKind() + " " + e.getSource().getId() + "->" + e.getTarget().getId());
+			}
+		}
+
+		return result;
+	}
+
+	private static void removeSummaryEdges(final SDG sdg) {
+		final List<SDGEdge> summary = new ArrayList<SDGEdge>();
+		for (final SDGEdge e : sdg.edgeSet()) {
+			if (e.getKind() == SDGEdge.Kind.SUMMARY) {
+				summary.add(e);
+			}
+		}
+		sdg.removeAllEdges(summary);
+	}
+
+	private static File createTempDir() throws IOException {
+		final File dir = File.createTempFile("joana-summary", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdir());
+
+		return dir;
+	}
+
+	private static void delete(final File dir) {
+		final File[] files = dir.listFiles();
+		if (files != null) {
+			for (final File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	/**
+	 * The summary information of a procedure that has been marked as changed without an actual change stays the
+	 * same, so only the procedure itself is recomputed - random sdgs have no recursion - and only the summary edges
+	 * of its calls are replaced.
+	 */
+	private static int summaryEdgesOfCalls(final SDG sdg, final SDGNode changed) {
+		int edges = 0;
+		for (final SDGNode call : sdg.getCallers(changed)) {
+			edges += sdg.getSummaryEdges(call).size();
+		}
+
+		return edges;
+	}
+
+	private static SDGNode calledEntry(final SDG sdg, final long seed) {
+		final List<SDGNode> entries = new ArrayList<SDGNode>();
+		for (final SDGNode n : sdg.vertexSet()) {
+			if (n.getKind() == SDGNode.Kind.ENTRY && !sdg.getCallers(n).isEmpty()) {
+				entries.add(n);
+			}
+		}
+
+		return entries.get(new Random(seed).nextInt(entries.size()));
+	}
+
+	private static List<SDGNode> formalNodes(final SDG sdg, final SDGNode entry, final SDGNode.Kind kind) {
+		final List<SDGNode> result = new ArrayList<SDGNode>();
+		for (final SDGEdge e : sdg.outgoingEdgesOf(entry)) {
+			if (e.getTarget().getKind() == kind) {
+				result.add(e.getTarget());
+			}
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testUpdate() throws IOException, CancelException, LoadEntryPointException,
+			StoreEntryPointException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 8, 12);
+			final Set<String> exact = summaryEdges(sdg);
+			assertFalse(exact.isEmpty());
+			removeSummaryEdges(sdg);
+
+			final File dir = createTempDir();
+			try {
+				final EntryPointCache cache = EntryPointCache.create(dir.getAbsolutePath());
+				final int initial = IncrementalSummaryComputation.compute(sdg, cache, NullProgressMonitor.INSTANCE);
+				assertEquals("seed " + seed, exact, summaryEdges(sdg));
+				assertEquals("seed " + seed, exact.size(), initial);
+
+				// everything is cached and nothing has changed
+				assertEquals("seed " + seed, 0,
+						IncrementalSummaryComputation.compute(sdg, cache, NullProgressMonitor.INSTANCE));
+				assertEquals("seed " + seed, exact, summaryEdges(sdg));
+
+				final SDGNode changed = calledEntry(sdg, seed);
+				final int expected = summaryEdgesOfCalls(sdg, changed);
+				final TIntHashSet changedIds = new TIntHashSet();
+				changedIds.add(changed.getId());
+				final int updated = IncrementalSummaryComputation.update(sdg, cache, changedIds, new TIntHashSet(),
+						NullProgressMonitor.INSTANCE);
+				assertEquals("seed " + seed, exact, summaryEdges(sdg));
+				assertEquals("seed " + seed, expected, updated);
+			} finally {
+				delete(dir);
+			}
+		}
+	}
+
+	@Test
+	public void testUpdatePropagatesChangedSummaries() throws IOException, CancelException,
+			LoadEntryPointException, StoreEntryPointException {
+		int changedSummaries = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 8, 12);
+			removeSummaryEdges(sdg);
+
+			final File dir = createTempDir();
+			final File fresh = createTempDir();
+			try {
+				final EntryPointCache cache = EntryPointCache.create(dir.getAbsolutePath());
+				IncrementalSummaryComputation.compute(sdg, cache, NullProgressMonitor.INSTANCE);
+				final Set<String> before = summaryEdges(sdg);
+
+				// a new dependence between all parameters of the changed procedure
+				final SDGNode changed = calledEntry(sdg, seed);
+				for (final SDGNode formIn : formalNodes(sdg, changed, SDGNode.Kind.FORMAL_IN)) {
+					for (final SDGNode formOut : formalNodes(sdg, changed, SDGNode.Kind.FORMAL_OUT)) {
+						sdg.addEdge(new SDGEdge(formIn, formOut, SDGEdge.Kind.DATA_DEP));
+					}
+				}
+
+				final TIntHashSet changedIds = new TIntHashSet();
+				changedIds.add(changed.getId());
+				IncrementalSummaryComputation.update(sdg, cache, changedIds, new TIntHashSet(),
+						NullProgressMonitor.INSTANCE);
+				final Set<String> updated = summaryEdges(sdg);
+				if (!updated.equals(before)) {
+					changedSummaries++;
+				}
+
+				// same result as a computation from scratch
+				removeSummaryEdges(sdg);
+				IncrementalSummaryComputation.compute(sdg, EntryPointCache.create(fresh.getAbsolutePath()),
+						NullProgressMonitor.INSTANCE);
+				assertEquals("seed " + seed, summaryEdges(sdg), updated);
+			} finally {
+				delete(dir);
+				delete(fresh);
+			}
+		}
+
+		assertTrue(changedSummaries > 0);
+	}
+
+	@Test
+	public void testUpdateKeepsOtherSummaryKinds() throws IOException, CancelException,
+			LoadEntryPointException, StoreEntryPointException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sdg = RandomSDG.create(seed, 8, 12);
+			removeSummaryEdges(sdg);
+
+			final File dir = createTempDir();
+			try {
+				final EntryPointCache cache = EntryPointCache.create(dir.getAbsolutePath());
+				IncrementalSummaryComputation.compute(sdg, cache, NullProgressMonitor.INSTANCE);
+
+				// summary edges of another kind at each call of the changed procedure, as computed by other analyses
+				final SDGNode changed = calledEntry(sdg, seed);
+				final SDGNode formIn = formalNodes(sdg, changed, SDGNode.Kind.FORMAL_IN).get(0);
+				final SDGNode formOut = formalNodes(sdg, changed, SDGNode.Kind.FORMAL_OUT).get(0);
+				for (final SDGNode call : sdg.getCallers(changed)) {
+					sdg.addEdge(new SDGEdge(sdg.getActualIn(call, formIn), sdg.getActualOut(call, formOut),
+							SDGEdge.Kind.SUMMARY_DATA));
+				}
+				final Set<String> expected = summaryEdges(sdg);
+
+				final TIntHashSet changedIds = new TIntHashSet();
+				changedIds.add(changed.getId());
+				IncrementalSummaryComputation.update(sdg, cache, changedIds, new TIntHashSet(),
+						NullProgressMonitor.INSTANCE);
+				assertEquals("seed " + seed, expected, summaryEdges(sdg));
+			} finally {
+				delete(dir);
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.GraphIntegrity.UnsoundGraphException;
+
+import edu.kit.joana.api.sdg.SDGConfig;
+import edu.kit.joana.api.sdg.SDGProgram;
+import edu.kit.joana.api.test.util.JoanaPath;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.mhpoptimization.MHPType;
+import edu.kit.joana.ifc.sdg.util.JavaMethodSignature;
+import edu.kit.joana.util.Stubs;
+import edu.kit.joana.wala.core.NullProgressMonitor;
+import edu.kit.joana.wala.core.SDGBuilder.ExceptionAnalysis;
+import edu.kit.joana.wala.core.SDGBuilder.FieldPropagation;
+
+/**
+ * Checks that the indexed interference computation yields the same interference edges as the pairwise one.
+ */
+public class IndexedInterferenceTest {
+
+	private static final String[] MAIN_CLASSES = {
+		"joana.api.testdata.conc.DataConflictRW",
+		"joana.api.testdata.conc.OrderConflict",
+		"joana.api.testdata.conc.ThreadHierarchy",
+		"joana.api.testdata.conc.RecursiveSpawning",
+		"joana.api.testdata.conc.Mantel00Page10",
+	};
+
+	private static Set<String> buildAndCollectInterference(final String mainClass, final boolean indexed)
+			throws ClassHierarchyException, IOException, UnsoundGraphException, CancelException {
+		final SDGConfig cfg = new SDGConfig(JoanaPath.JOANA_API_TEST_DATA_CLASSPATH,
+				JavaMethodSignature.mainMethodOfClass(mainClass).toBCString(), Stubs.JRE_14);
+		cfg.setComputeInterferences(true);
+		cfg.setExceptionAnalysis(ExceptionAnalysis.IGNORE_ALL);
+		cfg.setFieldPropagation(FieldPropagation.OBJ_GRAPH);
+		cfg.setMhpType(MHPType.NONE);
+		cfg.setIndexedInterference(indexed);
+		final SDG sdg = SDGProgram.createSDGProgram(cfg, new PrintStream(new ByteArrayOutputStream()),
+				NullProgressMonitor.INSTANCE).getSDG();
+
+		final Set<String> edges = new HashSet<String>();
+		for (final SDGEdge e : sdg.edgeSet()) {
+			if (e.getKind().isThreadEdge()) {
+				edges.add(e.getSource().getId() + " -" + e.getKind() + "-> " + e.getTarget().getId());
+			}
+		}
+
+		return edges;
+	}
+
+	@Test
+	public void testSameInterferenceEdges() throws ClassHierarchyException, IOException, UnsoundGraphException,
+			CancelException {
+		for (final String mainClass : MAIN_CLASSES) {
+			final Set<String> expected = buildAndCollectInterference(mainClass, false);
+			final Set<String> actual = buildAndCollectInterference(mainClass, true);
+			Assert.assertEquals(mainClass, expected, actual);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.IFCAnalysis;
+import edu.kit.joana.api.sdg.SDGConfig;
+import edu.kit.joana.api.test.util.ApiTestException;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.wala.core.SDGBuilder.ExceptionAnalysis;
+import edu.kit.joana.wala.core.SDGBuilder.PointsToPrecision;
+
+/**
+ * Checks that an analysis reusing stored library summaries does not build the pdgs of the callees of the stored
+ * methods, and finds the same violations as an analysis without stored summaries.
+ */
+public class LibrarySummaryStoreTest {
+
+	private static final String[] CLASSES = { "sequential.PraktomatLeak", "sequential.PraktomatValid" };
+
+	private static IFCAnalysis build(final String className, final File summaryDir) throws ApiTestException {
+		final SDGConfig config = FullIFCSequentialTest.createConfig(className, PointsToPrecision.INSTANCE_BASED,
+				ExceptionAnalysis.INTRAPROC);
+		if (summaryDir != null) {
+			config.setLibrarySummaryDir(summaryDir.getAbsolutePath());
+		}
+
+		return FullIFCSequentialTest.buildAndAnnotate(config, className + "$Submission.matrNr",
+				className + "$Review.failures");
+	}
+
+	/**
+	 * @return the signatures of the procedures of the sdg.
+	 */
+	private static Set<String> procedures(final SDG sdg) {
+		final Set<String> procs = new HashSet<String>();
+		for (final SDGNode n : sdg.vertexSet()) {
+			if (n.getKind() == SDGNode.Kind.ENTRY) {
+				procs.add(n.getBytecodeMethod());
+			}
+		}
+
+		return procs;
+	}
+
+	private static void delete(final File dir) {
+		final File[] files = dir.listFiles();
+		if (files != null) {
+			for (final File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testReuse() {
+		for (final String className : CLASSES) {
+			File dir = null;
+			try {
+				dir = File.createTempFile("libsum", "");
+				assertTrue(dir.delete());
+
+				final IFCAnalysis plain = build(className, null);
+				final Set<String> plainProcs = procedures(plain.getProgram().getSDG());
+				final int plainViolations = plain.doIFC().size();
+
+				// the store is empty, so the first analysis builds all pdgs and records the library summaries
+				final IFCAnalysis first = build(className, dir);
+				assertEquals(className, plainProcs, procedures(first.getProgram().getSDG()));
+				assertEquals(className, plainViolations, first.doIFC().size());
+				final String[] stored = dir.list();
+				assertTrue(className, stored != null && stored.length > 0);
+
+				// the second one loads them and leaves out the callees of the summarised methods
+				final IFCAnalysis second = build(className, dir);
+				final Set<String> secondProcs = procedures(second.getProgram().getSDG());
+				assertTrue(className, plainProcs.containsAll(secondProcs));
+				assertTrue(className, secondProcs.size() < plainProcs.size());
+				assertEquals(className, plainViolations, second.doIFC().size());
+			} catch (ApiTestException e) {
+				e.printStackTrace();
+				fail(e.getMessage());
+			} catch (IOException e) {
+				e.printStackTrace();
+				fail(e.getMessage());
+			} finally {
+				if (dir != null) {
+					delete(dir);
+				}
+			}
+		}
+	}
+}
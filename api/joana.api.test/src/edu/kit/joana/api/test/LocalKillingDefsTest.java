@@ -0,0 +1,148 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.GraphIntegrity.UnsoundGraphException;
+
+import edu.kit.joana.api.sdg.SDGConfig;
+import edu.kit.joana.api.sdg.SDGProgram;
+import edu.kit.joana.api.test.util.JoanaPath;
+import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+import edu.kit.joana.ifc.sdg.util.JavaMethodSignature;
+import edu.kit.joana.util.Config;
+import edu.kit.joana.util.PhaseMetrics;
+import edu.kit.joana.util.Stubs;
+import edu.kit.joana.wala.core.SDGBuilder.ExceptionAnalysis;
+import edu.kit.joana.wala.core.SDGBuilder.FieldPropagation;
+import edu.kit.joana.wala.core.SDGBuilder.PointsToPrecision;
+import edu.kit.joana.wala.core.killdef.LocalKillingDefs;
+
+/**
+ * Checks that the {@link LocalKillingDefs} remove the same edges with several threads as sequentially, that the
+ * statistics recorded in the metrics of the sdg construction are consistent, and that methods with more heap
+ * accesses than {@link Config#C_KILLDEF_MAX_ACCESSES} are skipped.
+ */
+public class LocalKillingDefsTest {
+
+	private static final int THREADS = 4;
+
+	private static final String[] COUNTERS = {
+		"methods", "skippedMethods", "killedReads", "potentialReads", "removedEdges", "evaluations" };
+
+	private static final class Result {
+		private final String sdg;
+		private final Map<String, Long> counters;
+
+		private Result(final String sdg, final Map<String, Long> counters) {
+			this.sdg = sdg;
+			this.counters = counters;
+		}
+
+		private long get(final String counter) {
+			final Long value = counters.get(counter);
+			assertNotNull(counter, value);
+
+			return value;
+		}
+	}
+
+	private static Result build(final String className, final int threads) {
+		final JavaMethodSignature mainMethod = JavaMethodSignature.mainMethodOfClass(className);
+		final SDGConfig config = new SDGConfig(JoanaPath.JOANA_MANY_SMALL_PROGRAMS_CLASSPATH, mainMethod.toBCString(),
+				Stubs.JRE_14);
+		config.setComputeInterferences(false);
+		config.setExceptionAnalysis(ExceptionAnalysis.INTRAPROC);
+		config.setFieldPropagation(FieldPropagation.OBJ_GRAPH);
+		config.setPointsToPrecision(PointsToPrecision.INSTANCE_BASED);
+		config.setParallelism(threads);
+		final PhaseMetrics metrics = new PhaseMetrics();
+		config.setMetrics(metrics);
+
+		try {
+			final SDGProgram prog = SDGProgram.createSDGProgram(config);
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			SDGSerializer.toPDGFormat(prog.getSDG(), out);
+			final PhaseMetrics.Phase killdef = metrics.getRoot().getChild("killdef");
+			assertNotNull("no killdef phase", killdef);
+
+			return new Result(out.toString(), killdef.getCounters());
+		} catch (ClassHierarchyException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} catch (UnsoundGraphException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} catch (CancelException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+
+		return null;
+	}
+
+	private static void checkCounters(final Result result) {
+		assertTrue(result.get("methods") > 0);
+		assertTrue(result.get("skippedMethods") >= 0);
+		assertTrue(result.get("removedEdges") >= 0);
+		assertTrue(result.get("killedReads") >= 0);
+		assertTrue(result.get("killedReads") <= result.get("potentialReads"));
+		assertTrue(result.get("evaluations") >= 0);
+	}
+
+	@Test
+	public void testParallel() {
+		for (final String className : new String[] { "sequential.PraktomatLeak", "tests.PasswordFile" }) {
+			final Result sequential = build(className, 1);
+			final Result parallel = build(className, THREADS);
+			checkCounters(sequential);
+			assertEquals(className, sequential.sdg, parallel.sdg);
+			for (final String counter : COUNTERS) {
+				assertEquals(className + ": " + counter, sequential.get(counter), parallel.get(counter));
+			}
+		}
+	}
+
+	@Test
+	public void testMaxAccesses() {
+		final String className = "tests.PasswordFile";
+		final Result all = build(className, 1);
+		final Result none;
+		System.setProperty(Config.C_KILLDEF_MAX_ACCESSES, "0");
+		try {
+			none = build(className, THREADS);
+		} finally {
+			System.clearProperty(Config.C_KILLDEF_MAX_ACCESSES);
+		}
+		checkCounters(all);
+
+		// only methods without any heap accesses are analyzed, and they have no edges to remove
+		assertEquals(all.get("methods") + all.get("skippedMethods"),
+				none.get("methods") + none.get("skippedMethods"));
+		assertTrue(none.get("skippedMethods") > 0);
+		assertEquals(0L, none.get("potentialReads"));
+		assertEquals(0L, none.get("killedReads"));
+		assertEquals(0L, none.get("removedEdges"));
+		assertEquals(LocalKillingDefs.MAX_ACCESSES_THRESHOLD, LocalKillingDefs.getDefaultMaxAccesses());
+	}
+}
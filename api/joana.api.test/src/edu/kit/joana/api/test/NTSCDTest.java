@@ -0,0 +1,142 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.CFG;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.controlflow.ntscd.NTSCD;
+import edu.kit.joana.util.Config;
+
+/**
+ * Checks that the bit set based NTSCD computation finds the same edges as the list based one on random control
+ * flow graphs, and that the control flow graph is not modified.
+ */
+public class NTSCDTest {
+
+	private static final int SEEDS = 200;
+
+	/**
+	 * A random icfg of several procedures with loops, calls and exit nodes that have successors.
+	 */
+	private static CFG create(final long seed) {
+		final Random rnd = new Random(seed);
+		final CFG cfg = new CFG();
+		final int procs = 1 + rnd.nextInt(4);
+		final List<SDGNode> entries = new ArrayList<SDGNode>();
+		final List<SDGNode> exits = new ArrayList<SDGNode>();
+		final List<List<SDGNode>> bodies = new ArrayList<List<SDGNode>>();
+		int id = 1;
+
+		for (int p = 0; p < procs; p++) {
+			final SDGNode entry = new SDGNode(SDGNode.Kind.ENTRY, id++, p);
+			final SDGNode exit = new SDGNode(SDGNode.Kind.EXIT, id++, p);
+			cfg.addVertex(entry);
+			cfg.addVertex(exit);
+			entries.add(entry);
+			exits.add(exit);
+
+			final List<SDGNode> body = new ArrayList<SDGNode>();
+			final int size = 1 + rnd.nextInt(12);
+			for (int i = 0; i < size; i++) {
+				final boolean call = (p + 1 < procs && rnd.nextInt(5) == 0);
+				final SDGNode n = new SDGNode(call ? SDGNode.Kind.CALL : SDGNode.Kind.EXPRESSION, id++, p);
+				cfg.addVertex(n);
+				body.add(n);
+			}
+			bodies.add(body);
+		}
+
+		for (int p = 0; p < procs; p++) {
+			final List<SDGNode> body = bodies.get(p);
+			cfg.addEdge(new SDGEdge(entries.get(p), body.get(0), SDGEdge.Kind.CONTROL_FLOW));
+
+			for (int i = 0; i < body.size(); i++) {
+				final SDGNode n = body.get(i);
+				final SDGNode next = (i + 1 < body.size() ? body.get(i + 1) : exits.get(p));
+				cfg.addEdge(new SDGEdge(n, next, SDGEdge.Kind.CONTROL_FLOW));
+
+				if (rnd.nextInt(3) == 0) {
+					// a branch, forward or backward, or to the exit
+					final int target = rnd.nextInt(body.size() + 1);
+					final SDGNode t = (target < body.size() ? body.get(target) : exits.get(p));
+					if (t != n && t != next) {
+						cfg.addEdge(new SDGEdge(n, t, SDGEdge.Kind.CONTROL_FLOW));
+					}
+				}
+
+				if (n.getKind() == SDGNode.Kind.CALL) {
+					final int callee = p + 1 + rnd.nextInt(procs - p - 1);
+					cfg.addEdge(new SDGEdge(n, entries.get(callee), SDGEdge.Kind.CALL));
+					cfg.addEdge(new SDGEdge(exits.get(callee), next, SDGEdge.Kind.RETURN));
+				}
+			}
+
+			if (rnd.nextInt(4) == 0) {
+				cfg.addEdge(new SDGEdge(exits.get(p), body.get(rnd.nextInt(body.size())), SDGEdge.Kind.CONTROL_FLOW));
+			}
+		}
+
+		return cfg;
+	}
+
+	private static Set<String> edges(final Collection<SDGEdge> edges) {
+		final Set<String> result = new TreeSet<String>();
+		for (final SDGEdge e : edges) {
+			result.add(e.getKind() + " " + e.getSource().getId() + "->" + e.getTarget().getId());
+		}
+
+		return result;
+	}
+
+	private static List<SDGEdge> compute(final CFG cfg, final boolean bitsets, final int threads) {
+		System.setProperty(Config.C_NTSCD_BITSETS, Boolean.toString(bitsets));
+		System.setProperty(Config.C_NTSCD_THREADS, Integer.toString(threads));
+
+		return NTSCD.compute(cfg);
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(Config.C_NTSCD_BITSETS);
+		System.clearProperty(Config.C_NTSCD_THREADS);
+	}
+
+	@Test
+	public void testSameEdges() {
+		int total = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final CFG cfg = create(seed);
+			final Set<String> before = edges(cfg.edgeSet());
+
+			final Set<String> expected = edges(compute(cfg, false, 1));
+			assertEquals("seed " + seed, before, edges(cfg.edgeSet()));
+			total += expected.size();
+
+			final List<SDGEdge> bitsets = compute(cfg, true, 1);
+			assertEquals("seed " + seed, expected.size(), bitsets.size());
+			assertEquals("seed " + seed, expected, edges(bitsets));
+			assertEquals("seed " + seed, expected, edges(compute(cfg, true, 4)));
+			assertEquals("seed " + seed, before, edges(cfg.edgeSet()));
+		}
+		assertFalse(total == 0);
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.BuildSDG;
+import edu.kit.joana.api.test.util.JoanaPath;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.Nanda;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.NandaFactory;
+
+/**
+ * Compares the default and the packed visited-state store of Nanda's slicer
+ * on the concurrent test programs: the slices have to be equal.
+ */
+public class NandaPackedStatesTest {
+
+	private static final Map<String, String> testData = new LinkedHashMap<String, String>();
+
+	static {
+		testData.put("joana.api.testdata.conc.ThreadHierarchy", "thread_hierarchy.pdg");
+		testData.put("joana.api.testdata.conc.RecursiveSpawning", "recursive_spawning.pdg");
+		testData.put("joana.api.testdata.conc.SpawnWithinLoop", "spawn_within_loop.pdg");
+		testData.put("joana.api.testdata.conc.GiffhornFigure51", "giffhorn_figure_51.pdg");
+		testData.put("joana.api.testdata.conc.Mantel00Page10", "mantel00_page10.pdg");
+	}
+
+	@BeforeClass
+	public static void setUp() {
+		for (final Map.Entry<String, String> td : testData.entrySet()) {
+			final BuildSDG b = BuildSDG.standardConcSetup(JoanaPath.JOANA_API_TEST_DATA_CLASSPATH, td.getKey(),
+					td.getValue());
+			b.run();
+		}
+	}
+
+	private static void sliceAll(final SDG sdg, final Nanda slicer, final Map<SDGNode, Collection<SDGNode>> slices) {
+		for (final SDGNode n : sdg.vertexSet()) {
+			slices.put(n, new HashSet<SDGNode>(slicer.slice(n)));
+		}
+	}
+
+	private static void compare(final String sdgFile, final boolean backward) throws IOException {
+		final SDG sdg = SDG.readFrom(sdgFile);
+		final Nanda lists = (backward ? NandaFactory.createNandaBackward(sdg) : NandaFactory.createNandaForward(sdg));
+		final Nanda packed = (backward ? NandaFactory.createPackedNandaBackward(sdg)
+				: NandaFactory.createPackedNandaForward(sdg));
+
+		final Map<SDGNode, Collection<SDGNode>> expected = new LinkedHashMap<SDGNode, Collection<SDGNode>>();
+		final Map<SDGNode, Collection<SDGNode>> actual = new LinkedHashMap<SDGNode, Collection<SDGNode>>();
+		sliceAll(sdg, lists, expected);
+		sliceAll(sdg, packed, actual);
+
+		for (final SDGNode n : sdg.vertexSet()) {
+			Assert.assertEquals(sdgFile + ": slice of " + n, expected.get(n), actual.get(n));
+		}
+	}
+
+	@Test
+	public void testBackward() throws IOException {
+		for (final String sdgFile : testData.values()) {
+			compare(sdgFile, true);
+		}
+	}
+
+	@Test
+	public void testForward() throws IOException {
+		for (final String sdgFile : testData.values()) {
+			compare(sdgFile, false);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.GraphIntegrity.UnsoundGraphException;
+
+import edu.kit.joana.api.sdg.SDGConfig;
+import edu.kit.joana.api.sdg.SDGProgram;
+import edu.kit.joana.api.test.util.JoanaPath;
+import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+import edu.kit.joana.ifc.sdg.util.JavaMethodSignature;
+import edu.kit.joana.util.Stubs;
+import edu.kit.joana.wala.core.SDGBuilder.DynamicDispatchHandling;
+import edu.kit.joana.wala.core.SDGBuilder.ExceptionAnalysis;
+import edu.kit.joana.wala.core.SDGBuilder.FieldPropagation;
+import edu.kit.joana.wala.core.SDGBuilder.PointsToPrecision;
+
+/**
+ * Checks that the sdg built with several threads is the same as the sequentially built one.
+ */
+public class ParallelSDGBuildTest {
+
+	private static final int THREADS = 4;
+
+	private static SDGConfig config(final String className) {
+		final JavaMethodSignature mainMethod = JavaMethodSignature.mainMethodOfClass(className);
+		final SDGConfig config = new SDGConfig(JoanaPath.JOANA_MANY_SMALL_PROGRAMS_CLASSPATH, mainMethod.toBCString(),
+				Stubs.JRE_14);
+		config.setComputeInterferences(false);
+		config.setExceptionAnalysis(ExceptionAnalysis.INTRAPROC);
+		config.setFieldPropagation(FieldPropagation.OBJ_GRAPH);
+		config.setPointsToPrecision(PointsToPrecision.INSTANCE_BASED);
+
+		return config;
+	}
+
+	private static String buildAndSerialize(final SDGConfig config) {
+		try {
+			final SDGProgram prog = SDGProgram.createSDGProgram(config);
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			SDGSerializer.toPDGFormat(prog.getSDG(), out);
+
+			return out.toString();
+		} catch (ClassHierarchyException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} catch (UnsoundGraphException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} catch (CancelException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+
+		return null;
+	}
+
+	private static void assertSameSDG(final SDGConfig config) {
+		assertSameSDG(config, THREADS);
+	}
+
+	private static void assertSameSDG(final SDGConfig config, final int threads) {
+		config.setParallelism(1);
+		final String sequential = buildAndSerialize(config);
+		config.setParallelism(threads);
+		final String parallel = buildAndSerialize(config);
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void testPraktomatLeak() {
+		assertSameSDG(config("sequential.PraktomatLeak"));
+	}
+
+	@Test
+	public void testPreciseDynamicDispatch() {
+		final SDGConfig config = config("sequential.PraktomatLeak");
+		config.setDynamicDispatchHandling(DynamicDispatchHandling.PRECISE);
+		assertSameSDG(config);
+	}
+
+	@Test
+	public void testExceptionOptimize() {
+		final SDGConfig config = config("exc.ExceptionOptimize");
+		config.setExceptionAnalysis(ExceptionAnalysis.INTERPROC);
+		assertSameSDG(config);
+	}
+
+	@Test
+	public void testHeapDataflow() {
+		// the heap dataflow of the object graph model is solved per pdg, with more pdgs than tasks in flight
+		for (final FieldPropagation fp : new FieldPropagation[] {
+				FieldPropagation.OBJ_GRAPH, FieldPropagation.OBJ_GRAPH_NO_MERGE_AT_ALL }) {
+			for (final int threads : new int[] { 2, THREADS }) {
+				final SDGConfig config = config("tests.PasswordFile");
+				config.setFieldPropagation(fp);
+				assertSameSDG(config, threads);
+			}
+		}
+	}
+}
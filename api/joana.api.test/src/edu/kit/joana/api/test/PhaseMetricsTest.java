@@ -0,0 +1,310 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.kit.joana.util.PhaseMetrics;
+
+/**
+ * Checks that {@link PhaseMetrics#toJSON()} writes well-formed JSON that contains the recorded phases and
+ * counters, and that unbalanced phases are detected.
+ */
+public class PhaseMetricsTest {
+
+	/**
+	 * A parser for the subset of JSON written by {@link PhaseMetrics}: objects, arrays, strings and integers.
+	 * Objects become maps, arrays lists and integers longs.
+	 */
+	private static final class Parser {
+		private final String str;
+		private int pos = 0;
+
+		private Parser(final String str) {
+			this.str = str;
+		}
+
+		static Object parse(final String str) {
+			final Parser p = new Parser(str);
+			final Object value = p.value();
+			p.skipSpace();
+			assertEquals("trailing characters", str.length(), p.pos);
+
+			return value;
+		}
+
+		private void skipSpace() {
+			while (pos < str.length() && Character.isWhitespace(str.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private char peek() {
+			skipSpace();
+			assertTrue("unexpected end of input", pos < str.length());
+
+			return str.charAt(pos);
+		}
+
+		private void expect(final char c) {
+			assertEquals("at " + pos, c, peek());
+			pos++;
+		}
+
+		private Object value() {
+			final char c = peek();
+			if (c == '{') {
+				final Map<String, Object> obj = new LinkedHashMap<String, Object>();
+				expect('{');
+				if (peek() != '}') {
+					do {
+						final String key = string();
+						expect(':');
+						assertTrue("duplicate key " + key, !obj.containsKey(key));
+						obj.put(key, value());
+					} while (comma());
+				}
+				expect('}');
+
+				return obj;
+			} else if (c == '[') {
+				final List<Object> arr = new ArrayList<Object>();
+				expect('[');
+				if (peek() != ']') {
+					do {
+						arr.add(value());
+					} while (comma());
+				}
+				expect(']');
+
+				return arr;
+			} else if (c == '"') {
+				return string();
+			} else {
+				final int start = pos;
+				if (str.charAt(pos) == '-') {
+					pos++;
+				}
+				while (pos < str.length() && Character.isDigit(str.charAt(pos))) {
+					pos++;
+				}
+				assertTrue("number expected at " + start, pos > start);
+
+				return Long.parseLong(str.substring(start, pos));
+			}
+		}
+
+		private boolean comma() {
+			if (peek() == ',') {
+				pos++;
+				return true;
+			}
+
+			return false;
+		}
+
+		private String string() {
+			expect('"');
+			final StringBuilder sb = new StringBuilder();
+			while (true) {
+				assertTrue("unterminated string", pos < str.length());
+				final char c = str.charAt(pos++);
+				if (c == '"') {
+					return sb.toString();
+				} else if (c == '\\') {
+					final char e = str.charAt(pos++);
+					switch (e) {
+					case '"':
+					case '\\':
+					case '/':
+						sb.append(e);
+						break;
+					case 'n':
+						sb.append('\n');
+						break;
+					case 't':
+						sb.append('\t');
+						break;
+					case 'u':
+						sb.append((char) Integer.parseInt(str.substring(pos, pos + 4), 16));
+						pos += 4;
+						break;
+					default:
+						fail("invalid escape \\" + e);
+					}
+				} else {
+					assertTrue("unescaped control character", c >= 0x20);
+					sb.append(c);
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> obj(final Object o) {
+		assertTrue(o instanceof Map);
+		return (Map<String, Object>) o;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> phases(final Map<String, Object> phase) {
+		final Object o = phase.get("phases");
+		assertTrue(o instanceof List);
+		return (List<Object>) o;
+	}
+
+	private static void checkKeys(final Map<String, Object> phase) {
+		final String[] keys = { "name", "wallNanos", "cpuNanos", "allocatedBytes", "counters", "phases" };
+		assertEquals(keys.length, phase.size());
+		int i = 0;
+		for (final String key : phase.keySet()) {
+			assertEquals(keys[i++], key);
+		}
+		for (final Object child : phases(phase)) {
+			checkKeys(obj(child));
+		}
+	}
+
+	private static PhaseMetrics record() {
+		final PhaseMetrics metrics = new PhaseMetrics("build");
+		metrics.begin("callgraph");
+		metrics.count("nodes", 42);
+		metrics.end("callgraph");
+		metrics.begin("heap");
+		metrics.begin("objgraph");
+		metrics.add("edges", 3);
+		metrics.add("edges", 4);
+		metrics.end();
+		metrics.begin("empty");
+		metrics.end();
+		metrics.count("nodes", 7);
+		metrics.end("heap");
+		metrics.begin("a \"quoted\" \\ name\twith\ncontrol \u0001 chars");
+		metrics.end();
+		metrics.count("pdgs", -5);
+
+		return metrics;
+	}
+
+	@Test
+	public void testFinishedPhases() {
+		final PhaseMetrics metrics = record();
+		metrics.endAll();
+
+		final Map<String, Object> root = obj(Parser.parse(metrics.toJSON()));
+		checkKeys(root);
+		assertEquals("build", root.get("name"));
+		assertTrue((Long) root.get("wallNanos") >= 0);
+		assertEquals(-5L, obj(root.get("counters")).get("pdgs"));
+
+		final List<Object> children = phases(root);
+		assertEquals(3, children.size());
+
+		final Map<String, Object> callgraph = obj(children.get(0));
+		assertEquals("callgraph", callgraph.get("name"));
+		assertEquals(42L, obj(callgraph.get("counters")).get("nodes"));
+		assertTrue(phases(callgraph).isEmpty());
+
+		final Map<String, Object> heap = obj(children.get(1));
+		assertEquals("heap", heap.get("name"));
+		assertEquals(7L, obj(heap.get("counters")).get("nodes"));
+		final List<Object> heapChildren = phases(heap);
+		assertEquals(2, heapChildren.size());
+		assertEquals("objgraph", obj(heapChildren.get(0)).get("name"));
+		assertEquals(7L, obj(obj(heapChildren.get(0)).get("counters")).get("edges"));
+		assertEquals("empty", obj(heapChildren.get(1)).get("name"));
+		assertTrue(obj(obj(heapChildren.get(1)).get("counters")).isEmpty());
+
+		assertEquals("a \"quoted\" \\ name\twith\ncontrol \u0001 chars", obj(children.get(2)).get("name"));
+
+		// the json matches the recorded phases
+		final PhaseMetrics.Phase heapPhase = metrics.getRoot().getChild("heap");
+		assertEquals(heapPhase.getWallNanos(), heap.get("wallNanos"));
+		assertEquals(heapPhase.getCpuNanos(), heap.get("cpuNanos"));
+		assertEquals(heapPhase.getAllocatedBytes(), heap.get("allocatedBytes"));
+		assertTrue(heapPhase.getWallNanos() >= heapPhase.getChild("objgraph").getWallNanos());
+	}
+
+	@Test
+	public void testRunningPhases() {
+		final PhaseMetrics metrics = new PhaseMetrics("build");
+		metrics.begin("sdg");
+		metrics.begin("summary");
+
+		final Map<String, Object> root = obj(Parser.parse(metrics.toJSON()));
+		checkKeys(root);
+		assertEquals(-1L, root.get("wallNanos"));
+		final Map<String, Object> sdg = obj(phases(root).get(0));
+		assertEquals(-1L, sdg.get("wallNanos"));
+		assertEquals(-1L, obj(phases(sdg).get(0)).get("wallNanos"));
+
+		metrics.end("summary");
+		final Map<String, Object> after = obj(Parser.parse(metrics.toJSON()));
+		assertEquals(-1L, obj(phases(after).get(0)).get("wallNanos"));
+		assertTrue((Long) obj(phases(obj(phases(after).get(0))).get(0)).get("wallNanos") >= 0);
+	}
+
+	@Test
+	public void testWriteJSON() throws IOException {
+		final PhaseMetrics metrics = record();
+		metrics.endAll();
+
+		final StringWriter sw = new StringWriter();
+		metrics.writeJSON(sw);
+		assertEquals(metrics.toJSON(), sw.toString());
+
+		final File file = File.createTempFile("metrics", ".json");
+		try {
+			metrics.writeJSON(file.getAbsolutePath());
+			final String written = new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+			assertEquals(metrics.toJSON(), written);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testUnbalancedPhases() {
+		final PhaseMetrics metrics = new PhaseMetrics("build");
+		metrics.begin("heap");
+		try {
+			metrics.end("callgraph");
+			fail("ended a phase that is not running");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		metrics.end("heap");
+		metrics.endAll();
+		try {
+			metrics.begin("late");
+			fail("began a phase after the root phase has ended");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			metrics.end();
+			fail("ended a phase after the root phase has ended");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.ConcPrograms;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.CFGBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.CFGForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.CFG;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.VirtualNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.ICFGBuilder;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadRegion;
+import edu.kit.joana.ifc.sdg.irlsod.ICDomOracle;
+import edu.kit.joana.ifc.sdg.irlsod.ProbInfComputer;
+import edu.kit.joana.ifc.sdg.irlsod.ThreadModularCDomOracle;
+import edu.kit.joana.ifc.sdg.mhpoptimization.CSDGPreprocessor;
+
+/**
+ * Checks that the {@link ProbInfComputer} finds the probabilistic influencers of its definition, the union of the cfg
+ * chops from cdom(n, m) to n for all m parallel to n, whatever the size of its cache and batches and the number of
+ * threads computing a batch.
+ */
+public class ProbInfComputerTest {
+
+	private static final Map<String, String> testData = ConcPrograms.select(
+			"DataConflictRW", "ConditionalSpawn", "GiffhornFigure51", "Mantel00Page10", "SpawnWithinLoop");
+
+	@BeforeClass
+	public static void setUp() {
+		ConcPrograms.build(testData);
+	}
+
+	/**
+	 * Asks the thread-modular oracle for every pair of nodes, so the batches do not compute cdom once per pair of
+	 * threads.
+	 */
+	private static ICDomOracle nodeWise(final ICDomOracle oracle) {
+		return new ICDomOracle() {
+			@Override
+			public VirtualNode cdom(final SDGNode n1, final int threadN1, final SDGNode n2, final int threadN2) {
+				return oracle.cdom(n1, threadN1, n2, threadN2);
+			}
+		};
+	}
+
+	private static List<SDGNode> nodes(final SDG sdg) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+
+		return nodes;
+	}
+
+	private static Set<Integer> ids(final Collection<? extends SDGNode> nodes) {
+		final Set<Integer> ids = new TreeSet<Integer>();
+		for (final SDGNode n : nodes) {
+			ids.add(n.getId());
+		}
+
+		return ids;
+	}
+
+	/**
+	 * The influencers of each node by their definition, with one chop per pair of nodes and no cache.
+	 */
+	private static Map<Integer, Set<Integer>> expected(final String sdgFile) throws IOException {
+		final SDG sdg = SDG.readFrom(sdgFile);
+		final ICDomOracle oracle = new ThreadModularCDomOracle(sdg);
+		final CFG icfg = ICFGBuilder.extractICFG(sdg);
+		CSDGPreprocessor.preprocessSDG(sdg);
+		final PreciseMHPAnalysis mhp = PreciseMHPAnalysis.analyze(sdg);
+		final CFGForward forw = new CFGForward(icfg);
+		final CFGBackward backw = new CFGBackward(icfg);
+
+		final Map<Integer, Set<Integer>> ret = new HashMap<Integer, Set<Integer>>();
+		for (final SDGNode n : nodes(sdg)) {
+			final Set<Integer> inf = new TreeSet<Integer>();
+			if (icfg.containsVertex(n)) {
+				final Collection<SDGNode> bwSlice = backw.slice(n);
+				for (final int threadN : n.getThreadNumbers()) {
+					final ThreadRegion trN = mhp.getThreadRegion(n, threadN);
+					for (final ThreadRegion trM : mhp.getThreadRegions()) {
+						if (mhp.isParallel(trN, trM)) {
+							for (final SDGNode m : trM.getNodes()) {
+								final SDGNode c = oracle.cdom(n, threadN, m, trM.getThread()).getNode();
+								inf.addAll(ids(forw.subgraphSlice(Collections.singleton(c), bwSlice)));
+							}
+						}
+					}
+				}
+			}
+			ret.put(n.getId(), inf);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Asks for the influencers of all nodes in random order, twice.
+	 */
+	private static void check(final String sdgFile, final Map<Integer, Set<Integer>> expected, final int cacheSize,
+			final int parallelism, final boolean threadModular) throws IOException {
+		final SDG sdg = SDG.readFrom(sdgFile);
+		final ICDomOracle tmdo = new ThreadModularCDomOracle(sdg);
+		final ProbInfComputer probInf = new ProbInfComputer(sdg, (threadModular ? tmdo : nodeWise(tmdo)), cacheSize,
+				parallelism);
+		final String msg = sdgFile + ", cache size " + cacheSize + ", parallelism " + parallelism
+				+ ", thread-modular " + threadModular;
+
+		final List<SDGNode> nodes = nodes(sdg);
+		final Random rnd = new Random(sdgFile.hashCode());
+		for (int round = 0; round < 2; round++) {
+			Collections.shuffle(nodes, rnd);
+			for (final SDGNode n : nodes) {
+				final Collection<? extends SDGNode> inf = probInf.getProbabilisticInfluencers(n);
+				assertEquals(msg + ", node " + n, expected.get(n.getId()), ids(inf));
+				assertEquals(msg + ", node " + n, expected.get(n.getId()).size(), inf.size());
+			}
+		}
+	}
+
+	@Test
+	public void testSameInfluencers() throws IOException {
+		int nonEmpty = 0;
+		for (final String sdgFile : testData.values()) {
+			final Map<Integer, Set<Integer>> expected = expected(sdgFile);
+			for (final Set<Integer> inf : expected.values()) {
+				nonEmpty += (inf.isEmpty() ? 0 : 1);
+			}
+
+			// an unbounded cache, whose batches are whole thread regions
+			check(sdgFile, expected, Integer.MAX_VALUE, 1, true);
+			check(sdgFile, expected, Integer.MAX_VALUE, 1, false);
+			// small batches, which evict each other from the cache
+			check(sdgFile, expected, 1, 1, true);
+			check(sdgFile, expected, 7, 1, false);
+			check(sdgFile, expected, 7, 4, true);
+			check(sdgFile, expected, Integer.MAX_VALUE, 4, false);
+		}
+		assertTrue(nonEmpty > 0);
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.ConcPrograms;
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.krinke.OptimizedKrinke;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.krinke.ReachabilityCache;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.Context;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.DynamicContextManager.DynamicContext;
+
+/**
+ * Checks that the {@link ReachabilityCache} returns the results a map of the added results with the same eviction
+ * returns, and that Krinke's slicer computes the same slices with a tiny cache as with the default one.
+ */
+@SuppressWarnings("deprecation")
+public class ReachabilityCacheTest {
+
+	private static final int SEEDS = 20;
+	private static final int OPERATIONS = 5000;
+
+	private static final Map<String, String> testData = ConcPrograms.select(
+			"ThreadHierarchy", "SpawnWithinLoop", "GiffhornFigure51");
+
+	/**
+	 * The expected contents of a cache: the results in eviction order, and the interned contexts, which are all
+	 * dropped once there are too many of them. Adding a result again counts as adding it.
+	 */
+	private static final class Model {
+		private final int capacity;
+		private final Map<List<Context>, Boolean> results;
+		private final Set<Context> interned = new HashSet<Context>();
+		private long hits = 0;
+		private long misses = 0;
+		private long evictions = 0;
+
+		private Model(final int capacity, final boolean lru) {
+			this.capacity = capacity;
+			this.results = new LinkedHashMap<List<Context>, Boolean>(16, 0.75f, lru);
+		}
+
+		private void add(final Context from, final Context to, final boolean result) {
+			if (interned.size() + 2 > 2 * capacity) {
+				interned.clear();
+				results.clear();
+			}
+			interned.add(from.copy());
+			interned.add(to.copy());
+
+			final List<Context> key = Arrays.asList(from.copy(), to.copy());
+			if (results.remove(key) == null && results.size() == capacity) {
+				results.remove(results.keySet().iterator().next());
+				evictions++;
+			}
+			results.put(key, result);
+		}
+
+		private int lookup(final Context from, final Context to) {
+			final Boolean result = results.get(Arrays.asList(from, to));
+			if (result == null) {
+				misses++;
+				return ReachabilityCache.UNKNOWN;
+			}
+			hits++;
+
+			return (result ? ReachabilityCache.REACHING : ReachabilityCache.NOT_REACHING);
+		}
+	}
+
+	/**
+	 * Random contexts of the nodes of a random sdg, with call stacks of its call nodes.
+	 */
+	private static List<DynamicContext> contexts(final SDG sdg, final Random rnd, final int number) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+		final List<SDGNode> calls = new ArrayList<SDGNode>();
+		for (final SDGNode n : nodes) {
+			if (n.getKind() == SDGNode.Kind.CALL) {
+				calls.add(n);
+			}
+		}
+
+		final List<DynamicContext> contexts = new ArrayList<DynamicContext>();
+		for (int i = 0; i < number; i++) {
+			final LinkedList<SDGNode> stack = new LinkedList<SDGNode>();
+			final int depth = (calls.isEmpty() ? 0 : rnd.nextInt(4));
+			for (int d = 0; d < depth; d++) {
+				stack.add(calls.get(rnd.nextInt(calls.size())));
+			}
+			contexts.add(new DynamicContext(stack, nodes.get(rnd.nextInt(nodes.size()))));
+		}
+
+		return contexts;
+	}
+
+	private static void checkModel(final long seed, final int capacity, final boolean lru) {
+		final Random rnd = new Random(seed);
+		final List<DynamicContext> contexts = contexts(RandomSDG.create(seed, 4, 6), rnd, 3 * capacity + 5);
+		final ReachabilityCache cache = new ReachabilityCache(capacity, lru);
+		final Model model = new Model(capacity, lru);
+		final String msg = "seed " + seed + ", capacity " + capacity + ", lru " + lru;
+
+		for (int i = 0; i < OPERATIONS; i++) {
+			// equal copies are interned as the same context
+			final DynamicContext from = contexts.get(rnd.nextInt(contexts.size())).copy();
+			final DynamicContext to = contexts.get(rnd.nextInt(contexts.size())).copy();
+
+			if (rnd.nextInt(3) == 0) {
+				final boolean result = rnd.nextBoolean();
+				if (rnd.nextBoolean()) {
+					cache.add(from, to, result);
+				} else {
+					cache.add(cache.key(from, to), result);
+				}
+				model.add(from, to, result);
+
+				// the cache interned copies, so changing the contexts afterwards does not change it
+				from.push(to.getNode());
+				to.setNode(from.getNode());
+			} else {
+				assertEquals(msg + ", operation " + i, model.lookup(from, to), cache.lookup(from, to));
+			}
+			assertEquals(msg, model.results.size(), cache.size());
+		}
+
+		assertEquals(msg, model.hits, cache.getHits());
+		assertEquals(msg, model.misses, cache.getMisses());
+		assertEquals(msg, model.evictions, cache.getEvictions());
+	}
+
+	@Test
+	public void testSameResultsAsModel() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			for (final int capacity : new int[] { 1, 7, 64 }) {
+				checkModel(seed, capacity, false);
+				checkModel(seed, capacity, true);
+			}
+		}
+	}
+
+	@Test
+	public void testKey() {
+		final Random rnd = new Random(42);
+		final List<DynamicContext> contexts = contexts(RandomSDG.create(42, 4, 6), rnd, 200);
+		final ReachabilityCache cache = new ReachabilityCache(1000, false);
+		final Map<Long, List<Context>> keys = new LinkedHashMap<Long, List<Context>>();
+
+		for (final DynamicContext from : contexts) {
+			for (int i = 0; i < 5; i++) {
+				final DynamicContext to = contexts.get(rnd.nextInt(contexts.size()));
+				final long key = cache.key(from, to);
+				assertEquals(key, cache.key(from.copy(), to.copy()));
+
+				final List<Context> pair = Arrays.<Context>asList(from, to);
+				final List<Context> old = keys.put(key, pair);
+				assertTrue(old == null || old.equals(pair));
+
+				cache.add(key, from.getNode().getId() < to.getNode().getId());
+				assertEquals(from.getNode().getId() < to.getNode().getId(), cache.isReaching(from, to));
+			}
+		}
+		assertFalse(keys.isEmpty());
+	}
+
+	private static List<SDGNode> nodes(final SDG sdg) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+
+		return nodes;
+	}
+
+	@Test
+	public void testSameKrinkeSlices() throws IOException {
+		ConcPrograms.build(testData);
+		for (final String sdgFile : testData.values()) {
+			final SDG sdg = SDG.readFrom(sdgFile);
+			final OptimizedKrinke unbounded = new OptimizedKrinke(sdg);
+			final OptimizedKrinke tiny = new OptimizedKrinke(sdg, new ReachabilityCache(1, false));
+			final OptimizedKrinke lru = new OptimizedKrinke(sdg, new ReachabilityCache(8, true));
+
+			for (final SDGNode c : nodes(sdg)) {
+				final Collection<SDGNode> expected = new HashSet<SDGNode>(unbounded.slice(c));
+				assertEquals(sdgFile + ": criterion " + c, expected, new HashSet<SDGNode>(tiny.slice(c)));
+				assertEquals(sdgFile + ": criterion " + c, expected, new HashSet<SDGNode>(lru.slice(c)));
+			}
+			assertTrue(sdgFile, unbounded.getReachabilityCache().getHits() > 0);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+
+/**
+ * Checks that the streamed writer and the parallel parser produce the same graphs as the sequential ones: each
+ * graph read back from a file is written again and compared byte by byte.
+ */
+public class SDGParserTest {
+
+	private static final int SEEDS = 10;
+	private static final int[] THREADS = { 1, 2, 4, 7 };
+
+	/**
+	 * A random graph in the .pdg format. Some nodes get a source position, the others inherit the position of their
+	 * predecessor when the file is parsed.
+	 */
+	private static String create(final long seed) {
+		final SDG sdg = RandomSDG.create(seed, 8, 40);
+		for (final SDGNode n : sdg.vertexSet()) {
+			n.setLabel("n" + n.getId());
+		}
+
+		final Random rnd = new Random(seed);
+		final StringBuilder sb = new StringBuilder();
+		for (final String line : serialize(sdg).split("\n")) {
+			sb.append(line).append('\n');
+			if (line.startsWith("P ") && rnd.nextInt(3) == 0) {
+				final int row = 1 + rnd.nextInt(100);
+				sb.append("S \"File" + rnd.nextInt(3) + ".java\":" + row + ",0-" + (row + rnd.nextInt(3)) + ","
+						+ rnd.nextInt(80) + ";\n");
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private static String serialize(final SDG sdg) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SDGSerializer.toPDGFormat(sdg, out);
+
+		return out.toString();
+	}
+
+	private static File write(final String text) throws IOException {
+		final File file = File.createTempFile("joana-random", ".pdg");
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(text.getBytes());
+		} finally {
+			out.close();
+		}
+
+		return file;
+	}
+
+	@Test
+	public void testParallelParser() throws IOException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final File file = write(create(seed));
+			try {
+				final String expected = serialize(SDG.readFrom(file.getAbsolutePath()));
+				assertEquals("seed " + seed, expected,
+						serialize(SDG.readFromAndUseLessHeap(file.getAbsolutePath())));
+				for (final int threads : THREADS) {
+					assertEquals("seed " + seed + ", " + threads + " threads", expected,
+							serialize(SDG.readFromInParallel(file.getAbsolutePath(), null, threads)));
+				}
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void testStreamedWriter() throws IOException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final File file = write(create(seed));
+			try {
+				final SDG sdg = SDG.readFrom(file.getAbsolutePath());
+				final ByteArrayOutputStream out = new ByteArrayOutputStream();
+				SDGSerializer.toPDGFormatStreamed(sdg, out);
+				assertEquals("seed " + seed, serialize(sdg), out.toString());
+			} finally {
+				file.delete();
+			}
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.IFCAnalysis;
+import edu.kit.joana.api.test.util.ApiTestException;
+import edu.kit.joana.ifc.sdg.core.SecurityNode;
+import edu.kit.joana.ifc.sdg.core.violations.IViolation;
+import edu.kit.joana.ifc.sdg.graph.slicer.SliceCache;
+
+/**
+ * Checks that repeated IFC checks with a slice cache find the same violations and reuse the slices.
+ */
+public class SliceCacheTest {
+
+	@Test
+	public void testRepeatedCheck() {
+		try {
+			final IFCAnalysis ana = FullIFCSequentialTest.buildAndAnnotate("sequential.PraktomatLeak",
+					"sequential.PraktomatLeak$Submission.matrNr",
+					"sequential.PraktomatLeak$Review.failures");
+			final int expected = ana.doIFC().size();
+			final SliceCache cache = new SliceCache();
+			ana.setSliceCache(cache);
+
+			Collection<? extends IViolation<SecurityNode>> illegal = ana.doIFC();
+			assertEquals(expected, illegal.size());
+			final long misses = cache.getMisses();
+			assertEquals(0, cache.getHits());
+			assertTrue(misses > 0);
+
+			illegal = ana.doIFC();
+			assertEquals(expected, illegal.size());
+			assertEquals(misses, cache.getHits());
+			assertEquals(misses, cache.getMisses());
+		} catch (ApiTestException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testEviction() {
+		try {
+			final IFCAnalysis ana = FullIFCSequentialTest.buildAndAnnotate("sequential.PraktomatLeak",
+					"sequential.PraktomatLeak$Submission.matrNr",
+					"sequential.PraktomatLeak$Review.failures");
+			final int expected = ana.doIFC().size();
+			// room for no slice at all
+			final SliceCache cache = new SliceCache(0);
+			ana.setSliceCache(cache);
+
+			assertEquals(expected, ana.doIFC().size());
+			assertEquals(expected, ana.doIFC().size());
+			assertEquals(0, cache.getHits());
+			assertEquals(0, cache.size());
+		} catch (ApiTestException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.kit.joana.api.test.util.ConcPrograms;
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.NandaFactory;
+
+/**
+ * Checks that the slicers measured by the slicer benchmark compute the same slices, so their throughput can be
+ * compared: on random sequential SDGs all of them compute the two-phase slice, and on the concurrent test programs
+ * the sequential and the timing-sensitive slices are contained in the iterated two-phase slice.
+ */
+public class SlicerEquivalenceTest {
+
+	private static final int SEEDS = 10;
+
+	private static final Map<String, String> testData = ConcPrograms.select(
+			"ThreadHierarchy", "SpawnWithinLoop", "GiffhornFigure51", "Mantel00Page10");
+
+	private static List<SDGNode> nodes(final SDG sdg) {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, SDGNode.getIDComparator());
+
+		return nodes;
+	}
+
+	private static List<Slicer> sequentialSlicers(final SDG sdg, final boolean backward) {
+		final List<Slicer> slicers = new ArrayList<Slicer>();
+		if (backward) {
+			slicers.add(new SummarySlicerBackward(sdg));
+			slicers.add(new ContextSlicerBackward(sdg, true));
+			slicers.add(new I2PBackward(sdg));
+		} else {
+			slicers.add(new SummarySlicerForward(sdg));
+			slicers.add(new ContextSlicerForward(sdg, true));
+			slicers.add(new I2PForward(sdg));
+		}
+
+		return slicers;
+	}
+
+	private static void checkSequential(final long seed, final boolean backward) {
+		final SDG sdg = RandomSDG.create(seed, 6, 8);
+		final List<Slicer> slicers = sequentialSlicers(sdg, backward);
+		for (final SDGNode c : nodes(sdg)) {
+			final Set<SDGNode> expected = RandomSDG.slice(sdg, Collections.singleton(c), backward);
+			for (final Slicer s : slicers) {
+				assertEquals("seed " + seed + ", " + s.getClass().getSimpleName() + ", criterion " + c, expected,
+						new HashSet<SDGNode>(s.slice(c)));
+			}
+		}
+	}
+
+	@Test
+	public void testSequentialSlicers() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			checkSequential(seed, true);
+			checkSequential(seed, false);
+		}
+	}
+
+	private static void checkConcurrent(final String sdgFile, final boolean backward) throws IOException {
+		final SDG sdg = SDG.readFrom(sdgFile);
+		final Slicer summary = (backward ? new SummarySlicerBackward(sdg) : new SummarySlicerForward(sdg));
+		final Slicer i2p = (backward ? new I2PBackward(sdg) : new I2PForward(sdg));
+		final Slicer nanda = (backward ? NandaFactory.createNandaBackward(sdg) : NandaFactory.createNandaForward(sdg));
+
+		for (final SDGNode c : nodes(sdg)) {
+			final Collection<SDGNode> outer = new HashSet<SDGNode>(i2p.slice(c));
+			assertTrue(sdgFile + ": criterion " + c, outer.contains(c));
+			assertTrue(sdgFile + ": summary slice of " + c, outer.containsAll(summary.slice(c)));
+			assertTrue(sdgFile + ": nanda slice of " + c, outer.containsAll(nanda.slice(c)));
+		}
+	}
+
+	@Test
+	public void testConcurrentSlicers() throws IOException {
+		ConcPrograms.build(testData);
+		for (final String sdgFile : testData.values()) {
+			checkConcurrent(sdgFile, true);
+			checkConcurrent(sdgFile, false);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.kit.joana.ifc.sdg.lattice.IIntStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.InvalidLatticeException;
+import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
+import edu.kit.joana.ifc.sdg.lattice.impl.EditableLatticeSimple;
+import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeBitset;
+import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeTable;
+
+/**
+ * Checks that {@link StaticLatticeTable} computes the same bounds and order as {@link StaticLatticeBitset} on
+ * powerset lattices with and without precomputed tables, and that it rejects graphs which are no lattices.
+ */
+public class StaticLatticeTableTest {
+
+	/** the number of random pairs whose bounds are compared with those of the {@link StaticLatticeBitset} */
+	private static final int SAMPLES = 2000;
+
+	/**
+	 * The powerset of a set of the given size, ordered by inclusion. The elements are the subsets as bit masks.
+	 */
+	private static EditableLatticeSimple<String> powerset(final int bits) {
+		final EditableLatticeSimple<String> lattice = new EditableLatticeSimple<String>();
+		for (int s = 0; s < (1 << bits); s++) {
+			lattice.addElement(name(s));
+		}
+		for (int s = 0; s < (1 << bits); s++) {
+			for (int b = 0; b < bits; b++) {
+				if ((s & (1 << b)) == 0) {
+					lattice.setImmediatelyGreater(name(s), name(s | (1 << b)));
+				}
+			}
+		}
+
+		return lattice;
+	}
+
+	private static String name(final int set) {
+		return "s" + set;
+	}
+
+	private static int set(final String name) {
+		return Integer.parseInt(name.substring(1));
+	}
+
+	/**
+	 * @param fromLattice  also check a table built from the lub operation of a {@link StaticLatticeBitset}, which
+	 *                     takes a quadratic number of its slow operations
+	 */
+	private static void check(final int bits, final boolean fromLattice) {
+		final EditableLatticeSimple<String> ops = powerset(bits);
+		final IStaticLattice<String> expected = new StaticLatticeBitset<String>(ops.getElements(), ops);
+
+		check(bits, expected, new StaticLatticeTable<String>(ops.getElements(), ops));
+		if (fromLattice) {
+			check(bits, expected, new StaticLatticeTable<String>(expected));
+		}
+	}
+
+	/**
+	 * Compares the bounds and the order of all pairs of elements with the union and intersection of their sets, and
+	 * those of some pairs with the bounds computed by the expected lattice.
+	 */
+	private static void check(final int bits, final IStaticLattice<String> expected, final IIntStaticLattice<String> table) {
+		final int n = 1 << bits;
+		assertEquals(n, table.size());
+		assertEquals(expected.getTop(), table.getTop());
+		assertEquals(expected.getBottom(), table.getBottom());
+		assertEquals(name(n - 1), table.getTop());
+		assertEquals(name(0), table.getBottom());
+		assertEquals(table.getTop(), table.elementAt(table.getTopIndex()));
+		assertEquals(table.getBottom(), table.elementAt(table.getBottomIndex()));
+
+		final List<String> elements = new ArrayList<String>(table.getElements());
+		assertEquals(n, elements.size());
+		for (int i = 0; i < n; i++) {
+			assertEquals(i, table.indexOf(table.elementAt(i)));
+		}
+
+		for (final String a : elements) {
+			final int ia = table.indexOf(a);
+			for (final String b : elements) {
+				final int ib = table.indexOf(b);
+				final String msg = bits + " bits: " + a + ", " + b;
+
+				final String lub = name(set(a) | set(b));
+				final String glb = name(set(a) & set(b));
+				assertEquals(msg, lub, table.leastUpperBound(a, b));
+				assertEquals(msg, glb, table.greatestLowerBound(a, b));
+				assertEquals(msg, lub, table.elementAt(table.leastUpperBound(ia, ib)));
+				assertEquals(msg, glb, table.elementAt(table.greatestLowerBound(ia, ib)));
+				assertEquals(msg, lub.equals(b), table.isLeq(ia, ib));
+			}
+		}
+
+		final Random rnd = new Random(bits);
+		for (int i = 0; i < SAMPLES; i++) {
+			final String a = elements.get(rnd.nextInt(n));
+			final String b = elements.get(rnd.nextInt(n));
+			final String msg = bits + " bits: " + a + ", " + b;
+			assertEquals(msg, expected.leastUpperBound(a, b), table.leastUpperBound(a, b));
+			assertEquals(msg, expected.greatestLowerBound(a, b), table.greatestLowerBound(a, b));
+		}
+	}
+
+	@Test
+	public void testTables() {
+		check(3, true);
+		check(5, true);
+	}
+
+	@Test
+	public void testBitMatrices() {
+		assertTrue(1 << 9 > StaticLatticeTable.MAX_TABLE_SIZE);
+		check(9, false);
+	}
+
+	@Test
+	public void testOf() {
+		final EditableLatticeSimple<String> ops = powerset(3);
+		final StaticLatticeTable<String> table = new StaticLatticeTable<String>(ops.getElements(), ops);
+		assertTrue(StaticLatticeTable.of(table) == table);
+		check(3, new StaticLatticeBitset<String>(ops.getElements(), ops), StaticLatticeTable.of(ops));
+		try {
+			table.indexOf("unknown");
+			fail("found an element which is not in the lattice");
+		} catch (NotInLatticeException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCycle() {
+		final EditableLatticeSimple<String> lattice = new EditableLatticeSimple<String>();
+		for (final String e : new String[] { "bot", "a", "b", "top" }) {
+			lattice.addElement(e);
+		}
+		lattice.setImmediatelyGreater("bot", "a");
+		lattice.setImmediatelyGreater("a", "b");
+		lattice.setImmediatelyGreater("b", "a");
+		lattice.setImmediatelyGreater("b", "top");
+
+		try {
+			new StaticLatticeTable<String>(lattice.getElements(), lattice);
+			fail("accepted a cycle");
+		} catch (InvalidLatticeException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testNoUniqueBound() {
+		// a and b have the two incomparable upper bounds c and d, so neither is their least upper bound
+		final EditableLatticeSimple<String> lattice = new EditableLatticeSimple<String>();
+		for (final String e : new String[] { "bot", "a", "b", "c", "d", "top" }) {
+			lattice.addElement(e);
+		}
+		for (final String x : new String[] { "a", "b" }) {
+			lattice.setImmediatelyGreater("bot", x);
+			lattice.setImmediatelyGreater(x, "c");
+			lattice.setImmediatelyGreater(x, "d");
+		}
+		lattice.setImmediatelyGreater("c", "top");
+		lattice.setImmediatelyGreater("d", "top");
+
+		try {
+			new StaticLatticeTable<String>(lattice.getElements(), lattice);
+			fail("accepted a graph without a least upper bound of a and b");
+		} catch (InvalidLatticeException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testNoUniqueTop() {
+		final EditableLatticeSimple<String> lattice = new EditableLatticeSimple<String>();
+		for (final String e : new String[] { "bot", "a", "b" }) {
+			lattice.addElement(e);
+		}
+		lattice.setImmediatelyGreater("bot", "a");
+		lattice.setImmediatelyGreater("bot", "b");
+
+		try {
+			new StaticLatticeTable<String>(lattice.getElements(), lattice);
+			fail("accepted a graph with two maximal elements");
+		} catch (InvalidLatticeException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.ibm.wala.util.CancelException;
+
+import edu.kit.joana.api.test.util.RandomSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+import edu.kit.joana.wala.summary.NullProgressMonitor;
+import edu.kit.joana.wala.summary.SummaryComputation;
+import edu.kit.joana.wala.summary.WorkPackage;
+import edu.kit.joana.wala.summary.WorkPackage.EntryPoint;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Checks that the variants of the summary computation - with several threads and with packed path edges - compute
+ * the summary edges of the sequential computation and that the slices on the resulting graph do not change.
+ */
+public class SummaryComputationTest {
+
+	private static final int SEEDS = 20;
+	private static final int THREADS = 4;
+
+	private static Set<String> summaryEdges(final SDG sdg) {
+		final Set<String> result = new TreeSet<String>();
+		for (final SDGEdge e : sdg.edgeSet()) {
+			if (e.getKind() == SDGEdge.Kind.SUMMARY) {
+				result.add(e.getSource().getId() + "->" + e.getTarget().getId());
+			}
+		}
+
+		return result;
+	}
+
+	private static void removeSummaryEdges(final SDG sdg) {
+		final List<SDGEdge> summary = new ArrayList<SDGEdge>();
+		for (final SDGEdge e : sdg.edgeSet()) {
+			if (e.getKind() == SDGEdge.Kind.SUMMARY) {
+				summary.add(e);
+			}
+		}
+		sdg.removeAllEdges(summary);
+	}
+
+	private static SDG computeSummaryEdges(final long seed, final int threads) throws CancelException {
+		return computeSummaryEdges(seed, 1, threads, false);
+	}
+
+	private static SDG computeSummaryEdges(final long seed, final int idStep, final int threads,
+			final boolean packed) throws CancelException {
+		final SDG sdg = RandomSDG.create(seed, 8, 12, idStep);
+		removeSummaryEdges(sdg);
+		final SDGNode root = sdg.getRoot();
+		final TIntSet formIns = new TIntHashSet();
+		final TIntSet formOuts = new TIntHashSet();
+		for (final SDGEdge e : sdg.outgoingEdgesOf(root)) {
+			if (e.getTarget().getKind() == SDGNode.Kind.FORMAL_IN) {
+				formIns.add(e.getTarget().getId());
+			} else if (e.getTarget().getKind() == SDGNode.Kind.FORMAL_OUT) {
+				formOuts.add(e.getTarget().getId());
+			}
+		}
+		final Set<EntryPoint> entries = new TreeSet<EntryPoint>();
+		entries.add(new EntryPoint(root.getId(), formIns, formOuts));
+		final WorkPackage pack = WorkPackage.create(sdg, entries, sdg.getName());
+		pack.setPackedPathEdges(packed);
+		SummaryComputation.compute(pack, threads, NullProgressMonitor.INSTANCE);
+
+		return sdg;
+	}
+
+	@Test
+	public void testSameSummaryEdges() throws CancelException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Set<String> exact = summaryEdges(RandomSDG.create(seed, 8, 12));
+			final SDG sequential = computeSummaryEdges(seed, 1);
+			final SDG parallel = computeSummaryEdges(seed, THREADS);
+			assertFalse(exact.isEmpty());
+			assertEquals("seed " + seed, exact, summaryEdges(sequential));
+			assertEquals("seed " + seed, exact, summaryEdges(parallel));
+		}
+	}
+
+	@Test
+	public void testSameSlices() throws CancelException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final SDG sequential = computeSummaryEdges(seed, 1);
+			final SDG parallel = computeSummaryEdges(seed, THREADS);
+			final SummarySlicerBackward seqSummary = new SummarySlicerBackward(sequential);
+			final SummarySlicerBackward parSummary = new SummarySlicerBackward(parallel);
+			final ContextSlicerBackward parContext = new ContextSlicerBackward(parallel, true);
+			for (final SDGNode n : sequential.vertexSet()) {
+				// node ids are the same in both graphs
+				final SDGNode m = parallel.getNode(n.getId());
+				final Set<Integer> expected = ids(seqSummary.slice(Collections.singleton(n)));
+				assertEquals("seed " + seed + ", criterion " + n, expected,
+						ids(parSummary.slice(Collections.singleton(m))));
+				assertEquals("seed " + seed + ", criterion " + n, expected,
+						ids(parContext.slice(Collections.singleton(m))));
+			}
+		}
+	}
+
+	private static Set<Integer> ids(final Iterable<SDGNode> nodes) {
+		final Set<Integer> result = new TreeSet<Integer>();
+		for (final SDGNode n : nodes) {
+			result.add(n.getId());
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testPackedPathEdges() throws CancelException {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Set<String> exact = summaryEdges(RandomSDG.create(seed, 8, 12));
+			assertEquals("seed " + seed, exact, summaryEdges(computeSummaryEdges(seed, 1, 1, true)));
+			assertEquals("seed " + seed, exact, summaryEdges(computeSummaryEdges(seed, 1, THREADS, true)));
+		}
+	}
+
+	@Test
+	public void testPackedPathEdgesSparseIds() throws CancelException {
+		// node ids 1, 1001, 2001, ... do not fit into an index by id
+		for (long seed = 0; seed < SEEDS; seed++) {
+			final Set<String> exact = summaryEdges(RandomSDG.create(seed, 8, 12, 1000));
+			assertFalse(exact.isEmpty());
+			assertEquals("seed " + seed, exact, summaryEdges(computeSummaryEdges(seed, 1000, 1, false)));
+			assertEquals("seed " + seed, exact, summaryEdges(computeSummaryEdges(seed, 1000, 1, true)));
+			assertEquals("seed " + seed, exact, summaryEdges(computeSummaryEdges(seed, 1000, THREADS, true)));
+		}
+	}
+}
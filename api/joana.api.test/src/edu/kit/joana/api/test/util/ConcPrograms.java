@@ -0,0 +1,72 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test.util;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The concurrent test programs used by the tests that compare two analyses on real SDGs. Each program is built
+ * with {@link BuildSDG#standardConcSetup(String, String, String)} and written to its .pdg file at most once per
+ * JVM, even if several test classes use it.
+ */
+public final class ConcPrograms {
+
+	private static final String PACKAGE = "joana.api.testdata.conc.";
+
+	/** main class -> sdg file */
+	private static final Map<String, String> SDG_FILES = new LinkedHashMap<String, String>();
+
+	static {
+		SDG_FILES.put(PACKAGE + "ThreadHierarchy", "thread_hierarchy.pdg");
+		SDG_FILES.put(PACKAGE + "RecursiveSpawning", "recursive_spawning.pdg");
+		SDG_FILES.put(PACKAGE + "SpawnWithinLoop", "spawn_within_loop.pdg");
+		SDG_FILES.put(PACKAGE + "GiffhornFigure51", "giffhorn_figure_51.pdg");
+		SDG_FILES.put(PACKAGE + "Mantel00Page10", "mantel00_page10.pdg");
+		SDG_FILES.put(PACKAGE + "DataConflictRW", "data_conflict_rw.pdg");
+		SDG_FILES.put(PACKAGE + "ConditionalSpawn", "conditional_spawn.pdg");
+	}
+
+	/** the main classes whose sdg files have been written */
+	private static final Set<String> built = new HashSet<String>();
+
+	private ConcPrograms() {}
+
+	/**
+	 * Returns the main classes and sdg files of the given programs, in the given order.
+	 * @param programs simple names of the main classes in joana.api.testdata.conc
+	 */
+	public static Map<String, String> select(final String... programs) {
+		final Map<String, String> testData = new LinkedHashMap<String, String>();
+		for (final String p : programs) {
+			final String sdgFile = SDG_FILES.get(PACKAGE + p);
+			if (sdgFile == null) {
+				throw new IllegalArgumentException("unknown test program: " + p);
+			}
+			testData.put(PACKAGE + p, sdgFile);
+		}
+
+		return testData;
+	}
+
+	/**
+	 * Writes the sdg files of the given programs that have not been built yet.
+	 * @param testData main classes and sdg files, as returned by {@link #select(String...)}
+	 */
+	public static synchronized void build(final Map<String, String> testData) {
+		for (final Map.Entry<String, String> td : testData.entrySet()) {
+			if (built.add(td.getKey())) {
+				final BuildSDG b = BuildSDG.standardConcSetup(JoanaPath.JOANA_API_TEST_DATA_CLASSPATH, td.getKey(),
+						td.getValue());
+				b.run();
+			}
+		}
+	}
+}
@@ -0,0 +1,265 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.api.test.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+
+/**
+ * Generates random, well-formed sequential SDGs for tests that compare an algorithm with a reference
+ * implementation. The procedures form a DAG, i.e. there is no recursion, so the slices of the two-phase
+ * slicer of Horwitz, Reps and Binkley ({@link #slice(SDG, Collection, boolean)}) are exactly the
+ * context-sensitive slices. Summary edges are computed precisely.
+ */
+public final class RandomSDG {
+
+	private static final int[] MAIN_THREAD = new int[] { 0 };
+
+	private final Random rnd;
+	private final int idStep;
+	private final SDG sdg = new SDG("random");
+	private final List<Proc> procs = new ArrayList<Proc>();
+	private int nextId = 1;
+
+	private static final class Proc {
+		private SDGNode entry;
+		private final List<SDGNode> formIns = new ArrayList<SDGNode>();
+		private final List<SDGNode> formOuts = new ArrayList<SDGNode>();
+		/** nodes that may be the source of an intraprocedural data dependence */
+		private final List<SDGNode> defs = new ArrayList<SDGNode>();
+		/** nodes that may be the target of an intraprocedural data dependence */
+		private final List<SDGNode> uses = new ArrayList<SDGNode>();
+		private final List<CallSite> calls = new ArrayList<CallSite>();
+	}
+
+	private static final class CallSite {
+		private final Proc callee;
+		private final List<SDGNode> actIns = new ArrayList<SDGNode>();
+		private final List<SDGNode> actOuts = new ArrayList<SDGNode>();
+
+		private CallSite(final Proc callee) {
+			this.callee = callee;
+		}
+	}
+
+	private RandomSDG(final long seed, final int idStep) {
+		this.rnd = new Random(seed);
+		this.idStep = idStep;
+	}
+
+	/**
+	 * Creates a random SDG. The same seed always results in the same graph with the same node ids.
+	 * @param seed seed of the random generator
+	 * @param numProcs number of procedures
+	 * @param procSize number of statements in each procedure
+	 */
+	public static SDG create(final long seed, final int numProcs, final int procSize) {
+		return create(seed, numProcs, procSize, 1);
+	}
+
+	/**
+	 * Creates a random SDG whose node ids are 1, 1 + idStep, 1 + 2 * idStep, ... An idStep larger than 1 results in
+	 * sparse ids, like those of a subgraph.
+	 * @see #create(long, int, int)
+	 */
+	public static SDG create(final long seed, final int numProcs, final int procSize, final int idStep) {
+		final RandomSDG gen = new RandomSDG(seed, idStep);
+		gen.build(numProcs, procSize);
+
+		return gen.sdg;
+	}
+
+	private SDGNode node(final SDGNode.Kind kind, final int proc) {
+		final SDGNode n = new SDGNode(kind, nextId, proc);
+		nextId += idStep;
+		n.setThreadNumbers(MAIN_THREAD);
+		sdg.addVertex(n);
+
+		return n;
+	}
+
+	private void edge(final SDGNode from, final SDGNode to, final SDGEdge.Kind kind) {
+		sdg.addEdge(new SDGEdge(from, to, kind));
+	}
+
+	private void build(final int numProcs, final int procSize) {
+		// signatures first, so callers can be connected to their callees
+		for (int p = 0; p < numProcs; p++) {
+			final Proc proc = new Proc();
+			proc.entry = node(SDGNode.Kind.ENTRY, p);
+			final int ins = 1 + rnd.nextInt(3);
+			for (int i = 0; i < ins; i++) {
+				final SDGNode fi = node(SDGNode.Kind.FORMAL_IN, p);
+				edge(proc.entry, fi, SDGEdge.Kind.CONTROL_DEP_EXPR);
+				proc.formIns.add(fi);
+				proc.defs.add(fi);
+			}
+			final int outs = 1 + rnd.nextInt(2);
+			for (int i = 0; i < outs; i++) {
+				final SDGNode fo = node(SDGNode.Kind.FORMAL_OUT, p);
+				edge(proc.entry, fo, SDGEdge.Kind.CONTROL_DEP_EXPR);
+				proc.formOuts.add(fo);
+				proc.uses.add(fo);
+			}
+			procs.add(proc);
+		}
+		sdg.setRoot(procs.get(0).entry);
+
+		// each procedure is called at least once, so all of them are reachable from the root
+		final List<List<Proc>> forced = new ArrayList<List<Proc>>();
+		for (int p = 0; p < numProcs; p++) {
+			forced.add(new ArrayList<Proc>());
+		}
+		for (int p = 1; p < numProcs; p++) {
+			forced.get(rnd.nextInt(p)).add(procs.get(p));
+		}
+
+		for (int p = 0; p < numProcs; p++) {
+			final Proc proc = procs.get(p);
+			for (final Proc callee : forced.get(p)) {
+				proc.calls.add(call(p, proc, callee));
+			}
+			for (int i = 0; i < procSize; i++) {
+				if (p + 1 < numProcs && rnd.nextInt(4) == 0) {
+					// calls only go to procedures with a higher number, so there is no recursion
+					final Proc callee = procs.get(p + 1 + rnd.nextInt(numProcs - p - 1));
+					proc.calls.add(call(p, proc, callee));
+				} else {
+					final SDGNode n = node(SDGNode.Kind.EXPRESSION, p);
+					edge(proc.entry, n, SDGEdge.Kind.CONTROL_DEP_EXPR);
+					proc.defs.add(n);
+					proc.uses.add(n);
+				}
+			}
+
+			final int deps = 2 * (proc.defs.size() + proc.uses.size());
+			for (int i = 0; i < deps; i++) {
+				final SDGNode from = proc.defs.get(rnd.nextInt(proc.defs.size()));
+				final SDGNode to = proc.uses.get(rnd.nextInt(proc.uses.size()));
+				if (from != to) {
+					edge(from, to, SDGEdge.Kind.DATA_DEP);
+				}
+			}
+		}
+
+		// callees have higher numbers, so their summaries are known when the callers are processed
+		for (int p = numProcs - 1; p >= 0; p--) {
+			for (final CallSite cs : procs.get(p).calls) {
+				addSummaryEdges(cs);
+			}
+		}
+	}
+
+	private CallSite call(final int p, final Proc proc, final Proc callee) {
+		final CallSite cs = new CallSite(callee);
+		final SDGNode call = node(SDGNode.Kind.CALL, p);
+		edge(proc.entry, call, SDGEdge.Kind.CONTROL_DEP_EXPR);
+		edge(call, callee.entry, SDGEdge.Kind.CALL);
+		for (final SDGNode fi : callee.formIns) {
+			final SDGNode ai = node(SDGNode.Kind.ACTUAL_IN, p);
+			edge(call, ai, SDGEdge.Kind.CONTROL_DEP_EXPR);
+			edge(ai, fi, SDGEdge.Kind.PARAMETER_IN);
+			cs.actIns.add(ai);
+			proc.uses.add(ai);
+		}
+		for (final SDGNode fo : callee.formOuts) {
+			final SDGNode ao = node(SDGNode.Kind.ACTUAL_OUT, p);
+			edge(call, ao, SDGEdge.Kind.CONTROL_DEP_EXPR);
+			edge(fo, ao, SDGEdge.Kind.PARAMETER_OUT);
+			cs.actOuts.add(ao);
+			proc.defs.add(ao);
+		}
+
+		return cs;
+	}
+
+	/*
+	 * An actual-in reaches an actual-out if the corresponding formal-in reaches the formal-out inside of the callee.
+	 * The summary edges of the calls in the callee already exist.
+	 */
+	private void addSummaryEdges(final CallSite cs) {
+		for (int i = 0; i < cs.actIns.size(); i++) {
+			final Set<SDGNode> reached = intraReach(cs.callee.formIns.get(i));
+			for (int o = 0; o < cs.actOuts.size(); o++) {
+				if (reached.contains(cs.callee.formOuts.get(o))) {
+					edge(cs.actIns.get(i), cs.actOuts.get(o), SDGEdge.Kind.SUMMARY);
+				}
+			}
+		}
+	}
+
+	private Set<SDGNode> intraReach(final SDGNode start) {
+		final Set<SDGNode> reached = new HashSet<SDGNode>();
+		final LinkedList<SDGNode> worklist = new LinkedList<SDGNode>();
+		reached.add(start);
+		worklist.add(start);
+		while (!worklist.isEmpty()) {
+			final SDGNode n = worklist.poll();
+			for (final SDGEdge e : sdg.outgoingEdgesOf(n)) {
+				if ((e.getKind() == SDGEdge.Kind.DATA_DEP || e.getKind() == SDGEdge.Kind.SUMMARY)
+						&& reached.add(e.getTarget())) {
+					worklist.add(e.getTarget());
+				}
+			}
+		}
+
+		return reached;
+	}
+
+	/**
+	 * The two-phase slicer of Horwitz, Reps and Binkley, straight on the edges of the given graph.
+	 * Used as reference for the optimized slicers.
+	 */
+	public static Set<SDGNode> slice(final SDG sdg, final Collection<SDGNode> criterion, final boolean backward) {
+		// the first phase does not descend into called procedures, the second phase does not ascend to callers
+		final Set<SDGEdge.Kind> skip1 = new HashSet<SDGEdge.Kind>();
+		final Set<SDGEdge.Kind> skip2 = new HashSet<SDGEdge.Kind>();
+		if (backward) {
+			skip1.add(SDGEdge.Kind.PARAMETER_OUT);
+			skip2.add(SDGEdge.Kind.PARAMETER_IN);
+			skip2.add(SDGEdge.Kind.CALL);
+		} else {
+			skip1.add(SDGEdge.Kind.PARAMETER_IN);
+			skip1.add(SDGEdge.Kind.CALL);
+			skip2.add(SDGEdge.Kind.PARAMETER_OUT);
+		}
+
+		final Set<SDGNode> phase1 = reach(sdg, criterion, skip1, backward);
+
+		return reach(sdg, phase1, skip2, backward);
+	}
+
+	private static Set<SDGNode> reach(final SDG sdg, final Collection<SDGNode> start, final Set<SDGEdge.Kind> skip,
+			final boolean backward) {
+		final Set<SDGNode> reached = new HashSet<SDGNode>(start);
+		final LinkedList<SDGNode> worklist = new LinkedList<SDGNode>(start);
+		while (!worklist.isEmpty()) {
+			final SDGNode n = worklist.poll();
+			for (final SDGEdge e : (backward ? sdg.incomingEdgesOf(n) : sdg.outgoingEdgesOf(n))) {
+				if (!e.getKind().isSDGEdge() || skip.contains(e.getKind())) {
+					continue;
+				}
+				final SDGNode m = (backward ? e.getSource() : e.getTarget());
+				if (reached.add(m)) {
+					worklist.add(m);
+				}
+			}
+		}
+
+		return reached;
+	}
+}
@@ -50,11 +50,16 @@ import edu.kit.joana.ifc.sdg.core.violations.IViolation;
 import edu.kit.joana.ifc.sdg.core.violations.IllegalFlow;
 import edu.kit.joana.ifc.sdg.core.violations.ViolationMapper;
 import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.slicer.SliceCache;
+import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SlicerFactory;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PBackward;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.CompactMHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.MHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.SimpleMHPAnalysis;
+import edu.kit.joana.ifc.sdg.irlsod.CondensedORLSODChecker;
 import edu.kit.joana.ifc.sdg.irlsod.ORLSODChecker;
 import edu.kit.joana.ifc.sdg.irlsod.OptORLSODChecker;
 import edu.kit.joana.ifc.sdg.irlsod.PathBasedORLSODChecker;
@@ -84,9 +89,25 @@ public class IFCAnalysis {
 	private IFC ifc;
 	private boolean timeSensitiveAnalysis = false;
 	private boolean removeRedundantFlows = false;
+	private int parallelism = 1;
+	private SliceCache sliceCache = null;
 
 	public static final IStaticLattice<String> stdLattice = BuiltinLattices.getBinaryLattice();
 
+	private static final SlicerFactory I2P_FORWARD = new SlicerFactory() {
+		@Override
+		public Slicer createSlicer(SDG graph) {
+			return new I2PForward(graph);
+		}
+	};
+
+	private static final SlicerFactory I2P_BACKWARD = new SlicerFactory() {
+		@Override
+		public Slicer createSlicer(SDG graph) {
+			return new I2PBackward(graph);
+		}
+	};
+
 	private static Logger debug = Log.getLogger("api.debug");
 
 	public IFCAnalysis(SDGProgram program, IStaticLattice<String> secLattice) {
@@ -108,10 +129,15 @@ public class IFCAnalysis {
 		}
 		this.program = program;
 		this.annManager = new IFCAnnotationManager(program);
+		if (sliceCache != null) {
+			sliceCache.setGraph(this.program.getSDG());
+		}
 		if (this.ifc != null) {
 			this.ifc.setSDG(this.program.getSDG());
 		} else {
-			this.ifc = new PossibilisticNIChecker(this.program.getSDG(), secLattice);
+			final PossibilisticNIChecker possNI = new PossibilisticNIChecker(this.program.getSDG(), secLattice);
+			possNI.setParallelism(parallelism);
+			this.ifc = possNI;
 		}
 	}
 
@@ -120,7 +146,10 @@ public class IFCAnalysis {
 		MHPAnalysis mhp;
 		switch (this.ifcType) {
 		case CLASSICAL_NI:
-			this.ifc = new SlicingBasedIFC(this.program.getSDG(), secLattice, new I2PForward(this.program.getSDG()), new I2PBackward(this.program.getSDG()));
+			final SlicingBasedIFC sbIFC = new SlicingBasedIFC(this.program.getSDG(), secLattice, I2P_FORWARD, I2P_BACKWARD);
+			sbIFC.setParallelism(parallelism);
+			sbIFC.setSliceCache(sliceCache);
+			this.ifc = sbIFC;
 			if (timeSensitiveAnalysis) {
 				if (this.program.getSDG().getThreadsInfo() == null) {
 					CSDGPreprocessor.preprocessSDG(this.program.getSDG());
@@ -138,16 +167,20 @@ public class IFCAnalysis {
 			mhp = performMHPAnalysis(mhpType);
 			ConflictScanner lsodScanner = LSODNISlicer.simpleCheck(this.program.getSDG(), secLattice, mhp,
 			this.timeSensitiveAnalysis);
-			this.ifc = new ProbabilisticNIChecker(this.program.getSDG(), secLattice, lsodScanner,
-					mhp, this.timeSensitiveAnalysis);
+			final ProbabilisticNIChecker lsodIFC = new ProbabilisticNIChecker(this.program.getSDG(), secLattice,
+					lsodScanner, mhp, this.timeSensitiveAnalysis);
+			lsodIFC.setParallelism(parallelism);
+			this.ifc = lsodIFC;
 			break;
 		case RLSOD:
 			if (this.program.getSDG().getThreadsInfo() == null) {
 				CSDGPreprocessor.preprocessSDG(this.program.getSDG());
 			}
 			mhp = performMHPAnalysis(mhpType);
-			this.ifc = new ProbabilisticNIChecker(this.program.getSDG(), secLattice, mhp,
-					this.timeSensitiveAnalysis);
+			final ProbabilisticNIChecker rlsodIFC = new ProbabilisticNIChecker(this.program.getSDG(), secLattice,
+					mhp, this.timeSensitiveAnalysis);
+			rlsodIFC.setParallelism(parallelism);
+			this.ifc = rlsodIFC;
 			break;
 		case iRLSOD:
 			if (this.program.getSDG().getThreadsInfo() == null) {
@@ -156,9 +189,10 @@ public class IFCAnalysis {
 			mhp = performMHPAnalysis(mhpType);
 			final SDG sdg = this.program.getSDG();
 			final ThreadModularCDomOracle tmdo = new ThreadModularCDomOracle(sdg);
-			final ProbInfComputer probInf = new ProbInfComputer(sdg, tmdo);
+			final ProbInfComputer probInf = new ProbInfComputer(sdg, tmdo, ProbInfComputer.DEFAULT_CACHE_SIZE, parallelism);
 //			this.ifc = new ORLSODChecker<String>(sdg, secLattice, probInf, null);
-			this.ifc = new OptORLSODChecker<String>(sdg, secLattice, probInf);
+//			this.ifc = new OptORLSODChecker<String>(sdg, secLattice, probInf);
+			this.ifc = new CondensedORLSODChecker<String>(sdg, secLattice, probInf);
 //			this.ifc = new PathBasedORLSODChecker<String>(sdg, secLattice, probInf);
 			break;
 		default:
@@ -169,6 +203,8 @@ public class IFCAnalysis {
 	private MHPAnalysis performMHPAnalysis(MHPType mhpType) {
 		if (mhpType == MHPType.SIMPLE) {
 			return SimpleMHPAnalysis.analyze(this.program.getSDG());
+		} else if (mhpType == MHPType.COMPACT) {
+			return CompactMHPAnalysis.analyze(this.program.getSDG());
 		} else {
 			return PreciseMHPAnalysis.analyze(this.program.getSDG());
 		}
@@ -178,6 +214,40 @@ public class IFCAnalysis {
 		return ifc;
 	}
 
+	/**
+	 * Sets the number of threads used by {@link #doIFC(IFCType)} to check classical noninterference, to check the
+	 * possibilistic flows for LSOD and RLSOD and to compute the probabilistic influencers for iRLSOD. The default
+	 * is 1.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		if (this.ifc instanceof PossibilisticNIChecker) {
+			((PossibilisticNIChecker) this.ifc).setParallelism(parallelism);
+		} else if (this.ifc instanceof ProbabilisticNIChecker) {
+			((ProbabilisticNIChecker) this.ifc).setParallelism(parallelism);
+		}
+	}
+
+	/**
+	 * Sets a cache for the slices computed by {@link #doIFC(IFCType)} to check classical noninterference. With a
+	 * cache, repeated checks of the same program, e.g. with other annotations, reuse the slices of earlier checks.
+	 * The cache is emptied if another program is set. The default is no cache.
+	 * @param sliceCache a slice cache, or {@code null} to disable caching
+	 */
+	public void setSliceCache(SliceCache sliceCache) {
+		this.sliceCache = sliceCache;
+		if (sliceCache != null) {
+			sliceCache.setGraph(this.program.getSDG());
+		}
+	}
+
+	public SliceCache getSliceCache() {
+		return sliceCache;
+	}
+
 	public void setTimesensitivity(boolean newTimeSens) {
 		this.timeSensitiveAnalysis = newTimeSens;
 	}
@@ -258,6 +328,9 @@ public class IFCAnalysis {
 		Collection<? extends IViolation<SecurityNode>> vios = ifc.checkIFlow();
 		time = System.currentTimeMillis() - time;
 		debug.outln(String.format("IFC Analysis took %d ms.", time));
+		if (sliceCache != null) {
+			debug.outln(sliceCache.toString());
+		}
 		annManager.unapplyAllAnnotations();
 		return vios;
 	}
@@ -53,6 +53,7 @@ import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
 import edu.kit.joana.util.JoanaConstants;
 import edu.kit.joana.util.LogUtil;
+import edu.kit.joana.util.PhaseMetrics;
 import edu.kit.joana.util.io.IOFactory;
 import edu.kit.joana.wala.core.CGConsumer;
 import edu.kit.joana.wala.core.ExternalCallCheck;
@@ -66,6 +67,7 @@ import edu.kit.joana.wala.core.SDGBuilder.StaticInitializationTreatment;
 import edu.kit.joana.wala.core.params.objgraph.SideEffectDetectorConfig;
 import edu.kit.joana.wala.flowless.pointsto.AliasGraph.MayAliasGraph;
 import edu.kit.joana.wala.flowless.spec.java.ast.MethodInfo;
+import edu.kit.joana.wala.summary.LibrarySummaryStore;
 import edu.kit.joana.wala.util.WriteGraphToDot;
 import edu.kit.joana.wala.util.pointsto.ObjSensZeroXCFABuilder;
 import joana.contrib.lib.Contrib;
@@ -232,7 +234,20 @@ public final class SDGBuildPreparation {
 	    out.print("Creating class hierarchy... ");
 
 	    // Klassenhierarchie berechnen
-		ClassHierarchy cha = ClassHierarchy.make(scope);
+		if (cfg.metrics != null) {
+			cfg.metrics.begin("cha");
+		}
+		final ClassHierarchy cha;
+		try {
+			cha = ClassHierarchy.make(scope);
+			if (cfg.metrics != null) {
+				cfg.metrics.count("classes", cha.getNumberOfClasses());
+			}
+		} finally {
+			if (cfg.metrics != null) {
+				cfg.metrics.end();
+			}
+		}
 
 
 	    out.println("(" + cha.getNumberOfClasses() + " classes) done.");
@@ -313,6 +328,13 @@ public final class SDGBuildPreparation {
 		scfg.debugManyGraphsDotOutput = cfg.debugManyGraphsDotOutput;
 		scfg.computeInterference = cfg.computeInterference;
 		scfg.computeSummary = cfg.computeSummaryEdges;
+		scfg.packedSummaryPathEdges = cfg.packedSummaryPathEdges;
+		scfg.indexedInterference = cfg.indexedInterference;
+		if (cfg.librarySummaryDir != null) {
+			scfg.librarySummaries = LibrarySummaryStore.create(cfg.librarySummaryDir);
+		}
+		scfg.metrics = cfg.metrics;
+		scfg.parallelism = cfg.parallelism;
 		scfg.computeAllocationSites = cfg.computeAllocationSites;
 		scfg.cgConsumer = cfg.cgConsumer;
 		scfg.additionalContextSelector = cfg.ctxSelector;
@@ -395,6 +417,11 @@ public final class SDGBuildPreparation {
 		public boolean accessPath;
 		public boolean computeInterference = false;
 		public boolean computeSummaryEdges = true;
+		public boolean packedSummaryPathEdges = false;
+		public boolean indexedInterference = false;
+		public String librarySummaryDir = null;
+		public PhaseMetrics metrics = null;
+		public int parallelism = 1;
 		public boolean debugManyGraphsDotOutput = false;
 		public FieldPropagation fieldPropagation;
 		public SideEffectDetectorConfig sideEffects = null;
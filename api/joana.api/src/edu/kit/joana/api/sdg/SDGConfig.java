@@ -15,6 +15,7 @@ import com.ibm.wala.ipa.callgraph.pruned.PruningPolicy;
 import edu.kit.joana.ifc.sdg.mhpoptimization.MHPType;
 import edu.kit.joana.util.JoanaConstants;
 import edu.kit.joana.util.LogUtil;
+import edu.kit.joana.util.PhaseMetrics;
 import edu.kit.joana.util.Stubs;
 import edu.kit.joana.wala.core.CGConsumer;
 import edu.kit.joana.wala.core.SDGBuilder.DynamicDispatchHandling;
@@ -48,6 +49,11 @@ public class SDGConfig {
 	private ConstructionNotifier notifier = null;
 	private DynamicDispatchHandling ddisp = DynamicDispatchHandling.SIMPLE;
 	private boolean computeSummaryEdges = true;
+	private boolean packedSummaryPathEdges = false;
+	private boolean indexedInterference = false;
+	private String librarySummaryDir = null;
+	private PhaseMetrics metrics = null;
+	private int parallelism = 1;
 	private boolean skipSDGProgramPart = false;
 	
 	public SDGConfig(String classPath, String entryMethod, Stubs stubsPath) {
@@ -75,6 +81,71 @@ public class SDGConfig {
 		return this.computeSummaryEdges;
 	}
 
+	/**
+	 * Selects whether the summary computation stores its path edges as packed primitive longs. This needs less
+	 * memory on large programs and does not change the resulting summary edges.
+	 */
+	public void setPackedSummaryPathEdges(final boolean value) {
+		this.packedSummaryPathEdges = value;
+	}
+
+	public boolean isPackedSummaryPathEdges() {
+		return this.packedSummaryPathEdges;
+	}
+
+	/**
+	 * Selects whether interference edges are computed from an index of the heap accesses by field and points-to
+	 * instance instead of comparing all pairs of methods. This is faster on large programs and does not change the
+	 * resulting interference edges.
+	 */
+	public void setIndexedInterference(final boolean value) {
+		this.indexedInterference = value;
+	}
+
+	public boolean isIndexedInterference() {
+		return this.indexedInterference;
+	}
+
+	/**
+	 * Sets the directory of the store of library method summaries, which is shared by all analyses using it.
+	 * Library methods found in the store are not analyzed again, the others are added after the sdg is built.
+	 * null - the default - disables the store.
+	 */
+	public void setLibrarySummaryDir(final String dir) {
+		this.librarySummaryDir = dir;
+	}
+
+	public String getLibrarySummaryDir() {
+		return this.librarySummaryDir;
+	}
+
+	/**
+	 * Sets the metrics the phases of the sdg construction are recorded in. null - the default - records nothing.
+	 */
+	public void setMetrics(final PhaseMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public PhaseMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Sets the number of threads used during sdg construction. The default 1 builds the sdg sequentially. The
+	 * resulting sdg does not depend on this value. See SDGBuilderConfig.parallelism for the phases that use
+	 * these threads.
+	 */
+	public void setParallelism(final int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
 	public void setSkipSDGProgramPart(final boolean value) {
 		this.skipSDGProgramPart = value;
 	}
@@ -11,6 +11,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,7 +42,9 @@ import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+import edu.kit.joana.ifc.sdg.graph.chopper.BatchChopper;
 import edu.kit.joana.ifc.sdg.graph.chopper.Chopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.ChoppingCriterion;
 import edu.kit.joana.ifc.sdg.graph.chopper.NonSameLevelChopper;
 import edu.kit.joana.ifc.sdg.mhpoptimization.MHPType;
 import edu.kit.joana.ifc.sdg.mhpoptimization.PruneInterferences;
@@ -50,6 +54,7 @@ import edu.kit.joana.ifc.sdg.util.JavaType;
 import edu.kit.joana.ifc.sdg.util.JavaType.Format;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.PhaseMetrics;
 import edu.kit.joana.util.Stubs;
 import edu.kit.joana.util.io.IOFactory;
 import edu.kit.joana.wala.core.NullProgressMonitor;
@@ -233,7 +238,19 @@ public class SDGProgram {
 		final SDGBuilder builder = p.snd;
 
 		if (config.computeInterferences()) {
-			PruneInterferences.preprocessAndPruneCSDG(sdg, config.getMhpType());
+			final PhaseMetrics metrics = config.getMetrics();
+			if (metrics != null) {
+				metrics.begin("mhp");
+			}
+			try {
+				PruneInterferences.preprocessAndPruneCSDG(sdg, config.getMhpType());
+			} finally {
+				if (metrics != null) {
+					metrics.count("nodes", sdg.vertexSet().size());
+					metrics.count("edges", sdg.edgeSet().size());
+					metrics.end();
+				}
+			}
 		}
 		if (notifier != null) {
 			notifier.sdgFinished();
@@ -312,6 +329,11 @@ public class SDGProgram {
 		cfg.ctxSelector = config.getContextSelector();
 		cfg.ddisp = config.getDynamicDispatchHandling();
 		cfg.computeSummaryEdges = config.isComputeSummaryEdges();
+		cfg.packedSummaryPathEdges = config.isPackedSummaryPathEdges();
+		cfg.indexedInterference = config.isIndexedInterference();
+		cfg.librarySummaryDir = config.getLibrarySummaryDir();
+		cfg.metrics = config.getMetrics();
+		cfg.parallelism = config.getParallelism();
 		cfg.computeInterference = config.computeInterferences();
 		debug.outln(cfg.stubs);
 
@@ -621,6 +643,42 @@ public class SDGProgram {
 		Chopper chopper = new NonSameLevelChopper(this.sdg);
 		AnnotationTypeBasedNodeCollector c = new AnnotationTypeBasedNodeCollector(this.sdg);
 		Collection<SDGNode> chop = chopper.chop(c.collectNodes(source, AnnotationType.SOURCE), c.collectNodes(sink, AnnotationType.SINK));
+
+		return toInstructions(chop);
+	}
+
+	/**
+	 * Computes the instruction chops of many pairs of source and sink program parts in one batch, which computes
+	 * the slices of equal sources and sinks only once. The i-th chop is the one from the i-th source to the i-th sink,
+	 * the chops are the same as those of {@link #computeInstructionChop(SDGProgramPart, SDGProgramPart)}.
+	 * This works only for sequential programs
+	 * @param sources source instructions
+	 * @param sinks sink instructions, as many as there are sources
+	 * @return for each pair, the instructions through which information may flow from source to sink
+	 */
+	public List<Set<SDGInstruction>> computeInstructionChops(List<? extends SDGProgramPart> sources, List<? extends SDGProgramPart> sinks) {
+		if (sources.size() != sinks.size()) {
+			throw new IllegalArgumentException("sources and sinks have to be of equal size: " + sources.size() + " != " + sinks.size());
+		}
+
+		final BatchChopper chopper = new BatchChopper(this.sdg, BatchChopper.SameLevel.SUMMARY_MERGED);
+		AnnotationTypeBasedNodeCollector c = new AnnotationTypeBasedNodeCollector(this.sdg);
+		List<ChoppingCriterion> criteria = new ArrayList<ChoppingCriterion>(sources.size());
+		for (int i = 0; i < sources.size(); i++) {
+			criteria.add(new ChoppingCriterion(c.collectNodes(sources.get(i), AnnotationType.SOURCE), c.collectNodes(sinks.get(i), AnnotationType.SINK)));
+		}
+
+		final List<Set<SDGInstruction>> ret = new ArrayList<Set<SDGInstruction>>(criteria.size());
+		chopper.chopAll(criteria, new BatchChopper.ChopListener() {
+			public void chopped(int index, ChoppingCriterion criterion, BitSet chop) {
+				ret.add(toInstructions(chopper.toNodes(chop)));
+			}
+		});
+
+		return ret;
+	}
+
+	private Set<SDGInstruction> toInstructions(Collection<SDGNode> chop) {
 		Set<SDGInstruction> ret = new HashSet<SDGInstruction>();
 		for (SDGNode n : chop) {
 			SDGMethod m = getMethod(this.sdg.getEntry(n).getBytecodeMethod());
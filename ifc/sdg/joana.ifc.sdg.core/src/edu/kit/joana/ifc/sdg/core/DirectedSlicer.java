@@ -7,10 +7,13 @@
  */
 package edu.kit.joana.ifc.sdg.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.BatchSlicer;
 import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
 import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
 
@@ -18,7 +21,7 @@ import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
  * A directed slicer is a slicer which exposes the direction (i.e. forward or backward) of propagation.
  * @author Martin Mohr
  */
-public abstract class DirectedSlicer implements Slicer {
+public abstract class DirectedSlicer implements BatchSlicer {
 
 	public enum Direction {
 		FORWARD, BACKWARD;
@@ -72,6 +75,23 @@ public abstract class DirectedSlicer implements Slicer {
 			return slicer.slice(criterion);
 		}
 
+		/**
+		 * Delegates to the decorated slicer if it is a {@link BatchSlicer}, otherwise slices each criterion on its own.
+		 */
+		@Override
+		public List<Collection<SDGNode>> sliceBatch(List<SDGNode> criteria) {
+			if (slicer instanceof BatchSlicer) {
+				return ((BatchSlicer) slicer).sliceBatch(criteria);
+			}
+
+			final List<Collection<SDGNode>> slices = new ArrayList<Collection<SDGNode>>(criteria.size());
+			for (SDGNode c : criteria) {
+				slices.add(slicer.slice(c));
+			}
+
+			return slices;
+		}
+
 		/* (non-Javadoc)
 		 * @see edu.kit.joana.ifc.sdg.core.DirectedSlicer#getDirection()
 		 */
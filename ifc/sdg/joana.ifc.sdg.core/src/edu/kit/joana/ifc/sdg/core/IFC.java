@@ -23,10 +23,13 @@ import edu.kit.joana.ifc.sdg.core.interfaces.ProgressAnnouncer;
 import edu.kit.joana.ifc.sdg.core.interfaces.ProgressListener;
 import edu.kit.joana.ifc.sdg.core.violations.IViolation;
 import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.slicer.SliceCache;
+import edu.kit.joana.ifc.sdg.lattice.IIntStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.LatticeUtil;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 import edu.kit.joana.ifc.sdg.lattice.WrongLatticeDefinitionException;
+import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeTable;
 
 
 //import org.eclipse.core.runtime.IProgressMonitor;
@@ -48,6 +51,10 @@ public abstract class IFC<L> implements ProgressListener, ProgressAnnouncer {
 	protected SDG g;
     // der lattice
 	protected IStaticLattice<L> l;
+    // der lattice mit durchnummerierten Elementen, wird zusammen mit l gesetzt
+	private IIntStaticLattice<L> intLattice;
+    // gespeicherte Slices, kann null sein
+	protected SliceCache sliceCache;
 
 
     /** Berechnet, ob der SDG noninterferent ist und aktualisiert die Progressbar.
@@ -66,6 +73,7 @@ public abstract class IFC<L> implements ProgressListener, ProgressAnnouncer {
      */
 	public IFC(SDG sdg, IStaticLattice<L> lattice) {
 		this.l = lattice;
+		this.intLattice = toIntLattice(lattice);
 	    this.g = sdg;
 	}
 
@@ -83,6 +91,53 @@ public abstract class IFC<L> implements ProgressListener, ProgressAnnouncer {
      */
     public void setLattice(IStaticLattice<L> lattice) {
         this.l = lattice;
+        this.intLattice = toIntLattice(lattice);
+    }
+
+    private static <L> IIntStaticLattice<L> toIntLattice(IStaticLattice<L> lattice) {
+        return (lattice == null ? null : StaticLatticeTable.of(lattice));
+    }
+
+    /** Liefert den Verband mit durchnummerierten Elementen, dessen Operationen Tabellenzugriffe sind.
+     * Er wird erzeugt, sobald der Verband gesetzt wird, also bevor die Analyse weitere Threads startet.
+     * Der gesetzte Verband darf sich danach nicht mehr aendern.
+     */
+    protected IIntStaticLattice<L> getIntLattice() {
+        return intLattice;
+    }
+
+    /** Prueft, ob a kleiner oder gleich b im Verband ist. */
+    protected boolean isLeq(L a, L b) throws NotInLatticeException {
+        IIntStaticLattice<L> il = getIntLattice();
+        return il.isLeq(il.indexOf(a), il.indexOf(b));
+    }
+
+    /** Berechnet das Supremum von a und b im Verband. */
+    protected L leastUpperBound(L a, L b) throws NotInLatticeException {
+        IIntStaticLattice<L> il = getIntLattice();
+        return il.elementAt(il.leastUpperBound(il.indexOf(a), il.indexOf(b)));
+    }
+
+    /** Berechnet das Infimum von a und b im Verband. */
+    protected L greatestLowerBound(L a, L b) throws NotInLatticeException {
+        IIntStaticLattice<L> il = getIntLattice();
+        return il.elementAt(il.greatestLowerBound(il.indexOf(a), il.indexOf(b)));
+    }
+
+    public SliceCache getSliceCache() {
+        return sliceCache;
+    }
+
+    /** Setzt einen Cache fuer die Slices, die von mehreren Laeufen auf demselben SDG wiederverwendet werden.
+     * Algorithmen, die nicht slicen, ignorieren ihn. Der Cache wird geleert, sobald ein anderer SDG gesetzt wird.
+     *
+     * @param cache   Ein Cache oder null.
+     */
+    public void setSliceCache(SliceCache cache) {
+        this.sliceCache = cache;
+        if (cache != null) {
+            cache.setGraph(g);
+        }
     }
 
     /** Zur Wiederverwendung mit einem neuen SDG.
@@ -102,6 +157,9 @@ public abstract class IFC<L> implements ProgressListener, ProgressAnnouncer {
      */
     public void setSDG(SDG sdg) {
         this.g = sdg;
+        if (sliceCache != null) {
+            sliceCache.setGraph(sdg);
+        }
     }
 
     /** Zur Wiederverwendung mit einem neuen SDG.
@@ -8,8 +8,13 @@
 package edu.kit.joana.ifc.sdg.core;
 
 import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import edu.kit.joana.ifc.sdg.core.DirectedSlicer.Direction;
 import edu.kit.joana.ifc.sdg.core.conc.BarrierIFCSlicer;
@@ -17,12 +22,18 @@ import edu.kit.joana.ifc.sdg.core.conc.ProbabilisticNIChecker;
 import edu.kit.joana.ifc.sdg.core.violations.ClassifiedViolation;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.BatchSlicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.BitParallelSlicing;
+import edu.kit.joana.ifc.sdg.graph.slicer.CachingSlicer;
 import edu.kit.joana.ifc.sdg.graph.slicer.ContextSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SliceCache;
 import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SlicerFactory;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.ParallelUtil;
 
 /**
  * This class provides an IFC algorithm based on a given slicing algorithm, which is interchangeable. 
@@ -36,7 +47,14 @@ import edu.kit.joana.util.Logger;
  * </ol>
  * For the forward variant, the forward slice of each source is computed and a malicious sink is searched for.<p>
  * Note, that this class can only be used to check for possibilistic leaks. To check also for probabilistic leaks, use {@link ProbabilisticNIChecker}.<br>
- * Also, there is no support for declassification, unless the provided chopper is configured appropriately.
+ * Also, there is no support for declassification, unless the provided chopper is configured appropriately.<p>
+ * With {@link #setBatchSlicing(boolean)}, the end points are sliced in batches, which a {@link BatchSlicer} computes in a
+ * few bit-parallel traversals instead of one traversal per end point.<p>
+ * If the algorithm is created with {@link SlicerFactory}s, {@link #setParallelism(int)} lets it slice the end points
+ * in several threads, each one with its own slicers. The violations are reported in the same order as in a sequential
+ * run.<p>
+ * If a {@link SliceCache} is set with {@link #setSliceCache(SliceCache)}, the slices of the end points are reused by
+ * later runs on the same graph, e.g. after the annotations have changed.
  * @author Martin Mohr
  */
 public class SlicingBasedIFC extends IFC<String> {
@@ -45,7 +63,14 @@ public class SlicingBasedIFC extends IFC<String> {
 
 	private final DirectedSlicer slicerForw;
 	private final DirectedSlicer slicerBackw;
+	private final SlicerFactory factoryForw;
+	private final SlicerFactory factoryBackw;
+	/* the kinds of the forward and backward slices in the slice cache */
+	private final Object kindForw;
+	private final Object kindBackw;
 	private DirectedSlicer slicer;
+	private boolean batchSlicing = false;
+	private int parallelism = 1;
 	
 	/**
 	 * Instantiates a new SlicingBasedIFC algorithm. 
@@ -61,6 +86,49 @@ public class SlicingBasedIFC extends IFC<String> {
 		super(sdg, lattice);
 		this.slicerForw = DirectedSlicer.decorateWithDirection(slicerForw, Direction.FORWARD);
 		this.slicerBackw = DirectedSlicer.decorateWithDirection(slicerBackw, Direction.BACKWARD);
+		this.factoryForw = null;
+		this.factoryBackw = null;
+		this.kindForw = slicerForw.getClass().getName() + "/" + Direction.FORWARD;
+		this.kindBackw = slicerBackw.getClass().getName() + "/" + Direction.BACKWARD;
+	}
+
+	/**
+	 * Instantiates a new SlicingBasedIFC algorithm, which creates its slicers with the given factories. In contrast to
+	 * slicer instances, factories allow to slice in parallel, see {@link #setParallelism(int)}.
+	 * @param sdg the sdg to perform slicing-based IFC on
+	 * @param lattice the security lattice used for IFC
+	 * @param slicerForw creates the forward slicers
+	 * @param slicerBackw creates the backward slicers
+	 */
+	public SlicingBasedIFC(SDG sdg, IStaticLattice<String> lattice, SlicerFactory slicerForw, SlicerFactory slicerBackw) {
+		super(sdg, lattice);
+		final Slicer forw = slicerForw.createSlicer(sdg);
+		final Slicer backw = slicerBackw.createSlicer(sdg);
+		this.slicerForw = DirectedSlicer.decorateWithDirection(forw, Direction.FORWARD);
+		this.slicerBackw = DirectedSlicer.decorateWithDirection(backw, Direction.BACKWARD);
+		this.factoryForw = slicerForw;
+		this.factoryBackw = slicerBackw;
+		this.kindForw = forw.getClass().getName() + "/" + Direction.FORWARD;
+		this.kindBackw = backw.getClass().getName() + "/" + Direction.BACKWARD;
+	}
+
+	/**
+	 * Sets the number of threads which slice the end points. Has no effect unless this instance has been created
+	 * with {@link SlicerFactory}s, as a slicer instance must not be shared between threads. The default is 1.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Determines whether the end points are sliced in batches of {@link BitParallelSlicing#BATCH_SIZE}. Only pays off
+	 * if the slicers are {@link BatchSlicer}s, such as the two-phase slicers. The default is false.
+	 */
+	public void setBatchSlicing(boolean batchSlicing) {
+		this.batchSlicing = batchSlicing;
 	}
 
 	/* (non-Javadoc)
@@ -90,12 +158,25 @@ public class SlicingBasedIFC extends IFC<String> {
 			DEBUG.outln(String.format("[%s] Using backward slicing.", Calendar.getInstance().getTime()));
 		}
 		Collection<ClassifiedViolation> vios = new LinkedList<ClassifiedViolation>();
+		if (parallelism > 1 && factoryForw != null) {
+			DEBUG.outln(String.format("[%s] slicing the %d %s in %d threads...", Calendar.getInstance().getTime(), endPoints.size(), endpointsStr, parallelism));
+			checkIFlowInParallel(new ArrayList<SecurityNode>(endPoints), vios);
+			DEBUG.outln(String.format("[%s] done. Found %d violation(s).", Calendar.getInstance().getTime(), vios.size()));
+			return vios;
+		}
+		final DirectedSlicer cachedSlicer = withCache(slicer);
+		if (batchSlicing) {
+			DEBUG.outln(String.format("[%s] slicing the %d %s in batches...", Calendar.getInstance().getTime(), endPoints.size(), endpointsStr));
+			checkIFlowInBatches(cachedSlicer, endPoints, vios);
+			DEBUG.outln(String.format("[%s] done. Found %d violation(s).", Calendar.getInstance().getTime(), vios.size()));
+			return vios;
+		}
 		DEBUG.outln(String.format("[%s] slicing each of the %d %s...", Calendar.getInstance().getTime(), endPoints.size(), endpointsStr));
 		int count = 0;
 		for (SecurityNode endPoint : endPoints) {
 			count++;
 			DEBUG.outln(String.format("[%s] %d of %d...", Calendar.getInstance().getTime(), count, endPoints.size()));
-			Collection<SDGNode> slice = slicer.slice(endPoint);
+			Collection<SDGNode> slice = cachedSlicer.slice(endPoint);
 			DEBUG.outln(String.format("[%s] done. Slice contains %d items", Calendar.getInstance().getTime(), slice.size()));
 			DEBUG.outln(String.format("[%s] scanning for sources...", Calendar.getInstance().getTime()));
 			addPossibleViolations(endPoint, slice, vios);
@@ -105,6 +186,75 @@ public class SlicingBasedIFC extends IFC<String> {
 		return vios;
 	}
 
+	/**
+	 * Splits the end points into chunks, which are checked in parallel with slicers of their own. The violations of
+	 * the chunks are appended in the order of the end points.
+	 */
+	private void checkIFlowInParallel(List<SecurityNode> endPoints, Collection<ClassifiedViolation> vios) {
+		final SlicerFactory factory = (slicer == slicerForw ? factoryForw : factoryBackw);
+		final Direction dir = slicer.getDirection();
+		// more chunks than threads, as the sizes of the slices differ a lot
+		final int chunkSize = (batchSlicing ? BitParallelSlicing.BATCH_SIZE
+				: Math.max(1, (endPoints.size() + 8 * parallelism - 1) / (8 * parallelism)));
+
+		final ExecutorService executor = ParallelUtil.newPool(parallelism, "slicing-ifc");
+		try {
+			final List<Future<Collection<ClassifiedViolation>>> futures = new ArrayList<Future<Collection<ClassifiedViolation>>>();
+			for (int from = 0; from < endPoints.size(); from += chunkSize) {
+				final List<SecurityNode> chunk = endPoints.subList(from, Math.min(endPoints.size(), from + chunkSize));
+				futures.add(executor.submit(new Callable<Collection<ClassifiedViolation>>() {
+					@Override
+					public Collection<ClassifiedViolation> call() {
+						final DirectedSlicer chunkSlicer = withCache(DirectedSlicer.decorateWithDirection(factory.createSlicer(g), dir));
+						final Collection<ClassifiedViolation> chunkVios = new LinkedList<ClassifiedViolation>();
+						if (batchSlicing) {
+							checkIFlowInBatches(chunkSlicer, chunk, chunkVios);
+						} else {
+							for (SecurityNode endPoint : chunk) {
+								addPossibleViolations(endPoint, chunkSlicer.slice(endPoint), chunkVios);
+							}
+						}
+						return chunkVios;
+					}
+				}));
+			}
+
+			for (Future<Collection<ClassifiedViolation>> future : futures) {
+				vios.addAll(ParallelUtil.waitFor(future));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Decorates the given slicer with the slice cache, if there is one. The cache is shared by all threads.
+	 */
+	private DirectedSlicer withCache(DirectedSlicer s) {
+		if (sliceCache == null) {
+			return s;
+		}
+		final Object kind = (s.getDirection() == Direction.FORWARD ? kindForw : kindBackw);
+		return DirectedSlicer.decorateWithDirection(new CachingSlicer(g, s, sliceCache, kind), s.getDirection());
+	}
+
+	private void checkIFlowInBatches(DirectedSlicer batchSlicer, Collection<SecurityNode> endPoints, Collection<ClassifiedViolation> vios) {
+		final List<SecurityNode> batch = new ArrayList<SecurityNode>(BitParallelSlicing.BATCH_SIZE);
+		int count = 0;
+		for (SecurityNode endPoint : endPoints) {
+			batch.add(endPoint);
+			count++;
+			if (batch.size() == BitParallelSlicing.BATCH_SIZE || count == endPoints.size()) {
+				DEBUG.outln(String.format("[%s] %d of %d...", Calendar.getInstance().getTime(), count, endPoints.size()));
+				final List<Collection<SDGNode>> slices = batchSlicer.sliceBatch(new ArrayList<SDGNode>(batch));
+				for (int i = 0; i < batch.size(); i++) {
+					addPossibleViolations(batch.get(i), slices.get(i), vios);
+				}
+				batch.clear();
+			}
+		}
+	}
+
 	private Collection<SecurityNode> collectStartpoints() {
 		Collection<SecurityNode> ret = new LinkedList<SecurityNode>();
 		for (SDGNode n : this.g.vertexSet()) {
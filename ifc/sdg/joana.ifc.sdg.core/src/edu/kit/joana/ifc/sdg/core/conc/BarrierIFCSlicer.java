@@ -12,8 +12,12 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import edu.kit.joana.ifc.sdg.core.IFC;
 import edu.kit.joana.ifc.sdg.core.SecurityNode;
@@ -26,6 +30,7 @@ import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.GraphModifier;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+import edu.kit.joana.util.ParallelUtil;
 
 
 /** Ueberprueft einen gegebenen SDG auf possibilistische Noninterferenz.
@@ -37,6 +42,7 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
 	
     private ArrayList<ProgressListener> pls = new ArrayList<ProgressListener>();
     private HashMap<SDGEdge, Set<Rule>> summaryDeclass;  // deklassifikationen an den summary-kanten
+    private ExecutorService executor = null;
 
     /**
      * Initialisiert den IFC-Algorithmus.
@@ -92,8 +98,7 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
             Set<SDGNode> s = p.getValue();
 
             for (SecurityNode n : declass) {
-                if (l.leastUpperBound(n.getRequired(), r.in).equals(r.in)
-                        && l.leastUpperBound(n.getProvided(), r.out).equals(n.getProvided())){
+                if (isLeq(n.getRequired(), r.in) && isLeq(r.out, n.getProvided())) {
                     s.add(n);
                 }
             }
@@ -135,6 +140,26 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
         this.pls.remove(pl);
     }
 
+    /**
+     * Setzt die Anzahl der Threads, in denen die kritischen Punkte geprueft werden. Default ist 1.
+     * Die Pruefung eines kritischen Punkts liest den SDG nur, daher koennen mehrere Punkte gleichzeitig
+     * geprueft werden. Der Thread-Pool wird von allen folgenden Aufrufen von {@link #checkIFlow()} benutzt.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+        }
+        setExecutor(parallelism > 1 ? ParallelUtil.newPool(parallelism, "barrier-ifc") : null);
+    }
+
+    /**
+     * Setzt den Thread-Pool, in dem die kritischen Punkte geprueft werden, z.B. einen Pool, den mehrere
+     * Instanzen nacheinander benutzen. Bei null werden die Punkte sequentiell geprueft.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     /** Fuehrt den Sicherheitscheck aus.
      *
      * @return Die Menge der gefundenen Sicherheitsverletzungen.
@@ -142,6 +167,11 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
     public Set<ClassifiedViolation> checkIFlow() {
         // bestimme alle kritischen Punkte
         LinkedList<Element> criteria = collectCriteria();
+
+        if (executor != null) {
+            return checkIFlowInParallel(criteria);
+        }
+
         Set<ClassifiedViolation> set = new HashSet<ClassifiedViolation>();
 
         // pruefe jeden kritischen Punkt auf possibilistische noninterferenz
@@ -154,6 +184,37 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
         return set;
     }
 
+    /**
+     * Prueft die kritischen Punkte parallel. Wie bei der sequentiellen Pruefung werden alle gefundenen
+     * Sicherheitsverletzungen in einer Menge gesammelt.
+     */
+    private Set<ClassifiedViolation> checkIFlowInParallel(List<Element> criteria) {
+        final Set<ClassifiedViolation> set = new HashSet<ClassifiedViolation>();
+
+        final List<Future<Set<ClassifiedViolation>>> futures = new ArrayList<Future<Set<ClassifiedViolation>>>(criteria.size());
+        try {
+            for (final Element e : criteria) {
+                futures.add(executor.submit(new Callable<Set<ClassifiedViolation>>() {
+                    @Override
+                    public Set<ClassifiedViolation> call() {
+                        return slice(e);
+                    }
+                }));
+            }
+
+            for (Future<Set<ClassifiedViolation>> future : futures) {
+                set.addAll(ParallelUtil.waitFor(future));
+            }
+        } finally {
+            // der pool wird weiter benutzt, nur die restlichen aufgaben werden abgebrochen
+            for (Future<Set<ClassifiedViolation>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return set;
+    }
+
     /** Bestimmt die kritischen Punkte im SDG.
      *
      * @return Eine Liste aller als Quelle oder Senke annotierter Knoten.
@@ -371,7 +432,7 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
 
         // add freshly declassified labels
         if (reached.isDeclassification()
-        		&& l.leastUpperBound(reached.getProvided(), oldElement.getLevel()).equals(oldElement.getLevel())) {
+        		&& isLeq(reached.getProvided(), oldElement.getLevel())) {
 
             // reached's source level is declassified
             newLabels.add(reached.getRequired());
@@ -383,7 +444,7 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
 
             if (rules != null) {
                 for (Rule r : rules) {
-                    if (l.leastUpperBound(r.out(), oldElement.getLevel()).equals(oldElement.getLevel())) {
+                    if (isLeq(r.out(), oldElement.getLevel())) {
                         newLabels.add(r.in);
                     }
                 }
@@ -404,7 +465,7 @@ public class BarrierIFCSlicer extends IFC<String> implements ProgressAnnouncer {
 
     private boolean isLeaking(Collection<String> labels, String source) {
     	for (String l : labels) {
-    		if (this.l.leastUpperBound(source, l).equals(l)) {
+    		if (isLeq(source, l)) {
     			// sichtbarkeit ist erlaubt
     			return false;
     		}
@@ -27,8 +27,10 @@ import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.Nanda;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.NandaBackward;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.MHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
+import edu.kit.joana.ifc.sdg.lattice.IIntStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.LatticeUtil;
+import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeTable;
 import edu.kit.joana.util.Maybe;
 import edu.kit.joana.util.Pair;
 
@@ -54,7 +56,7 @@ public class LSODNISlicer implements ConflictScanner {
 	 * the lattice which provides the security levels which the SDG under
 	 * analysis is annotated with
 	 */
-	private IStaticLattice<String> l;
+	private IIntStaticLattice<String> l;
 
 	/** the SDG under analysis */
 	private SDG g;
@@ -99,7 +101,7 @@ public class LSODNISlicer implements ConflictScanner {
 
 	public LSODNISlicer(SDG g, IStaticLattice<String> l, ConflictManager conf,
 			MHPAnalysis mhp, boolean timeSens, boolean useOptimization) {
-		this.l = l;
+		this.l = StaticLatticeTable.of(l);
 		this.g = g;
 		this.conf = conf;
 		this.mhp = mhp;
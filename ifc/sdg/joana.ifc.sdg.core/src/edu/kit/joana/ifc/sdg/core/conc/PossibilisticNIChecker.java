@@ -8,6 +8,7 @@
 package edu.kit.joana.ifc.sdg.core.conc;
 
 import java.util.Collection;
+import java.util.concurrent.ExecutorService;
 
 import edu.kit.joana.ifc.sdg.core.IFC;
 import edu.kit.joana.ifc.sdg.core.violations.ClassifiedViolation;
@@ -16,6 +17,7 @@ import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.ParallelUtil;
 
 
 /**
@@ -27,6 +29,8 @@ import edu.kit.joana.util.Logger;
 public class PossibilisticNIChecker extends IFC<String> {
 
 	private final Logger debug = Log.getLogger(Log.L_SDG_INTERFERENCE_DEBUG);
+	// pool fuer die parallele pruefung, null fuer sequentielle pruefung
+	private ExecutorService executor = null;
 	
     /** Erzeugt eine neue Instanz.
      *
@@ -37,6 +41,17 @@ public class PossibilisticNIChecker extends IFC<String> {
         super(sdg, lattice);
     }
 
+    /**
+     * Setzt die Anzahl der Threads, in denen der {@link BarrierIFCSlicer} die kritischen Punkte prueft. Default ist 1.
+     * Alle folgenden Pruefungen benutzen denselben Thread-Pool.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+        }
+        executor = (parallelism > 1 ? ParallelUtil.newPool(parallelism, "possibilistic-ni") : null);
+    }
+
     /** Berechnet, ob der SDG possibilistisch noninterferent ist.
      *
      * Ruft dazu den BarrierIFCSlicer auf. Misst Ausfuehrungszeiten und aktualisiert die Progressbar.
@@ -50,6 +65,7 @@ public class PossibilisticNIChecker extends IFC<String> {
         debug.outln("Checking possibilistic noninterference");
         Collection<ClassifiedViolation> ret = null;    //list to be returned
         BarrierIFCSlicer is = new BarrierIFCSlicer(g, l);
+        is.setExecutor(executor);
 
         is.addProgressListener(this);
 
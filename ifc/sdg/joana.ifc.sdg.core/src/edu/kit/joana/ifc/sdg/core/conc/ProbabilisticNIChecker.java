@@ -9,6 +9,7 @@ package edu.kit.joana.ifc.sdg.core.conc;
 
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
 
 import edu.kit.joana.ifc.sdg.core.IFC;
 import edu.kit.joana.ifc.sdg.core.SecurityNode;
@@ -20,6 +21,7 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.MHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
+import edu.kit.joana.util.ParallelUtil;
 
 /**
  * Anbindung an den Algorithmus fuer probabilistische Noninterferenz.
@@ -34,6 +36,9 @@ public class ProbabilisticNIChecker extends IFC<String> {
 	private final boolean timeSens;
 	
 	private final ConflictScanner prob;
+
+	// pool fuer die parallele pruefung des possibilistischen flusses, null fuer sequentielle pruefung
+	private ExecutorService executor = null;
 	
 	/**
 	 * Erzeugt eine neue Instanz.
@@ -64,6 +69,17 @@ public class ProbabilisticNIChecker extends IFC<String> {
 		this.timeSens = timeSens;
 	}
 
+	/**
+	 * Setzt die Anzahl der Threads, in denen der {@link BarrierIFCSlicer} den expliziten und impliziten Fluss
+	 * prueft. Default ist 1. Alle folgenden Pruefungen benutzen denselben Thread-Pool.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+		}
+		executor = (parallelism > 1 ? ParallelUtil.newPool(parallelism, "probabilistic-ni") : null);
+	}
+
 	/**
 	 * Berechnet, ob der SDG probabilistisch noninterferent ist.
 	 * 
@@ -77,7 +93,9 @@ public class ProbabilisticNIChecker extends IFC<String> {
 	 */
 	public Collection<? extends IViolation<SecurityNode>> checkIFlow() throws NotInLatticeException {
 		Collection<IViolation<SecurityNode>> ret = new LinkedList<IViolation<SecurityNode>>(); // list to be returned
-		IFC<String> is = new BarrierIFCSlicer(g, l);
+		final BarrierIFCSlicer barrier = new BarrierIFCSlicer(g, l);
+		barrier.setExecutor(executor);
+		IFC<String> is = barrier;
 		
 		if (timeSens) {
 			is = new TimeSensitiveIFCDecorator(is);
@@ -32,7 +32,9 @@ import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.Nanda;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.NandaBackward;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.MHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
+import edu.kit.joana.ifc.sdg.lattice.IIntStaticLattice;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeTable;
 import edu.kit.joana.util.Maybe;
 import edu.kit.joana.util.Pair;
 
@@ -221,7 +223,7 @@ public class ProbabilisticNISlicer implements ConflictScanner {
                     	// Ausfuehrungsreihenfolge der am Konflikt beteiligten Knoten fliessen)
                     	for (SecurityNode t : triggers) {
                     		// teste, ob t geheime infos hat bzgl. des attackers
-                    		if (!l.leastUpperBound(t.getProvided(), attacker).equals(attacker)) {
+                    		if (!isLeq(t.getProvided(), attacker)) {
                     			refined.add(t); // geheime Information beeinflusst den Order-Conflict
                     		}
                     	}
@@ -357,7 +359,7 @@ public class ProbabilisticNISlicer implements ConflictScanner {
     private ArrayList<ProgressListener> pls = new ArrayList<ProgressListener>();
 
     // der lattice
-    private IStaticLattice<String> l;
+    private IIntStaticLattice<String> l;
     // der SDG
     private SDG g;
     // eine MHP-analyse
@@ -405,7 +407,7 @@ public class ProbabilisticNISlicer implements ConflictScanner {
     }
     
     public ProbabilisticNISlicer(SDG g, IStaticLattice<String> l, ConflictManager conf, MHPAnalysis mhp, boolean timeSens) {
-    	 this.l = l;
+    	 this.l = StaticLatticeTable.of(l);
          this.g = g;
          this.conf = conf;
          this.mhp = mhp;
@@ -548,7 +550,7 @@ public class ProbabilisticNISlicer implements ConflictScanner {
         for (SecurityNode source : sources) {
 
 
-        	if (l.leastUpperBound(source.getProvided(), element.label).equals(element.label)) {
+        	if (isLeq(source.getProvided(), element.label)) {
         		/**
             	 * All sources which are 'not secret enough' can safely be ignored.
             	 */
@@ -579,6 +581,11 @@ public class ProbabilisticNISlicer implements ConflictScanner {
         }
     }
 
+    /** Prueft, ob a kleiner oder gleich b im Verband ist. */
+    private boolean isLeq(String a, String b) {
+        return l.isLeq(l.indexOf(a), l.indexOf(b));
+    }
+
 	 /* ProgressListener */
 	
 	public void addProgressListener(ProgressListener pl) {
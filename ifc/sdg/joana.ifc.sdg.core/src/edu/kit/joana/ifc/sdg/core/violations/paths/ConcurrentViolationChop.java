@@ -8,12 +8,15 @@
 package edu.kit.joana.ifc.sdg.core.violations.paths;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import edu.kit.joana.ifc.sdg.core.SecurityNode;
 import edu.kit.joana.ifc.sdg.core.violations.ClassifiedViolation;
 import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNodeTuple;
 import edu.kit.joana.ifc.sdg.graph.chopper.conc.ContextSensitiveThreadChopper;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 import edu.kit.joana.util.Log;
@@ -41,11 +44,19 @@ public class ConcurrentViolationChop {
 
 
 		LinkedList<ClassifiedViolation> ret = new LinkedList<ClassifiedViolation>();
+		// violations with the same source and sink share their chop
+		Map<SDGNodeTuple, Collection<SecurityNode>> chops = new HashMap<SDGNodeTuple, Collection<SecurityNode>>();
 
 		//merge all violations into return list
 		for (ClassifiedViolation sViolation : violations) {
             // Generate ViolationPathes and attach them to violation nodes
-            ViolationPathes vps = generateChop(sViolation.getSink(), sViolation.getSource());
+            SDGNodeTuple key = new SDGNodeTuple(sViolation.getSource(), sViolation.getSink());
+            Collection<SecurityNode> set = chops.get(key);
+            if (set == null) {
+            	set = chop(sViolation.getSink(), sViolation.getSource());
+            	chops.put(key, set);
+            }
+            ViolationPathes vps = generateChop(set);
 			ClassifiedViolation vio = ClassifiedViolation.createViolation(sViolation.getSink(), sViolation.getSource(), vps, sViolation.getSink().getRequired());
 			ret.add(vio);
 		}
@@ -57,8 +68,7 @@ public class ConcurrentViolationChop {
 	}
 
 
-	private ViolationPathes generateChop (SecurityNode outNode, SecurityNode violation) {
-		Collection<SecurityNode> set = chop(outNode, violation);
+	private ViolationPathes generateChop (Collection<SecurityNode> set) {
 		LinkedList<SecurityNode> chopList = new LinkedList<SecurityNode>();
 
 		for (SecurityNode n : set) {
@@ -7,6 +7,8 @@
  */
 package edu.kit.joana.ifc.sdg.core.violations.paths;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -15,6 +17,9 @@ import edu.kit.joana.ifc.sdg.core.SecurityNode;
 import edu.kit.joana.ifc.sdg.core.violations.ClassifiedViolation;
 import edu.kit.joana.ifc.sdg.core.violations.IIllegalFlow;
 import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.chopper.BatchChopper;
+import edu.kit.joana.ifc.sdg.graph.chopper.ChoppingCriterion;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
@@ -31,25 +36,39 @@ public class ViolationChop {
     }
 
 
-    private ChopWrapper chopper = new ChopWrapper(null);
+    private BatchChopper chopper = new BatchChopper(null);
 
+    /**
+     * Computes the chops of all violations in one batch, which shares the slices of equal sources and sinks.
+     */
 	public List<ClassifiedViolation> addChop(Collection<ClassifiedViolation> violations, SDG g)
 	throws NotInLatticeException {
 		long viostart = System.currentTimeMillis();
 		debug.outln("Started viopathgen at " + viostart + " for " + violations.size() + " violations");
 
-		LinkedList<ClassifiedViolation> ret = new LinkedList<ClassifiedViolation>();
+		chopper.setGraph(g);
 
-		//merge all violations into return list
-		for (IIllegalFlow<SecurityNode> sViolation : violations) {
-            // Generate ViolationPathes and attach them to violation nodes
-            ViolationPathes vps = generateChop(sViolation.getSink(), sViolation.getSource(), g);
-			ClassifiedViolation vio = ClassifiedViolation.createViolation(sViolation.getSink(), sViolation.getSource(), vps, sViolation.getSink().getRequired());
-
-			vio.setViolationPathes(vps);
-			ret.add(vio);
+		final List<IIllegalFlow<SecurityNode>> flows = new ArrayList<IIllegalFlow<SecurityNode>>(violations);
+		final List<ChoppingCriterion> criteria = new ArrayList<ChoppingCriterion>(flows.size());
+		for (IIllegalFlow<SecurityNode> sViolation : flows) {
+			criteria.add(new ChoppingCriterion(sViolation.getSource(), sViolation.getSink()));
 		}
 
+		final LinkedList<ClassifiedViolation> ret = new LinkedList<ClassifiedViolation>();
+
+		//merge all violations into return list
+		chopper.chopAll(criteria, new BatchChopper.ChopListener() {
+			public void chopped(int index, ChoppingCriterion criterion, BitSet chop) {
+				// Generate ViolationPathes and attach them to violation nodes
+				IIllegalFlow<SecurityNode> sViolation = flows.get(index);
+				ViolationPathes vps = generateChop(chop);
+				ClassifiedViolation vio = ClassifiedViolation.createViolation(sViolation.getSink(), sViolation.getSource(), vps, sViolation.getSink().getRequired());
+
+				vio.setViolationPathes(vps);
+				ret.add(vio);
+			}
+		});
+
 		long vioend = System.currentTimeMillis();
 		debug.outln("Ended viopathgen at " + vioend + " duration: " + (vioend - viostart));
 		
@@ -57,13 +76,11 @@ public class ViolationChop {
 	}
 
 
-	private ViolationPathes generateChop (SecurityNode outNode, SecurityNode violation, SDG g) {
-	    chopper.setSDG(g);
-		Collection<SecurityNode> set = chopper.chop(outNode, violation);
+	private ViolationPathes generateChop (BitSet chop) {
 		LinkedList<SecurityNode> chopList = new LinkedList<SecurityNode>();
 
-		for (SecurityNode n : set) {
-			chopList.add(n);
+		for (SDGNode n : chopper.toNodes(chop)) {
+			chopList.add((SecurityNode) n);
 		}
 
 		ViolationPathes vps = new ViolationPathes();
@@ -0,0 +1,81 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.lattice;
+
+/**
+ * An immutable lattice whose elements are numbered densely from 0 to
+ * {@link #size()} - 1. The lattice operations are also available on these
+ * numbers, which avoids the lookup and comparison of the elements themselves.
+ *
+ * @param <ElementType>
+ *            the type of the elements contained in the lattice.
+ */
+public interface IIntStaticLattice<ElementType> extends IStaticLattice<ElementType> {
+	/**
+	 * Returns the number of elements in the lattice.
+	 *
+	 * @return the number of elements in the lattice.
+	 */
+	public int size();
+
+	/**
+	 * Returns the number of the given element.
+	 *
+	 * @param s
+	 *            an element of the lattice.
+	 * @return the number of <code>s</code>.
+	 * @throws NotInLatticeException
+	 *             if <code>s</code> is not in the lattice.
+	 */
+	public int indexOf(ElementType s) throws NotInLatticeException;
+
+	/**
+	 * Returns the element with the given number.
+	 *
+	 * @param i
+	 *            a number between 0 and {@link #size()} - 1.
+	 * @return the element with number <code>i</code>.
+	 */
+	public ElementType elementAt(int i);
+
+	/**
+	 * Calculates the least upper bound of two elements given by their numbers.
+	 *
+	 * @return the number of the lub of the elements with numbers <code>s</code>
+	 *         and <code>t</code>.
+	 */
+	public int leastUpperBound(int s, int t);
+
+	/**
+	 * Calculates the greatest lower bound of two elements given by their
+	 * numbers.
+	 *
+	 * @return the number of the glb of the elements with numbers <code>s</code>
+	 *         and <code>t</code>.
+	 */
+	public int greatestLowerBound(int s, int t);
+
+	/**
+	 * Checks whether an element is lower than or equal to another, both given by
+	 * their numbers.
+	 *
+	 * @return <code>true</code> iff the element with number <code>s</code> is
+	 *         lower than or equal to the element with number <code>t</code>.
+	 */
+	public boolean isLeq(int s, int t);
+
+	/**
+	 * @return the number of the top element.
+	 */
+	public int getTopIndex();
+
+	/**
+	 * @return the number of the bottom element.
+	 */
+	public int getBottomIndex();
+}
@@ -19,6 +19,7 @@ import java.util.StringTokenizer;
 
 import edu.kit.joana.ifc.sdg.lattice.impl.EditableLatticeSimple;
 import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeBitset;
+import edu.kit.joana.ifc.sdg.lattice.impl.StaticLatticeTable;
 
 
 /**
@@ -46,6 +47,20 @@ public class LatticeUtil {
 		return new StaticLatticeBitset<ElementType>(lattice.getElements(), lattice);
 	}
 
+	/**
+	 * Compiles a given lattice to an immutable representation whose elements
+	 * are numbered densely and whose lub and glb operations are table lookups.
+	 *
+	 * @param <ElementType>
+	 *            the type of the elements contained in the lattice.
+	 * @param lattice
+	 *            the lattice.
+	 * @return an immutable table representation of <code>lattice</code>.
+	 */
+	public static <ElementType> IIntStaticLattice<ElementType> compileTableLattice(IEditableLattice<ElementType> lattice) {
+		return new StaticLatticeTable<ElementType>(lattice.getElements(), lattice);
+	}
+
 	/**
 	 * Loads a lattice containing string elements from a encoding contained in a
 	 * string.
@@ -480,6 +495,10 @@ public class LatticeUtil {
 	 * element.
 	 */
 	public static <ElementType> boolean isLeq(IStaticLattice<ElementType> l, ElementType l1, ElementType l2) {
+		if (l instanceof IIntStaticLattice) {
+			IIntStaticLattice<ElementType> il = (IIntStaticLattice<ElementType>) l;
+			return il.isLeq(il.indexOf(l1), il.indexOf(l2));
+		}
 		return l.leastUpperBound(l1, l2).equals(l2);
 	}
 }
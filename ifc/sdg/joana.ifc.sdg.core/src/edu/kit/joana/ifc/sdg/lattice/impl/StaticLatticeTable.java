@@ -0,0 +1,304 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.lattice.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.kit.joana.ifc.sdg.lattice.IIntStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.ILatticeOperations;
+import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.InvalidLatticeException;
+import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
+
+/**
+ * This class implements a static lattice whose elements are numbered densely.
+ * For lattices with at most {@link #MAX_TABLE_SIZE} elements, glb and lub of
+ * all pairs of elements are precomputed, so each operation is a table lookup.
+ * Larger lattices store the set of greater and the set of lower elements of
+ * each element as bit vectors, so comparisons take O(1) and glb and lub
+ * operations O(n / 64) word operations plus a scan of the common bounds.
+ *
+ * @param <ElementType>
+ *            the type of the elements contained in the lattice.
+ */
+public class StaticLatticeTable<ElementType> implements IIntStaticLattice<ElementType> {
+
+	/** the maximal number of elements for which glb and lub tables are precomputed */
+	public static final int MAX_TABLE_SIZE = 256;
+
+	private final List<ElementType> elements;
+
+	private final Map<ElementType, Integer> index;
+
+	/** up[i] has bit j set iff element i is lower than or equal to element j */
+	private final long[][] up;
+
+	/** down[i] has bit j set iff element j is lower than or equal to element i */
+	private final long[][] down;
+
+	private final int[] upCount;
+
+	private final int[] downCount;
+
+	private final int top;
+
+	private final int bottom;
+
+	/** lub and glb tables, null for large lattices */
+	private final int[] lub;
+
+	private final int[] glb;
+
+	/**
+	 * Constructor. Builds the tables from the order of the elements.
+	 *
+	 * @param elements
+	 *            the elements in the lattice.
+	 * @param ops
+	 *            the <code>ILatticeOperations</code> object providing the
+	 *            relations between the lattice's elements.
+	 */
+	public StaticLatticeTable(Collection<ElementType> elements, ILatticeOperations<ElementType> ops) {
+		this(new ArrayList<ElementType>(elements), ops, null);
+	}
+
+	/**
+	 * Constructor. Builds the tables from the lub operation of another
+	 * representation of the lattice.
+	 *
+	 * @param lattice
+	 *            the lattice.
+	 */
+	public StaticLatticeTable(IStaticLattice<ElementType> lattice) {
+		this(new ArrayList<ElementType>(lattice.getElements()), null, lattice);
+	}
+
+	private StaticLatticeTable(List<ElementType> elements, ILatticeOperations<ElementType> ops,
+			IStaticLattice<ElementType> lattice) {
+		assert elements != null;
+		assert elements.size() > 0;
+
+		this.elements = Collections.unmodifiableList(elements);
+		final int n = elements.size();
+		this.index = new HashMap<ElementType, Integer>(2 * n);
+		for (int i = 0; i < n; i++) {
+			index.put(elements.get(i), i);
+		}
+
+		final int words = (n + 63) >>> 6;
+		this.up = new long[n][words];
+		this.down = new long[n][words];
+		if (ops != null) {
+			computeUpSets(ops);
+		} else {
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					if (lattice.leastUpperBound(elements.get(i), elements.get(j)).equals(elements.get(j))) {
+						set(up[i], j);
+					}
+				}
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (get(up[i], j)) {
+					set(down[j], i);
+				}
+			}
+		}
+		this.upCount = new int[n];
+		this.downCount = new int[n];
+		int top = -1;
+		int bottom = -1;
+		for (int i = 0; i < n; i++) {
+			upCount[i] = cardinality(up[i]);
+			downCount[i] = cardinality(down[i]);
+			if (upCount[i] == n) {
+				bottom = i;
+			}
+			if (downCount[i] == n) {
+				top = i;
+			}
+		}
+		if (top < 0 || bottom < 0) {
+			throw new InvalidLatticeException("The lattice does not have a unique top and bottom element.");
+		}
+		this.top = top;
+		this.bottom = bottom;
+
+		if (n <= MAX_TABLE_SIZE) {
+			this.lub = new int[n * n];
+			this.glb = new int[n * n];
+			for (int i = 0; i < n; i++) {
+				for (int j = i; j < n; j++) {
+					lub[i * n + j] = lub[j * n + i] = bound(up, upCount, i, j);
+					glb[i * n + j] = glb[j * n + i] = bound(down, downCount, i, j);
+				}
+			}
+		} else {
+			this.lub = null;
+			this.glb = null;
+		}
+	}
+
+	/* up(x) = {x} united with the up sets of all immediately greater elements */
+	private void computeUpSets(ILatticeOperations<ElementType> ops) {
+		final boolean[] done = new boolean[elements.size()];
+		for (int i = 0; i < elements.size(); i++) {
+			computeUpSet(i, ops, done, new boolean[elements.size()]);
+		}
+	}
+
+	private void computeUpSet(int i, ILatticeOperations<ElementType> ops, boolean[] done, boolean[] onPath) {
+		if (done[i]) {
+			return;
+		}
+		if (onPath[i]) {
+			throw new InvalidLatticeException("The lattice contains a cycle through " + elements.get(i) + ".");
+		}
+		onPath[i] = true;
+		set(up[i], i);
+		for (ElementType g : ops.getImmediatelyGreater(elements.get(i))) {
+			final int j = indexOf(g);
+			computeUpSet(j, ops, done, onPath);
+			for (int w = 0; w < up[i].length; w++) {
+				up[i][w] |= up[j][w];
+			}
+		}
+		onPath[i] = false;
+		done[i] = true;
+	}
+
+	/*
+	 * The least element of up(i) & up(j) is the one with the largest up set,
+	 * and analogously for the greatest lower bound with the down sets.
+	 */
+	private int bound(long[][] sets, int[] counts, int i, int j) {
+		final long[] a = sets[i];
+		final long[] b = sets[j];
+		int best = -1;
+		for (int w = 0; w < a.length; w++) {
+			long common = a[w] & b[w];
+			while (common != 0) {
+				final int k = (w << 6) + Long.numberOfTrailingZeros(common);
+				common &= common - 1;
+				if (best < 0 || counts[k] > counts[best]) {
+					best = k;
+				}
+			}
+		}
+		// the bound has to be below (or above) all common bounds
+		if (best < 0 || counts[best] < commonCount(a, b)) {
+			throw new InvalidLatticeException("No unique bound of " + elements.get(i) + " and " + elements.get(j) + ".");
+		}
+		return best;
+	}
+
+	private static int commonCount(long[] a, long[] b) {
+		int count = 0;
+		for (int w = 0; w < a.length; w++) {
+			count += Long.bitCount(a[w] & b[w]);
+		}
+		return count;
+	}
+
+	private static int cardinality(long[] a) {
+		int count = 0;
+		for (long w : a) {
+			count += Long.bitCount(w);
+		}
+		return count;
+	}
+
+	private static boolean get(long[] a, int i) {
+		return (a[i >>> 6] & (1L << i)) != 0;
+	}
+
+	private static void set(long[] a, int i) {
+		a[i >>> 6] |= 1L << i;
+	}
+
+	/**
+	 * Returns the given lattice if it already provides the int operations,
+	 * otherwise a <code>StaticLatticeTable</code> of it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <ElementType> IIntStaticLattice<ElementType> of(IStaticLattice<ElementType> lattice) {
+		if (lattice instanceof IIntStaticLattice) {
+			return (IIntStaticLattice<ElementType>) lattice;
+		} else if (lattice instanceof ILatticeOperations) {
+			return new StaticLatticeTable<ElementType>(lattice.getElements(), (ILatticeOperations<ElementType>) lattice);
+		}
+		return new StaticLatticeTable<ElementType>(lattice);
+	}
+
+	public int size() {
+		return elements.size();
+	}
+
+	public int indexOf(ElementType s) throws NotInLatticeException {
+		final Integer i = index.get(s);
+		if (i == null) {
+			throw new NotInLatticeException("Element " + s + " is not in the lattice.");
+		}
+		return i;
+	}
+
+	public ElementType elementAt(int i) {
+		return elements.get(i);
+	}
+
+	public int leastUpperBound(int s, int t) {
+		return (lub != null ? lub[s * elements.size() + t] : bound(up, upCount, s, t));
+	}
+
+	public int greatestLowerBound(int s, int t) {
+		return (glb != null ? glb[s * elements.size() + t] : bound(down, downCount, s, t));
+	}
+
+	public boolean isLeq(int s, int t) {
+		return get(up[s], t);
+	}
+
+	public int getTopIndex() {
+		return top;
+	}
+
+	public int getBottomIndex() {
+		return bottom;
+	}
+
+	public ElementType greatestLowerBound(ElementType s, ElementType t) throws NotInLatticeException {
+		return elements.get(greatestLowerBound(indexOf(s), indexOf(t)));
+	}
+
+	public ElementType leastUpperBound(ElementType s, ElementType t) throws NotInLatticeException {
+		return elements.get(leastUpperBound(indexOf(s), indexOf(t)));
+	}
+
+	public ElementType getTop() {
+		return elements.get(top);
+	}
+
+	public ElementType getBottom() {
+		return elements.get(bottom);
+	}
+
+	public Collection<ElementType> getElements() {
+		return elements;
+	}
+
+	public String toString() {
+		return elements.toString();
+	}
+}
@@ -0,0 +1,764 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jgrapht.graph.EdgeSetFactory;
+
+/**
+ * A read-only SDG that stores its edges in compressed sparse row (CSR) form.
+ * <p>
+ * Nodes are numbered densely from 0 to {@link #nodeCount()}-1 (the <i>index</i> of a node, which is
+ * different from its ID). The outgoing edges of the node with index i occupy the positions
+ * [{@link #firstOut(int) firstOut(i)}, {@link #endOut(int) endOut(i)}) of the outgoing adjacency arrays,
+ * the incoming edges the positions [{@link #firstIn(int) firstIn(i)}, {@link #endIn(int) endIn(i)})
+ * of the incoming adjacency arrays. Edge kinds are stored as one byte per edge, labels are stored sparsely.
+ * <p>
+ * No SDGEdge objects are kept. The methods of the SDG API that return edges create them on demand, so all
+ * existing algorithms keep working on a CompactSDG. Performance critical code should use the int-based
+ * traversal methods instead, which do not allocate:
+ * <pre>
+ * final int idx = csdg.indexOf(node);
+ * for (int pos = csdg.firstIn(idx); pos < csdg.endIn(idx); pos++) {
+ *     SDGEdge.Kind kind = csdg.inKind(pos);
+ *     int source = csdg.inSource(pos);
+ *     ...
+ * }
+ * </pre>
+ * All methods that would modify the graph throw an UnsupportedOperationException. Use {@link #clone()} to
+ * obtain a modifiable SDG with the same nodes and edges.
+ */
+public final class CompactSDG extends SDG {
+
+	/** Traversal direction of an algorithm running on a CompactSDG. */
+	public enum Direction {
+		/** follow incoming edges */
+		BACKWARD,
+		/** follow outgoing edges */
+		FORWARD
+	}
+
+	private static final SDGEdge.Kind[] KINDS = SDGEdge.Kind.values();
+
+	private final SDGNode[] nodes;
+	private final TIntIntHashMap id2index;
+
+	private final int[] outStart;
+	private final int[] outTarget;
+	private final byte[] outKind;
+	private final TIntObjectHashMap<String> outLabel;
+
+	private final int[] inStart;
+	private final int[] inSource;
+	private final byte[] inKind;
+	private final TIntObjectHashMap<String> inLabel;
+
+	private final Set<SDGNode> vertexView = new VertexView();
+	private final Set<SDGEdge> edgeView = new AllEdgesView();
+
+	private CompactSDG(final String name, final SDGNode[] nodes, final TIntIntHashMap id2index,
+			final int[] outStart, final int[] outTarget, final byte[] outKind, final TIntObjectHashMap<String> outLabel,
+			final int[] inStart, final int[] inSource, final byte[] inKind, final TIntObjectHashMap<String> inLabel) {
+		super(name);
+		this.nodes = nodes;
+		this.id2index = id2index;
+		this.outStart = outStart;
+		this.outTarget = outTarget;
+		this.outKind = outKind;
+		this.outLabel = outLabel;
+		this.inStart = inStart;
+		this.inSource = inSource;
+		this.inKind = inKind;
+		this.inLabel = inLabel;
+	}
+
+	/**
+	 * Creates a compact copy of the given SDG. Nodes are shared, edges are packed.
+	 * The given SDG can be discarded afterwards.
+	 */
+	public static CompactSDG compact(final SDG sdg) {
+		if (sdg instanceof CompactSDG) {
+			return (CompactSDG) sdg;
+		}
+
+		final Builder b = new Builder(sdg.getName(), sdg.vertexSet().size(), sdg.edgeSet().size());
+
+		for (final SDGNode n : sdg.vertexSet()) {
+			b.addNode(n);
+		}
+
+		for (final SDGEdge e : sdg.edgeSet()) {
+			b.addEdge(e.getSource().getId(), e.getTarget().getId(), e.getKind(), e.getLabel());
+		}
+
+		final CompactSDG csdg = b.build();
+		csdg.setJoanaCompiler(sdg.getJoanaCompiler());
+		csdg.setThreadsInfo(sdg.getThreadsInfo());
+		csdg.setNode2Instr(sdg.getNode2Instr());
+		csdg.setEntryToCGNode(sdg.getEntryToCGNode());
+		csdg.setFileName(sdg.getFileName());
+		csdg.setRoot(sdg.getRoot());
+
+		return csdg;
+	}
+
+	/**
+	 * Collects nodes and edges and packs them into a CompactSDG. Edges are buffered in primitive arrays,
+	 * so a CompactSDG can be created without ever building a regular SDG.
+	 */
+	public static final class Builder {
+
+		private final String name;
+		private SDGNode[] nodes;
+		private int numNodes = 0;
+		private int[] src;
+		private int[] dst;
+		private byte[] kind;
+		private final TIntObjectHashMap<String> label = new TIntObjectHashMap<String>();
+		private int numEdges = 0;
+
+		public Builder(final String name) {
+			this(name, 16, 16);
+		}
+
+		public Builder(final String name, final int expectedNodes, final int expectedEdges) {
+			this.name = name;
+			this.nodes = new SDGNode[Math.max(expectedNodes, 1)];
+			this.src = new int[Math.max(expectedEdges, 1)];
+			this.dst = new int[src.length];
+			this.kind = new byte[src.length];
+		}
+
+		public void addNode(final SDGNode n) {
+			if (numNodes == nodes.length) {
+				nodes = Arrays.copyOf(nodes, nodes.length * 2);
+			}
+
+			nodes[numNodes++] = n;
+		}
+
+		/**
+		 * Adds an edge between the nodes with the given IDs. The label may be null.
+		 */
+		public void addEdge(final int sourceId, final int targetId, final SDGEdge.Kind k, final String l) {
+			if (numEdges == src.length) {
+				final int newSize = src.length * 2;
+				src = Arrays.copyOf(src, newSize);
+				dst = Arrays.copyOf(dst, newSize);
+				kind = Arrays.copyOf(kind, newSize);
+			}
+
+			src[numEdges] = sourceId;
+			dst[numEdges] = targetId;
+			kind[numEdges] = (byte) k.ordinal();
+			if (l != null) {
+				label.put(numEdges, l);
+			}
+			numEdges++;
+		}
+
+		public CompactSDG build() {
+			// nodes are ordered by id, so the layout does not depend on hash set iteration order
+			final SDGNode[] ns = Arrays.copyOf(nodes, numNodes);
+			Arrays.sort(ns, SDGNode.getIDComparator());
+
+			final TIntIntHashMap id2index = new TIntIntHashMap(numNodes * 2, 0.5f, Integer.MIN_VALUE, -1);
+			for (int i = 0; i < ns.length; i++) {
+				if (id2index.put(ns[i].getId(), i) != -1) {
+					throw new IllegalArgumentException("Duplicate node id " + ns[i].getId());
+				}
+			}
+
+			final int[] outStart = new int[numNodes + 1];
+			final int[] inStart = new int[numNodes + 1];
+
+			for (int e = 0; e < numEdges; e++) {
+				final int s = index(id2index, src[e]);
+				final int t = index(id2index, dst[e]);
+				src[e] = s;
+				dst[e] = t;
+				outStart[s + 1]++;
+				inStart[t + 1]++;
+			}
+
+			for (int i = 0; i < numNodes; i++) {
+				outStart[i + 1] += outStart[i];
+				inStart[i + 1] += inStart[i];
+			}
+
+			final int[] outTarget = new int[numEdges];
+			final byte[] outKind = new byte[numEdges];
+			final TIntObjectHashMap<String> outLabel = new TIntObjectHashMap<String>();
+			final int[] inSource = new int[numEdges];
+			final byte[] inKind = new byte[numEdges];
+			final TIntObjectHashMap<String> inLabel = new TIntObjectHashMap<String>();
+			final int[] outFill = Arrays.copyOf(outStart, numNodes);
+			final int[] inFill = Arrays.copyOf(inStart, numNodes);
+
+			for (int e = 0; e < numEdges; e++) {
+				final int opos = outFill[src[e]]++;
+				outTarget[opos] = dst[e];
+				outKind[opos] = kind[e];
+				final int ipos = inFill[dst[e]]++;
+				inSource[ipos] = src[e];
+				inKind[ipos] = kind[e];
+
+				final String l = label.get(e);
+				if (l != null) {
+					outLabel.put(opos, l);
+					inLabel.put(ipos, l);
+				}
+			}
+
+			// release the buffers early, they may be large
+			nodes = null;
+			src = dst = null;
+			kind = null;
+			label.clear();
+
+			return new CompactSDG(name, ns, id2index, outStart, outTarget, outKind, outLabel,
+					inStart, inSource, inKind, inLabel);
+		}
+
+		private static int index(final TIntIntHashMap id2index, final int id) {
+			final int idx = id2index.get(id);
+			if (idx < 0) {
+				throw new IllegalArgumentException("Edge refers to unknown node " + id);
+			}
+
+			return idx;
+		}
+	}
+
+	/* int-based traversal */
+
+	/**
+	 * @return the number of nodes in this graph.
+	 */
+	public int nodeCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * @return the number of edges in this graph.
+	 */
+	public int edgeCount() {
+		return outTarget.length;
+	}
+
+	/**
+	 * Returns the dense index of the given node, or -1 if the node is not part of this graph.
+	 */
+	public int indexOf(final SDGNode node) {
+		return id2index.get(node.getId());
+	}
+
+	/**
+	 * Returns the node with the given dense index.
+	 */
+	public SDGNode nodeAt(final int idx) {
+		return nodes[idx];
+	}
+
+	/** First position of the outgoing edges of node idx. */
+	public int firstOut(final int idx) {
+		return outStart[idx];
+	}
+
+	/** Position after the last outgoing edge of node idx. */
+	public int endOut(final int idx) {
+		return outStart[idx + 1];
+	}
+
+	/** Index of the target node of the outgoing edge at position pos. */
+	public int outTarget(final int pos) {
+		return outTarget[pos];
+	}
+
+	/** Kind of the outgoing edge at position pos. */
+	public SDGEdge.Kind outKind(final int pos) {
+		return KINDS[outKind[pos]];
+	}
+
+	/** Label of the outgoing edge at position pos. Can be null. */
+	public String outLabel(final int pos) {
+		return outLabel.get(pos);
+	}
+
+	/** First position of the incoming edges of node idx. */
+	public int firstIn(final int idx) {
+		return inStart[idx];
+	}
+
+	/** Position after the last incoming edge of node idx. */
+	public int endIn(final int idx) {
+		return inStart[idx + 1];
+	}
+
+	/** Index of the source node of the incoming edge at position pos. */
+	public int inSource(final int pos) {
+		return inSource[pos];
+	}
+
+	/** Kind of the incoming edge at position pos. */
+	public SDGEdge.Kind inKind(final int pos) {
+		return KINDS[inKind[pos]];
+	}
+
+	/** Label of the incoming edge at position pos. Can be null. */
+	public String inLabel(final int pos) {
+		return inLabel.get(pos);
+	}
+
+	/** First position of the edges of node idx that are traversed in direction dir. */
+	public int first(final Direction dir, final int idx) {
+		return (dir == Direction.BACKWARD ? inStart[idx] : outStart[idx]);
+	}
+
+	/** Position after the last edge of node idx that is traversed in direction dir. */
+	public int end(final Direction dir, final int idx) {
+		return (dir == Direction.BACKWARD ? inStart[idx + 1] : outStart[idx + 1]);
+	}
+
+	/** Index of the node reached by the edge at position pos when traversing in direction dir. */
+	public int adjacent(final Direction dir, final int pos) {
+		return (dir == Direction.BACKWARD ? inSource[pos] : outTarget[pos]);
+	}
+
+	/** Kind of the edge at position pos when traversing in direction dir. */
+	public SDGEdge.Kind kind(final Direction dir, final int pos) {
+		return KINDS[dir == Direction.BACKWARD ? inKind[pos] : outKind[pos]];
+	}
+
+	private SDGEdge outEdge(final int idx, final int pos) {
+		return new SDGEdge(nodes[idx], nodes[outTarget[pos]], KINDS[outKind[pos]], outLabel.get(pos));
+	}
+
+	private SDGEdge inEdge(final int idx, final int pos) {
+		return new SDGEdge(nodes[inSource[pos]], nodes[idx], KINDS[inKind[pos]], inLabel.get(pos));
+	}
+
+	/**
+	 * Returns the dense index of the given node, or -1 if it is null or no equal node is part of this graph.
+	 */
+	private int vertexIndex(final SDGNode node) {
+		final int idx = (node == null ? -1 : id2index.get(node.getId()));
+		return (idx >= 0 && nodes[idx].equals(node) ? idx : -1);
+	}
+
+	private int checkedIndex(final SDGNode node) {
+		final int idx = vertexIndex(node);
+		if (idx < 0) {
+			throw new IllegalArgumentException("no such vertex in graph: " + node);
+		}
+
+		return idx;
+	}
+
+	/* read-only SDG API */
+
+	@Override
+	public Set<SDGNode> vertexSet() {
+		return vertexView;
+	}
+
+	@Override
+	public boolean containsVertex(final SDGNode node) {
+		return vertexIndex(node) >= 0;
+	}
+
+	@Override
+	public SDGNode getNode(final int id) {
+		final int idx = id2index.get(id);
+		return (idx < 0 ? null : nodes[idx]);
+	}
+
+	@Override
+	public Set<SDGEdge> edgeSet() {
+		return edgeView;
+	}
+
+	@Override
+	public Set<SDGEdge> outgoingEdgesOf(final SDGNode node) {
+		final int idx = checkedIndex(node);
+		final EdgeList edges = new EdgeList(outStart[idx + 1] - outStart[idx]);
+		for (int pos = outStart[idx]; pos < outStart[idx + 1]; pos++) {
+			edges.add(outEdge(idx, pos));
+		}
+
+		return edges;
+	}
+
+	@Override
+	public Set<SDGEdge> incomingEdgesOf(final SDGNode node) {
+		final int idx = checkedIndex(node);
+		final EdgeList edges = new EdgeList(inStart[idx + 1] - inStart[idx]);
+		for (int pos = inStart[idx]; pos < inStart[idx + 1]; pos++) {
+			edges.add(inEdge(idx, pos));
+		}
+
+		return edges;
+	}
+
+	@Override
+	public Set<SDGEdge> edgesOf(final SDGNode node) {
+		final int idx = checkedIndex(node);
+		final EdgeList edges = new EdgeList(degreeOf(node));
+		for (int pos = outStart[idx]; pos < outStart[idx + 1]; pos++) {
+			edges.add(outEdge(idx, pos));
+		}
+
+		for (int pos = inStart[idx]; pos < inStart[idx + 1]; pos++) {
+			// self loops are already contained in the outgoing edges
+			if (inSource[pos] != idx) {
+				edges.add(inEdge(idx, pos));
+			}
+		}
+
+		return edges;
+	}
+
+	@Override
+	public int outDegreeOf(final SDGNode node) {
+		final int idx = checkedIndex(node);
+		return outStart[idx + 1] - outStart[idx];
+	}
+
+	@Override
+	public int inDegreeOf(final SDGNode node) {
+		final int idx = checkedIndex(node);
+		return inStart[idx + 1] - inStart[idx];
+	}
+
+	@Override
+	public int degreeOf(final SDGNode node) {
+		return outDegreeOf(node) + inDegreeOf(node);
+	}
+
+	@Override
+	public Set<SDGEdge> getAllEdges(final SDGNode source, final SDGNode target) {
+		final int sidx = vertexIndex(source);
+		final int tidx = vertexIndex(target);
+		if (sidx < 0 || tidx < 0) {
+			return null;
+		}
+
+		final EdgeList edges = new EdgeList(2);
+		for (int pos = outStart[sidx]; pos < outStart[sidx + 1]; pos++) {
+			if (outTarget[pos] == tidx) {
+				edges.add(outEdge(sidx, pos));
+			}
+		}
+
+		return edges;
+	}
+
+	@Override
+	public SDGEdge getEdge(final SDGNode source, final SDGNode target) {
+		final int sidx = vertexIndex(source);
+		final int tidx = vertexIndex(target);
+		if (sidx < 0 || tidx < 0) {
+			return null;
+		}
+
+		for (int pos = outStart[sidx]; pos < outStart[sidx + 1]; pos++) {
+			if (outTarget[pos] == tidx) {
+				return outEdge(sidx, pos);
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean containsEdge(final SDGNode source, final SDGNode target) {
+		final int sidx = vertexIndex(source);
+		final int tidx = vertexIndex(target);
+		if (sidx < 0 || tidx < 0) {
+			return false;
+		}
+
+		for (int pos = outStart[sidx]; pos < outStart[sidx + 1]; pos++) {
+			if (outTarget[pos] == tidx) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean containsEdge(final SDGEdge edge) {
+		if (edge == null) {
+			return false;
+		}
+
+		final int sidx = vertexIndex(edge.getSource());
+		final int tidx = vertexIndex(edge.getTarget());
+		if (sidx < 0 || tidx < 0) {
+			return false;
+		}
+
+		final byte k = (byte) edge.getKind().ordinal();
+		for (int pos = outStart[sidx]; pos < outStart[sidx + 1]; pos++) {
+			if (outTarget[pos] == tidx && outKind[pos] == k) {
+				final String l = outLabel.get(pos);
+				if (l == null ? edge.getLabel() == null : l.equals(edge.getLabel())) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public SDGNode getEdgeSource(final SDGEdge edge) {
+		return edge.getSource();
+	}
+
+	@Override
+	public SDGNode getEdgeTarget(final SDGEdge edge) {
+		return edge.getTarget();
+	}
+
+	@Override
+	public double getEdgeWeight(final SDGEdge edge) {
+		return 1.0;
+	}
+
+	/**
+	 * Returns a modifiable copy of this graph that is backed by a regular SDG.
+	 */
+	@Override
+	public SDG clone() {
+		final SDG data = super.clone();
+		data.setNode2Instr(getNode2Instr());
+		data.setEntryToCGNode(getEntryToCGNode());
+		data.setFileName(getFileName());
+
+		return data;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return this == obj;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return "CompactSDG(" + name + ": " + nodeCount() + " nodes, " + edgeCount() + " edges)";
+	}
+
+	/* modifications are not supported */
+
+	@Override
+	public boolean addVertex(final SDGNode node) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public boolean addEdge(final SDGEdge edge) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public boolean addEdge(final SDGNode source, final SDGNode target, final SDGEdge edge) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public SDGEdge addEdge(final SDGNode source, final SDGNode target) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public boolean removeVertex(final SDGNode node) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public boolean removeAllVertices(final Collection<? extends SDGNode> nodes) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public boolean removeEdge(final SDGEdge edge) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public SDGEdge removeEdge(final SDGNode source, final SDGNode target) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public boolean removeAllEdges(final Collection<? extends SDGEdge> edges) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public Set<SDGEdge> removeAllEdges(final SDGNode source, final SDGNode target) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public void setEdgeSetFactory(final EdgeSetFactory<SDGNode, SDGEdge> factory) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	@Override
+	public void setEdgeWeight(final SDGEdge edge, final double weight) {
+		throw new UnsupportedOperationException("CompactSDG is read-only.");
+	}
+
+	/* views */
+
+	/**
+	 * Freshly materialized edges of a single node. Edges are pairwise distinct by construction,
+	 * so a list suffices to back the set.
+	 */
+	private static final class EdgeList extends AbstractSet<SDGEdge> {
+
+		private SDGEdge[] edges;
+		private int size = 0;
+
+		private EdgeList(final int capacity) {
+			edges = new SDGEdge[capacity];
+		}
+
+		@Override
+		public boolean add(final SDGEdge e) {
+			if (size == edges.length) {
+				edges = Arrays.copyOf(edges, Math.max(2 * size, 2));
+			}
+
+			edges[size++] = e;
+			return true;
+		}
+
+		@Override
+		public Iterator<SDGEdge> iterator() {
+			return new Iterator<SDGEdge>() {
+				private int cur = 0;
+
+				public boolean hasNext() {
+					return cur < size;
+				}
+
+				public SDGEdge next() {
+					if (cur >= size) {
+						throw new NoSuchElementException();
+					}
+
+					return edges[cur++];
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private final class VertexView extends AbstractSet<SDGNode> {
+
+		@Override
+		public Iterator<SDGNode> iterator() {
+			return new Iterator<SDGNode>() {
+				private int cur = 0;
+
+				public boolean hasNext() {
+					return cur < nodes.length;
+				}
+
+				public SDGNode next() {
+					if (cur >= nodes.length) {
+						throw new NoSuchElementException();
+					}
+
+					return nodes[cur++];
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException("CompactSDG is read-only.");
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return o instanceof SDGNode && containsVertex((SDGNode) o);
+		}
+
+		@Override
+		public int size() {
+			return nodes.length;
+		}
+	}
+
+	private final class AllEdgesView extends AbstractSet<SDGEdge> {
+
+		@Override
+		public Iterator<SDGEdge> iterator() {
+			return new Iterator<SDGEdge>() {
+				private int node = 0;
+				private int pos = 0;
+
+				public boolean hasNext() {
+					return pos < outTarget.length;
+				}
+
+				public SDGEdge next() {
+					if (pos >= outTarget.length) {
+						throw new NoSuchElementException();
+					}
+
+					while (outStart[node + 1] <= pos) {
+						node++;
+					}
+
+					return outEdge(node, pos++);
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException("CompactSDG is read-only.");
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return o instanceof SDGEdge && containsEdge((SDGEdge) o);
+		}
+
+		@Override
+		public int size() {
+			return outTarget.length;
+		}
+	}
+}
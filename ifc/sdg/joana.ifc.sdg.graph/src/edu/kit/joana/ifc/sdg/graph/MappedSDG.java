@@ -0,0 +1,725 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph;
+
+import static edu.kit.joana.ifc.sdg.graph.SDGBinaryFormat.*;
+
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation.ThreadInstance;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An sdg backed by a memory mapped file in the binary sdg format (see {@link SDGBinaryFormat}).
+ *
+ * Opening the file only reads the header and the procedure table. The nodes and edges of a procedure are
+ * materialized the first time one of its nodes is accessed, so an analysis that only looks at a part of the
+ * program does not pay for the rest. Nodes of other procedures that are adjacent to a loaded procedure are
+ * materialized as well, but their own edges are loaded with their procedure. Operations on the whole graph,
+ * like {@link #vertexSet()} and {@link #edgeSet()}, load all procedures.
+ *
+ * Loading does not count as a modification of the graph (see {@link #getModificationCount()}), so results that
+ * have been cached for the graph stay valid. It is synchronized on the graph, and as long as not all procedures
+ * have been loaded, the read methods hold the same lock, as loading changes the underlying graph. So several
+ * threads may read the graph at the same time, e.g. the parallel slicers, but they contend for the lock until
+ * {@link #loadAll()} has been called or all procedures have been loaded otherwise.
+ *
+ * Once loaded, the graph behaves like an ordinary {@link SDG} and may be modified. The file is not written back.
+ */
+public class MappedSDG extends SDG {
+
+	/** Largest part of a section that is mapped at once. A multiple of all record sizes. */
+	private static final int CHUNK_SIZE = 1 << 28;
+
+	private static final SDGNode.Kind[] NODE_KINDS = SDGNode.Kind.values();
+	private static final SDGNode.Operation[] OPERATIONS = SDGNode.Operation.values();
+	private static final SDGEdge.Kind[] EDGE_KINDS = SDGEdge.Kind.values();
+
+	private final SDGNode.NodeFactory nodeFactory;
+	private final Section strings;
+	private final Section nodeTable;
+	private final Section idTable;
+	private final Section edgeTable;
+	private final Section incoming;
+	private final Section extras;
+	private final Section threads;
+	private final int numNodes;
+	private final int numThreads;
+	private final int numProcs;
+	private final int stringsBase;
+	private final String[] stringCache;
+	private final SDGNode[] record2node;
+	private final int[] procFirst;
+	private final int[] procCount;
+	private final boolean[] procLoaded;
+	private final TIntIntHashMap proc2index;
+	/* written last when a procedure has been loaded, so a thread that sees all procedures loaded sees their nodes */
+	private volatile int numLoaded = 0;
+	private boolean threadsLoaded = false;
+
+	private MappedSDG(FileChannel channel, SDGNode.NodeFactory nodeFactory) throws IOException {
+		this.nodeFactory = (nodeFactory == null ? new SDGNode.SDGNodeFactory() : nodeFactory);
+
+		final Section header = new Section(channel, 0, HEADER_SIZE);
+		if (header.getInt(H_MAGIC) != MAGIC) {
+			throw new IOException("Not a binary sdg file.");
+		} else if (header.getInt(H_VERSION) != VERSION) {
+			throw new IOException("Unsupported binary sdg version " + header.getInt(H_VERSION)
+					+ ", expected version " + VERSION + ".");
+		}
+
+		final long end = header.getLong(H_OFF_END);
+		if (end != channel.size()) {
+			throw new IOException("Binary sdg file is truncated: " + channel.size() + " of " + end + " bytes.");
+		}
+
+		numNodes = header.getInt(H_NODES);
+		numProcs = header.getInt(H_PROCS);
+		numThreads = header.getInt(H_THREADS);
+		final int numStrings = header.getInt(H_STRINGS);
+		stringsBase = 4 * (numStrings + 1);
+
+		strings = section(channel, header, H_OFF_STRINGS, H_OFF_NODES);
+		nodeTable = section(channel, header, H_OFF_NODES, H_OFF_IDS);
+		idTable = section(channel, header, H_OFF_IDS, H_OFF_EDGES);
+		edgeTable = section(channel, header, H_OFF_EDGES, H_OFF_INCOMING);
+		incoming = section(channel, header, H_OFF_INCOMING, H_OFF_PROCS);
+		final Section procTable = section(channel, header, H_OFF_PROCS, H_OFF_EXTRAS);
+		extras = section(channel, header, H_OFF_EXTRAS, H_OFF_THREADS);
+		threads = section(channel, header, H_OFF_THREADS, H_OFF_END);
+
+		stringCache = new String[numStrings];
+		record2node = new SDGNode[numNodes];
+		procFirst = new int[numProcs];
+		procCount = new int[numProcs];
+		procLoaded = new boolean[numProcs];
+		proc2index = new TIntIntHashMap(numProcs);
+		for (int p = 0; p < numProcs; p++) {
+			final long rec = 4L * PROC_INTS * p;
+			proc2index.put(procTable.getInt(rec + 4 * P_PROC), p);
+			procFirst[p] = procTable.getInt(rec + 4 * P_FIRST);
+			procCount[p] = procTable.getInt(rec + 4 * P_COUNT);
+		}
+
+		setName(string(header.getInt(H_NAME)));
+		setJoanaCompiler((header.getInt(H_FLAGS) & FLAG_JOANA_COMPILER) != 0);
+	}
+
+	/**
+	 * Maps the given file in the binary sdg format. The file has to stay unchanged as long as the graph is used.
+	 * @param file file in the binary sdg format, as written by {@link SDGSerializer#toBinaryFormat(SDG, Path)}
+	 * @param nodeFactory factory that is used to create SDGNodes, may be null
+	 * @throws IOException if the file can not be read or is no binary sdg of the supported version
+	 */
+	public static MappedSDG open(Path file, SDGNode.NodeFactory nodeFactory) throws IOException {
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			// mapped buffers stay valid after the channel has been closed
+			final MappedSDG sdg = new MappedSDG(channel, nodeFactory);
+			final Path name = file.getFileName();
+			sdg.setFileName(name == null ? null : name.toString());
+
+			return sdg;
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static Section section(FileChannel channel, Section header, int from, int to) throws IOException {
+		final long start = header.getLong(from);
+		return new Section(channel, start, header.getLong(to) - start);
+	}
+
+	/**
+	 * @return `true' if all procedures have been materialized.
+	 */
+	public boolean isFullyLoaded() {
+		return numLoaded == numProcs;
+	}
+
+	/**
+	 * Materializes all nodes and edges that have not been loaded yet.
+	 */
+	public void loadAll() {
+		if (!isFullyLoaded()) {
+			for (int p = 0; p < numProcs; p++) {
+				loadProcedure(p);
+			}
+		}
+
+		loadThreads();
+	}
+
+	private void ensureLoaded(Object node) {
+		if (isFullyLoaded() || !(node instanceof SDGNode)) {
+			return;
+		}
+
+		final int proc = ((SDGNode) node).getProc();
+		if (proc2index.containsKey(proc)) {
+			loadProcedure(proc2index.get(proc));
+		}
+	}
+
+	private void ensureLoaded(Collection<?> nodes) {
+		if (!isFullyLoaded()) {
+			for (final Object n : nodes) {
+				ensureLoaded(n);
+			}
+		}
+	}
+
+	private synchronized void loadProcedure(int p) {
+		if (procLoaded[p]) {
+			return;
+		}
+
+		setCountModifications(false);
+		try {
+			loadProcedureNodesAndEdges(p);
+		} finally {
+			setCountModifications(true);
+		}
+
+		procLoaded[p] = true;
+		numLoaded++;
+	}
+
+	private void loadProcedureNodesAndEdges(int p) {
+		final int first = procFirst[p];
+		final int last = first + procCount[p];
+		for (int r = first; r < last; r++) {
+			node(r);
+		}
+
+		for (int r = first; r < last; r++) {
+			// edges from and to already loaded procedures have been added with these procedures
+			final int outFirst = nodeInt(r, N_OUT_FIRST);
+			final int outLast = outFirst + nodeInt(r, N_OUT_COUNT);
+			for (int e = outFirst; e < outLast; e++) {
+				final int target = edgeTable.getInt(4L * (EDGE_INTS * (long) e + E_TARGET));
+				final int tp = nodeInt(target, N_PROC_INDEX);
+				if (tp == p || !procLoaded[tp]) {
+					addMappedEdge(e, r, target);
+				}
+			}
+
+			final int inFirst = nodeInt(r, N_IN_FIRST);
+			final int inLast = inFirst + nodeInt(r, N_IN_COUNT);
+			for (int i = inFirst; i < inLast; i++) {
+				final int e = incoming.getInt(4L * i);
+				final int source = edgeTable.getInt(4L * (EDGE_INTS * (long) e + E_SOURCE));
+				final int sp = nodeInt(source, N_PROC_INDEX);
+				if (sp != p && !procLoaded[sp]) {
+					addMappedEdge(e, source, r);
+				}
+			}
+		}
+	}
+
+	private void addMappedEdge(int e, int source, int target) {
+		final long rec = 4L * EDGE_INTS * e;
+		final SDGEdge.Kind kind = EDGE_KINDS[edgeTable.getInt(rec + 4 * E_KIND)];
+		final String label = string(edgeTable.getInt(rec + 4 * E_LABEL));
+		final SDGEdge edge = (label == null
+				? new SDGEdge(node(source), node(target), kind)
+				: new SDGEdge(node(source), node(target), kind, label));
+		super.addEdge(edge.getSource(), edge.getTarget(), edge);
+	}
+
+	private int nodeInt(int r, int field) {
+		return nodeTable.getInt(4L * (NODE_INTS * (long) r + field));
+	}
+
+	/**
+	 * Returns the node of the given record and creates it if necessary.
+	 */
+	private SDGNode node(int r) {
+		if (r == NONE) {
+			return null;
+		}
+
+		SDGNode n = record2node[r];
+		if (n != null) {
+			return n;
+		}
+
+		final SDGNode.Kind kind = NODE_KINDS[nodeInt(r, N_KIND)];
+		final SDGNode.Operation op = OPERATIONS[nodeInt(r, N_OPERATION)];
+		int kindIndex = 0;
+		final SDGNode.Kind[] kinds = op.getCorrespondingKind();
+		for (int i = 0; i < kinds.length; i++) {
+			if (kinds[i] == kind) {
+				kindIndex = i;
+				break;
+			}
+		}
+
+		n = nodeFactory.createNode(op, kindIndex, nodeInt(r, N_ID), string(nodeInt(r, N_LABEL)),
+				nodeInt(r, N_PROC), string(nodeInt(r, N_TYPE)), string(nodeInt(r, N_SOURCE)), nodeInt(r, N_SR),
+				nodeInt(r, N_SC), nodeInt(r, N_ER), nodeInt(r, N_EC), string(nodeInt(r, N_BC_NAME)),
+				nodeInt(r, N_BC_INDEX));
+		if (n.kind != kind) {
+			n.kind = kind;
+		}
+
+		n.setMayBeNonTerminating((nodeInt(r, N_FLAGS) & FLAG_NON_TERMINATING) != 0);
+		n.setClassLoader(string(nodeInt(r, N_CLASS_LOADER)));
+		n.setUnresolvedCallTarget(string(nodeInt(r, N_UNRESOLVED)));
+		final int[] threadNumbers = extra(nodeInt(r, N_THREADS));
+		if (threadNumbers != null) {
+			n.setThreadNumbers(threadNumbers);
+		}
+		n.setAllocationSites(extra(nodeInt(r, N_ALLOC_SITES)));
+		final int[] aliasSources = extra(nodeInt(r, N_ALIAS_SOURCES));
+		if (aliasSources != null) {
+			n.setAliasDataSources(new TIntHashSet(aliasSources));
+		}
+
+		record2node[r] = n;
+		addVertex(n);
+
+		return n;
+	}
+
+	private int[] extra(int index) {
+		if (index == NONE) {
+			return null;
+		}
+
+		final long pos = 4L * index;
+		final int[] values = new int[extras.getInt(pos)];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = extras.getInt(pos + 4L * (i + 1));
+		}
+
+		return values;
+	}
+
+	/**
+	 * Decodes the string with the given index of the string pool. Each string is only decoded once, so equal
+	 * strings share the same instance.
+	 */
+	private String string(int index) {
+		if (index == NONE) {
+			return null;
+		}
+
+		String str = stringCache[index];
+		if (str == null) {
+			final int start = strings.getInt(4L * index);
+			final int end = strings.getInt(4L * (index + 1));
+			final byte[] bytes = new byte[end - start];
+			strings.get(stringsBase + (long) start, bytes);
+			str = new String(bytes, UTF8);
+			stringCache[index] = str;
+		}
+
+		return str;
+	}
+
+	/**
+	 * Binary search for the record of the node with the given id.
+	 */
+	private int recordOf(int id) {
+		int low = 0;
+		int high = numNodes - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int midId = idTable.getInt(4L * ID_INTS * mid);
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return idTable.getInt(4L * ID_INTS * mid + 4);
+			}
+		}
+
+		return NONE;
+	}
+
+	private synchronized void loadThreads() {
+		if (threadsLoaded) {
+			return;
+		}
+
+		threadsLoaded = true;
+		if (numThreads == 0) {
+			return;
+		}
+
+		setCountModifications(false);
+		try {
+			loadThreadInstances();
+		} finally {
+			setCountModifications(true);
+		}
+	}
+
+	private void loadThreadInstances() {
+		final List<ThreadInstance> instances = new LinkedList<ThreadInstance>();
+		long pos = 0;
+		for (int i = 0; i < numThreads; i++) {
+			final int id = threads.getInt(pos);
+			final SDGNode entry = node(threads.getInt(pos + 4));
+			final SDGNode exit = node(threads.getInt(pos + 8));
+			final SDGNode fork = node(threads.getInt(pos + 12));
+			final SDGNode join = node(threads.getInt(pos + 16));
+			final boolean dynamic = threads.getInt(pos + 20) != 0;
+			final int contextLength = threads.getInt(pos + 24);
+			pos += 28;
+
+			LinkedList<SDGNode> context = null;
+			if (contextLength != NONE) {
+				context = new LinkedList<SDGNode>();
+				for (int j = 0; j < contextLength; j++) {
+					context.add(node(threads.getInt(pos)));
+					pos += 4;
+				}
+			}
+
+			instances.add(new ThreadInstance(id, entry, exit, fork, join, context, dynamic));
+		}
+
+		super.setThreadsInfo(new ThreadsInformation(instances));
+	}
+
+	/* lookup */
+
+	@Override
+	public SDGNode getNode(int id) {
+		if (isFullyLoaded()) {
+			return super.getNode(id);
+		}
+
+		synchronized (this) {
+			SDGNode n = super.getNode(id);
+
+			if (n == null) {
+				final int r = recordOf(id);
+				if (r != NONE && record2node[r] == null) {
+					// the node belongs to a procedure that has not been loaded yet
+					final int proc = nodeInt(r, N_PROC_INDEX);
+					loadProcedure(proc);
+					n = record2node[r];
+				}
+			}
+
+			ensureLoaded(n);
+
+			return n;
+		}
+	}
+
+	@Override
+	public boolean containsVertex(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.containsVertex(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.containsVertex(node);
+		}
+	}
+
+	@Override
+	public Set<SDGNode> vertexSet() {
+		loadAll();
+		return super.vertexSet();
+	}
+
+	@Override
+	public Set<SDGEdge> edgeSet() {
+		loadAll();
+		return super.edgeSet();
+	}
+
+	@Override
+	public Set<SDGEdge> outgoingEdgesOf(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.outgoingEdgesOf(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.outgoingEdgesOf(node);
+		}
+	}
+
+	@Override
+	public Set<SDGEdge> incomingEdgesOf(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.incomingEdgesOf(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.incomingEdgesOf(node);
+		}
+	}
+
+	@Override
+	public Set<SDGEdge> edgesOf(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.edgesOf(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.edgesOf(node);
+		}
+	}
+
+	@Override
+	public int outDegreeOf(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.outDegreeOf(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.outDegreeOf(node);
+		}
+	}
+
+	@Override
+	public int inDegreeOf(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.inDegreeOf(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.inDegreeOf(node);
+		}
+	}
+
+	@Override
+	public int degreeOf(SDGNode node) {
+		if (isFullyLoaded()) {
+			return super.degreeOf(node);
+		}
+
+		synchronized (this) {
+			ensureLoaded(node);
+			return super.degreeOf(node);
+		}
+	}
+
+	@Override
+	public boolean containsEdge(SDGEdge edge) {
+		if (isFullyLoaded()) {
+			return super.containsEdge(edge);
+		}
+
+		synchronized (this) {
+			ensureLoaded(edge.getSource());
+			ensureLoaded(edge.getTarget());
+			return super.containsEdge(edge);
+		}
+	}
+
+	@Override
+	public boolean containsEdge(SDGNode source, SDGNode target) {
+		if (isFullyLoaded()) {
+			return super.containsEdge(source, target);
+		}
+
+		synchronized (this) {
+			ensureLoaded(source);
+			ensureLoaded(target);
+			return super.containsEdge(source, target);
+		}
+	}
+
+	@Override
+	public SDGEdge getEdge(SDGNode source, SDGNode target) {
+		if (isFullyLoaded()) {
+			return super.getEdge(source, target);
+		}
+
+		synchronized (this) {
+			ensureLoaded(source);
+			ensureLoaded(target);
+			return super.getEdge(source, target);
+		}
+	}
+
+	@Override
+	public Set<SDGEdge> getAllEdges(SDGNode source, SDGNode target) {
+		if (isFullyLoaded()) {
+			return super.getAllEdges(source, target);
+		}
+
+		synchronized (this) {
+			ensureLoaded(source);
+			ensureLoaded(target);
+			return super.getAllEdges(source, target);
+		}
+	}
+
+	/* modification */
+
+	@Override
+	public boolean addEdge(SDGEdge edge) {
+		ensureLoaded(edge.getSource());
+		ensureLoaded(edge.getTarget());
+		return super.addEdge(edge);
+	}
+
+	@Override
+	public boolean addEdge(SDGNode source, SDGNode target, SDGEdge edge) {
+		ensureLoaded(source);
+		ensureLoaded(target);
+		return super.addEdge(source, target, edge);
+	}
+
+	@Override
+	public SDGEdge addEdge(SDGNode source, SDGNode target) {
+		ensureLoaded(source);
+		ensureLoaded(target);
+		return super.addEdge(source, target);
+	}
+
+	@Override
+	public boolean removeEdge(SDGEdge edge) {
+		ensureLoaded(edge.getSource());
+		ensureLoaded(edge.getTarget());
+		return super.removeEdge(edge);
+	}
+
+	@Override
+	public SDGEdge removeEdge(SDGNode source, SDGNode target) {
+		ensureLoaded(source);
+		ensureLoaded(target);
+		return super.removeEdge(source, target);
+	}
+
+	@Override
+	public boolean removeAllEdges(Collection<? extends SDGEdge> edges) {
+		for (final SDGEdge e : edges) {
+			ensureLoaded(e.getSource());
+			ensureLoaded(e.getTarget());
+		}
+
+		return super.removeAllEdges(edges);
+	}
+
+	@Override
+	public Set<SDGEdge> removeAllEdges(SDGNode source, SDGNode target) {
+		ensureLoaded(source);
+		ensureLoaded(target);
+		return super.removeAllEdges(source, target);
+	}
+
+	@Override
+	public boolean removeVertex(SDGNode node) {
+		ensureLoaded(node);
+		// adjacent procedures have to be loaded as well, otherwise they would add the removed edges again
+		for (final SDGEdge e : super.edgesOf(node)) {
+			ensureLoaded(e.getSource());
+			ensureLoaded(e.getTarget());
+		}
+
+		return super.removeVertex(node);
+	}
+
+	@Override
+	public boolean removeAllVertices(Collection<? extends SDGNode> nodes) {
+		ensureLoaded(nodes);
+		for (final SDGNode n : nodes) {
+			if (super.containsVertex(n)) {
+				for (final SDGEdge e : super.edgesOf(n)) {
+					ensureLoaded(e.getSource());
+					ensureLoaded(e.getTarget());
+				}
+			}
+		}
+
+		return super.removeAllVertices(nodes);
+	}
+
+	/* threads */
+
+	@Override
+	public ThreadsInformation getThreadsInfo() {
+		loadThreads();
+		return super.getThreadsInfo();
+	}
+
+	@Override
+	public void setThreadsInfo(ThreadsInformation ti) {
+		threadsLoaded = true;
+		super.setThreadsInfo(ti);
+	}
+
+	@Override
+	public int getNumberOfThreads() {
+		loadThreads();
+		return super.getNumberOfThreads();
+	}
+
+	@Override
+	public SDG clone() {
+		loadAll();
+		return super.clone();
+	}
+
+	/**
+	 * A read-only part of the mapped file. Large sections are mapped in several chunks, as a single mapped buffer
+	 * is limited to 2GB. Ints never cross a chunk boundary as all records are aligned to their size.
+	 */
+	private static final class Section {
+
+		private final MappedByteBuffer[] chunks;
+
+		private Section(FileChannel channel, long start, long size) throws IOException {
+			if (size < 0 || start + size > channel.size()) {
+				throw new IOException("Corrupt binary sdg file: section [" + start + ", " + (start + size)
+						+ ") exceeds the file.");
+			}
+
+			final int numChunks = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+			chunks = new MappedByteBuffer[numChunks];
+			for (int i = 0; i < numChunks; i++) {
+				final long offset = (long) i * CHUNK_SIZE;
+				chunks[i] = channel.map(MapMode.READ_ONLY, start + offset, Math.min(CHUNK_SIZE, size - offset));
+			}
+		}
+
+		private int getInt(long pos) {
+			return chunks[(int) (pos / CHUNK_SIZE)].getInt((int) (pos % CHUNK_SIZE));
+		}
+
+		private long getLong(long pos) {
+			return ((long) getInt(pos) << 32) | (getInt(pos + 4) & 0xFFFFFFFFL);
+		}
+
+		private void get(long pos, byte[] dst) {
+			for (int i = 0; i < dst.length; i++) {
+				final long p = pos + i;
+				dst[i] = chunks[(int) (p / CHUNK_SIZE)].get((int) (p % CHUNK_SIZE));
+			}
+		}
+
+	}
+
+}
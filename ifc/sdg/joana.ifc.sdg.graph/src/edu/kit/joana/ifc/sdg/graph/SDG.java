@@ -19,6 +19,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -131,6 +132,14 @@ public class SDG extends JoanaGraph implements Cloneable {
     	this.entry2CGNode = entry2CGNode;
     }
 
+    TIntIntMap getNode2Instr() {
+    	return node2iindex;
+    }
+
+    TIntIntMap getEntryToCGNode() {
+    	return entry2CGNode;
+    }
+
     /**
      *
      * @return  `true' if the SDGNodes in the SDG contain precise source code info.
@@ -203,25 +212,39 @@ public class SDG extends JoanaGraph implements Cloneable {
      * @return  The first node in the tuple is the call node, the second the entry node.
      */
     public SDGNodeTuple getCallEntryFor(SDGEdge edge){ /* TODO: extend with JOIN edges */
+        return getCallEntryFor(edge.getSource(), edge.getTarget(), edge.getKind());
+    }
+
+    /**
+     * Returns the call site corresponding to a given interprocedural edge.
+     * Same as {@link #getCallEntryFor(SDGEdge)}, but does not need an SDGEdge object.
+     *
+     * @param source  The source of the edge.
+     * @param target  The target of the edge.
+     * @param kind  The kind of the edge. Permitted are FORK, CALL, PARAMETER_IN, PARAMETER_OUT, FORK_IN, FORK_OUT
+     * and RETURN.
+     * @return  The first node in the tuple is the call node, the second the entry node.
+     */
+    public SDGNodeTuple getCallEntryFor(SDGNode source, SDGNode target, SDGEdge.Kind kind){
         // easiest case
-        if(edge.getKind() == SDGEdge.Kind.CALL || edge.getKind() == SDGEdge.Kind.FORK){
-            return new SDGNodeTuple(edge.getSource(), edge.getTarget());
+        if(kind == SDGEdge.Kind.CALL || kind == SDGEdge.Kind.FORK){
+            return new SDGNodeTuple(source, target);
         }
 
         boolean out = false;
 
-        if (edge.getKind() == SDGEdge.Kind.PARAMETER_OUT
-        		|| edge.getKind() == SDGEdge.Kind.FORK_OUT
-        		|| edge.getKind() == SDGEdge.Kind.RETURN) {
+        if (kind == SDGEdge.Kind.PARAMETER_OUT
+        		|| kind == SDGEdge.Kind.FORK_OUT
+        		|| kind == SDGEdge.Kind.RETURN) {
 
         	out = true;
 
-        } else if (edge.getKind() != SDGEdge.Kind.PARAMETER_IN && edge.getKind() != SDGEdge.Kind.FORK_IN) {
-        	throw new IllegalArgumentException("Wrong kind of edge: "+edge.getKind()+" ! See the Javadoc description.");
+        } else if (kind != SDGEdge.Kind.PARAMETER_IN && kind != SDGEdge.Kind.FORK_IN) {
+        	throw new IllegalArgumentException("Wrong kind of edge: "+kind+" ! See the Javadoc description.");
         }
 
-        SDGNode call = (out ? getCallSiteFor(edge.getTarget()) : getCallSiteFor(edge.getSource()));
-        SDGNode entry = (out ? getEntry(edge.getSource()) : getEntry(edge.getTarget()));
+        SDGNode call = (out ? getCallSiteFor(target) : getCallSiteFor(source));
+        SDGNode entry = (out ? getEntry(source) : getEntry(target));
 
         return new SDGNodeTuple(call, entry);
     }
@@ -821,6 +844,35 @@ public class SDG extends JoanaGraph implements Cloneable {
     	return sdg;
     }
 
+    /**
+     * Read in a graph from file with SDGManualParser, using several threads. The file is split into chunks at node
+     * boundaries that are parsed in parallel, the nodes and edges are created afterwards. The whole file is kept in
+     * memory during parsing.
+     * @param sdgFile file which is parsed
+     * @param nodeFactory factory that is used to create SDGNodes, may be null
+     * @param threads number of threads used for parsing
+     * @throws IOException if file does not exist
+     * @return a SDG representation of the file
+     */
+    public static SDG readFromInParallel(final String sdgFile, final SDGNode.NodeFactory nodeFactory,
+    		final int threads) throws IOException {
+    	final InputStream in = new FileInputStream(sdgFile);
+    	SDG sdg = null;
+    	try {
+    		sdg = SDGManualParser.parseParallel(in, nodeFactory, threads);
+    	} catch (RecognitionException e) {
+    		throw new IOException(e);
+    	} finally {
+    		in.close();
+    	}
+
+    	final int sepIndex = sdgFile.lastIndexOf(File.separator);
+    	final String fileName = (sepIndex > 0 ? sdgFile.substring(sepIndex) : sdgFile);
+    	sdg.setFileName(fileName);
+
+    	return sdg;
+    }
+
 	/**
 	 * Parses a graph, using the ANTLR grammar <code>SDG_.g</code>
 	 *
@@ -897,5 +949,30 @@ public class SDG extends JoanaGraph implements Cloneable {
 
     	return sdg;
     }
+
+    /**
+     * Memory maps a graph in the binary format written by {@link SDGSerializer#toBinaryFormat(SDG, Path)}.
+     * Nodes and edges are materialized lazily per procedure, see {@link MappedSDG}.
+     *
+     * @param sdgFile file which is mapped
+     * @throws IOException if file does not exist or is no binary sdg file
+     * @return a SDG representation of the file
+     */
+    public static MappedSDG readMapped(Path sdgFile) throws IOException {
+    	return MappedSDG.open(sdgFile, null);
+    }
+
+    /**
+     * Memory maps a graph in the binary format written by {@link SDGSerializer#toBinaryFormat(SDG, Path)}.
+     * Nodes and edges are materialized lazily per procedure, see {@link MappedSDG}.
+     *
+     * @param sdgFile file which is mapped
+     * @param nodeFactory defines the subclass of SDGNode which shall be used for node creation.
+     * @throws IOException if file does not exist or is no binary sdg file
+     * @return a SDG representation of the file
+     */
+    public static MappedSDG readMapped(Path sdgFile, SDGNode.NodeFactory nodeFactory) throws IOException {
+    	return MappedSDG.open(sdgFile, nodeFactory);
+    }
 }
 
@@ -0,0 +1,416 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph;
+
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation.ThreadInstance;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import gnu.trove.set.TIntSet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Layout and writer of the binary sdg format read by {@link MappedSDG}.
+ *
+ * The file consists of a header followed by fixed size tables, so a reader can map the file and access each
+ * node, edge and procedure directly by its index. All numbers are big endian ints, except the section offsets in
+ * the header, which are longs.
+ * <pre>
+ * header      magic, version, flags, name, nodes, edges, procedures, strings, threads, extras,
+ *             offsets of all sections
+ * strings     int[strings + 1] byte offsets into the string data, followed by the utf-8 data
+ * nodes       one record of NODE_INTS ints per node, sorted by procedure and id
+ * ids         pairs (id, node index) sorted by id
+ * edges       one record (source, target, kind, label) per edge, sorted by source node
+ * incoming    edge indices sorted by target node
+ * procedures  one record (proc id, first node, number of nodes) per procedure, sorted by proc id
+ * extras      int arrays referenced by the nodes, stored as length followed by the elements
+ * threads     id, entry, exit, fork, join, dynamic, context length, context nodes for each thread
+ * </pre>
+ * Strings, node kinds and edge kinds are stored as indices into the string pool and the enums. Node references
+ * are node indices, -1 stands for null. A new layout requires a new {@link #VERSION}.
+ */
+public final class SDGBinaryFormat {
+
+	private SDGBinaryFormat() {}
+
+	static final int MAGIC = 0x4A534447; // "JSDG"
+	static final int VERSION = 2;
+
+	/* distinct bits, although they are stored in different fields: H_FLAGS of the header and N_FLAGS of a node */
+	static final int FLAG_JOANA_COMPILER = 1 << 0;
+	static final int FLAG_NON_TERMINATING = 1 << 1;
+
+	static final int NONE = -1;
+
+	/* header */
+	static final int H_MAGIC = 0;
+	static final int H_VERSION = 4;
+	static final int H_FLAGS = 8;
+	static final int H_NAME = 12;
+	static final int H_NODES = 16;
+	static final int H_EDGES = 20;
+	static final int H_PROCS = 24;
+	static final int H_STRINGS = 28;
+	static final int H_THREADS = 32;
+	static final int H_EXTRAS = 36;
+	static final int H_OFF_STRINGS = 40;
+	static final int H_OFF_NODES = 48;
+	static final int H_OFF_IDS = 56;
+	static final int H_OFF_EDGES = 64;
+	static final int H_OFF_INCOMING = 72;
+	static final int H_OFF_PROCS = 80;
+	static final int H_OFF_EXTRAS = 88;
+	static final int H_OFF_THREADS = 96;
+	static final int H_OFF_END = 104;
+	static final int HEADER_SIZE = 112;
+
+	/* node record, in ints */
+	static final int N_ID = 0;
+	static final int N_KIND = 1;
+	static final int N_OPERATION = 2;
+	static final int N_FLAGS = 3;
+	static final int N_PROC = 4;
+	static final int N_PROC_INDEX = 5;
+	static final int N_LABEL = 6;
+	static final int N_TYPE = 7;
+	static final int N_SOURCE = 8;
+	static final int N_SR = 9;
+	static final int N_SC = 10;
+	static final int N_ER = 11;
+	static final int N_EC = 12;
+	static final int N_BC_NAME = 13;
+	static final int N_BC_INDEX = 14;
+	static final int N_CLASS_LOADER = 15;
+	static final int N_UNRESOLVED = 16;
+	static final int N_THREADS = 17;
+	static final int N_ALLOC_SITES = 18;
+	static final int N_ALIAS_SOURCES = 19;
+	static final int N_OUT_FIRST = 20;
+	static final int N_OUT_COUNT = 21;
+	static final int N_IN_FIRST = 22;
+	static final int N_IN_COUNT = 23;
+	static final int NODE_INTS = 24;
+
+	/* edge record, in ints */
+	static final int E_SOURCE = 0;
+	static final int E_TARGET = 1;
+	static final int E_KIND = 2;
+	static final int E_LABEL = 3;
+	static final int EDGE_INTS = 4;
+
+	static final int ID_INTS = 2;
+
+	/* procedure record, in ints */
+	static final int P_PROC = 0;
+	static final int P_FIRST = 1;
+	static final int P_COUNT = 2;
+	static final int PROC_INTS = 3;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final Comparator<SDGNode> PROC_ID_ORDER = new Comparator<SDGNode>() {
+		@Override
+		public int compare(SDGNode n1, SDGNode n2) {
+			if (n1.getProc() != n2.getProc()) {
+				return n1.getProc() < n2.getProc() ? -1 : 1;
+			}
+
+			return n1.getId() < n2.getId() ? -1 : (n1.getId() == n2.getId() ? 0 : 1);
+		}
+	};
+
+	/**
+	 * Writes the sdg in the binary format to the given file.
+	 */
+	public static void write(SDG sdg, Path file) throws IOException {
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(sdg.vertexSet());
+		Collections.sort(nodes, PROC_ID_ORDER);
+		final int numNodes = nodes.size();
+
+		final TIntIntHashMap id2index = new TIntIntHashMap(numNodes);
+		final TIntArrayList procs = new TIntArrayList();
+		final StringPool strings = new StringPool();
+		strings.indexOf(sdg.getName());
+		int numExtras = 0;
+
+		for (int i = 0; i < numNodes; i++) {
+			final SDGNode n = nodes.get(i);
+			if (id2index.containsKey(n.getId())) {
+				throw new IllegalArgumentException("Node id " + n.getId() + " is not unique.");
+			}
+			id2index.put(n.getId(), i);
+
+			if (procs.isEmpty() || procs.get(procs.size() - PROC_INTS) != n.getProc()) {
+				procs.add(n.getProc());
+				procs.add(i);
+				procs.add(0);
+			}
+			procs.set(procs.size() - 1, procs.get(procs.size() - 1) + 1);
+
+			strings.indexOf(n.getLabel());
+			strings.indexOf(n.getType());
+			strings.indexOf(n.getSource());
+			strings.indexOf(n.getBytecodeName());
+			strings.indexOf(n.getClassLoader());
+			strings.indexOf(n.getUnresolvedCallTarget());
+			numExtras += extraSize(n.getThreadNumbers()) + extraSize(n.getAllocationSites())
+					+ extraSize(n.getAliasDataSources());
+		}
+
+		final int[] outFirst = new int[numNodes];
+		final int[] inCount = new int[numNodes];
+		final TIntArrayList edges = new TIntArrayList();
+		for (int i = 0; i < numNodes; i++) {
+			outFirst[i] = edges.size() / EDGE_INTS;
+			for (final SDGEdge e : sdg.outgoingEdgesOf(nodes.get(i))) {
+				final int target = id2index.get(e.getTarget().getId());
+				edges.add(i);
+				edges.add(target);
+				edges.add(e.getKind().ordinal());
+				edges.add(strings.indexOf(e.getLabel()));
+				inCount[target]++;
+			}
+		}
+		final int numEdges = edges.size() / EDGE_INTS;
+
+		final int[] inFirst = new int[numNodes];
+		for (int i = 1; i < numNodes; i++) {
+			inFirst[i] = inFirst[i - 1] + inCount[i - 1];
+		}
+		final int[] incoming = new int[numEdges];
+		{
+			final int[] pos = inFirst.clone();
+			for (int e = 0; e < numEdges; e++) {
+				incoming[pos[edges.get(e * EDGE_INTS + E_TARGET)]++] = e;
+			}
+		}
+
+		final TIntArrayList threads = new TIntArrayList();
+		int numThreads = 0;
+		final ThreadsInformation ti = sdg.getThreadsInfo();
+		if (ti != null) {
+			for (final ThreadInstance t : ti) {
+				numThreads++;
+				threads.add(t.getId());
+				threads.add(indexOf(id2index, t.getEntry()));
+				threads.add(indexOf(id2index, t.getExit()));
+				threads.add(indexOf(id2index, t.getFork()));
+				threads.add(indexOf(id2index, t.getJoin()));
+				threads.add(t.isDynamic() ? 1 : 0);
+				if (t.getThreadContext() == null) {
+					threads.add(NONE);
+				} else {
+					threads.add(t.getThreadContext().size());
+					for (final SDGNode n : t.getThreadContext()) {
+						threads.add(indexOf(id2index, n));
+					}
+				}
+			}
+		}
+
+		final int[] ids = id2index.keys();
+		Arrays.sort(ids);
+
+		final long offStrings = HEADER_SIZE;
+		final long offNodes = offStrings + 4L * (strings.size() + 1) + strings.dataSize();
+		final long offIds = offNodes + 4L * NODE_INTS * numNodes;
+		final long offEdges = offIds + 4L * ID_INTS * numNodes;
+		final long offIncoming = offEdges + 4L * EDGE_INTS * numEdges;
+		final long offProcs = offIncoming + 4L * numEdges;
+		final long offExtras = offProcs + 4L * procs.size();
+		final long offThreads = offExtras + 4L * numExtras;
+		final long offEnd = offThreads + 4L * threads.size();
+
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+				1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(sdg.getJoanaCompiler() ? FLAG_JOANA_COMPILER : 0);
+			out.writeInt(strings.indexOf(sdg.getName()));
+			out.writeInt(numNodes);
+			out.writeInt(numEdges);
+			out.writeInt(procs.size() / PROC_INTS);
+			out.writeInt(strings.size());
+			out.writeInt(numThreads);
+			out.writeInt(numExtras);
+			out.writeLong(offStrings);
+			out.writeLong(offNodes);
+			out.writeLong(offIds);
+			out.writeLong(offEdges);
+			out.writeLong(offIncoming);
+			out.writeLong(offProcs);
+			out.writeLong(offExtras);
+			out.writeLong(offThreads);
+			out.writeLong(offEnd);
+
+			strings.writeTo(out);
+
+			int extra = 0;
+			int procIndex = -1;
+			for (int i = 0; i < numNodes; i++) {
+				final SDGNode n = nodes.get(i);
+				if (procIndex < 0 || procs.get(procIndex * PROC_INTS + P_PROC) != n.getProc()) {
+					procIndex++;
+				}
+
+				out.writeInt(n.getId());
+				out.writeInt(n.getKind().ordinal());
+				out.writeInt(n.getOperation().ordinal());
+				out.writeInt(n.mayBeNonTerminating() ? FLAG_NON_TERMINATING : 0);
+				out.writeInt(n.getProc());
+				out.writeInt(procIndex);
+				out.writeInt(strings.indexOf(n.getLabel()));
+				out.writeInt(strings.indexOf(n.getType()));
+				out.writeInt(strings.indexOf(n.getSource()));
+				out.writeInt(n.getSr());
+				out.writeInt(n.getSc());
+				out.writeInt(n.getEr());
+				out.writeInt(n.getEc());
+				out.writeInt(strings.indexOf(n.getBytecodeName()));
+				out.writeInt(n.getBytecodeIndex());
+				out.writeInt(strings.indexOf(n.getClassLoader()));
+				out.writeInt(strings.indexOf(n.getUnresolvedCallTarget()));
+				out.writeInt(n.getThreadNumbers() == null ? NONE : extra);
+				extra += extraSize(n.getThreadNumbers());
+				out.writeInt(n.getAllocationSites() == null ? NONE : extra);
+				extra += extraSize(n.getAllocationSites());
+				out.writeInt(n.getAliasDataSources() == null ? NONE : extra);
+				extra += extraSize(n.getAliasDataSources());
+				final int outCount = (i + 1 < numNodes ? outFirst[i + 1] : numEdges) - outFirst[i];
+				out.writeInt(outFirst[i]);
+				out.writeInt(outCount);
+				out.writeInt(inFirst[i]);
+				out.writeInt(inCount[i]);
+			}
+
+			for (final int id : ids) {
+				out.writeInt(id);
+				out.writeInt(id2index.get(id));
+			}
+
+			writeInts(out, edges);
+
+			for (final int e : incoming) {
+				out.writeInt(e);
+			}
+
+			writeInts(out, procs);
+
+			for (final SDGNode n : nodes) {
+				writeExtra(out, n.getThreadNumbers());
+				writeExtra(out, n.getAllocationSites());
+				if (n.getAliasDataSources() != null) {
+					final TIntSet aliasSources = n.getAliasDataSources();
+					out.writeInt(aliasSources.size());
+					for (final TIntIterator it = aliasSources.iterator(); it.hasNext();) {
+						out.writeInt(it.next());
+					}
+				}
+			}
+
+			writeInts(out, threads);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static int indexOf(TIntIntHashMap id2index, SDGNode n) {
+		return (n == null ? NONE : id2index.get(n.getId()));
+	}
+
+	private static int extraSize(int[] values) {
+		return (values == null ? 0 : values.length + 1);
+	}
+
+	private static int extraSize(TIntSet values) {
+		return (values == null ? 0 : values.size() + 1);
+	}
+
+	private static void writeExtra(DataOutputStream out, int[] values) throws IOException {
+		if (values != null) {
+			out.writeInt(values.length);
+			for (final int v : values) {
+				out.writeInt(v);
+			}
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, TIntArrayList values) throws IOException {
+		for (int i = 0; i < values.size(); i++) {
+			out.writeInt(values.get(i));
+		}
+	}
+
+	/**
+	 * Assigns each distinct string an index in order of first occurrence.
+	 */
+	private static final class StringPool {
+
+		private final TObjectIntHashMap<String> index = new TObjectIntHashMap<String>(1024, 0.5f, NONE);
+		private final List<byte[]> data = new ArrayList<byte[]>();
+		private long dataSize = 0;
+
+		private int indexOf(String str) {
+			if (str == null) {
+				return NONE;
+			}
+
+			int i = index.get(str);
+			if (i == NONE) {
+				final byte[] bytes = str.getBytes(UTF8);
+				i = data.size();
+				index.put(str, i);
+				data.add(bytes);
+				dataSize += bytes.length;
+				if (dataSize > Integer.MAX_VALUE) {
+					throw new IllegalStateException("String pool exceeds 2GB.");
+				}
+			}
+
+			return i;
+		}
+
+		private int size() {
+			return data.size();
+		}
+
+		private long dataSize() {
+			return dataSize;
+		}
+
+		private void writeTo(DataOutputStream out) throws IOException {
+			int offset = 0;
+			for (final byte[] bytes : data) {
+				out.writeInt(offset);
+				offset += bytes.length;
+			}
+			out.writeInt(offset);
+
+			for (final byte[] bytes : data) {
+				out.write(bytes);
+			}
+		}
+
+	}
+
+}
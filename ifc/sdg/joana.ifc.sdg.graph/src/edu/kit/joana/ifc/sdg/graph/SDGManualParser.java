@@ -8,12 +8,18 @@
 package edu.kit.joana.ifc.sdg.graph;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.antlr.runtime.ANTLRStringStream;
 import org.antlr.runtime.CommonTokenStream;
@@ -28,6 +34,7 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation.ThreadInstance;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.ParallelUtil;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.procedure.TIntProcedure;
@@ -67,6 +74,16 @@ public class SDGManualParser {
 		return parser.run(in);
 	}
 	
+	public static SDG parseParallel(final InputStream in, final NodeFactory nodeFact, final int threads)
+			throws IOException, RecognitionException {
+		final SDGManualParser parser = new SDGManualParser();
+		if (nodeFact != null) {
+			parser.setNodeFactory(nodeFact);
+		}
+		
+		return parser.runParallel(in, threads);
+	}
+	
 	public SDG run(final InputStream in) throws IOException, RecognitionException {
 		final Logger log = Log.getLogger(Log.L_SDG_GRAPH_PARSE_INFO);
 		final long startTime = System.currentTimeMillis();
@@ -74,36 +91,10 @@ public class SDGManualParser {
 
 		log.out("parsing sdg ");
 		final SDGHeader header = parseHeader(br);
-		final LinkedList<SDGNodeStub> nodeStubs = new LinkedList<SDGNodeStub>();
-		final LinkedList<ThreadInstanceStub> threadStubs = new LinkedList<ThreadInstanceStub>();
-		boolean joanaCompiler = false;
-		
-		boolean endOfSdg = false;
-		while (!endOfSdg) {
-			final String line = skipEmpty(br);
-			if (line == null) {
-				error("unexpected end of file.");
-			}
-			
-			if (line.equals("}")) {
-				// end of sdg
-				endOfSdg = true;
-			} else if (line.startsWith("JComp")) {
-				joanaCompiler = true;
-			} else if (line.startsWith("Thread")) {
-				// thread information
-				final StringBuffer node = readUntil(br, "}");
-				final ThreadInstanceStub stub = parseThreadInstance(line + node.toString());
-				threadStubs.add(stub);
-			} else if (line.endsWith("{")) {
-				// new node
-				final StringBuffer node = readUntil(br, "}");
-				final SDGNodeStub stub = parseVertex(line + node.toString());
-				nodeStubs.add(stub);
-				if (nodeStubs.size() % 10000 == 0) {
-					log.out(".");
-				}
-			}
+		final Chunk body = new Chunk(SDGVertex_Parser.UNDEFINED_SRC_POS, SDGVertex_Parser.UNDEFINED_BC_POS);
+		body.parse(br, log);
+		if (!body.endOfSdg) {
+			error("unexpected end of file.");
 		}
 		log.outln("done.");
 		
@@ -115,9 +106,9 @@ public class SDGManualParser {
 		
 		log.out("building sdg... ");
 		final SDG sdg = header.createSDG();
-		sdg.setJoanaCompiler(joanaCompiler);
-		final long maxUsedMemPhase2 = createNodesAndEdges(sdg, nodeStubs);
-		createThreadsInformation(sdg, threadStubs);
+		sdg.setJoanaCompiler(body.joanaCompiler);
+		final long maxUsedMemPhase2 = createNodesAndEdges(sdg, body.nodeStubs);
+		createThreadsInformation(sdg, body.threadStubs);
 		log.outln(" done.");
 		
 		final long endTime = System.currentTimeMillis();
@@ -132,7 +123,259 @@ public class SDGManualParser {
 		
 		return sdg;
 	}
-	
+
+	/**
+	 * Reads the whole input and parses it with the given number of threads. The input is split into chunks at node
+	 * boundaries, which are parsed independently. Nodes and edges are created afterwards on the calling thread,
+	 * in the order of the file. The result is the same as with {@link #run(InputStream)}.
+	 */
+	public SDG runParallel(final InputStream in, final int threads) throws IOException, RecognitionException {
+		final Logger log = Log.getLogger(Log.L_SDG_GRAPH_PARSE_INFO);
+		final long startTime = System.currentTimeMillis();
+		final byte[] data = readFully(in);
+		in.close();
+
+		log.out("parsing sdg with " + threads + " threads ");
+		final int headerEnd = findHeaderEnd(data);
+		final SDGHeader header = parseHeader(new BufferedReader(new InputStreamReader(
+				new ByteArrayInputStream(data, 0, headerEnd))));
+		final int[] bounds = findChunkBounds(data, headerEnd, threads);
+		final int numChunks = bounds.length - 1;
+
+		final List<Chunk> chunks = new ArrayList<Chunk>(numChunks);
+		for (int i = 0; i < numChunks; i++) {
+			// each chunk starts with its own default positions, so they can be replaced after parsing
+			chunks.add(i == 0
+				? new Chunk(SDGVertex_Parser.UNDEFINED_SRC_POS, SDGVertex_Parser.UNDEFINED_BC_POS)
+				: new Chunk(new SourcePos("undefined", 0, 0, 0, 0), new ByteCodePos("<undefined>", -1)));
+		}
+
+		final ExecutorService executor = ParallelUtil.newPool(Math.max(1, Math.min(threads, numChunks)), "sdg-parser");
+		try {
+			final List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>(numChunks);
+			for (int i = 0; i < numChunks; i++) {
+				final Chunk chunk = chunks.get(i);
+				final int from = bounds[i];
+				final int to = bounds[i + 1];
+				futures.add(executor.submit(new Callable<Chunk>() {
+					@Override
+					public Chunk call() throws IOException, RecognitionException {
+						final BufferedReader br = new BufferedReader(new InputStreamReader(
+								new ByteArrayInputStream(data, from, to - from)));
+						chunk.parse(br, log);
+						return chunk;
+					}
+				}));
+			}
+
+			for (final Future<Chunk> future : futures) {
+				ParallelUtil.waitFor(future, IOException.class, RecognitionException.class);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		log.outln("done.");
+
+		final LinkedList<SDGNodeStub> nodeStubs = new LinkedList<SDGNodeStub>();
+		final LinkedList<ThreadInstanceStub> threadStubs = new LinkedList<ThreadInstanceStub>();
+		boolean joanaCompiler = false;
+		boolean endOfSdg = false;
+		SourcePos lastSrcPos = SDGVertex_Parser.UNDEFINED_SRC_POS;
+		ByteCodePos lastBcPos = SDGVertex_Parser.UNDEFINED_BC_POS;
+		for (final Chunk chunk : chunks) {
+			if (endOfSdg) {
+				break;
+			}
+
+			// nodes without position take the position of the last node before them - maybe in a previous chunk
+			for (final SDGNodeStub stub : chunk.nodeStubs) {
+				stub.replaceDefaultPositions(chunk.initialSrcPos, chunk.initialBcPos, lastSrcPos, lastBcPos);
+			}
+			if (chunk.srcPos != chunk.initialSrcPos) {
+				lastSrcPos = chunk.srcPos;
+			}
+			if (chunk.bcPos != chunk.initialBcPos) {
+				lastBcPos = chunk.bcPos;
+			}
+
+			nodeStubs.addAll(chunk.nodeStubs);
+			threadStubs.addAll(chunk.threadStubs);
+			joanaCompiler |= chunk.joanaCompiler;
+			endOfSdg = chunk.endOfSdg;
+		}
+		chunks.clear();
+
+		if (!endOfSdg) {
+			error("unexpected end of file.");
+		}
+
+		log.out("building sdg... ");
+		final SDG sdg = header.createSDG();
+		sdg.setJoanaCompiler(joanaCompiler);
+		createNodesAndEdges(sdg, nodeStubs);
+		createThreadsInformation(sdg, threadStubs);
+		log.outln(" done.");
+
+		if (log.isEnabled()) {
+			final long time = System.currentTimeMillis() - startTime;
+			log.outln("read " + header + " with " + sdg.vertexSet().size() + " nodes and " + sdg.edgeSet().size()
+				+ " edges in " + time + "ms.");
+		}
+
+		return sdg;
+	}
+
+	private static byte[] readFully(final InputStream in) throws IOException {
+		final ByteArrayOutputStream bout = new ByteArrayOutputStream(Math.max(in.available(), 1 << 16));
+		final byte[] buf = new byte[1 << 16];
+		int read;
+		while ((read = in.read(buf)) >= 0) {
+			bout.write(buf, 0, read);
+		}
+
+		return bout.toByteArray();
+	}
+
+	/**
+	 * Returns the position after the header line, which is the first line ending with '{'.
+	 */
+	private static int findHeaderEnd(final byte[] data) {
+		int pos = 0;
+		while (pos < data.length) {
+			final int next = nextLine(data, pos);
+			if (endsWithOpenBrace(data, pos, next)) {
+				return next;
+			}
+			pos = next;
+		}
+
+		error("first 'SDG' token not found.");
+		return -1;
+	}
+
+	/**
+	 * Splits the body of the sdg into chunks of roughly equal size. Each chunk starts with the first line of a
+	 * node or thread, which are the only lines of the body that end with '{'.
+	 */
+	private static int[] findChunkBounds(final byte[] data, final int start, final int chunks) {
+		final TIntList bounds = new TIntArrayList();
+		bounds.add(start);
+		final long size = data.length - start;
+		for (int i = 1; i < chunks; i++) {
+			int pos = (int) (start + (size * i) / chunks);
+			if (pos <= bounds.get(bounds.size() - 1)) {
+				continue;
+			}
+
+			// move to the start of the next line
+			pos = nextLine(data, pos - 1);
+			while (pos < data.length) {
+				final int next = nextLine(data, pos);
+				if (endsWithOpenBrace(data, pos, next)) {
+					break;
+				}
+				pos = next;
+			}
+
+			if (pos < data.length && pos > bounds.get(bounds.size() - 1)) {
+				bounds.add(pos);
+			}
+		}
+		bounds.add(data.length);
+
+		return bounds.toArray();
+	}
+
+	private static int nextLine(final byte[] data, final int pos) {
+		int i = pos;
+		while (i < data.length && data[i] != '\n') {
+			i++;
+		}
+
+		return (i < data.length ? i + 1 : i);
+	}
+
+	private static boolean endsWithOpenBrace(final byte[] data, final int lineStart, final int lineEnd) {
+		for (int i = lineEnd - 1; i >= lineStart; i--) {
+			final byte b = data[i];
+			if (b == '{') {
+				return true;
+			} else if (!Character.isWhitespace(b)) {
+				return false;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Stubs of the nodes and threads of a part of the sdg body.
+	 */
+	private static final class Chunk {
+
+		private final SourcePos initialSrcPos;
+		private final ByteCodePos initialBcPos;
+		private final LinkedList<SDGNodeStub> nodeStubs = new LinkedList<SDGNodeStub>();
+		private final LinkedList<ThreadInstanceStub> threadStubs = new LinkedList<ThreadInstanceStub>();
+		private SourcePos srcPos;
+		private ByteCodePos bcPos;
+		private boolean joanaCompiler = false;
+		private boolean endOfSdg = false;
+
+		private Chunk(final SourcePos srcPos, final ByteCodePos bcPos) {
+			this.initialSrcPos = srcPos;
+			this.initialBcPos = bcPos;
+			this.srcPos = srcPos;
+			this.bcPos = bcPos;
+		}
+
+		/**
+		 * Parses lines until the end of the sdg or the end of the input.
+		 */
+		private void parse(final BufferedReader br, final Logger log) throws IOException, RecognitionException {
+			while (!endOfSdg) {
+				final String line = skipEmpty(br);
+				if (line == null) {
+					return;
+				}
+				
+				if (line.equals("}")) {
+					// end of sdg
+					endOfSdg = true;
+				} else if (line.startsWith("JComp")) {
+					joanaCompiler = true;
+				} else if (line.startsWith("Thread")) {
+					// thread information
+					final StringBuffer node = readUntil(br, "}");
+					final ThreadInstanceStub stub = parseThreadInstance(line + node.toString());
+					threadStubs.add(stub);
+				} else if (line.endsWith("{")) {
+					// new node
+					final StringBuffer node = readUntil(br, "}");
+					final SDGNodeStub stub = parseVertex(line + node.toString());
+					nodeStubs.add(stub);
+					if (nodeStubs.size() % 10000 == 0) {
+						log.out(".");
+					}
+				}
+			}
+		}
+
+		private SDGNodeStub parseVertex(final String str) throws RecognitionException {
+			final ANTLRStringStream stream = new ANTLRStringStream(str);
+			final SDGVertex_Lexer lexer = new SDGVertex_Lexer(stream);
+			final CommonTokenStream cts = new CommonTokenStream(lexer);
+			final SDGVertex_Parser parse = new SDGVertex_Parser(cts);
+			parse.setDefaultPositions(srcPos, bcPos);
+			final SDGNodeStub stub = parse.node();
+			srcPos = parse.getDefaultSourcePos();
+			bcPos = parse.getDefaultByteCodePos();
+			
+			return stub;
+		}
+
+	}
+
 	private static long currentlyUsedMemInMegs() {
 		return (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024);
 	}
@@ -146,15 +389,6 @@ public class SDGManualParser {
 		return parse.thread();
 	}
 	
-	private static SDGNodeStub parseVertex(final String str) throws RecognitionException {
-		final ANTLRStringStream stream = new ANTLRStringStream(str);
-		final SDGVertex_Lexer lexer = new SDGVertex_Lexer(stream);
-		final CommonTokenStream cts = new CommonTokenStream(lexer);
-		final SDGVertex_Parser parse = new SDGVertex_Parser(cts);
-		
-		return parse.node();
-	}
-
 	private static String skipEmpty(final BufferedReader br) throws IOException {
 		while (true) {
 			final String line = br.readLine();
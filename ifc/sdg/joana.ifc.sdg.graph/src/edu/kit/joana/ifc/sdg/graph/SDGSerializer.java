@@ -15,9 +15,14 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadsInformation.Threa
 import edu.kit.joana.util.graph.AbstractJoanaGraph;
 import gnu.trove.iterator.TIntIterator;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -48,6 +53,25 @@ public class SDGSerializer {
     	toPDGFormat(g, pw);
     }
 
+    /**
+     * Writes the graph in the same format as {@link #toPDGFormat(JoanaGraph, PrintWriter)}, without building the
+     * output or a sorted copy of the node set in memory. Nodes are rendered into a fixed size buffer that is
+     * passed on to the stream at the end of a procedure, or earlier if a procedure does not fit. The stream is
+     * flushed, but not closed.
+     */
+    public static void toPDGFormatStreamed(JoanaGraph g, OutputStream out) throws IOException {
+    	final Writer writer = new OutputStreamWriter(out);
+    	new ChunkedPDGWriter(writer).write(g);
+    	writer.flush();
+    }
+
+    /**
+     * Writes the sdg in the binary format that can be memory mapped with {@link SDG#readMapped(Path)}.
+     */
+    public static void toBinaryFormat(SDG g, Path file) throws IOException {
+    	SDGBinaryFormat.write(g, file);
+    }
+
     public static void toPDGFormat(JoanaGraph g, PrintWriter pw) {
         pw.print("SDG ");
 
@@ -172,4 +196,199 @@ public class SDGSerializer {
         }
     }
 
+    /**
+     * Renders the textual format into a char buffer, avoiding the temporary strings and the synchronization of a
+     * PrintWriter.
+     */
+    private static final class ChunkedPDGWriter {
+
+    	private static final int CHUNK_SIZE = 1 << 16;
+
+    	private final Writer out;
+    	private final char[] buf = new char[CHUNK_SIZE];
+    	private int pos = 0;
+
+    	private ChunkedPDGWriter(Writer out) {
+    		this.out = out;
+    	}
+
+    	private void write(JoanaGraph g) throws IOException {
+    		append("SDG ");
+    		if (g.getName() != null) {
+    			append('"').append(g.getName()).append("\" ");
+    		}
+    		append("{\n");
+
+    		if (g instanceof SDG && ((SDG) g).getJoanaCompiler()) {
+    			append("JComp\n");
+    		}
+
+    		final int[] ids = new int[g.vertexSet().size()];
+    		int i = 0;
+    		for (SDGNode n : g.vertexSet()) {
+    			ids[i++] = n.getId();
+    		}
+    		Arrays.sort(ids);
+
+    		int proc = (ids.length > 0 ? g.getNode(ids[0]).getProc() : 0);
+    		for (int id : ids) {
+    			final SDGNode n = g.getNode(id);
+    			if (n.getProc() != proc) {
+    				proc = n.getProc();
+    				if (pos > CHUNK_SIZE / 2) {
+    					flushChunk();
+    				}
+    			}
+
+    			writeNode(g, n);
+    		}
+
+    		if (g.getThreadsInfo() != null) {
+    			for (ThreadInstance ti : g.getThreadsInfo()) {
+    				append(ti.toString());
+    			}
+    		}
+
+    		append("}\n");
+    		flushChunk();
+    	}
+
+    	private void writeNode(JoanaGraph g, SDGNode n) throws IOException {
+    		append(n.getKind().toString()).append(' ').append(n.getId()).append(" {\n");
+    		append("O ").append(n.getOperation().toString()).append(";\n");
+
+    		if (n.getLabel() != null) {
+    			append("V \"").append(n.getLabel()).append("\";\n");
+    		}
+
+    		if (n.getType() != null) {
+    			append("T \"").append(n.getType()).append("\";\n");
+    		}
+
+    		append("P ").append(n.getProc()).append(";\n");
+
+    		if (n.getSource() != null) {
+    			append("S \"").append(n.getSource()).append("\":").append(n.getSr()).append(',').append(n.getSc());
+    			append('-').append(n.getEr()).append(',').append(n.getEc()).append(";\n");
+    		}
+
+    		if (n.getBytecodeName() != null) {
+    			append("B \"").append(n.getBytecodeName()).append("\":").append(n.getBytecodeIndex()).append(";\n");
+    		}
+
+    		writeNumbers("Z ", n.getThreadNumbers());
+    		writeNumbers("A ", n.getAllocationSites());
+
+    		if (n.mayBeNonTerminating()) {
+    			append("N;\n");
+    		}
+
+    		if (n.getAliasDataSources() != null) {
+    			append("D ");
+    			final TIntIterator it = n.getAliasDataSources().iterator();
+    			while (it.hasNext()) {
+    				append(it.next());
+    				if (it.hasNext()) {
+    					append(", ");
+    				}
+    			}
+    			append(";\n");
+    		}
+
+    		if (n.getClassLoader() != null) {
+    			append("C \"").append(n.getClassLoader()).append("\";\n");
+    		}
+
+    		if (n.getUnresolvedCallTarget() != null) {
+    			append("U \"").append(n.getUnresolvedCallTarget()).append("\";\n");
+    		}
+
+    		for (SDGEdge e : g.outgoingEdgesOf(n)) {
+    			append(e.getKind().toString()).append(' ').append(e.getTarget().getId());
+    			if (e.getLabel() != null) {
+    				append(": \"").append(e.getLabel()).append('"');
+    			}
+    			append(";\n");
+    		}
+
+    		append("}\n");
+    	}
+
+    	private void writeNumbers(String prefix, int[] numbers) throws IOException {
+    		if (numbers != null && numbers.length > 0) {
+    			append(prefix).append(numbers[0]);
+    			for (int i = 1; i < numbers.length; i++) {
+    				append(", ").append(numbers[i]);
+    			}
+    			append(";\n");
+    		}
+    	}
+
+    	private ChunkedPDGWriter append(String str) throws IOException {
+    		final int len = str.length();
+    		if (pos + len > buf.length) {
+    			flushChunk();
+    			if (len > buf.length) {
+    				out.write(str);
+    				return this;
+    			}
+    		}
+
+    		str.getChars(0, len, buf, pos);
+    		pos += len;
+
+    		return this;
+    	}
+
+    	private ChunkedPDGWriter append(char c) throws IOException {
+    		if (pos == buf.length) {
+    			flushChunk();
+    		}
+
+    		buf[pos++] = c;
+
+    		return this;
+    	}
+
+    	private ChunkedPDGWriter append(int value) throws IOException {
+    		// at most 11 chars, see Integer.MIN_VALUE
+    		if (pos + 11 > buf.length) {
+    			flushChunk();
+    		}
+
+    		if (value == Integer.MIN_VALUE) {
+    			return append(Integer.toString(value));
+    		}
+
+    		int v = value;
+    		if (v < 0) {
+    			buf[pos++] = '-';
+    			v = -v;
+    		}
+
+    		final int start = pos;
+    		do {
+    			buf[pos++] = (char) ('0' + v % 10);
+    			v /= 10;
+    		} while (v != 0);
+
+    		// digits have been written in reverse order
+    		for (int l = start, r = pos - 1; l < r; l++, r--) {
+    			final char tmp = buf[l];
+    			buf[l] = buf[r];
+    			buf[r] = tmp;
+    		}
+
+    		return this;
+    	}
+
+    	private void flushChunk() throws IOException {
+    		if (pos > 0) {
+    			out.write(buf, 0, pos);
+    			pos = 0;
+    		}
+    	}
+
+    }
+
 }
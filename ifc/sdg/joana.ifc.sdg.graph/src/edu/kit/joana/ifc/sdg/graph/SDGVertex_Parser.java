@@ -148,11 +148,28 @@ public class SDGVertex_Parser extends Parser {
     public String getGrammarFileName() { return "/Users/jgf/Documents/Projects/joana/ifc/sdg/joana.ifc.sdg.graph/src/edu/kit/joana/ifc/sdg/graph/SDGVertex_.g"; }
 
 
+      static final SourcePos UNDEFINED_SRC_POS = new SourcePos("undefined", 0, 0, 0, 0);
+      static final ByteCodePos UNDEFINED_BC_POS = new ByteCodePos("<undefined>", -1);
+
       // Stores always the last position specified by a previous node. This is used
       // for sane error recovery, when no position is defined for a node:
       // We assume that its position may be somewhat equal to its pred node. 
-      private static SourcePos defaultSrcPos = new SourcePos("undefined", 0, 0, 0, 0);
-      private static ByteCodePos defaultBcPos = new ByteCodePos("<undefined>", -1);
+      // The positions are passed on from parser to parser with setDefaultPositions.
+      private SourcePos defaultSrcPos = UNDEFINED_SRC_POS;
+      private ByteCodePos defaultBcPos = UNDEFINED_BC_POS;
+
+      void setDefaultPositions(final SourcePos srcPos, final ByteCodePos bcPos) {
+        this.defaultSrcPos = srcPos;
+        this.defaultBcPos = bcPos;
+      }
+
+      SourcePos getDefaultSourcePos() {
+        return defaultSrcPos;
+      }
+
+      ByteCodePos getDefaultByteCodePos() {
+        return defaultBcPos;
+      }
 
       @Override
       public void reportError(final RecognitionException e) {
@@ -250,6 +267,20 @@ public class SDGVertex_Parser extends Parser {
           return n;
         }
         
+        /**
+         * Replaces positions that have been taken over from a default position. Used when the nodes of
+         * a file are parsed in independent chunks.
+         */
+        void replaceDefaultPositions(final SourcePos defSPos, final ByteCodePos defBPos,
+            final SourcePos newSPos, final ByteCodePos newBPos) {
+          if (spos == defSPos) {
+            spos = newSPos;
+          }
+          if (bpos == defBPos) {
+            bpos = newBPos;
+          }
+        }
+
         public void createEdges(final SDG sdg) {
           final SDGNode from = sdg.getNode(id);
           
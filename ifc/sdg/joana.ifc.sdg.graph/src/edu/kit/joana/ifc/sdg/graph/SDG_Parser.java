@@ -185,8 +185,8 @@ public class SDG_Parser extends Parser {
       // Stores always the last position specified by a previous node. This is used
       // for sane error recovery, when no position is defined for a node:
       // We assume that its position may be somewhat equal to its pred node. 
-      private static SourcePos defaultSrcPos = new SourcePos("undefined", 0, 0, 0, 0);
-      private static ByteCodePos defaultBcPos = new ByteCodePos("<undefined>", -1);
+      private SourcePos defaultSrcPos = new SourcePos("undefined", 0, 0, 0, 0);
+      private ByteCodePos defaultBcPos = new ByteCodePos("<undefined>", -1);
 
       @Override
       public void reportError(final RecognitionException e) {
@@ -0,0 +1,474 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.chopper;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.SDGNodeTuple;
+import edu.kit.joana.ifc.sdg.graph.slicer.IntraproceduralSlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.IntraproceduralSlicerForward;
+import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.SummarySlicerForward;
+
+
+/**
+ * BatchChopper computes the context-sensitive unbound chops of many chopping criteria of a sequential program,
+ * e.g. the chops of all violations found by an IFC check.
+ *
+ * It computes the same chops as {@link RepsRosayChopper} or {@link NonSameLevelChopper}, but shares the work
+ * that does not depend on a single criterion: The phase 1 slices of the sources and sinks, which determine the
+ * angular points of the truncated chops, are computed once per distinct source and sink, the slices of single
+ * nodes in bit-parallel batches. In {@link SameLevel#REPS_ROSAY} mode, the intraprocedural slices of the formal
+ * parameters needed for the same-level chops are computed once for all criteria.
+ *
+ * Chops are represented as bit sets of node IDs and handed to a {@link ChopListener} as soon as they are complete.
+ * The shared slices are kept until {@link #clear()} is called or the graph is changed.
+ */
+public class BatchChopper extends Chopper {
+
+	/** The algorithm used for the same-level chops. */
+	public static enum SameLevel {
+		/** Reps' and Rosay's same-level chops, as in {@link RepsRosayChopper}. */
+		REPS_ROSAY,
+		/** Same-level chops with a {@link SummaryMergedChopper}, as in {@link NonSameLevelChopper}. */
+		SUMMARY_MERGED
+	}
+
+	/** Receives the chops of a batch. */
+	public static interface ChopListener {
+
+		/**
+		 * Is called once for each criterion as soon as its chop is computed.
+		 *
+		 * @param index      The position of the criterion in the batch.
+		 * @param criterion  The criterion.
+		 * @param chop       The IDs of the nodes in the chop. Owned by the receiver.
+		 */
+		void chopped(int index, ChoppingCriterion criterion, BitSet chop);
+	}
+
+	private static final Set<SDGEdge.Kind> OMIT_FORWARD_PHASE1 = EnumSet.of(
+			SDGEdge.Kind.INTERFERENCE,
+			SDGEdge.Kind.INTERFERENCE_WRITE,
+			SDGEdge.Kind.FORK,
+			SDGEdge.Kind.FORK_IN,
+			SDGEdge.Kind.PARAMETER_IN,
+			SDGEdge.Kind.CALL);
+
+	private static final Set<SDGEdge.Kind> OMIT_BACKWARD_PHASE1 = EnumSet.of(
+			SDGEdge.Kind.INTERFERENCE,
+			SDGEdge.Kind.INTERFERENCE_WRITE,
+			SDGEdge.Kind.FORK,
+			SDGEdge.Kind.FORK_IN,
+			SDGEdge.Kind.PARAMETER_OUT);
+
+	private static final Set<SDGEdge.Kind> OMIT_BACKWARD_PHASE2 = OMIT_FORWARD_PHASE1;
+
+	private static final Set<SDGEdge.Kind> OMIT_FORWARD_PHASE2 = OMIT_BACKWARD_PHASE1;
+
+	private final SameLevel sameLevel;
+
+	/** forward slicer that only computes phase 1 */
+	private SummarySlicer forward1;
+	/** backward slicer that only computes phase 1 */
+	private SummarySlicer backward1;
+	/** forward slicer that only computes phase 2 */
+	private SummarySlicer forward2;
+	/** backward slicer that only computes phase 2 */
+	private SummarySlicer backward2;
+	private IntraproceduralSlicerForward fSlicer;
+	private IntraproceduralSlicerBackward bSlicer;
+	private SummaryMergedChopper smc;
+
+	/* the shared slices */
+	private final Map<Collection<SDGNode>, BitSet> forwardSlices = new HashMap<Collection<SDGNode>, BitSet>();
+	private final Map<Collection<SDGNode>, BitSet> backwardSlices = new HashMap<Collection<SDGNode>, BitSet>();
+	private final Map<SDGNode, BitSet> fCandidates = new HashMap<SDGNode, BitSet>();
+	private final Map<SDGNode, BitSet> bCandidates = new HashMap<SDGNode, BitSet>();
+
+    /**
+     * Instantiates a BatchChopper with a SDG that computes the chops of {@link RepsRosayChopper}.
+     *
+     * @param g   A SDG. Can be null. Must not be a cSDG.
+     */
+	public BatchChopper(SDG g) {
+		this(g, SameLevel.REPS_ROSAY);
+	}
+
+    /**
+     * Instantiates a BatchChopper with a SDG.
+     *
+     * @param g          A SDG. Can be null. Must not be a cSDG.
+     * @param sameLevel  The algorithm for the same-level chops.
+     */
+	public BatchChopper(SDG g, SameLevel sameLevel) {
+		super(null);
+		this.sameLevel = sameLevel;
+		setGraph(g);
+	}
+
+    /**
+     * Re-initializes the slicers and drops the shared slices.
+     * Triggered by {@link Chopper#setGraph(SDG)}.
+     */
+	protected void onSetGraph() {
+		if (sameLevel == null) {
+			// called by the constructor of Chopper, the slicers are created by the second call
+			return;
+		}
+
+		forward1 = new SummarySlicerForward(sdg, OMIT_FORWARD_PHASE1);
+		backward1 = new SummarySlicerBackward(sdg, OMIT_BACKWARD_PHASE1);
+		forward2 = new SummarySlicerForward(sdg, OMIT_FORWARD_PHASE2);
+		backward2 = new SummarySlicerBackward(sdg, OMIT_BACKWARD_PHASE2);
+
+		if (sameLevel == SameLevel.REPS_ROSAY) {
+			fSlicer = new IntraproceduralSlicerForward(sdg);
+			bSlicer = new IntraproceduralSlicerBackward(sdg);
+
+		} else {
+			smc = new SummaryMergedChopper(sdg);
+		}
+
+		clear();
+	}
+
+	/**
+	 * Drops the shared slices.
+	 */
+	public void clear() {
+		forwardSlices.clear();
+		backwardSlices.clear();
+		fCandidates.clear();
+		bCandidates.clear();
+	}
+
+    /**
+     * Computes a context-sensitive unbound chop from <code>sourceSet</code> to <code>sinkSet</code>.
+     * The slices computed on the way are kept for later chops.
+     *
+     * @param sourceSet  The source criterion set. Should not contain null, should not be empty.
+     * @param sinkSet    The target criterion set. Should not contain null, should not be empty.
+     * @return           The chop.
+     */
+	public Collection<SDGNode> chop(Collection<SDGNode> sourceSet, Collection<SDGNode> sinkSet) {
+		return new HashSet<SDGNode>(toNodes(chopBits(sourceSet, sinkSet)));
+	}
+
+	/**
+	 * Computes the chops of all given criteria.
+	 *
+	 * @param criteria  The criteria. Their source and target sets should not be empty.
+	 * @return          The chops, as bit sets of node IDs, in the order of the criteria.
+	 */
+	public List<BitSet> chopAll(List<ChoppingCriterion> criteria) {
+		final List<BitSet> chops = new ArrayList<BitSet>(criteria.size());
+
+		chopAll(criteria, new ChopListener() {
+			public void chopped(int index, ChoppingCriterion criterion, BitSet chop) {
+				chops.add(chop);
+			}
+		});
+
+		return chops;
+	}
+
+	/**
+	 * Computes the chops of all given criteria and hands each of them to the listener as soon as it is complete.
+	 * The chops are computed in the order of the criteria.
+	 *
+	 * @param criteria  The criteria. Their source and target sets should not be empty.
+	 * @param listener  Receives the chops.
+	 */
+	public void chopAll(List<ChoppingCriterion> criteria, ChopListener listener) {
+		// slice all single sources and sinks in batches
+		final UniqueNodes sources = new UniqueNodes();
+		final UniqueNodes sinks = new UniqueNodes();
+
+		for (ChoppingCriterion c : criteria) {
+			if (c.getSourceSet().size() == 1) {
+				sources.add(c.getSourceSet().iterator().next());
+			}
+
+			if (c.getTargetSet().size() == 1) {
+				sinks.add(c.getTargetSet().iterator().next());
+			}
+		}
+
+		sliceBatch(forward1, sources.list, forwardSlices);
+		sliceBatch(backward1, sinks.list, backwardSlices);
+
+		int index = 0;
+		for (ChoppingCriterion c : criteria) {
+			listener.chopped(index++, c, chopBits(c.getSourceSet(), c.getTargetSet()));
+		}
+	}
+
+	/**
+	 * @return the nodes with the IDs in the given bit set, as a read-only view.
+	 */
+	public Collection<SDGNode> toNodes(BitSet chop) {
+		return new NodeView(sdg, chop);
+	}
+
+	private void sliceBatch(SummarySlicer slicer, List<SDGNode> criteria, Map<Collection<SDGNode>, BitSet> slices) {
+		final List<SDGNode> todo = new ArrayList<SDGNode>();
+
+		for (SDGNode n : criteria) {
+			if (!slices.containsKey(Collections.singleton(n))) {
+				todo.add(n);
+			}
+		}
+
+		if (todo.isEmpty()) {
+			return;
+		}
+
+		final List<Collection<SDGNode>> result = slicer.sliceBatch(todo);
+
+		for (int i = 0; i < todo.size(); i++) {
+			slices.put(Collections.singleton(todo.get(i)), toBits(result.get(i)));
+		}
+	}
+
+	private BitSet slice(SummarySlicer slicer, Collection<SDGNode> criteria, Map<Collection<SDGNode>, BitSet> slices) {
+		// sets of nodes are equal to each other if they contain the same nodes, so any set works as key
+		final Collection<SDGNode> key = (criteria.size() == 1
+				? Collections.singleton(criteria.iterator().next()) : new HashSet<SDGNode>(criteria));
+		BitSet slice = slices.get(key);
+
+		if (slice == null) {
+			slice = toBits(slicer.slice(criteria));
+			slices.put(key, slice);
+		}
+
+		return slice;
+	}
+
+	/* see TruncatedNonSameLevelChopper and RepsRosayChopper / NonSameLevelChopper */
+	private BitSet chopBits(Collection<SDGNode> sourceSet, Collection<SDGNode> sinkSet) {
+		final BitSet forwardSlice = slice(forward1, sourceSet, forwardSlices);
+		final BitSet backwardSlice = slice(backward1, sinkSet, backwardSlices);
+
+		// the angular point of the chop
+		final BitSet w = (BitSet) forwardSlice.clone();
+		w.and(backwardSlice);
+
+		final BitSet chop = new BitSet();
+
+		if (w.isEmpty()) {
+			// the truncated chop is empty, and so are its same-level chops
+			return chop;
+		}
+
+		final Collection<SDGNode> wNodes = toNodes(w);
+
+		// the left-side truncated chop
+		chop.or(toBits(backward2.subgraphSlice(wNodes, toNodes(forwardSlice))));
+
+		// the right-side truncated chop
+		final Collection<SDGNode> forwardFromW = forward2.slice(wNodes);
+		chop.or(toBits(backward1.subgraphSlice(sinkSet, forwardFromW)));
+
+		if (sameLevel == SameLevel.REPS_ROSAY) {
+			repsRosaySameLevelChops(chop);
+
+		} else {
+			summaryMergedSameLevelChops(chop);
+		}
+
+		return chop;
+	}
+
+	/* see RepsRosayChopper.sameLevelChopsAux, with shared candidate slices */
+	private void repsRosaySameLevelChops(BitSet chop) {
+		final LinkedList<SDGNodeTuple> worklist = new LinkedList<SDGNodeTuple>();
+		worklist.addAll(getSummaryEdgePairs(toNodes(chop)));
+
+		final Set<SDGNodeTuple> visitedTuples = new HashSet<SDGNodeTuple>();
+		// the b-candidates of each formal-out node that have already been added to the chop
+		final Map<SDGNode, BitSet> added = new HashMap<SDGNode, BitSet>();
+
+		while (!worklist.isEmpty()) {
+			final SDGNodeTuple next = worklist.poll();
+
+			if (!visitedTuples.add(next)) {
+				continue;
+			}
+
+			final SDGNode fi = next.getFirstNode();
+			final SDGNode fo = next.getSecondNode();
+			final BitSet bSlice = candidates(bSlicer, fo, bCandidates);
+			final BitSet fSlice = candidates(fSlicer, fi, fCandidates);
+
+			BitSet done = added.get(fo);
+			if (done == null) {
+				done = new BitSet();
+				added.put(fo, done);
+			}
+
+			final BitSet found = (BitSet) bSlice.clone();
+			found.and(fSlice);
+			found.andNot(done);
+
+			for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+				final SDGNode x = sdg.getNode(id);
+				chop.set(id);
+				done.set(id);
+
+				if (x.getKind() == SDGNode.Kind.ACTUAL_IN) {
+					for (SDGEdge e : sdg.getOutgoingEdgesOfKind(x, SDGEdge.Kind.SUMMARY)) {
+						if (isActOutIn(e.getTarget(), bSlice)) {
+							for (SDGNodeTuple fifo : sdg.getAllFormalPairs(x, e.getTarget())) {
+								if (fifo != null) {
+									worklist.add(fifo);
+								}
+							}
+						}
+					}
+
+				} else if (x.getKind() == SDGNode.Kind.CALL) {
+					// treat auxiliary summary edges between call and actual-out nodes
+					for (SDGNode n : sdg.getParametersFor(x)) {
+						if (isActOutIn(n, bSlice)) {
+							for (SDGNodeTuple fifo : sdg.getAllFormalPairs(x, n)) {
+								if (fifo != null) {
+									worklist.add(fifo);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isActOutIn(SDGNode n, BitSet slice) {
+		return n.getKind() == SDGNode.Kind.ACTUAL_OUT && slice.get(n.getId());
+	}
+
+	private BitSet candidates(Slicer slicer, SDGNode n, Map<SDGNode, BitSet> cache) {
+		BitSet slice = cache.get(n);
+
+		if (slice == null) {
+			slice = toBits(slicer.slice(n));
+			cache.put(n, slice);
+		}
+
+		return slice;
+	}
+
+	/* see NonSameLevelChopper.sameLevelChopsAux */
+	private void summaryMergedSameLevelChops(BitSet chop) {
+		final LinkedList<Criterion> worklist = new LinkedList<Criterion>();
+		final Set<SDGNodeTuple> visitedTuples = new HashSet<SDGNodeTuple>();
+		worklist.addAll(getSummarySites(toNodes(chop)));
+
+		while (!worklist.isEmpty()) {
+			final HashSet<SDGNode> auxSourceSet = new HashSet<SDGNode>();
+			final HashSet<SDGNode> auxSinkSet = new HashSet<SDGNode>();
+			final Criterion next = worklist.poll();
+
+			for (SDGNode s : next.source) {
+				for (SDGNode t : next.target) {
+					if (visitedTuples.add(new SDGNodeTuple(s, t))) {
+						auxSourceSet.add(s);
+						auxSinkSet.add(t);
+					}
+				}
+			}
+
+			if (auxSourceSet.isEmpty() || auxSinkSet.isEmpty()) continue;
+
+			chop.or(toBits(smc.chop(auxSourceSet, auxSinkSet)));
+		}
+	}
+
+	private static BitSet toBits(Collection<SDGNode> nodes) {
+		final BitSet bits = new BitSet();
+
+		for (SDGNode n : nodes) {
+			bits.set(n.getId());
+		}
+
+		return bits;
+	}
+
+	/** A list of nodes without duplicates. */
+	private static final class UniqueNodes {
+		private final Set<SDGNode> seen = new HashSet<SDGNode>();
+		private final List<SDGNode> list = new ArrayList<SDGNode>();
+
+		void add(SDGNode n) {
+			if (seen.add(n)) {
+				list.add(n);
+			}
+		}
+	}
+
+	/** A read-only view of a bit set of node IDs as a collection of nodes. */
+	private static final class NodeView extends AbstractCollection<SDGNode> {
+		private final SDG sdg;
+		private final BitSet bits;
+
+		NodeView(SDG sdg, BitSet bits) {
+			this.sdg = sdg;
+			this.bits = bits;
+		}
+
+		public boolean contains(Object o) {
+			return (o instanceof SDGNode) && ((SDGNode) o).getId() >= 0 && bits.get(((SDGNode) o).getId());
+		}
+
+		public Iterator<SDGNode> iterator() {
+			return new Iterator<SDGNode>() {
+				private int next = bits.nextSetBit(0);
+
+				public boolean hasNext() {
+					return next >= 0;
+				}
+
+				public SDGNode next() {
+					if (next < 0) {
+						throw new NoSuchElementException();
+					}
+
+					final SDGNode n = sdg.getNode(next);
+					next = bits.nextSetBit(next + 1);
+					return n;
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		public int size() {
+			return bits.cardinality();
+		}
+	}
+}
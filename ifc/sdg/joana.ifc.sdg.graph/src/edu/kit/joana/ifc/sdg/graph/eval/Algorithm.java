@@ -179,6 +179,11 @@ public interface Algorithm {
 				return new SlicingAlgorithm(NandaFactory.createNandaBackward(null));
 			}
 		},
+		GIFFHORN_NANDA_PACKED("GNP", Kind.SLICER, true) {
+			public Algorithm instantiate() {
+				return new SlicingAlgorithm(NandaFactory.createPackedNandaBackward(null));
+			}
+		},
 		GIFFHORN_NANDA_EXPERIMENTAL("GNE", Kind.SLICER, true) {
 			public Algorithm instantiate() {
 				return new SlicingAlgorithm(edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda.experimental.NandaFactory.createNandaBackward(null));
@@ -0,0 +1,25 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer;
+
+import java.util.Collection;
+import java.util.List;
+
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+
+/**
+ * A slicer that computes the slices of many criteria at once.
+ */
+public interface BatchSlicer extends Slicer {
+
+    /**
+     * Computes the slice of each of the given criteria on its own.
+     * The i-th element of the result is the slice of the i-th criterion.
+     */
+    public List<Collection<SDGNode>> sliceBatch(List<SDGNode> criteria);
+}
@@ -0,0 +1,422 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+/**
+ * Computes the two-phase slices of many criteria in a single traversal of the graph.
+ * <p>
+ * Every criterion gets a bit, and every node carries two bit vectors: the criteria whose slice reaches the node
+ * in phase 1 and those whose slice reaches it in phase 2 only. Propagating the bit vectors along the edges until
+ * nothing changes yields the slices of up to {@link #BATCH_SIZE} criteria at once. Larger lists of criteria are
+ * sliced in blocks of that size.
+ * <p>
+ * The part of the graph reachable from the criteria is explored breadth first, the edges are evaluated once and
+ * packed into arrays. The bit vectors are then propagated in sweeps over the nodes in breadth first order, so most
+ * nodes have received all their bits before they are processed.
+ * <p>
+ * Phase 1 dominates phase 2: a node that is reached in phase 1 is traversed with the phase 1 predicate, no matter
+ * whether it has been reached in phase 2 as well. The result therefore does not depend on the order in which the
+ * nodes are visited. Slicers that keep the phase of the first arrival instead, such as the two-phase
+ * {@link SummarySlicer}, may compute smaller slices for criteria where a node is reached from phase 1 both in
+ * phase 1 and in phase 2. {@link #slice(SDG, CompactSDG.Direction, List, Transitions, boolean)} reports these
+ * criteria, so they can be sliced on their own.
+ */
+public final class BitParallelSlicing {
+
+    /** The edge is not traversed. */
+    public static final int NOT_TRAVERSED = 0;
+    /** The reached node belongs to phase 1. */
+    public static final int PHASE1 = 1;
+    /** The reached node belongs to phase 2. */
+    public static final int PHASE2 = 2;
+
+    /** The number of 64 bit words per node and phase. */
+    public static final int WORDS = 4;
+    /** The maximal number of criteria that are sliced in the same traversal. */
+    public static final int BATCH_SIZE = WORDS * 64;
+
+    /**
+     * Describes in which phase an edge is traversed and in which phase the reached node ends up.
+     * Every edge that is traversed from phase 2 has to be traversed from phase 1 as well.
+     */
+    public static abstract class Transitions {
+
+        /**
+         * Returns the phase of the node reached over edge e from a node in phase 1, or NOT_TRAVERSED.
+         */
+        public abstract int fromPhase1(SDGEdge e);
+
+        /**
+         * Returns the phase of the node reached over edge e from a node in phase 2, or NOT_TRAVERSED.
+         */
+        public abstract int fromPhase2(SDGEdge e);
+
+        /**
+         * The same as {@link #fromPhase1(SDGEdge)} for a packed edge of a CompactSDG.
+         * Creates the edge, subclasses that only need the kind and the end points should override this.
+         */
+        public int fromPhase1(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+            return fromPhase1(new SDGEdge(source, target, kind));
+        }
+
+        /**
+         * The same as {@link #fromPhase2(SDGEdge)} for a packed edge of a CompactSDG.
+         * Creates the edge, subclasses that only need the kind and the end points should override this.
+         */
+        public int fromPhase2(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+            return fromPhase2(new SDGEdge(source, target, kind));
+        }
+    }
+
+    private BitParallelSlicing() {}
+
+    /**
+     * Computes the slice of each of the given criteria, all criteria start in phase 1.
+     * @param g The graph to slice.
+     * @param dir BACKWARD follows the incoming edges of a node, FORWARD the outgoing ones.
+     * @param criteria The criteria, each one is sliced on its own.
+     * @param t Decides which edges are traversed.
+     * @return The i-th element is the slice of the i-th criterion.
+     */
+    public static List<Collection<SDGNode>> slice(SDG g, CompactSDG.Direction dir, List<SDGNode> criteria,
+    		Transitions t) {
+        return slice(g, dir, criteria, t, false);
+    }
+
+    /**
+     * Computes the slice of each of the given criteria, all criteria start in phase 1.
+     * @param g The graph to slice.
+     * @param dir BACKWARD follows the incoming edges of a node, FORWARD the outgoing ones.
+     * @param criteria The criteria, each one is sliced on its own.
+     * @param t Decides which edges are traversed.
+     * @param dropAmbiguous If true, the slice of a criterion is null if a node other than the criterion is reached
+     * from phase 1 both in phase 1 and in phase 2. Only for these criteria the slice may depend on the order of
+     * the traversal.
+     * @return The i-th element is the slice of the i-th criterion.
+     */
+    public static List<Collection<SDGNode>> slice(SDG g, CompactSDG.Direction dir, List<SDGNode> criteria,
+    		Transitions t, boolean dropAmbiguous) {
+        final List<Collection<SDGNode>> slices = new ArrayList<Collection<SDGNode>>(criteria.size());
+
+        for (int from = 0; from < criteria.size(); from += BATCH_SIZE) {
+            final List<SDGNode> block = criteria.subList(from, Math.min(criteria.size(), from + BATCH_SIZE));
+            final Region region = (g instanceof CompactSDG
+            		? Region.explore((CompactSDG) g, dir, block, t) : Region.explore(g, dir, block, t));
+
+            slices.addAll(region.slice(block.size(), dropAmbiguous));
+        }
+
+        return slices;
+    }
+
+    /**
+     * The part of the graph that is reachable from the criteria in phase 1. Nodes are numbered in breadth first
+     * order, the criteria come first. The edges of node i are stored at positions [start[i], start[i+1]) of the
+     * edge arrays, together with the phases of the reached node from phase 1 (lower 2 bits) and from phase 2.
+     */
+    private static final class Region {
+
+        private SDGNode[] nodes = new SDGNode[64];
+        private int size = 0;
+        private int[] start = new int[65];
+        private int[] target = new int[256];
+        private byte[] phases = new byte[256];
+        private int edges = 0;
+        private int[] criteria;
+
+        private static Region explore(CompactSDG cg, CompactSDG.Direction dir, List<SDGNode> criteria,
+        		Transitions t) {
+            final Region r = new Region();
+            final int[] index = new int[cg.nodeCount()];
+            Arrays.fill(index, -1);
+            r.criteria = new int[criteria.size()];
+
+            for (int i = 0; i < criteria.size(); i++) {
+                final SDGNode c = criteria.get(i);
+                final int idx = cg.indexOf(c);
+
+                if (idx < 0) {
+                    throw new IllegalArgumentException("no such vertex in graph: " + c);
+                }
+
+                if (index[idx] < 0) {
+                    index[idx] = r.add(c);
+                }
+
+                r.criteria[i] = index[idx];
+            }
+
+            for (int w = 0; w < r.size; w++) {
+                final SDGNode wNode = r.nodes[w];
+                final int wIdx = cg.indexOf(wNode);
+
+                for (int pos = cg.first(dir, wIdx), end = cg.end(dir, wIdx); pos < end; pos++) {
+                    final SDGEdge.Kind kind = cg.kind(dir, pos);
+                    final int vIdx = cg.adjacent(dir, pos);
+                    final SDGNode vNode = cg.nodeAt(vIdx);
+                    final SDGNode source = (dir == CompactSDG.Direction.BACKWARD ? vNode : wNode);
+                    final SDGNode target = (dir == CompactSDG.Direction.BACKWARD ? wNode : vNode);
+                    final int from1 = t.fromPhase1(kind, source, target);
+
+                    if (from1 != NOT_TRAVERSED) {
+                        if (index[vIdx] < 0) {
+                            index[vIdx] = r.add(vNode);
+                        }
+
+                        r.addEdge(index[vIdx], from1, t.fromPhase2(kind, source, target));
+                    }
+                }
+
+                r.start[w + 1] = r.edges;
+            }
+
+            return r;
+        }
+
+        private static Region explore(SDG g, CompactSDG.Direction dir, List<SDGNode> criteria, Transitions t) {
+            final Region r = new Region();
+            final TObjectIntHashMap<SDGNode> index = new TObjectIntHashMap<SDGNode>(1024, 0.5f, -1);
+            r.criteria = new int[criteria.size()];
+
+            for (int i = 0; i < criteria.size(); i++) {
+                final SDGNode c = criteria.get(i);
+
+                if (!g.containsVertex(c)) {
+                    throw new IllegalArgumentException("no such vertex in graph: " + c);
+                }
+
+                int idx = index.get(c);
+                if (idx < 0) {
+                    idx = r.add(c);
+                    index.put(c, idx);
+                }
+
+                r.criteria[i] = idx;
+            }
+
+            for (int w = 0; w < r.size; w++) {
+                final SDGNode wNode = r.nodes[w];
+                final Collection<SDGEdge> edges =
+                		(dir == CompactSDG.Direction.BACKWARD ? g.incomingEdgesOf(wNode) : g.outgoingEdgesOf(wNode));
+
+                for (SDGEdge e : edges) {
+                    final int from1 = t.fromPhase1(e);
+
+                    if (from1 != NOT_TRAVERSED) {
+                        final SDGNode vNode = (dir == CompactSDG.Direction.BACKWARD ? e.getSource() : e.getTarget());
+                        int v = index.get(vNode);
+
+                        if (v < 0) {
+                            v = r.add(vNode);
+                            index.put(vNode, v);
+                        }
+
+                        r.addEdge(v, from1, t.fromPhase2(e));
+                    }
+                }
+
+                r.start[w + 1] = r.edges;
+            }
+
+            return r;
+        }
+
+        private int add(final SDGNode node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                start = Arrays.copyOf(start, 2 * size + 1);
+            }
+
+            nodes[size] = node;
+            return size++;
+        }
+
+        private void addEdge(final int v, final int from1, final int from2) {
+            if (edges == target.length) {
+                target = Arrays.copyOf(target, 2 * edges);
+                phases = Arrays.copyOf(phases, 2 * edges);
+            }
+
+            target[edges] = v;
+            phases[edges] = (byte) (from1 | (from2 << 2));
+            edges++;
+        }
+
+        /**
+         * Propagates the bits of the criteria until nothing changes and collects the slices.
+         */
+        private List<Collection<SDGNode>> slice(final int count, final boolean dropAmbiguous) {
+            final int words = Math.max(1, (count + 63) >>> 6);
+            // the bits of a node in phase 2 never overlap with its bits in phase 1
+            final long[] phase1 = new long[size * words];
+            final long[] phase2 = new long[size * words];
+            // the bits that have been propagated from phase 1 to phase 2 of a node
+            final long[] descended = (dropAmbiguous ? new long[size * words] : null);
+            final long[] pending = new long[(size + 63) >>> 6];
+
+            for (int i = 0; i < count; i++) {
+                final int c = criteria[i];
+                phase1[c * words + (i >>> 6)] |= 1L << i;
+                pending[c >>> 6] |= 1L << c;
+            }
+
+            int w = nextPending(pending, 0);
+            while (w >= 0) {
+                pending[w >>> 6] &= ~(1L << w);
+
+                final boolean inPhase1 = any(phase1, w, words);
+                final boolean inPhase2 = any(phase2, w, words);
+
+                for (int pos = start[w], end = start[w + 1]; pos < end; pos++) {
+                    final int v = target[pos];
+                    boolean changed = false;
+
+                    if (inPhase1) {
+                        final int to = phases[pos] & 3;
+                        changed |= propagate(phase1, phase1, phase2, w, v, to, words);
+
+                        if (descended != null && to == PHASE2) {
+                            for (int i = 0; i < words; i++) {
+                                descended[v * words + i] |= phase1[w * words + i];
+                            }
+                        }
+                    }
+
+                    if (inPhase2) {
+                        changed |= propagate(phase2, phase1, phase2, w, v, phases[pos] >> 2, words);
+                    }
+
+                    if (changed) {
+                        pending[v >>> 6] |= 1L << v;
+                    }
+                }
+
+                // sweep in breadth first order, start over when the end is reached
+                w = nextPending(pending, w + 1);
+                if (w < 0) {
+                    w = nextPending(pending, 0);
+                }
+            }
+
+            final long[] ambiguous = new long[words];
+            if (descended != null) {
+                // a criterion is in phase 1 from the start, reaching it again does not matter
+                for (int i = 0; i < count; i++) {
+                    descended[criteria[i] * words + (i >>> 6)] &= ~(1L << i);
+                }
+
+                for (int n = 0; n < size; n++) {
+                    for (int i = 0; i < words; i++) {
+                        ambiguous[i] |= descended[n * words + i] & phase1[n * words + i];
+                    }
+                }
+            }
+
+            final List<Collection<SDGNode>> slices = new ArrayList<Collection<SDGNode>>(count);
+            for (int i = 0; i < count; i++) {
+                slices.add((ambiguous[i >>> 6] & (1L << i)) != 0 ? null : new HashSet<SDGNode>());
+            }
+
+            for (int n = 0; n < size; n++) {
+                for (int i = 0; i < words; i++) {
+                    long bits = (phase1[n * words + i] | phase2[n * words + i]) & ~ambiguous[i];
+
+                    while (bits != 0) {
+                        slices.get((i << 6) + Long.numberOfTrailingZeros(bits)).add(nodes[n]);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+
+            return slices;
+        }
+
+        private static int nextPending(final long[] pending, final int from) {
+            int i = from >>> 6;
+
+            if (i >= pending.length) {
+                return -1;
+            }
+
+            long bits = pending[i] & (-1L << from);
+            while (bits == 0) {
+                if (++i == pending.length) {
+                    return -1;
+                }
+
+                bits = pending[i];
+            }
+
+            return (i << 6) + Long.numberOfTrailingZeros(bits);
+        }
+
+        private static boolean any(final long[] phase, final int node, final int words) {
+            for (int i = node * words, end = i + words; i < end; i++) {
+                if (phase[i] != 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Adds the bits of node w in phase `from' to node v in phase `to'.
+         * @return true iff v has got new bits.
+         */
+        private static boolean propagate(final long[] from, final long[] phase1, final long[] phase2,
+        		final int w, final int v, final int to, final int words) {
+            if (to == NOT_TRAVERSED) {
+                return false;
+            }
+
+            boolean changed = false;
+
+            for (int i = 0; i < words; i++) {
+                final long bits = from[w * words + i];
+
+                if (bits == 0) {
+                    continue;
+                }
+
+                final int vi = v * words + i;
+
+                if (to == PHASE1) {
+                    final long added = bits & ~phase1[vi];
+
+                    if (added != 0) {
+                        phase1[vi] |= added;
+                        phase2[vi] &= ~added;
+                        changed = true;
+                    }
+                } else {
+                    final long added = bits & ~(phase1[vi] | phase2[vi]);
+
+                    if (added != 0) {
+                        phase2[vi] |= added;
+                        changed = true;
+                    }
+                }
+            }
+
+            return changed;
+        }
+    }
+}
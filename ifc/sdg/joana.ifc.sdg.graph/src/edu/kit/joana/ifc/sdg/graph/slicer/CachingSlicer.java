@@ -0,0 +1,146 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+
+/**
+ * Decorates a slicer with a {@link SliceCache}: the slices of single criteria are looked up in the cache
+ * before they are computed. Slices of several criteria at once are always computed.
+ * <p>
+ * The slices computed by {@link #sliceBatch(List)} are stored apart from those computed by {@link #slice(SDGNode)},
+ * so a batch slice is never returned for a single criterion and vice versa.
+ * <p>
+ * Several caching slicers may share one cache, as long as they use different kinds.
+ */
+public class CachingSlicer implements BatchSlicer {
+
+    private final Slicer slicer;
+    private final SliceCache cache;
+    private final Object kind;
+    private final Object batchKind;
+    private SDG graph;
+
+    /**
+     * Uses the class of the given slicer as its kind.
+     */
+    public CachingSlicer(SDG graph, Slicer slicer, SliceCache cache) {
+        this(graph, slicer, cache, slicer.getClass());
+    }
+
+    /**
+     * @param graph   the graph the slicer works on.
+     * @param slicer  the decorated slicer.
+     * @param cache   the cache of slices.
+     * @param kind    identifies the slices of this slicer in the cache, must have a proper equals and hashCode.
+     */
+    public CachingSlicer(SDG graph, Slicer slicer, SliceCache cache, Object kind) {
+        this.graph = graph;
+        this.slicer = slicer;
+        this.cache = cache;
+        this.kind = kind;
+        this.batchKind = new BatchKind(kind);
+    }
+
+    public void setGraph(SDG graph) {
+        this.graph = graph;
+        slicer.setGraph(graph);
+        cache.setGraph(graph);
+    }
+
+    public Collection<SDGNode> slice(Collection<SDGNode> criteria) {
+        if (criteria.size() == 1) {
+            return slice(criteria.iterator().next());
+        }
+
+        return slicer.slice(criteria);
+    }
+
+    public Collection<SDGNode> slice(SDGNode criterion) {
+        Collection<SDGNode> slice = cache.get(graph, kind, criterion);
+
+        if (slice == null) {
+            slice = slicer.slice(criterion);
+            cache.put(graph, kind, criterion, slice);
+        }
+
+        return slice;
+    }
+
+    /**
+     * Looks up each criterion in the cache and slices the missing ones, in one batch if the decorated slicer
+     * is a {@link BatchSlicer}.
+     */
+    public List<Collection<SDGNode>> sliceBatch(List<SDGNode> criteria) {
+        final List<Collection<SDGNode>> slices = new ArrayList<Collection<SDGNode>>(criteria.size());
+        final List<SDGNode> missing = new ArrayList<SDGNode>();
+
+        for (SDGNode c : criteria) {
+            final Collection<SDGNode> slice = cache.get(graph, batchKind, c);
+            slices.add(slice);
+
+            if (slice == null) {
+                missing.add(c);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return slices;
+        }
+
+        final List<Collection<SDGNode>> computed;
+        if (slicer instanceof BatchSlicer) {
+            computed = ((BatchSlicer) slicer).sliceBatch(missing);
+        } else {
+            computed = new ArrayList<Collection<SDGNode>>(missing.size());
+            for (SDGNode c : missing) {
+                computed.add(slicer.slice(c));
+            }
+        }
+
+        for (int i = 0, next = 0; i < slices.size(); i++) {
+            if (slices.get(i) == null) {
+                final Collection<SDGNode> slice = computed.get(next++);
+                cache.put(graph, batchKind, criteria.get(i), slice);
+                slices.set(i, slice);
+            }
+        }
+
+        return slices;
+    }
+
+    public SliceCache getCache() {
+        return cache;
+    }
+
+    /** The kind of the batch slices of a slicer. */
+    private static final class BatchKind {
+        private final Object kind;
+
+        private BatchKind(Object kind) {
+            this.kind = kind;
+        }
+
+        public int hashCode() {
+            return 31 * kind.hashCode() + 1;
+        }
+
+        public boolean equals(Object o) {
+            return o instanceof BatchKind && kind.equals(((BatchKind) o).kind);
+        }
+
+        public String toString() {
+            return "batch " + kind;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
@@ -62,6 +63,14 @@ public abstract class ContextSlicer implements Slicer {
 
     protected abstract boolean isDescendingEdge(SDGEdge.Kind k);
 
+    /**
+     * Returns the direction in which this slicer traverses a CompactSDG, or null if this slicer
+     * does not support the int-based traversal of a CompactSDG.
+     */
+    protected CompactSDG.Direction compactDirection() {
+    	return null;
+    }
+
     public void setGraph(SDG graph) {
         sdg = graph;
 
@@ -88,6 +97,9 @@ public abstract class ContextSlicer implements Slicer {
     	HashSet<Context> visited = new HashSet<Context>();
         LinkedList<Context> worklist_1 = new LinkedList<Context>();
         LinkedList<Context> worklist_2 = new LinkedList<Context>();
+        // on a CompactSDG, edges are traversed via the int-based API without creating SDGEdge objects
+        final CompactSDG.Direction dir = compactDirection();
+        final CompactSDG cg = (dir != null && sdg instanceof CompactSDG ? (CompactSDG) sdg : null);
 
         // init worklist
         for (SDGNode c : criterion) {
@@ -101,102 +113,181 @@ public abstract class ContextSlicer implements Slicer {
             slice.add(next.getNode());
 
             // handle all incoming edges of 'next'
-            for(SDGEdge e : getEdges(next.getNode())) {
-            	if (!e.getKind().isSDGEdge() || omittedEdges.contains(e.getKind())) {
-                    continue;
-                }
-
-                SDGNode n = getAdjacentNode(e);
-
-                // distinguish between different kinds of edges
-                if ((e.getKind() == SDGEdge.Kind.CALL || e.getKind() == SDGEdge.Kind.PARAMETER_IN)
-                		&& n.getKind() == SDGNode.Kind.FORMAL_OUT) {
+            // a context created by an intra-procedural step that was visited already is reused for the next step
+            Context scratch = null;
+            if (cg != null) {
+            	final int idx = cg.indexOf(next.getNode());
+
+            	for (int pos = cg.first(dir, idx), end = cg.end(dir, idx); pos < end; pos++) {
+            		final SDGEdge.Kind kind = cg.kind(dir, pos);
+            		if (!kind.isSDGEdge() || omittedEdges.contains(kind)) {
+            			continue;
+            		}
+
+            		final SDGNode n = cg.nodeAt(cg.adjacent(dir, pos));
+            		final SDGNode source = (dir == CompactSDG.Direction.BACKWARD ? n : next.getNode());
+            		final SDGNode target = (dir == CompactSDG.Direction.BACKWARD ? next.getNode() : n);
+            		scratch = traversePhase1(kind, source, target, n, next, visited, worklist_1, worklist_2, scratch);
+            	}
+
+            } else {
+            	for(SDGEdge e : getEdges(next.getNode())) {
+            		if (!e.getKind().isSDGEdge() || omittedEdges.contains(e.getKind())) {
+            			continue;
+            		}
+
+            		scratch = traversePhase1(e.getKind(), e.getSource(), e.getTarget(), getAdjacentNode(e), next,
+            				visited, worklist_1, worklist_2, scratch);
+            	}
+            }
+        }
 
-                    // The class initialiser method is a special case due to the structure of the given SDG graphs.
-                    // It can be recognised by having the only formal-out vertex with an outgoing param-in edge
-                    // which is also the only 'entry point' during an intrathreadural backward slice.
-                    Collection<Context> newContexts = conMan.getContextsOf(n, 0);
+        // slice
+        while(!worklist_2.isEmpty()) {
+            // next element, put it in the slice
+            Context next = worklist_2.poll();
+            slice.add(next.getNode());
 
-                    // update the worklist
-                    for (Context con : newContexts) {
-                    	if (visited.add(con)) {
-                    		worklist_1.add(con);
-                       	}
-                    }
+            // handle all incoming edges of 'next'
+            // a context created by an intra-procedural step that was visited already is reused for the next step
+            Context scratch = null;
+            if (cg != null) {
+            	final int idx = cg.indexOf(next.getNode());
+
+            	for (int pos = cg.first(dir, idx), end = cg.end(dir, idx); pos < end; pos++) {
+            		final SDGEdge.Kind kind = cg.kind(dir, pos);
+            		if (!kind.isSDGEdge() || omittedEdges.contains(kind)) {
+            			continue;
+            		}
+
+            		final SDGNode n = cg.nodeAt(cg.adjacent(dir, pos));
+            		final SDGNode source = (dir == CompactSDG.Direction.BACKWARD ? n : next.getNode());
+            		final SDGNode target = (dir == CompactSDG.Direction.BACKWARD ? next.getNode() : n);
+            		scratch = traversePhase2(kind, source, target, n, next, visited, worklist_2, scratch);
+            	}
+
+            } else {
+            	for(SDGEdge e : getEdges(next.getNode())){
+            		if (!e.getKind().isSDGEdge() || omittedEdges.contains(e.getKind())) {
+            			continue;
+            		}
+
+            		scratch = traversePhase2(e.getKind(), e.getSource(), e.getTarget(), getAdjacentNode(e), next,
+            				visited, worklist_2, scratch);
+            	}
+            }
+        }
 
-                } else if (isAscendingEdge(e.getKind())) {
-                    // go to the calling procedure
-                	if (n.isInThread(next.getThread()) && next.isInCallingProcedure(n)) {
-                        SDGNodeTuple callSite = sdg.getCallEntryFor(e);
-                        Context[] newContexts = conMan.ascend(n, callSite, next);
+        // return the slice
+        return slice;
+    }
 
-                        for (Context con : newContexts) {
-                        	if (con != null && visited.add(con)) {
-                        		worklist_1.add(con);
-                        	}
-                        }
-                    }
+    /** Traverses an intra-procedural edge from 'next' to n like {@link ContextManager#level(SDGNode, Context)},
+     * but reuses 'scratch' instead of creating a new context if it is not null.
+     * 'scratch' has to be the result of an earlier level step from 'next' that is not referenced anywhere
+     * else, i.e. a context that turned out to be visited already. Static contexts are immutable and are
+     * never reused. */
+    private Context level(SDGNode n, Context next, Context scratch) {
+    	if (scratch == null || !(conMan instanceof DynamicContextManager)) {
+    		return conMan.level(n, next);
+    	}
 
-                } else if (isDescendingEdge(e.getKind())) {
-                    // go to the called procedure
-                    SDGNodeTuple callSite = sdg.getCallEntryFor(e);
-                    Context con = conMan.descend(n, callSite, next);
+    	scratch.setNode(n);
+    	return scratch;
+    }
 
-                    if (visited.add(con)) {
-                		worklist_2.add(con);
-                	}
+    /** Handles the traversal of edge source -kind-> target in the first phase of {@link #slice(Collection)}.
+     * n is the node reached by the traversal. Returns the context that may be reused as scratch by the
+     * next intra-procedural step from 'next', see {@link #level(SDGNode, Context, Context)}. */
+    private Context traversePhase1(SDGEdge.Kind kind, SDGNode source, SDGNode target, SDGNode n, Context next,
+    		HashSet<Context> visited, LinkedList<Context> worklist_1, LinkedList<Context> worklist_2,
+    		Context scratch) {
+        // distinguish between different kinds of edges
+        if ((kind == SDGEdge.Kind.CALL || kind == SDGEdge.Kind.PARAMETER_IN)
+        		&& n.getKind() == SDGNode.Kind.FORMAL_OUT) {
+
+            // The class initialiser method is a special case due to the structure of the given SDG graphs.
+            // It can be recognised by having the only formal-out vertex with an outgoing param-in edge
+            // which is also the only 'entry point' during an intrathreadural backward slice.
+            Collection<Context> newContexts = conMan.getContextsOf(n, 0);
+
+            // update the worklist
+            for (Context con : newContexts) {
+            	if (visited.add(con)) {
+            		worklist_1.add(con);
+               	}
+            }
 
-                } else {
-                    // intra-procedural traversal
-                    Context con = conMan.level(n, next);
+        } else if (isAscendingEdge(kind)) {
+            // go to the calling procedure
+        	if (n.isInThread(next.getThread()) && next.isInCallingProcedure(n)) {
+                SDGNodeTuple callSite = sdg.getCallEntryFor(source, target, kind);
+                Context[] newContexts = conMan.ascend(n, callSite, next);
 
-                    if (visited.add(con)) {
+                for (Context con : newContexts) {
+                	if (con != null && visited.add(con)) {
                 		worklist_1.add(con);
                 	}
                 }
             }
-        }
 
-        // slice
-        while(!worklist_2.isEmpty()) {
-            // next element, put it in the slice
-            Context next = worklist_2.poll();
-            slice.add(next.getNode());
+        } else if (isDescendingEdge(kind)) {
+            // go to the called procedure
+            SDGNodeTuple callSite = sdg.getCallEntryFor(source, target, kind);
+            Context con = conMan.descend(n, callSite, next);
 
-            // handle all incoming edges of 'next'
-            for(SDGEdge e : getEdges(next.getNode())){
-            	if (!e.getKind().isSDGEdge() || omittedEdges.contains(e.getKind())) {
-                    continue;
-                }
+            if (visited.add(con)) {
+        		worklist_2.add(con);
+        	}
 
-                SDGNode n = getAdjacentNode(e);
+        } else {
+            // intra-procedural traversal
+            Context con = level(n, next, scratch);
 
-                // distinguish between different kinds of edges
-                if (isAscendingEdge(e.getKind())) {
-                    // skip
+            if (visited.add(con)) {
+        		worklist_1.add(con);
+        		return null;
 
-                } else if (isDescendingEdge(e.getKind())) {
-                    // go to the called procedure
-                    SDGNodeTuple callSite = sdg.getCallEntryFor(e);
-                    Context con = conMan.descend(n, callSite, next);
+        	} else {
+        		return con;
+        	}
+        }
 
-                    if (visited.add(con)) {
-                		worklist_2.add(con);
-                	}
+        return scratch;
+    }
 
-                } else {
-                    // intra-procedural traversal
-                    Context con = conMan.level(n, next);
+    /** Handles the traversal of edge source -kind-> target in the second phase of {@link #slice(Collection)}.
+     * n is the node reached by the traversal. Returns the context that may be reused as scratch by the
+     * next intra-procedural step from 'next', see {@link #level(SDGNode, Context, Context)}. */
+    private Context traversePhase2(SDGEdge.Kind kind, SDGNode source, SDGNode target, SDGNode n, Context next,
+    		HashSet<Context> visited, LinkedList<Context> worklist_2, Context scratch) {
+        // distinguish between different kinds of edges
+        if (isAscendingEdge(kind)) {
+            // skip
+
+        } else if (isDescendingEdge(kind)) {
+            // go to the called procedure
+            SDGNodeTuple callSite = sdg.getCallEntryFor(source, target, kind);
+            Context con = conMan.descend(n, callSite, next);
+
+            if (visited.add(con)) {
+        		worklist_2.add(con);
+        	}
 
-                    if (visited.add(con)) {
-                		worklist_2.add(con);
-                	}
-                }
-            }
+        } else {
+            // intra-procedural traversal
+            Context con = level(n, next, scratch);
+
+            if (visited.add(con)) {
+        		worklist_2.add(con);
+        		return null;
+
+        	} else {
+        		return con;
+        	}
         }
 
-        // return the slice
-        return slice;
+        return scratch;
     }
 
 
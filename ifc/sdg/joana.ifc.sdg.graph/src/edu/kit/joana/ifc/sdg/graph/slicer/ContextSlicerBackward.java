@@ -10,6 +10,7 @@ package edu.kit.joana.ifc.sdg.graph.slicer;
 import java.util.Collection;
 import java.util.Set;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
@@ -43,6 +44,10 @@ public class ContextSlicerBackward extends ContextSlicer {
 		return k == SDGEdge.Kind.PARAMETER_OUT;
 	}
 
+	protected CompactSDG.Direction compactDirection() {
+		return CompactSDG.Direction.BACKWARD;
+	}
+
 	protected SDGNode getAdjacentNode(SDGEdge e) {
 		return e.getSource();
 	}
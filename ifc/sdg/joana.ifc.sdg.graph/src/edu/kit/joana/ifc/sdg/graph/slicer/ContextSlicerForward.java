@@ -10,6 +10,7 @@ package edu.kit.joana.ifc.sdg.graph.slicer;
 import java.util.Collection;
 import java.util.Set;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
@@ -42,6 +43,10 @@ public class ContextSlicerForward extends ContextSlicer {
 		return k == SDGEdge.Kind.CALL || k == SDGEdge.Kind.PARAMETER_IN;
 	}
 
+	protected CompactSDG.Direction compactDirection() {
+		return CompactSDG.Direction.FORWARD;
+	}
+
 	protected SDGNode getAdjacentNode(SDGEdge e) {
 		return e.getTarget();
 	}
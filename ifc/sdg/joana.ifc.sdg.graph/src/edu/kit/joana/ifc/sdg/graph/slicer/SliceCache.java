@@ -0,0 +1,228 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+
+/**
+ * Stores the slices of single criteria for one graph, see {@link CachingSlicer}.
+ * <p>
+ * A slice is stored as a bit set over the node ids and is keyed by the criterion and the kind of slicer
+ * that computed it. If the estimated size of all stored slices exceeds the budget, the least recently used
+ * slices are evicted. Binding the cache to another graph drops all slices, and so does any change of the nodes or
+ * edges of the bound graph, which is detected by its {@link SDG#getModificationCount() modification count}.
+ * <p>
+ * The cache is thread-safe, so slicers of several threads may share it.
+ */
+public class SliceCache {
+
+    /** the default budget of 64 MB */
+    public static final long DEFAULT_BUDGET = 64L << 20;
+
+    /* estimated size of an entry without its bits: map entry, key, array header */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final long budget;
+    private final LinkedHashMap<Key, long[]> slices = new LinkedHashMap<Key, long[]>(16, 0.75f, true);
+    private SDG graph;
+    /* the modification count of the graph when the stored slices were valid */
+    private int modCount;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SliceCache() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param budget  the number of bytes the stored slices may occupy approximately.
+     */
+    public SliceCache(long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget must not be negative: " + budget);
+        }
+
+        this.budget = budget;
+    }
+
+    /**
+     * Binds the cache to the given graph. Drops all slices if the graph differs from the current one
+     * or has been modified since the slices were stored.
+     */
+    public synchronized void setGraph(SDG graph) {
+        if (this.graph != graph || (graph != null && graph.getModificationCount() != modCount)) {
+            invalidate();
+            this.graph = graph;
+            this.modCount = (graph == null ? 0 : graph.getModificationCount());
+        }
+    }
+
+    /**
+     * Drops all slices. The hit and miss counters are kept.
+     */
+    public synchronized void invalidate() {
+        slices.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the cached slice of the given criterion, or null if it is not cached.
+     * Counts a hit or a miss.
+     *
+     * @param graph      the sliced graph - the cache is rebound to it if necessary.
+     * @param kind       identifies the slicer.
+     * @param criterion  the slicing criterion.
+     * @return  a fresh set, which the caller may modify.
+     */
+    public synchronized Collection<SDGNode> get(SDG graph, Object kind, SDGNode criterion) {
+        setGraph(graph);
+
+        final long[] bits = slices.get(new Key(kind, criterion.getId()));
+
+        if (bits == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+
+        // the graph has not been modified since the slice was stored, so all ids belong to its nodes
+        final Collection<SDGNode> slice = new HashSet<SDGNode>();
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+
+            while (word != 0) {
+                slice.add(graph.getNode((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+
+        return slice;
+    }
+
+    /**
+     * Stores the slice of the given criterion and evicts the least recently used slices while the budget is exceeded.
+     * Slices larger than the whole budget are not stored.
+     *
+     * @param graph      the sliced graph - the cache is rebound to it if necessary.
+     * @param kind       identifies the slicer.
+     * @param criterion  the slicing criterion.
+     * @param slice      the slice of the criterion.
+     */
+    public synchronized void put(SDG graph, Object kind, SDGNode criterion, Collection<SDGNode> slice) {
+        setGraph(graph);
+
+        int maxId = -1;
+        for (SDGNode n : slice) {
+            maxId = Math.max(maxId, n.getId());
+        }
+
+        final long[] bits = new long[(maxId >>> 6) + 1];
+        for (SDGNode n : slice) {
+            bits[n.getId() >>> 6] |= 1L << n.getId();
+        }
+
+        final long size = size(bits);
+        if (size > budget) {
+            return;
+        }
+
+        final long[] old = slices.put(new Key(kind, criterion.getId()), bits);
+        if (old != null) {
+            bytes -= size(old);
+        }
+
+        bytes += size;
+
+        final Iterator<Map.Entry<Key, long[]>> it = slices.entrySet().iterator();
+        while (bytes > budget && it.hasNext()) {
+            bytes -= size(it.next().getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static long size(long[] bits) {
+        return ENTRY_OVERHEAD + 8L * bits.length;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of stored slices.
+     */
+    public synchronized int size() {
+        return slices.size();
+    }
+
+    /**
+     * @return the estimated number of bytes occupied by the stored slices.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public synchronized String toString() {
+        return "slice cache: " + slices.size() + " slices, " + bytes + " of " + budget + " bytes, "
+                + hits + " hits, " + misses + " misses, " + evictions + " evictions";
+    }
+
+    private static final class Key {
+        private final Object kind;
+        private final int criterion;
+
+        private Key(Object kind, int criterion) {
+            this.kind = kind;
+            this.criterion = criterion;
+        }
+
+        public int hashCode() {
+            return 31 * kind.hashCode() + criterion;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) return true;
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key k = (Key) o;
+            return criterion == k.criterion && kind.equals(k.kind);
+        }
+    }
+}
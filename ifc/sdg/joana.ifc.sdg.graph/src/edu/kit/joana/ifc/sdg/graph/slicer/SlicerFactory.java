@@ -0,0 +1,21 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+
+/**
+ * Creates slicers for a graph.
+ * <p>
+ * Slicers may keep mutable state between two slices, so a slicer instance must not be used by several threads at
+ * once. Algorithms that slice in parallel ask a factory for a fresh slicer per thread instead.
+ */
+public interface SlicerFactory {
+
+    public Slicer createSlicer(SDG graph);
+}
@@ -8,20 +8,25 @@
 package edu.kit.joana.ifc.sdg.graph.slicer;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
+import gnu.trove.list.array.TIntArrayList;
 
 
 /**
@@ -31,7 +36,7 @@ import edu.kit.joana.util.Logger;
  *
  * @author  Christian Hammer, Dennis Giffhorn
  */
-public abstract class SummarySlicer implements Slicer {
+public abstract class SummarySlicer implements BatchSlicer {
 
 	private Logger debug = Log.getLogger(Log.L_SDG_GRAPH_DEBUG);
     protected Set<SDGEdge.Kind> omittedEdges = SDGEdge.Kind.threadEdges();
@@ -43,6 +48,23 @@ public abstract class SummarySlicer implements Slicer {
         public boolean saveInOtherWorklist(SDGEdge e);
     }
 
+    /**
+     * An EdgePredicate that only looks at the kind, the source and the target of an edge.
+     * Such a predicate can also be evaluated on the packed edges of a CompactSDG.
+     */
+    public static abstract class KindEdgePredicate implements EdgePredicate {
+        public abstract boolean follow(SDGEdge.Kind kind, SDGNode source, SDGNode target);
+        public abstract boolean saveInOtherWorklist(SDGEdge.Kind kind, SDGNode source, SDGNode target);
+
+        public final boolean follow(SDGEdge e) {
+            return follow(e.getKind(), e.getSource(), e.getTarget());
+        }
+
+        public final boolean saveInOtherWorklist(SDGEdge e) {
+            return saveInOtherWorklist(e.getKind(), e.getSource(), e.getTarget());
+        }
+    }
+
     /**
      * Creates a new instance of SummarySlicer
      */
@@ -68,6 +90,15 @@ public abstract class SummarySlicer implements Slicer {
     }
 
     public Collection<SDGNode> slice(Collection<SDGNode> criteria) {
+        if (g instanceof CompactSDG && compactDirection() != null) {
+            final EdgePredicate p1 = phase1Predicate();
+            final EdgePredicate p2 = phase2Predicate();
+
+            if (p1 instanceof KindEdgePredicate && p2 instanceof KindEdgePredicate) {
+                return compactSlice((CompactSDG) g, criteria, (KindEdgePredicate) p1, (KindEdgePredicate) p2);
+            }
+        }
+
         Map<SDGNode, SDGNode> slice = new HashMap<SDGNode, SDGNode>();
         LinkedList<SDGNode> worklist = new LinkedList<SDGNode>();
         LinkedList<SDGNode> nextWorklist = new LinkedList<SDGNode>();
@@ -125,6 +156,192 @@ public abstract class SummarySlicer implements Slicer {
         return slice.keySet();
     }
 
+    /**
+     * Slices all criteria in a few bit-parallel traversals, see {@link BitParallelSlicing}. Falls back to
+     * slicing each criterion on its own if this slicer does not provide its {@link #compactDirection()}.
+     * <p>
+     * {@link #slice(Collection)} keeps the phase in which a node is reached first. If a node is reached in phase 1
+     * both over a descending edge and over another edge, the slice thus depends on the order of the traversal.
+     * The criteria where this happens are sliced on their own, so the slices are always those of
+     * {@link #slice(SDGNode)}.
+     */
+    public List<Collection<SDGNode>> sliceBatch(List<SDGNode> criteria) {
+        final CompactSDG.Direction dir = compactDirection();
+
+        if (dir == null) {
+            final List<Collection<SDGNode>> slices = new ArrayList<Collection<SDGNode>>(criteria.size());
+            for (SDGNode c : criteria) {
+                slices.add(slice(c));
+            }
+
+            return slices;
+        }
+
+        final EdgePredicate p1 = phase1Predicate();
+        final EdgePredicate p2 = phase2Predicate();
+        final boolean[] skip = new boolean[SDGEdge.Kind.values().length];
+        for (SDGEdge.Kind k : SDGEdge.Kind.values()) {
+            skip[k.ordinal()] = !k.isSDGEdge() || omittedEdges.contains(k);
+        }
+
+        final BitParallelSlicing.Transitions t;
+        if (p1 instanceof KindEdgePredicate && p2 instanceof KindEdgePredicate) {
+            final KindEdgePredicate kp1 = (KindEdgePredicate) p1;
+            final KindEdgePredicate kp2 = (KindEdgePredicate) p2;
+
+            t = new BitParallelSlicing.Transitions() {
+                public int fromPhase1(SDGEdge e) {
+                    return fromPhase1(e.getKind(), e.getSource(), e.getTarget());
+                }
+
+                public int fromPhase2(SDGEdge e) {
+                    return fromPhase2(e.getKind(), e.getSource(), e.getTarget());
+                }
+
+                public int fromPhase1(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+                    if (skip[kind.ordinal()]) {
+                        return BitParallelSlicing.NOT_TRAVERSED;
+                    } else if (kp1.saveInOtherWorklist(kind, source, target)) {
+                        return BitParallelSlicing.PHASE2;
+                    } else if (kp1.follow(kind, source, target)) {
+                        return BitParallelSlicing.PHASE1;
+                    }
+
+                    return BitParallelSlicing.NOT_TRAVERSED;
+                }
+
+                public int fromPhase2(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+                    if (!skip[kind.ordinal()] && (kp2.saveInOtherWorklist(kind, source, target)
+                            || kp2.follow(kind, source, target))) {
+                        return BitParallelSlicing.PHASE2;
+                    }
+
+                    return BitParallelSlicing.NOT_TRAVERSED;
+                }
+            };
+        } else {
+            t = new BitParallelSlicing.Transitions() {
+                public int fromPhase1(SDGEdge e) {
+                    if (skip[e.getKind().ordinal()]) {
+                        return BitParallelSlicing.NOT_TRAVERSED;
+                    } else if (p1.saveInOtherWorklist(e)) {
+                        return BitParallelSlicing.PHASE2;
+                    } else if (p1.follow(e)) {
+                        return BitParallelSlicing.PHASE1;
+                    }
+
+                    return BitParallelSlicing.NOT_TRAVERSED;
+                }
+
+                public int fromPhase2(SDGEdge e) {
+                    if (!skip[e.getKind().ordinal()] && (p2.saveInOtherWorklist(e) || p2.follow(e))) {
+                        return BitParallelSlicing.PHASE2;
+                    }
+
+                    return BitParallelSlicing.NOT_TRAVERSED;
+                }
+            };
+        }
+
+        final List<Collection<SDGNode>> slices = BitParallelSlicing.slice(g, dir, criteria, t, true);
+        for (int i = 0; i < slices.size(); i++) {
+            if (slices.get(i) == null) {
+                slices.set(i, slice(criteria.get(i)));
+            }
+        }
+
+        return slices;
+    }
+
+    /* slice states of the compact traversal */
+    private static final byte NOT_VISITED = 0;
+    private static final byte VISITED_PHASE2 = 1;
+    private static final byte VISITED_PHASE1 = 2;
+
+    /**
+     * The same algorithm as {@link #slice(Collection)}, but running on the int-based API of a CompactSDG.
+     * No objects are allocated per traversed edge.
+     */
+    private Collection<SDGNode> compactSlice(CompactSDG cg, Collection<SDGNode> criteria,
+    		KindEdgePredicate phase1, KindEdgePredicate phase2) {
+        final CompactSDG.Direction dir = compactDirection();
+        final byte[] state = new byte[cg.nodeCount()];
+        final boolean[] skip = new boolean[SDGEdge.Kind.values().length];
+        for (SDGEdge.Kind k : SDGEdge.Kind.values()) {
+            skip[k.ordinal()] = !k.isSDGEdge() || omittedEdges.contains(k);
+        }
+
+        TIntArrayList worklist = new TIntArrayList();
+        final TIntArrayList nextWorklist = new TIntArrayList();
+        int head = 0;
+        final Set<SDGNode> slice = new HashSet<SDGNode>();
+        KindEdgePredicate p = phase1;
+
+        for (SDGNode v : criteria) {
+            final int idx = cg.indexOf(v);
+
+            if (idx < 0) {
+                throw new IllegalArgumentException("no such vertex in graph: " + v);
+            }
+
+            if (state[idx] == NOT_VISITED) {
+                worklist.add(idx);
+            }
+
+            state[idx] = VISITED_PHASE1;
+        }
+
+        while (head < worklist.size()) {
+
+            // the worklists are used as queues, so nodes are visited in the same order as in slice()
+            while (head < worklist.size()) {
+                final int w = worklist.getQuick(head++);
+                final SDGNode wNode = cg.nodeAt(w);
+
+                for (int pos = cg.first(dir, w), end = cg.end(dir, w); pos < end; pos++) {
+                    final SDGEdge.Kind kind = cg.kind(dir, pos);
+
+                    if (skip[kind.ordinal()]) {
+                        continue;
+                    }
+
+                    final int v = cg.adjacent(dir, pos);
+
+                    if (state[v] == NOT_VISITED || (p.phase1() && state[v] == VISITED_PHASE2)) {
+                        final SDGNode vNode = cg.nodeAt(v);
+                        final SDGNode source = (dir == CompactSDG.Direction.BACKWARD ? vNode : wNode);
+                        final SDGNode target = (dir == CompactSDG.Direction.BACKWARD ? wNode : vNode);
+
+                        // if node was not yet added or node was added in phase2
+                        if (p.saveInOtherWorklist(kind, source, target)) {
+                            nextWorklist.add(v);
+                            state[v] = (p.phase1() ? VISITED_PHASE1 : VISITED_PHASE2);
+
+                        } else if (p.follow(kind, source, target)) {
+                            worklist.add(v);
+                            state[v] = (p.phase1() ? VISITED_PHASE1 : VISITED_PHASE2);
+                        }
+                    }
+                }
+            }
+
+            // swap worklists and predicates - from now on both worklists are the same
+            if (worklist != nextWorklist) {
+                worklist = nextWorklist;
+                head = 0;
+            }
+            p = phase2;
+        }
+
+        for (int i = 0; i < state.length; i++) {
+            if (state[i] != NOT_VISITED) {
+                slice.add(cg.nodeAt(i));
+            }
+        }
+
+        return slice;
+    }
+
     public Collection<SDGNode> subgraphSlice(Collection<SDGNode> criteria, Collection<SDGNode> sub) {
         Map<SDGNode, SDGNode> slice = new HashMap<SDGNode, SDGNode>();
         LinkedList<SDGNode> worklist = new LinkedList<SDGNode>();
@@ -194,6 +411,15 @@ public abstract class SummarySlicer implements Slicer {
 
     protected abstract EdgePredicate phase2Predicate();
 
+    /**
+     * Returns the direction in which this slicer traverses a CompactSDG, or null if this slicer
+     * does not support the int-based traversal of a CompactSDG. In that case it falls back
+     * to the SDGEdge-based traversal, and {@link #sliceBatch(List)} slices each criterion on its own.
+     */
+    protected CompactSDG.Direction compactDirection() {
+        return null;
+    }
+
 
     public static void summarySliceAll(SDG sdg) {
     	sliceAll(sdg, new SummarySlicerBackward(sdg));
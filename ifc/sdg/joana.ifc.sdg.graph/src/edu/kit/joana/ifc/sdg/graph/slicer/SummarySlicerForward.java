@@ -10,6 +10,7 @@ package edu.kit.joana.ifc.sdg.graph.slicer;
 import java.util.Collection;
 import java.util.Set;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
@@ -43,38 +44,42 @@ public class SummarySlicerForward extends SummarySlicer {
         return edge.getTarget();
     }
 
+    protected CompactSDG.Direction compactDirection() {
+        return CompactSDG.Direction.FORWARD;
+    }
+
     protected EdgePredicate phase1Predicate() {
-        return new EdgePredicate() {
+        return new KindEdgePredicate() {
             public boolean phase1() {
                 return true;
             }
 
-            public boolean follow(SDGEdge e) {
-                return !omittedEdges.contains(e.getKind());
+            public boolean follow(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+                return !omittedEdges.contains(kind);
             }
 
-            public boolean saveInOtherWorklist(SDGEdge e) {
-                return e.getKind() == SDGEdge.Kind.PARAMETER_IN ||
-                        e.getKind() == SDGEdge.Kind.CALL;
+            public boolean saveInOtherWorklist(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+                return kind == SDGEdge.Kind.PARAMETER_IN ||
+                        kind == SDGEdge.Kind.CALL;
             }
         };
     }
 
     protected EdgePredicate phase2Predicate() {
-        return new EdgePredicate() {
+        return new KindEdgePredicate() {
             public boolean phase1() {
                 return false;
             }
 
-            public boolean follow(SDGEdge e) {
-                return e.getKind() != SDGEdge.Kind.PARAMETER_OUT;
+            public boolean follow(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+                return kind != SDGEdge.Kind.PARAMETER_OUT;
             }
 
-            public boolean saveInOtherWorklist(SDGEdge e) {
-                return e.getKind() == SDGEdge.Kind.INTERFERENCE ||
-                        ((e.getKind() == SDGEdge.Kind.DATA_DEP || e.getKind() == SDGEdge.Kind.DATA_HEAP
-                        		|| e.getKind() == SDGEdge.Kind.DATA_ALIAS) &&
-                         e.getSource().getProc() != e.getTarget().getProc());
+            public boolean saveInOtherWorklist(SDGEdge.Kind kind, SDGNode source, SDGNode target) {
+                return kind == SDGEdge.Kind.INTERFERENCE ||
+                        ((kind == SDGEdge.Kind.DATA_DEP || kind == SDGEdge.Kind.DATA_HEAP
+                        		|| kind == SDGEdge.Kind.DATA_ALIAS) &&
+                         source.getProc() != target.getProc());
             }
         };
     }
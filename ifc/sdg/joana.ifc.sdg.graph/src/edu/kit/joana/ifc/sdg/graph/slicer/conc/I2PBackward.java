@@ -9,6 +9,7 @@ package edu.kit.joana.ifc.sdg.graph.slicer.conc;
 
 import java.util.Collection;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
@@ -33,6 +34,10 @@ public class I2PBackward extends Iterative2PhaseSlicer {
         return edge.getSource();
     }
 
+    protected CompactSDG.Direction compactDirection() {
+        return CompactSDG.Direction.BACKWARD;
+    }
+
     protected Phase phase1() {
         return new Phase() {
             public boolean follow(SDGEdge e) {
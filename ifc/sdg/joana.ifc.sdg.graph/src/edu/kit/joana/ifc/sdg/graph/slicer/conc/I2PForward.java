@@ -14,6 +14,7 @@ import java.util.Set;
 import java.io.IOException;
 import java.util.Iterator;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
@@ -37,6 +38,10 @@ public class I2PForward extends Iterative2PhaseSlicer {
         return edge.getTarget();
     }
 
+    protected CompactSDG.Direction compactDirection() {
+        return CompactSDG.Direction.FORWARD;
+    }
+
     protected Phase phase1() {
         return new Phase() {
             public boolean follow(SDGEdge e) {
@@ -15,20 +15,24 @@
 package edu.kit.joana.ifc.sdg.graph.slicer.conc;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.HashMap;
 import java.util.HashSet;
 
+import edu.kit.joana.ifc.sdg.graph.CompactSDG;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.BatchSlicer;
+import edu.kit.joana.ifc.sdg.graph.slicer.BitParallelSlicing;
 import edu.kit.joana.ifc.sdg.graph.slicer.ContextInsensitiveBackward;
 import edu.kit.joana.ifc.sdg.graph.slicer.ContextInsensitiveSlicer;
 import edu.kit.joana.ifc.sdg.graph.slicer.SDGSlicer;
-import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
 
 
 /**
@@ -41,7 +45,7 @@ import edu.kit.joana.ifc.sdg.graph.slicer.Slicer;
  *
  * @author hammer, giffhorn
  */
-public abstract class Iterative2PhaseSlicer implements Slicer {
+public abstract class Iterative2PhaseSlicer implements BatchSlicer {
     interface Phase {
         public boolean follow(SDGEdge e);
         public boolean saveInOtherWorklist(SDGEdge e);
@@ -59,6 +63,14 @@ public abstract class Iterative2PhaseSlicer implements Slicer {
 
     protected abstract Phase phase2();
 
+    /**
+     * Returns the direction in which this slicer traverses the graph, or null if it follows other edges
+     * than the incoming or outgoing ones. In that case {@link #sliceBatch(List)} slices each criterion on its own.
+     */
+    protected CompactSDG.Direction compactDirection() {
+        return null;
+    }
+
     /**
      * Creates a new instance of ContextSensitiveSlicer
      */
@@ -128,6 +140,46 @@ public abstract class Iterative2PhaseSlicer implements Slicer {
         return slice.keySet();
     }
 
+    /**
+     * Slices all criteria in a few bit-parallel traversals, see {@link BitParallelSlicing}.
+     * The slices are the same as the ones computed by {@link #slice(Collection)}.
+     */
+    public List<Collection<SDGNode>> sliceBatch(List<SDGNode> criteria) {
+        final CompactSDG.Direction dir = compactDirection();
+
+        if (dir == null) {
+            final List<Collection<SDGNode>> slices = new ArrayList<Collection<SDGNode>>(criteria.size());
+            for (SDGNode c : criteria) {
+                slices.add(slice(c));
+            }
+
+            return slices;
+        }
+
+        final Phase phase1 = phase1();
+        final Phase phase2 = phase2();
+
+        return BitParallelSlicing.slice(g, dir, criteria, new BitParallelSlicing.Transitions() {
+            public int fromPhase1(SDGEdge e) {
+                if (!e.getKind().isSDGEdge() || !phase1.follow(e)) {
+                    return BitParallelSlicing.NOT_TRAVERSED;
+                }
+
+                // standard two-phase slicing: mark adjacent with phase 2
+                return (phase1.saveInOtherWorklist(e) ? BitParallelSlicing.PHASE2 : BitParallelSlicing.PHASE1);
+            }
+
+            public int fromPhase2(SDGEdge e) {
+                if (!e.getKind().isSDGEdge() || !phase2.follow(e)) {
+                    return BitParallelSlicing.NOT_TRAVERSED;
+                }
+
+                // an interference edge leads back to phase 1
+                return (e.getKind().isThreadEdge() ? BitParallelSlicing.PHASE1 : BitParallelSlicing.PHASE2);
+            }
+        });
+    }
+
     /**
      * Computes a forward slice restricted to a given set of nodes.
      *
@@ -12,6 +12,7 @@ import java.util.LinkedList;
 
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.krinke.ReachabilityCache;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.DynamicContextManager;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.FoldedCFG;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.DynamicContextManager.ContextComparator;
@@ -20,15 +21,39 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.DynamicContextManager.DynamicCon
 
 /**
  * A class for examining whether a context can reach a second context in an ICFG.
+ * The results of the intraprocedural reachability checks between two vertices of
+ * the folded ICFG are cached under the pair of their IDs.
  *
  * @author Dennis Giffhorn
  * @version 1.0
  */
 public class ReachabilityChecker {
     private FoldedCFG foldedIcfg;
+    /** Cache for already tested reachabilities of vertices. */
+    private ReachabilityCache cache;
 
     public ReachabilityChecker(FoldedCFG g) {
+        this(g, new ReachabilityCache());
+    }
+
+    /**
+     * Creates a new instance of ReachabilityChecker that uses the given cache.
+     *
+     * @param g
+     *                  The folded ICFG.
+     * @param cache
+     *                  The cache for the results, see {@link ReachabilityCache#ReachabilityCache(int, boolean)}.
+     */
+    public ReachabilityChecker(FoldedCFG g, ReachabilityCache cache) {
         foldedIcfg = g;
+        this.cache = cache;
+    }
+
+    /**
+     * Grants access to the cache, e.g. for its hit rate.
+     */
+    public ReachabilityCache getCache() {
+        return cache;
     }
 
 
@@ -119,6 +144,20 @@ public class ReachabilityChecker {
     }
 
     private boolean reachable(SDGNode from, SDGNode to) {
+        long key = ReachabilityCache.key(from.getId(), to.getId());
+        int cached = cache.lookup(key);
+
+        if (cached != ReachabilityCache.UNKNOWN) {
+            return cached == ReachabilityCache.REACHING;
+        }
+
+        boolean result = traverse(from, to);
+        cache.add(key, result);
+
+        return result;
+    }
+
+    private boolean traverse(SDGNode from, SDGNode to) {
         // worklist and marked list
         LinkedList<SDGNode> worklist = new LinkedList<SDGNode>();
         HashSet<SDGNode> marked = new HashSet<SDGNode>();
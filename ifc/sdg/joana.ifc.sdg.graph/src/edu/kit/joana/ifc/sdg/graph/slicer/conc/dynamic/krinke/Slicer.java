@@ -158,6 +158,9 @@ public class Slicer implements edu.kit.joana.ifc.sdg.graph.slicer.Slicer {
     public String opt2() {
         return "(no reach: "+noReach+", CFG: "+reach + ", reduced CFG: "+reducedReach+")";
     }
+    public String opt3() {
+        return "(" + reachable.getCache() + ")";
+    }
 
     public Slicer() { }
 
@@ -48,6 +48,8 @@ public class Krinke implements edu.kit.joana.ifc.sdg.graph.slicer.Slicer {
 
     /** realises the reachability checking algorithm */
     private ReachabilityChecker reachable;
+    /** the cache of the reachability checker, null if each graph gets a new one */
+    private ReachabilityCache reachabilityCache;
     /** the initial states of the threads */
     private States states;
 
@@ -65,6 +67,18 @@ public class Krinke implements edu.kit.joana.ifc.sdg.graph.slicer.Slicer {
 		setGraph(graph);
     }
 
+    /** Creates a new instance of Krinke that stores the reachability of contexts in the given cache.
+     *
+     * @param graph A threaded interprocedural program dependencies graph that shall be sliced.
+     *              It has to contain control flow edges.
+     * @param cache The cache, see {@link ReachabilityCache#ReachabilityCache(int, boolean)}.
+     *              It is cleared whenever the graph is set.
+     */
+    public Krinke(SDG graph, ReachabilityCache cache) {
+    	this.reachabilityCache = cache;
+		setGraph(graph);
+    }
+
     /** Initialises the fields of the Krinke slicer.
      */
     public void setGraph(SDG graph) {
@@ -88,7 +102,19 @@ public class Krinke implements edu.kit.joana.ifc.sdg.graph.slicer.Slicer {
         slicer = new ContextSlicer(ipdg, man);
 
         // init the valid-path checker
-        this.reachable = new ReachabilityChecker(foldedIcfg);
+        if (reachabilityCache == null) {
+        	this.reachable = new ReachabilityChecker(foldedIcfg);
+
+        } else {
+        	reachabilityCache.clear();
+        	this.reachable = new ReachabilityChecker(foldedIcfg, reachabilityCache);
+        }
+    }
+
+    /** Grants access to the cache of the reachability checker, e.g. for its hit rate.
+     */
+    public ReachabilityCache getReachabilityCache() {
+    	return reachable.getCache();
     }
 
     public Collection<SDGNode> slice(SDGNode criterion) {
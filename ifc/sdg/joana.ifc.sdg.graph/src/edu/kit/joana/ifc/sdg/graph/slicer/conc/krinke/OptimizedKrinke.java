@@ -43,6 +43,19 @@ public class OptimizedKrinke extends Krinke implements Slicer {
     	init(graph);
     }
 
+    /** Creates a new instance of Krinke's optimized algorithm that stores the reachability of contexts
+     * in the given cache.
+     *
+     * @param graph A threaded interprocedural program dependencies graph that shall be sliced.
+     *              It has to contain control flow edges.
+     * @param cache The cache, see {@link ReachabilityCache#ReachabilityCache(int, boolean)}.
+     *              It is cleared whenever the graph is set.
+     */
+    public OptimizedKrinke(SDG graph, ReachabilityCache cache) {
+        super(graph, cache);
+    	init(graph);
+    }
+
     /** Initializes the fields and calls super.setGraph(graph).
      * @param graph  A SDG.
      */
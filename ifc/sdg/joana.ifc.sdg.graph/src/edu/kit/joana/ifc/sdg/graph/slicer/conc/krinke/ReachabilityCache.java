@@ -7,9 +7,10 @@
  */
 package edu.kit.joana.ifc.sdg.graph.slicer.conc.krinke;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.Context;
+import gnu.trove.map.hash.TLongIntHashMap;
 
 /** A cache for optimising the reachability computations.
  * After the reachability of two contexts is computed, the result together with
@@ -19,18 +20,112 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.Context;
  * Because the reachability computation is only computed between contexts of vertices
  * of the same thread and with incoming or outgoing interference edges, the cache will
  * usually be of maintainable size.
- *
+ * <p>
+ * The contexts are interned to int ids, a pair of ids is packed into a long key. A lookup
+ * therefore neither allocates nor hashes a pair of contexts, and {@link #lookup(Context, Context)}
+ * answers both whether a result is cached and what it is with a single probe.
+ * A caller that adds the result after a failed lookup should intern the contexts once with
+ * {@link #key(Context, Context)} and use the key for both, so each context is hashed only once.
+ * The number of cached results is bounded. If the cache is full, the least recently added result
+ * is evicted, or the least recently used one if the cache is created with LRU eviction.
+ * Results can also be cached directly under a long key, see {@link #key(int, int)}.
  *
  * @author Dennis Giffhorn
  * @version 1.0
  */
 public class ReachabilityCache {
-    private HashMap<Key, Boolean> cache;
+	/** The default maximal number of cached results. */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
 
-    /** Creates a new empty ReachabilityCache.
+	/** Result of a lookup: the reachability of the contexts is not cached. */
+	public static final int UNKNOWN = -1;
+	/** Result of a lookup: the source context does not reach the target context. */
+	public static final int NOT_REACHING = 0;
+	/** Result of a lookup: the source context reaches the target context. */
+	public static final int REACHING = 1;
+
+	private static final int NONE = -1;
+	private static final int INITIAL_SIZE = 1024;
+	private static final int INITIAL_TABLE_SIZE = 64;
+
+	private final int capacity;
+	private final boolean lru;
+
+	/* the interned contexts in an open addressing table, with their hash codes and ids */
+	private Context[] contexts;
+	private int[] contextHashes;
+	private int[] contextIds;
+	private int contextCount = 0;
+	/** maps the keys to the slots of the cached results */
+	private final TLongIntHashMap slots;
+	/* the cached results, linked from the most to the least recently added or used one */
+	private long[] keys;
+	private boolean[] results;
+	private int[] prev;
+	private int[] next;
+	private int head = NONE;
+	private int tail = NONE;
+	private int size = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+    /** Creates a new empty ReachabilityCache with the default capacity and without LRU eviction.
      */
     public ReachabilityCache(){
-        cache = new HashMap<Key, Boolean>();
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /** Creates a new empty ReachabilityCache.
+     *
+     * @param capacity  The maximal number of cached results.
+     * @param lru  Evict the least recently used result instead of the least recently added one.
+     */
+    public ReachabilityCache(int capacity, boolean lru) {
+    	if (capacity < 1) {
+    		throw new IllegalArgumentException("capacity has to be at least 1: " + capacity);
+    	}
+
+    	this.capacity = capacity;
+    	this.lru = lru;
+    	this.contexts = new Context[INITIAL_TABLE_SIZE];
+    	this.contextHashes = new int[INITIAL_TABLE_SIZE];
+    	this.contextIds = new int[INITIAL_TABLE_SIZE];
+    	this.slots = new TLongIntHashMap(16, 0.5f, Long.MIN_VALUE, NONE);
+    	final int initial = Math.min(capacity, INITIAL_SIZE);
+    	this.keys = new long[initial];
+    	this.results = new boolean[initial];
+    	this.prev = new int[initial];
+    	this.next = new int[initial];
+    }
+
+    /** Packs two ids into a key of this cache.
+     *
+     * @param from  The id of the source in the computation.
+     * @param to  The id of the target in the computation.
+     */
+    public static long key(int from, int to) {
+    	return ((long) from << 32) | (to & 0xffffffffL);
+    }
+
+    /** Interns two contexts and packs their ids into a key of this cache.
+     * The key is valid until the next call of this method or of {@link #add(Context, Context, boolean)},
+     * which may start over with an empty cache.
+     *
+     * @param from  The source context in the computation.
+     * @param to  The target context in the computation.
+     */
+    public long key(Context from, Context to) {
+    	if (contextCount + 2 > 2 * capacity) {
+    		// the contexts of evicted results are not released one by one, start over
+    		clear();
+    	}
+
+    	final int f = intern(from);
+    	final int t = intern(to);
+
+    	return key(f, t);
     }
 
     /** Adds a reachability computation's result to the cache.
@@ -40,74 +135,259 @@ public class ReachabilityCache {
      * @param result   Its result.
      */
     public void add(Context from, Context to, boolean result){
-        cache.put(new Key(from, to), result);
+        add(key(from, to), result);
+    }
+
+    /** Adds a reachability computation's result to the cache.
+     *
+     * @param key  The key of the computation, see {@link #key(int, int)}.
+     * @param result   Its result.
+     */
+    public void add(long key, boolean result) {
+    	int slot = slots.get(key);
+
+    	if (slot != NONE) {
+    		results[slot] = result;
+    		moveToFront(slot);
+    		return;
+    	}
+
+    	if (size < capacity) {
+    		slot = size++;
+
+    		if (slot == keys.length) {
+    			grow();
+    		}
+
+    	} else {
+    		// reuse the slot of the evicted result
+    		slot = tail;
+    		unlink(slot);
+    		slots.remove(keys[slot]);
+    		evictions++;
+    	}
+
+    	keys[slot] = key;
+    	results[slot] = result;
+    	slots.put(key, slot);
+    	linkFirst(slot);
+    }
+
+    /** Returns the cached result of a certain reachability computation.
+     *
+     * @param from  The source context in the computation.
+     * @param to  The target context in the computation.
+     * @return {@link #REACHING}, {@link #NOT_REACHING} or {@link #UNKNOWN} if the result is not cached.
+     */
+    public int lookup(Context from, Context to) {
+    	final int f = id(from);
+    	final int t = (f == NONE ? NONE : id(to));
+
+    	if (t == NONE) {
+    		misses++;
+    		return UNKNOWN;
+    	}
+
+    	return lookup(key(f, t));
+    }
+
+    /** Returns the cached result of a certain reachability computation.
+     *
+     * @param key  The key of the computation, see {@link #key(int, int)}.
+     * @return {@link #REACHING}, {@link #NOT_REACHING} or {@link #UNKNOWN} if the result is not cached.
+     */
+    public int lookup(long key) {
+    	final int slot = slots.get(key);
+
+    	if (slot == NONE) {
+    		misses++;
+    		return UNKNOWN;
+    	}
+
+    	hits++;
+
+    	if (lru) {
+    		moveToFront(slot);
+    	}
+
+    	return (results[slot] ? REACHING : NOT_REACHING);
     }
 
     /** Checks whether the cache contains a reachability result for a given pair of contexts.
+     * Prefer {@link #lookup(Context, Context)}, which also returns the result.
      *
      * @param from  The source context in the computation.
      * @param to  The target context in the computation.
      */
     public boolean contains(Context from, Context to){
-        return cache.containsKey(new Key(from, to));
+        return lookup(from, to) != UNKNOWN;
     }
 
     /** Returns the cached result of a certain reachability computation.
+     * Returns false if the result is not cached.
      *
      * @param from  The source context in the computation.
      * @param to  The target context in the computation.
      */
     public boolean isReaching(Context from, Context to) {
-        return cache.get(new Key(from, to));
+        return lookup(from, to) == REACHING;
+    }
+
+    /** Returns the number of cached results.
+     */
+    public int size() {
+    	return size;
+    }
+
+    public int getCapacity() {
+    	return capacity;
+    }
+
+    public long getHits() {
+    	return hits;
     }
 
+    public long getMisses() {
+    	return misses;
+    }
+
+    public long getEvictions() {
+    	return evictions;
+    }
 
+    /** Returns the share of lookups that found a cached result, 0 if there was no lookup yet.
+     */
+    public double getHitRate() {
+    	final long lookups = hits + misses;
+
+    	return (lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
 
-    /** A Key for the used HashMap.
-     * Contains two Contexts, the start and the target of a reachability analysis.
+    /** Removes all cached results and interned contexts. The statistics are kept.
      */
-    static class Key {
-        private Context from;
-        private Context to;
-
-        /** Creates a new Key for two Contexts.
-         * @param f  Context one.
-         * @param t  Context two.
-         */
-        Key(Context f, Context t) {
-            from = f;
-            to = t;
-        }
-
-        /** Returns the start Context.
-         * @return  A Context.
-         */
-        Context from() {
-            return from;
-        }
-
-        /** Returns the target Context.
-         * @return  A Context.
-         */
-        Context to() {
-            return to;
-        }
-
-		public boolean equals(Object o) {
-			if (this == o) {
-				return true;
-			} else if (o == null) {
-				return false;
-			} else if (!(o instanceof Key)) {
-				return false;
-			} else {
-				Key k = (Key) o;
-				return from.equals(k.from) && to.equals(k.to);
-			}
-		}
-
-        public int hashCode() {
-        	return from.hashCode() | (to.hashCode() << 16);
-        }
+    public void clear() {
+    	Arrays.fill(contexts, null);
+    	contextCount = 0;
+    	slots.clear();
+    	head = NONE;
+    	tail = NONE;
+    	size = 0;
+    }
+
+    public String toString() {
+    	return "reachability cache: " + size + "/" + capacity + " results, " + hits + " hits, " + misses
+    			+ " misses (" + Math.round(getHitRate() * 100) + "%), " + evictions + " evictions";
+    }
+
+    /* returns the slot of a context in the table of interned contexts, or the free slot it belongs to */
+    private int find(Context c, int hash) {
+    	final int mask = contexts.length - 1;
+    	int i = (hash ^ (hash >>> 16)) & mask;
+
+    	while (contexts[i] != null && (contextHashes[i] != hash || !contexts[i].equals(c))) {
+    		i = (i + 1) & mask;
+    	}
+
+    	return i;
+    }
+
+    /* returns the id of a context, or NONE if it is not interned */
+    private int id(Context c) {
+    	final int i = find(c, c.hashCode());
+
+    	return (contexts[i] == null ? NONE : contextIds[i]);
+    }
+
+    /* returns the id of a context, interning a copy of it if necessary */
+    private int intern(Context c) {
+    	final int hash = c.hashCode();
+    	final int i = find(c, hash);
+
+    	if (contexts[i] != null) {
+    		return contextIds[i];
+    	}
+
+    	final int id = contextCount++;
+    	// contexts are mutable, so intern a copy
+    	contexts[i] = c.copy();
+    	contextHashes[i] = hash;
+    	contextIds[i] = id;
+
+    	if (2 * contextCount > contexts.length) {
+    		rehash();
+    	}
+
+    	return id;
+    }
+
+    private void rehash() {
+    	final Context[] oldContexts = contexts;
+    	final int[] oldHashes = contextHashes;
+    	final int[] oldIds = contextIds;
+    	contexts = new Context[2 * oldContexts.length];
+    	contextHashes = new int[contexts.length];
+    	contextIds = new int[contexts.length];
+
+    	for (int j = 0; j < oldContexts.length; j++) {
+    		if (oldContexts[j] != null) {
+    			final int i = find(oldContexts[j], oldHashes[j]);
+    			contexts[i] = oldContexts[j];
+    			contextHashes[i] = oldHashes[j];
+    			contextIds[i] = oldIds[j];
+    		}
+    	}
+    }
+
+    private void grow() {
+    	final int length = (int) Math.min((long) capacity, 2L * keys.length);
+    	final long[] k = new long[length];
+    	final boolean[] r = new boolean[length];
+    	final int[] p = new int[length];
+    	final int[] n = new int[length];
+    	System.arraycopy(keys, 0, k, 0, size - 1);
+    	System.arraycopy(results, 0, r, 0, size - 1);
+    	System.arraycopy(prev, 0, p, 0, size - 1);
+    	System.arraycopy(next, 0, n, 0, size - 1);
+    	keys = k;
+    	results = r;
+    	prev = p;
+    	next = n;
+    }
+
+    private void moveToFront(int slot) {
+    	if (slot != head) {
+    		unlink(slot);
+    		linkFirst(slot);
+    	}
+    }
+
+    private void linkFirst(int slot) {
+    	prev[slot] = NONE;
+    	next[slot] = head;
+
+    	if (head != NONE) {
+    		prev[head] = slot;
+    	} else {
+    		tail = slot;
+    	}
+
+    	head = slot;
+    }
+
+    private void unlink(int slot) {
+    	final int p = prev[slot];
+    	final int n = next[slot];
+
+    	if (p != NONE) {
+    		next[p] = n;
+    	} else {
+    		head = n;
+    	}
+
+    	if (n != NONE) {
+    		prev[n] = p;
+    	} else {
+    		tail = p;
+    	}
     }
 }
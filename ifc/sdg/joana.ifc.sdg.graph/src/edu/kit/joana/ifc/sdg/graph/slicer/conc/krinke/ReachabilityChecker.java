@@ -35,13 +35,22 @@ public class ReachabilityChecker {
      * @param folded_icfg  A folded version of the ICFG.
      */
     public ReachabilityChecker(FoldedCFG foldedIcfg) {
-        this.cache = new ReachabilityCache();
+        this(foldedIcfg, new ReachabilityCache());
+    }
+
+    /** Creates a new instance of ReachabilityChecker that uses the given cache.
+     *
+     * @param foldedIcfg  A folded version of the ICFG.
+     * @param cache  The cache for the results, see {@link ReachabilityCache#ReachabilityCache(int, boolean)}.
+     */
+    public ReachabilityChecker(FoldedCFG foldedIcfg, ReachabilityCache cache) {
+        this.cache = cache;
         this.foldedIcfg = foldedIcfg;
     }
 
-    /** Grants access to the cache for inheriting classes.
+    /** Grants access to the cache, e.g. for its hit rate.
      */
-    protected ReachabilityCache getCache() {
+    public ReachabilityCache getCache() {
         return cache;
     }
 
@@ -63,15 +72,19 @@ public class ReachabilityChecker {
 
         // first, check cache
         // if not cached, traverse ICFG
-        if (cache.contains(source, target) && cache.isReaching(source, target)) {
-            return true;
+        final long key = cache.key(source, target);
+        int cached = cache.lookup(key);
+        if (cached != ReachabilityCache.UNKNOWN) {
+            return cached == ReachabilityCache.REACHING;
 
         } else {
         	DynamicContext context_copy = source.copy();
 
             // traverse graph to see if context reaches target
             // save result in cache
-            return reachable(context_copy, target);
+            boolean result = reachable(context_copy, target);
+            cache.add(key, result);
+            return result;
         }
     }
 
@@ -17,6 +17,7 @@ import edu.kit.joana.ifc.sdg.graph.SDGNode;
 public class ContextGraphs {
 	private ContextGraph[] graphs;
 	private ContextGraph whole;
+	private StateEncoding encoding;
 
 	ContextGraphs(ContextGraph[] graphs, ContextGraph whole) {
 		this.graphs = graphs;
@@ -27,6 +28,17 @@ public class ContextGraphs {
 		return whole;
 	}
 
+	/**
+	 * Returns the dense encoding of the topological numbers of these context graphs.
+	 * It is created on first use.
+	 */
+	public synchronized StateEncoding getStateEncoding() {
+		if (encoding == null) {
+			encoding = new StateEncoding(graphs, whole);
+		}
+		return encoding;
+	}
+
 	public int getNumberOfThreads() {
 		return graphs.length;
 	}
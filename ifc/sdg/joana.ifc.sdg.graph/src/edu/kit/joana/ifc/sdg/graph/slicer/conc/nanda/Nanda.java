@@ -78,6 +78,12 @@ public class Nanda implements Slicer {
 
     protected VisitedMap restrictive_1;
     protected VisitedMap restrictive_2;
+
+    /** Use primitive keys and int array state tuples for the restrictive state tuple optimization. */
+    protected boolean packedStates = false;
+    protected StateEncoding encoding;
+    protected PackedVisitedMap packed_1;
+    protected PackedVisitedMap packed_2;
     
     private final EdgeListener edgeListener;
 
@@ -107,8 +113,20 @@ public class Nanda implements Slicer {
         Collection<TopologicalNumber> tmp = Collections.emptySet();
         emptyIterator = tmp.iterator();
         this.mayExist = n.mayExist;
+        this.packedStates = n.packedStates;
         this.edgeListener = new TrivialEdgeListener();
     }
+
+    /**
+     * Selects the store for visited state tuples. If set, state tuples are saved
+     * as interned int arrays under primitive (node, thread, topological number) keys
+     * instead of as States lists in a VisitedMap. The slices are the same.
+     *
+     * @param packed  true for the primitive store.
+     */
+    public void setPackedStates(boolean packed) {
+    	this.packedStates = packed;
+    }
     
    
 
@@ -153,6 +171,8 @@ public class Nanda implements Slicer {
         summarySlicer = mode.initSummarySlicer(graph);
 
         mayExist = MayExistAnalysis.create(contextGraphs);
+
+        encoding = null;
     }
 
     public Collection<SDGNode> slice(SDGNode criterion) {
@@ -188,8 +208,7 @@ public class Nanda implements Slicer {
      */
     protected Collection<SDGNode> nandaSlice(Collection<SDGNode> crit) {
     	HashSet<SDGNode> slice = new HashSet<SDGNode>();
-        restrictive_1 = new VisitedMap();
-        restrictive_2 = new VisitedMap();
+        resetVisited();
 
         // init the 3 worklists for this algorithm
         LinkedList<WorklistElement> worklist_1 = new LinkedList<WorklistElement>();
@@ -360,6 +379,71 @@ public class Nanda implements Slicer {
     }
 
 
+    /** Creates empty stores for the visited state tuples of both phases.
+     */
+    protected final void resetVisited() {
+    	if (packedStates) {
+    		if (encoding == null) {
+    			encoding = contextGraphs.getStateEncoding();
+    		}
+    		packed_1 = new PackedVisitedMap();
+    		packed_2 = new PackedVisitedMap();
+
+    	} else {
+    		restrictive_1 = new VisitedMap();
+    		restrictive_2 = new VisitedMap();
+    	}
+    }
+
+    /** Runs the restrictive state tuple optimization for a reached context
+     * and records its state tuple if it is not restrictive.
+     * @param phase2  Whether the context was reached in phase 2.
+     * @param reached  The reached node.
+     * @param thread  The current thread.
+     * @param m  The context of reached.
+     * @param newStates  The updated state tuple.
+     * @return  true if the context has to be visited, false if newStates is restrictive.
+     */
+    protected final boolean visit(boolean phase2, SDGNode reached, int thread, TopologicalNumber m, States newStates) {
+    	if (packedStates) {
+    		long key = encoding.key(reached, thread, m.getNumber());
+    		int[] toCheck = encoding.pack(newStates);
+
+    		if (optimise(key, toCheck, packed_1)) {
+    			return false;
+    		}
+
+    		if (phase2 && optimise(key, toCheck, packed_2)) {
+    			return false;
+    		}
+
+    		if (phase2) {
+    			packed_2.put(key, packed_1.intern(toCheck));
+
+    		} else {
+    			packed_1.put(key, packed_1.intern(toCheck));
+    		}
+
+    	} else {
+    		if (optimise(reached, thread, m, newStates, restrictive_1)) {
+    			return false;
+    		}
+
+    		if (phase2 && optimise(reached, thread, m, newStates, restrictive_2)) {
+    			return false;
+    		}
+
+    		if (phase2) {
+    			restrictive_2.put(reached, thread, m.getNumber(), newStates);
+
+    		} else {
+    			restrictive_1.put(reached, thread, m.getNumber(), newStates);
+    		}
+    	}
+
+    	return true;
+    }
+
     /** Annotates the valid contexts of a reached node with updated state tuples
      * and inserts them into a worklist.
      * @param source  The reached node.
@@ -381,27 +465,16 @@ public class Nanda implements Slicer {
             States newStates = update(oldStates, m, thread);
 
             // ... run the restrictive state tuple optimization ...
-            if (optimise(reached, thread, m, newStates, restrictive_1)){
+            if (!visit(phase2, reached, thread, m, newStates)) {
                 continue;
             }
 
-            if (phase2 && optimise(reached, thread, m, newStates, restrictive_2)) {
-            	continue;
-            }
-
             // ... annotate the remaining contexts with the updated state tuple ...
             WorklistElement newElement = new WorklistElement(reached, thread, m, newStates);
 
             // ... add them to the worklist ...
             worklist.addLast(newElement);
             ok = true;
-
-            if (phase2) {
-                restrictive_2.put(reached, thread, m.getNumber(), newStates);
-
-            } else {
-            	restrictive_1.put(reached, thread, m.getNumber(), newStates);
-            }
         }
 
         if (ok) {
@@ -416,14 +489,10 @@ public class Nanda implements Slicer {
         States newStates = update(oldStates, m, thread);
 
         // ... run the restrictive state tuple optimization ...
-        if (optimise(reached, thread, m, newStates, restrictive_1)){
+        if (!visit(phase2, reached, thread, m, newStates)) {
             return;
         }
 
-        if (phase2 && optimise(reached, thread, m, newStates, restrictive_2)) {
-        	return;
-        }
-
         // ... annotate the remaining contexts with the updated state tuple ...
         WorklistElement newElement = new WorklistElement(reached, thread, m, newStates);
 
@@ -432,13 +501,6 @@ public class Nanda implements Slicer {
 
         // ... and put them to the slicing result
         slice.add(reached);
-
-        if (phase2) {
-            restrictive_2.put(reached, thread, m.getNumber(), newStates);
-
-        } else {
-        	restrictive_1.put(reached, thread, m.getNumber(), newStates);
-        }
     }
 
     /** Implements Nanda's restrictive state tuple optimization.
@@ -481,6 +543,37 @@ public class Nanda implements Slicer {
         return false;
     }
 
+    /** The restrictive state tuple optimization on packed state tuples.
+     * Equal states need no reachability test, the others are decoded and
+     * passed to {@link #isRestrictive}.
+     * @param key  The packed key of the reached node, its thread and context.
+     * @param toCheck  The packed state tuple to check against restrictiveness.
+     * @return  true if toCheck is a restrictive state tuple.
+     */
+    protected final boolean optimise(long key, int[] toCheck, PackedVisitedMap restrictive) {
+        for (int[] prev : restrictive.get(key)) {
+            if (prev == null) {
+                break;
+            }
+
+            boolean redundant = true;
+
+            for (int i = 0; i < toCheck.length; i++) {
+                if (toCheck[i] != prev[i]
+                        && !isRestrictive(encoding.get(toCheck[i]), encoding.get(prev[i]), i)) {
+                    redundant = false;
+                    break;
+                }
+            }
+
+            if (redundant) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     protected final LinkedList<WorklistElement> initWorklist_0(Collection<SDGNode> criteria, HashSet<SDGNode> slice) {
         // create a new worklist
         LinkedList<WorklistElement> worklist_0 = new LinkedList<WorklistElement>();
@@ -35,6 +35,32 @@ public class NandaFactory {
 		return nanda;
 	}
 
+	/**
+	 * Creates a Nanda backward slicer with all optimizations, which stores visited
+	 * state tuples as interned int arrays under primitive keys.
+	 *
+	 * @param g
+	 * @return
+	 */
+	public static Nanda createPackedNandaBackward(SDG g) {
+		Nanda nanda = createNandaBackward(g);
+		nanda.setPackedStates(true);
+		return nanda;
+	}
+
+	/**
+	 * Creates a Nanda forward slicer with all optimizations, which stores visited
+	 * state tuples as interned int arrays under primitive keys.
+	 *
+	 * @param g
+	 * @return
+	 */
+	public static Nanda createPackedNandaForward(SDG g) {
+		Nanda nanda = createNandaForward(g);
+		nanda.setPackedStates(true);
+		return nanda;
+	}
+
 	/**
 	 * Creates a Nanda backward slicer with all optimizations, but imprecise MHP information.
 	 * All threads are assumed to happen in parallel.
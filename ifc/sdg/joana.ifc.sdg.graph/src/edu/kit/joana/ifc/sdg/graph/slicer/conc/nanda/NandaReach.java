@@ -42,8 +42,7 @@ public class NandaReach extends Nanda {
      */
     protected Collection<SDGNode> nandaSlice(Collection<SDGNode> crit) {
     	HashSet<SDGNode> slice = new HashSet<SDGNode>();
-        restrictive_1 = new VisitedMap();
-        restrictive_2 = new VisitedMap();
+        resetVisited();
 
         // init the 3 worklists for this algorithm
         LinkedList<WorklistElement> worklist_1 = new LinkedList<WorklistElement>();
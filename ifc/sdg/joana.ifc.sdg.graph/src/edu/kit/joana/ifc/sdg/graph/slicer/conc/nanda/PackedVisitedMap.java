@@ -0,0 +1,130 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.Arrays;
+
+
+/**
+ * A primitive variant of {@link VisitedMap}.
+ * Keys are (node, thread, topological number) triples packed into a long by a
+ * {@link StateEncoding}, state tuples are int arrays of topological number indices.
+ * Equal state tuples are interned, so a tuple that was already visited under a
+ * key is found by reference comparison.
+ *
+ * @see StateEncoding
+ * @see States#pack()
+ */
+public class PackedVisitedMap {
+	private static final int[][] EMPTY = new int[0][];
+
+	/** Maps a packed key to its state tuples. Unused trailing slots are null. */
+	private final TLongObjectHashMap<int[][]> map;
+
+	/** Open addressing hash set of the interned state tuples. */
+	private int[][] pool;
+	private int pooled;
+
+	/**
+	 * Creates a new, empty PackedVisitedMap.
+	 */
+	public PackedVisitedMap() {
+		this.map = new TLongObjectHashMap<int[][]>();
+		this.pool = new int[64][];
+	}
+
+	/**
+	 * Returns the canonical instance of the given state tuple.
+	 *
+	 * @param states  A packed state tuple.
+	 * @return        An array equal to states, shared by all equal tuples interned so far.
+	 */
+	public int[] intern(int[] states) {
+		int mask = pool.length - 1;
+		int i = Arrays.hashCode(states) & mask;
+
+		while (pool[i] != null) {
+			if (Arrays.equals(pool[i], states)) {
+				return pool[i];
+			}
+			i = (i + 1) & mask;
+		}
+
+		pool[i] = states;
+		pooled++;
+
+		if (pooled * 2 > pool.length) {
+			rehash();
+		}
+
+		return states;
+	}
+
+	private void rehash() {
+		int[][] old = pool;
+		pool = new int[old.length * 2][];
+		int mask = pool.length - 1;
+
+		for (int[] states : old) {
+			if (states != null) {
+				int i = Arrays.hashCode(states) & mask;
+				while (pool[i] != null) {
+					i = (i + 1) & mask;
+				}
+				pool[i] = states;
+			}
+		}
+	}
+
+	/**
+	 * Inserts an interned state tuple for the given key.
+	 *
+	 * @param key     A key created by {@link StateEncoding#key}.
+	 * @param states  The interned state tuple.
+	 */
+	public void put(long key, int[] states) {
+		int[][] marks = map.get(key);
+
+		if (marks == null) {
+			marks = new int[2][];
+			map.put(key, marks);
+
+		} else if (marks[marks.length - 1] != null) {
+			marks = Arrays.copyOf(marks, marks.length * 2);
+			map.put(key, marks);
+		}
+
+		int i = 0;
+		while (marks[i] != null) {
+			i++;
+		}
+		marks[i] = states;
+	}
+
+	/**
+	 * Returns the state tuples saved for the given key.
+	 * The returned array may contain trailing null entries.
+	 *
+	 * @param key  A key created by {@link StateEncoding#key}.
+	 */
+	public int[][] get(long key) {
+		int[][] marks = map.get(key);
+		return (marks == null ? EMPTY : marks);
+	}
+
+	/**
+	 * Clears the map and the pool of interned state tuples.
+	 */
+	public void clear() {
+		map.clear();
+		pool = new int[64][];
+		pooled = 0;
+	}
+}
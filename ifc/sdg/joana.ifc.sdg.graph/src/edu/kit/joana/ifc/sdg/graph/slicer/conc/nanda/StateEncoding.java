@@ -0,0 +1,124 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer.conc.nanda;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+
+/**
+ * Assigns dense indices to the topological numbers of a set of context graphs,
+ * so that state tuples can be stored as int arrays and visited states can be
+ * keyed by a single long.
+ * Index 0 is reserved for {@link TopologicalNumber#NONE}, index 1 for
+ * {@link TopologicalNumber#NONRESTRICTIVE}. The indices are kept by the encoding,
+ * so the topological numbers, which may be shared by several context graphs, are not modified.
+ *
+ * @see PackedVisitedMap
+ */
+public class StateEncoding {
+	public static final int NONE = 0;
+	public static final int NONRESTRICTIVE = 1;
+
+	/** Maps an index back to its topological number. */
+	private final TopologicalNumber[] numbers;
+	/** Maps a topological number to its index. */
+	private final TObjectIntHashMap<TopologicalNumber> indices;
+	/** The number of low bits of a key used for the topological number. */
+	private final int numberBits;
+
+	StateEncoding(ContextGraph[] graphs, ContextGraph whole) {
+		HashSet<TopologicalNumber> all = new HashSet<TopologicalNumber>(whole.getAllNodes());
+		for (ContextGraph g : graphs) {
+			all.addAll(g.getAllNodes());
+		}
+
+		// sort them to get the same indices regardless of hash set iteration order
+		List<TopologicalNumber> sorted = new ArrayList<TopologicalNumber>(all);
+		Collections.sort(sorted, new Comparator<TopologicalNumber>() {
+			public int compare(TopologicalNumber o1, TopologicalNumber o2) {
+				int cmp = Integer.compare(o1.getNumber(), o2.getNumber());
+				return (cmp != 0 ? cmp : Integer.compare(o1.hashCode(), o2.hashCode()));
+			}
+		});
+
+		numbers = new TopologicalNumber[sorted.size() + 2];
+		indices = new TObjectIntHashMap<TopologicalNumber>(numbers.length, 0.5f, -1);
+		numbers[NONE] = TopologicalNumber.NONE;
+		numbers[NONRESTRICTIVE] = TopologicalNumber.NONRESTRICTIVE;
+		indices.put(TopologicalNumber.NONE, NONE);
+		indices.put(TopologicalNumber.NONRESTRICTIVE, NONRESTRICTIVE);
+
+		int maxNumber = 0;
+		int idx = 2;
+		for (TopologicalNumber nr : sorted) {
+			indices.put(nr, idx);
+			numbers[idx] = nr;
+			idx++;
+			maxNumber = Math.max(maxNumber, nr.getNumber());
+		}
+
+		numberBits = 32 - Integer.numberOfLeadingZeros(maxNumber);
+		int threadBits = 32 - Integer.numberOfLeadingZeros(Math.max(0, graphs.length - 1));
+		if (numberBits + threadBits > 32) {
+			throw new IllegalStateException("Too many threads (" + graphs.length + ") and topological numbers ("
+					+ maxNumber + ") to pack them into 32 bits.");
+		}
+	}
+
+	/**
+	 * Returns the topological number with the given index.
+	 */
+	public TopologicalNumber get(int index) {
+		return numbers[index];
+	}
+
+	/**
+	 * Returns the index of the given topological number, or -1 if it does not
+	 * belong to the context graphs of this encoding.
+	 */
+	public int indexOf(TopologicalNumber nr) {
+		return indices.get(nr);
+	}
+
+	/**
+	 * Encodes a state tuple as an array of topological number indices.
+	 */
+	public int[] pack(States states) {
+		int[] packed = new int[states.size()];
+
+		for (int i = 0; i < packed.length; i++) {
+			packed[i] = indices.get(states.get(i));
+		}
+
+		return packed;
+	}
+
+	/**
+	 * Returns the number of indices in use, including the two reserved ones.
+	 */
+	public int size() {
+		return numbers.length;
+	}
+
+	/**
+	 * Packs a node, a thread and a topological number into one key.
+	 * The node id occupies the upper 32 bits, the thread and the topological
+	 * number share the lower 32 bits.
+	 */
+	public long key(SDGNode v, int thread, int topNr) {
+		int low = (thread << numberBits) | topNr;
+		return ((long) v.getId() << 32) | (low & 0xFFFFFFFFL);
+	}
+}
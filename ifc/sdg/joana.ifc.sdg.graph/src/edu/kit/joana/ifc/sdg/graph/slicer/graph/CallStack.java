@@ -0,0 +1,319 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer.graph;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+
+
+/**
+ * An immutable call stack, represented by its topmost call site and a pointer to the stack below it.
+ * <p>
+ * Call stacks are hash-consed: pushing the same call site onto the same stack yields the same object as long as
+ * that object is alive. Thus push and pop are O(1), copying a context does not copy its stack, and two stacks are
+ * usually equal iff they are the same object. The hash code is computed once on creation.
+ * <p>
+ * The children of a stack are only weakly referenced, so stacks that are no longer used by any context are
+ * reclaimed. The entries of reclaimed stacks are removed from the intern maps by the following calls of
+ * {@link #push(SDGNode)}. Instances may be shared between threads, pushing does not lock.
+ */
+public final class CallStack implements Iterable<SDGNode> {
+
+	/** The empty call stack. */
+	public static final CallStack EMPTY = new CallStack(null, null);
+
+	private final CallStack parent;
+	private final SDGNode top;
+	private final int size;
+	private final int hash;
+
+	/* the interned stacks that have this stack as parent, created on the first push */
+	private volatile ConcurrentMap<SDGNode, Child> children;
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<CallStack, ConcurrentMap> CHILDREN =
+			AtomicReferenceFieldUpdater.newUpdater(CallStack.class, ConcurrentMap.class, "children");
+
+	/* receives the references to the reclaimed stacks, whose entries are then removed from the intern maps */
+	private static final ReferenceQueue<CallStack> RECLAIMED = new ReferenceQueue<CallStack>();
+
+	/* an entry of an intern map, knows where it is stored */
+	private static final class Child extends WeakReference<CallStack> {
+		private final CallStack parent;
+		private final SDGNode call;
+
+		private Child(CallStack child, CallStack parent, SDGNode call) {
+			super(child, RECLAIMED);
+			this.parent = parent;
+			this.call = call;
+		}
+	}
+
+	private CallStack(CallStack parent, SDGNode top) {
+		this.parent = parent;
+		this.top = top;
+
+		if (parent == null) {
+			this.size = 0;
+			this.hash = 1;
+
+		} else {
+			this.size = parent.size + 1;
+			this.hash = 31 * parent.hash + (top == null ? 0 : top.hashCode());
+		}
+	}
+
+	/** Returns the interned call stack consisting of the given call sites.
+	 * The first element of the list is the top of the stack.
+	 *
+	 * @param calls  The call sites.
+	 */
+	public static CallStack of(List<SDGNode> calls) {
+		CallStack result = EMPTY;
+		ListIterator<SDGNode> it = calls.listIterator(calls.size());
+
+		while (it.hasPrevious()) {
+			result = result.push(it.previous());
+		}
+
+		return result;
+	}
+
+	/** Returns the stack with the given call site on top of this stack.
+	 *
+	 * @param call  The new top of stack.
+	 */
+	public CallStack push(SDGNode call) {
+		expungeReclaimed();
+
+		if (call == null) {
+			// cannot be a key of the intern map, equals() still works without interning
+			return new CallStack(this, null);
+		}
+
+		ConcurrentMap<SDGNode, Child> map = children;
+		if (map == null) {
+			CHILDREN.compareAndSet(this, null, new ConcurrentHashMap<SDGNode, Child>(4, 0.75f, 1));
+			map = children;
+		}
+
+		while (true) {
+			Child ref = map.get(call);
+			CallStack child = (ref == null ? null : ref.get());
+
+			if (child != null) {
+				// an equal node of another graph may have been interned - don't mix them up
+				return (child.top == call ? child : new CallStack(this, call));
+			}
+
+			child = new CallStack(this, call);
+			Child newRef = new Child(child, this, call);
+
+			if (ref == null ? map.putIfAbsent(call, newRef) == null : map.replace(call, ref, newRef)) {
+				return child;
+			}
+			// another thread has interned the stack in the meantime
+		}
+	}
+
+	/* removes the entries of the stacks that have been reclaimed */
+	private static void expungeReclaimed() {
+		for (Reference<? extends CallStack> r = RECLAIMED.poll(); r != null; r = RECLAIMED.poll()) {
+			Child c = (Child) r;
+			c.parent.children.remove(c.call, c);
+		}
+	}
+
+	/** Returns the stack without its topmost call site.
+	 * The empty stack is returned unchanged.
+	 */
+	public CallStack pop() {
+		return (parent == null ? this : parent);
+	}
+
+	/** Returns the topmost call site, or null if the stack is empty.
+	 */
+	public SDGNode top() {
+		return top;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return parent == null;
+	}
+
+	/** Returns the call site at the given position, 0 being the top of the stack.
+	 *
+	 * @param index  The position of the desired call site.
+	 */
+	public SDGNode get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+
+		CallStack s = this;
+		for (int i = 0; i < index; i++) {
+			s = s.parent;
+		}
+
+		return s.top;
+	}
+
+	/** Checks whether the stack contains the given call site.
+	 *
+	 * @param call  The call site.
+	 */
+	public boolean contains(SDGNode call) {
+		for (CallStack s = this; s.parent != null; s = s.parent) {
+			if (s.top == call) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/** Checks whether the given stack is a suffix of this stack, i.e. whether this stack results from pushing
+	 * call sites on the given one. The call sites are compared by reference.
+	 *
+	 * @param suffix  The given stack.
+	 */
+	public boolean endsWith(CallStack suffix) {
+		if (suffix.size > size) {
+			return false;
+		}
+
+		CallStack s = this;
+		for (int i = suffix.size; i < size; i++) {
+			s = s.parent;
+		}
+
+		return s.sameCalls(suffix);
+	}
+
+	/* compares two stacks of equal size by the references of their call sites */
+	private boolean sameCalls(CallStack other) {
+		CallStack a = this;
+		CallStack b = other;
+
+		while (a != b) {
+			if (a.hash != b.hash || a.top != b.top) {
+				return false;
+			}
+
+			a = a.parent;
+			b = b.parent;
+		}
+
+		return true;
+	}
+
+	/** Returns the call sites in a fresh list, the top of the stack first.
+	 */
+	public LinkedList<SDGNode> toList() {
+		LinkedList<SDGNode> result = new LinkedList<SDGNode>();
+
+		for (CallStack s = this; s.parent != null; s = s.parent) {
+			result.add(s.top);
+		}
+
+		return result;
+	}
+
+	/** Iterates over the call sites, beginning at the top of the stack.
+	 */
+	public Iterator<SDGNode> iterator() {
+		return new Iterator<SDGNode>() {
+			private CallStack next = CallStack.this;
+
+			public boolean hasNext() {
+				return next.parent != null;
+			}
+
+			public SDGNode next() {
+				if (next.parent == null) {
+					throw new NoSuchElementException();
+				}
+
+				SDGNode result = next.top;
+				next = next.parent;
+				return result;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	public int hashCode() {
+		return hash;
+	}
+
+	/** Two stacks are equal if they contain call sites with the same IDs in the same order.
+	 * Interned stacks are equal iff they are the same object, so this check is usually O(1).
+	 */
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+
+		if (!(o instanceof CallStack)) {
+			return false;
+		}
+
+		CallStack a = this;
+		CallStack b = (CallStack) o;
+
+		if (a.size != b.size) {
+			return false;
+		}
+
+		while (a != b) {
+			if (a.hash != b.hash) {
+				return false;
+			}
+
+			if (a.top != b.top && (a.top == null || b.top == null || a.top.getId() != b.top.getId())) {
+				return false;
+			}
+
+			a = a.parent;
+			b = b.parent;
+		}
+
+		return true;
+	}
+
+	public String toString() {
+		StringBuilder str = new StringBuilder("[");
+
+		for (CallStack s = this; s.parent != null; s = s.parent) {
+			str.append(s.top == null ? "null" : Integer.toString(s.top.getId()));
+			if (s.parent.parent != null) {
+				str.append(", ");
+			}
+		}
+
+		return str.append("]").toString();
+	}
+}
@@ -10,8 +10,8 @@ package edu.kit.joana.ifc.sdg.graph.slicer.graph;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.List;
 
 import edu.kit.joana.ifc.sdg.graph.JoanaGraph;
 import edu.kit.joana.ifc.sdg.graph.PDGs;
@@ -28,15 +28,16 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.GraphFolder;
  */
 public class DynamicContextManager implements ContextManager {
 	public static class DynamicContext extends Context {
-	    /** A list, simulating a stack containing the context. */
-	    private LinkedList<SDGNode> callStack;
+	    /** The interned call stack of the context.
+	     * Copies of a context share it, push and pop replace it. */
+	    private CallStack callStack;
 
 	    /** Creates a new instance of Context.
 	     * Initialises attribut 'context' with an empty list.
 	     */
 	    public DynamicContext() {
 	    	super(null, 0);
-	        this.callStack = new LinkedList<SDGNode>();
+	        this.callStack = CallStack.EMPTY;
 	    }
 
 	    /** Creates a new instance of Context with the given vertex as sole element.
@@ -45,7 +46,7 @@ public class DynamicContextManager implements ContextManager {
 	     */
 	    public DynamicContext(SDGNode node) {
 	    	super(node, node.getThreadNumbers()[0]);
-	        this.callStack = new LinkedList<SDGNode>();
+	        this.callStack = CallStack.EMPTY;
 	    }
 
 	    /** Creates a new instance of Context.
@@ -55,6 +56,16 @@ public class DynamicContextManager implements ContextManager {
 	     * @param node  The unmapped vertex on top of the context.
 	     */
 	    public DynamicContext(LinkedList<SDGNode> callStack, SDGNode node) {
+	    	this(CallStack.of(callStack), node);
+	    }
+
+	    /** Creates a new instance of Context.
+	     * Uses the given call stack and vertex.
+	     *
+	     * @param callStack  The call stack.
+	     * @param node  The unmapped vertex on top of the context.
+	     */
+	    public DynamicContext(CallStack callStack, SDGNode node) {
 	    	super(node, node.getThreadNumbers()[0]);
 	        this.callStack = callStack;
 	    }
@@ -65,7 +76,7 @@ public class DynamicContextManager implements ContextManager {
 	     */
 	    public DynamicContext(SDGNode node, int thread) {
 	    	super(node, thread);
-	        this.callStack = new LinkedList<SDGNode>();
+	        this.callStack = CallStack.EMPTY;
 	    }
 
 	    /** Creates a new instance of Context.
@@ -75,21 +86,28 @@ public class DynamicContextManager implements ContextManager {
 	     * @param node  The unmapped vertex on top of the context.
 	     */
 	    public DynamicContext(LinkedList<SDGNode> callStack, SDGNode node, int thread) {
+	    	this(CallStack.of(callStack), node, thread);
+	    }
+
+	    /** Creates a new instance of Context.
+	     * Uses the given call stack and vertex.
+	     *
+	     * @param callStack  The call stack.
+	     * @param node  The unmapped vertex on top of the context.
+	     */
+	    public DynamicContext(CallStack callStack, SDGNode node, int thread) {
 	    	super(node, thread);
 	        this.callStack = callStack;
 	    }
 
 	    /** Creates a clone of a Context object.
-	     * It clones the list of the attribute 'context', but not the vertices in it or
-	     * attribute 'node'. Thus their references keep the same.
+	     * The immutable call stack is shared, so this is O(1). The vertices in it and
+	     * attribute 'node' are not cloned.
 	     *
 	     * @return  A clone of the calling Context instance.
 	     */
-	    @SuppressWarnings("unchecked")
 	    public DynamicContext copy() {
-	        DynamicContext clone = new DynamicContext((LinkedList<SDGNode>) callStack.clone(), node, thread);
-
-	        return clone;
+	        return new DynamicContext(callStack, node, thread);
 	    }
 
 	    /* getter */
@@ -99,25 +117,19 @@ public class DynamicContextManager implements ContextManager {
 	     * The first element in the returned list is the topmost element, the second
 	     * element is the top of the call stack.
 	     */
-	    @SuppressWarnings("unchecked")
 	    LinkedList<SDGNode> asList() {
-	        LinkedList<SDGNode> clone = (LinkedList<SDGNode>) callStack.clone();
+	        LinkedList<SDGNode> list = callStack.toList();
 
-	        clone.addFirst(node);
+	        list.addFirst(node);
 
-	        return clone;
+	        return list;
 	    }
 
 	    /** Returns the topmost call site of the calling Context object.
 	     * That is the second node in the Context.
 	     */
 	    public SDGNode top() {
-	        if (this.callStack.size() > 0) {
-	            return this.callStack.get(0);
-
-	        } else {
-	            return null;
-	        }
+	        return callStack.top();
 	    }
 
 	    /** Returns the size of the Context.
@@ -139,13 +151,17 @@ public class DynamicContextManager implements ContextManager {
 	        }
 	    }
 
-	    /** Returns the call stack of the calling Context object.
+	    /** Returns the call stack of the calling Context object in a fresh list.
 	     */
-	    @SuppressWarnings("unchecked")
 	    public LinkedList<SDGNode> getCallStack() {
-	        LinkedList<SDGNode> cs = (LinkedList<SDGNode>) this.callStack.clone();
+	        return callStack.toList();
+	    }
 
-	        return cs;
+	    /** Returns the interned call stack of the calling Context object.
+	     * Unlike getCallStack(), this does not copy anything.
+	     */
+	    public CallStack callStack() {
+	        return callStack;
 	    }
 
 	    /** Checks whether the Context is empty.
@@ -168,7 +184,7 @@ public class DynamicContextManager implements ContextManager {
 
 	    boolean isFolded() {
 	        if (callStack.isEmpty()) return false;
-	        else return callStack.peek().getId() < 0;
+	        else return callStack.top().getId() < 0;
 	    }
 
 	    /** Compares a given Context with the calling Context.
@@ -188,10 +204,6 @@ public class DynamicContextManager implements ContextManager {
 	            return false;
 	        }
 
-	        if (c.size() != size()) {
-	            return false;
-	        }
-
 	        if (node.getId() != c.getNode().getId()) {
 	            return false;
 	        }
@@ -200,13 +212,8 @@ public class DynamicContextManager implements ContextManager {
 	            return false;
 	        }
 
-	        for (int i = 0; i < size(); i++) {
-	            if (c.get(i).getId() != get(i).getId()) {
-	                return false;
-	            }
-	        }
-
-	        return true;
+	        // interned call stacks: usually a reference comparison
+	        return callStack.equals(c.callStack);
 	    }
 
 	    /** Checks if the Context is a suffix of given Context 'con'
@@ -214,39 +221,19 @@ public class DynamicContextManager implements ContextManager {
 	     * @return  'true' if this is a suffix of con.
 	     */
 	    public boolean isSuffixOf(DynamicContext con) {
-	        List<SDGNode> callString = con.getCallStack();
-
-	        if (callStack.size() > callString.size()) return false;
-
-	        int i = callStack.size() -1;
-	        int j = callString.size() -1;
-
-	        while (i >= 0 && j >= 0) {
-	            if (callStack.get(i) != callString.get(j)) {
-	                return false;
-	            }
-	            i--;
-	            j--;
-	        }
-
-	        return true;
+	        return con.callStack.endsWith(callStack);
 	    }
 
 	    boolean extensionOf(DynamicContext con) {
 	        if (con.size() > callStack.size()) return false;
 
-	        int i = callStack.size() -1;
-	        int j = con.size() -1;
-
-	        while (i >= 0 && j >= 0) {
-	            if (callStack.get(i) != con.get(j)) {
-	                return false;
-	            }
-	            i--;
-	            j--;
+	        // con is a suffix of the call stack iff its call stack is and its node lies directly above it
+	        CallStack s = callStack;
+	        for (int i = con.size(); i < callStack.size(); i++) {
+	            s = s.pop();
 	        }
 
-	        return true;
+	        return s.top() == con.getNode() && s.pop().endsWith(con.callStack);
 	    }
 
 	    /** Checks whether the stack of the calling Context contains a given vertex.
@@ -254,17 +241,7 @@ public class DynamicContextManager implements ContextManager {
 	     * @param callSite  The vertex.
 	     */
 	    boolean contains(SDGNode vertex) {
-	        if (node == vertex) {
-	            return true;
-	        }
-
-	        for (SDGNode n : callStack) {
-	            if (n == vertex) {
-	                return true;
-	            }
-	        }
-
-	        return false;
+	        return node == vertex || callStack.contains(vertex);
 	    }
 
 	    /** Returns 'true' if this Context subsumes the given Context c, else 'false.
@@ -276,17 +253,39 @@ public class DynamicContextManager implements ContextManager {
 	            return false;
 	        }
 
-	        boolean subsuming = true;
+	        Iterator<SDGNode> thisIt = this.callStack.iterator();
+	        Iterator<SDGNode> cIt = c.callStack.iterator();
 
-	        for (int i = 0; i < this.size(); i++) {
-	            SDGNode thisN = this.get(i);
-	            SDGNode cN = c.get(i);
-	            if (thisN.getId() != cN.getId()) {
-	                subsuming = false;
+	        while (thisIt.hasNext()) {
+	            if (thisIt.next().getId() != cIt.next().getId()) {
+	                return false;
 	            }
 	        }
 
-	        return subsuming;
+	        return true;
+	    }
+
+	    @Override
+	    public boolean isCallStringPrefixOf(Context c) {
+	        if (!(c instanceof DynamicContext)) {
+	            return super.isCallStringPrefixOf(c);
+	        }
+
+	        CallStack cs = ((DynamicContext) c).callStack;
+	        if (callStack.size() > cs.size()) {
+	            return false;
+	        }
+
+	        Iterator<SDGNode> thisIt = callStack.iterator();
+	        Iterator<SDGNode> cIt = cs.iterator();
+
+	        while (thisIt.hasNext()) {
+	            if (thisIt.next() != cIt.next()) {
+	                return false;
+	            }
+	        }
+
+	        return true;
 	    }
 
 
@@ -296,7 +295,7 @@ public class DynamicContextManager implements ContextManager {
 	     * That is the first element in attribute 'context'.
 	     */
 	    public void pop() {
-	        this.callStack.poll();
+	        this.callStack = callStack.pop();
 	    }
 
 	    /** Pushes  a new node on the call stack of this Context.
@@ -304,7 +303,7 @@ public class DynamicContextManager implements ContextManager {
 	     * @param call  The new top of stack.
 	     */
 	    public void push(SDGNode call) {
-	        this.callStack.addFirst(call);
+	        this.callStack = callStack.push(call);
 	    }
 
 	    /** Returns a string representation of this Context.
@@ -317,15 +316,7 @@ public class DynamicContextManager implements ContextManager {
 
 	        if (this.size() > 1) {
 	        	str += ", ";
-	            str += "Call Stack: [";
-	            for (int i = 0; i < this.callStack.size(); i++) {
-
-	                str += this.callStack.get(i).getId();
-	                if (i < this.callStack.size() - 1) {
-	                	str += ", ";
-	                }
-	            }
-	            str += "]";
+	            str += "Call Stack: " + callStack;
 	        }
 	        str += ">";
 	        return str;
@@ -334,11 +325,7 @@ public class DynamicContextManager implements ContextManager {
 	    public int hashCode() {
 	    	int hc = (node == null ? 1 : node.hashCode());
 
-	    	for (SDGNode n : callStack) {
-	    		hc = 31*hc + (n==null ? 0 : n.hashCode());
-	    	}
-
-	    	return hc;
+	    	return 31*hc + callStack.hashCode();
 	    }
 
 		@Override
@@ -346,12 +333,12 @@ public class DynamicContextManager implements ContextManager {
 			if (callStack.isEmpty()) {
 				return false;
 
-			} else if (callStack.peek().getProc() < 0) {
+			} else if (callStack.top().getProc() < 0) {
 				// fold node - could be true
 				return true;
 
 			} else {
-				return callStack.peek().getProc() == n.getProc();
+				return callStack.top().getProc() == n.getProc();
 			}
 		}
 
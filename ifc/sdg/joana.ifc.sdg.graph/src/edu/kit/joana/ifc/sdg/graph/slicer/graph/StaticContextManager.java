@@ -214,7 +214,7 @@ public class StaticContextManager implements ContextManager {
 		private FoldedCallGraph fc;
 		private THashSet<DynamicContext> allContexts;
 		private TIntObjectHashMap<TIntObjectHashMap<LinkedList<CallString>>> map;
-		private THashMap<LinkedList<SDGNode>, CallString> unique;
+		private THashMap<CallStack, CallString> unique;
 		private THashMap<DynamicContext, CallString> cons;
 
 		private ContextCreator(SDG g, CallGraph c, FoldedCallGraph fc) {
@@ -223,7 +223,7 @@ public class StaticContextManager implements ContextManager {
 			this.fc = fc;
 			allContexts = new THashSet<DynamicContext>();
 			map = new TIntObjectHashMap<TIntObjectHashMap<LinkedList<CallString>>>();
-			unique = new THashMap<LinkedList<SDGNode>, CallString>();
+			unique = new THashMap<CallStack, CallString>();
 			cons = new THashMap<DynamicContext, CallString>();
 			co = new ContextComputer(g, c, fc);
 		}
@@ -252,12 +252,12 @@ public class StaticContextManager implements ContextManager {
 		private void convert() {
 			for (DynamicContext c : allContexts) {
 				// retrieve the call string
-				CallString s = unique.get(c.getCallStack());
+				CallString s = unique.get(c.callStack());
 
 				// update the unique call strings map
 				if (s == null) {
 					s = new CallString(c.getCallStack());
-					unique.put(c.getCallStack(), s);
+					unique.put(c.callStack(), s);
 				}
 
 				// update the main map
@@ -291,8 +291,7 @@ public class StaticContextManager implements ContextManager {
 				for (SDGEdge e : g.incomingEdgesOf(con.getNode())) {
 					if (e.getKind() == SDGEdge.Kind.CALL && fc.map(e.getSource()) == con.top()) {
 						// compute new call stack by leaving actual procedure
-						LinkedList<SDGNode> caller = con.getCallStack(); // returns a clone
-				        caller.pop();
+						CallStack caller = con.callStack().pop();
 
 				        /* now we have the actual call stack, the calling call stack and the call edge -
 				         * map them to CallStrings and connect those accordingly */
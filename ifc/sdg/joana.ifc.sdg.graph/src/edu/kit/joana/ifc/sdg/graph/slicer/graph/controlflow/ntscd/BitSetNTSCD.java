@@ -0,0 +1,381 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer.graph.controlflow.ntscd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.CFG;
+import edu.kit.joana.util.ParallelUtil;
+
+
+/** Computes the same NTSCD edges as {@link NTSCD}, but on bit sets.
+ *
+ * The nodes are split into the components connected by intraprocedural control flow,
+ * that is one component per procedure. Each component gets dense local node indices,
+ * ordered by their backward distance to the exit nodes. The all-path relation of a node
+ * is a row of longs over these indices and is computed with a worklist that always
+ * picks the pending node with the smallest index. Components are computed in parallel.
+ *
+ * The control flow graph is only read; the NTSCD edges are returned instead of being added to it.
+ */
+public class BitSetNTSCD {
+    private final CFG icfg;
+    private final int parallelism;
+
+    /* global node index -> node, successors and predecessors on intraprocedural edges */
+    private SDGNode[] nodes;
+    private int[][] succ;
+    private int[][] pred;
+    /* global node index -> local index in its component */
+    private int[] local;
+
+    public BitSetNTSCD(CFG icfg) {
+        this(icfg, 1);
+    }
+
+    /**
+     * @param icfg         the control flow graph, it is not modified.
+     * @param parallelism  the number of threads used for the components.
+     */
+    public BitSetNTSCD(CFG icfg, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+        }
+
+        this.icfg = icfg;
+        this.parallelism = parallelism;
+    }
+
+    /** Computes the NTSCD edges of the control flow graph.
+     *
+     * @return the NTSCD edges, each edge once.
+     */
+    public List<SDGEdge> compute() {
+        buildAdjacency();
+
+        final List<int[]> components = components();
+        final List<SDGEdge> result = new ArrayList<SDGEdge>();
+
+        if (parallelism == 1 || components.size() < 2) {
+            for (int[] component : components) {
+                result.addAll(compute(component));
+            }
+
+            return result;
+        }
+
+        // start with the large procedures
+        Collections.sort(components, new Comparator<int[]>() {
+            public int compare(int[] a, int[] b) {
+                return b.length - a.length;
+            }
+        });
+
+        final ExecutorService executor = ParallelUtil.newPool(parallelism, "ntscd");
+
+        try {
+            final List<Future<List<SDGEdge>>> futures = new ArrayList<Future<List<SDGEdge>>>(components.size());
+            for (final int[] component : components) {
+                futures.add(executor.submit(new Callable<List<SDGEdge>>() {
+                    public List<SDGEdge> call() {
+                        return compute(component);
+                    }
+                }));
+            }
+
+            for (Future<List<SDGEdge>> future : futures) {
+                result.addAll(ParallelUtil.waitFor(future));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return result;
+    }
+
+    private static boolean isInterprocedural(SDGEdge e) {
+        return e.getKind() == SDGEdge.Kind.CALL
+                || e.getKind() == SDGEdge.Kind.RETURN
+                || e.getKind() == SDGEdge.Kind.FORK
+                || e.getKind() == SDGEdge.Kind.JOIN;
+    }
+
+    private void buildAdjacency() {
+        final HashMap<SDGNode, Integer> index = new HashMap<SDGNode, Integer>();
+        nodes = icfg.vertexSet().toArray(new SDGNode[0]);
+        succ = new int[nodes.length][];
+        pred = new int[nodes.length][];
+        local = new int[nodes.length];
+
+        for (int i = 0; i < nodes.length; i++) {
+            index.put(nodes[i], i);
+        }
+
+        final int[] inDegree = new int[nodes.length];
+
+        for (int i = 0; i < nodes.length; i++) {
+            final int[] s = new int[icfg.outDegreeOf(nodes[i])];
+            int size = 0;
+
+            for (SDGEdge e : icfg.outgoingEdgesOf(nodes[i])) {
+                if (isInterprocedural(e)) continue;
+
+                s[size++] = index.get(e.getTarget());
+                inDegree[s[size - 1]]++;
+            }
+
+            succ[i] = (size == s.length ? s : Arrays.copyOf(s, size));
+        }
+
+        for (int i = 0; i < nodes.length; i++) {
+            pred[i] = new int[inDegree[i]];
+        }
+
+        for (int i = 0; i < nodes.length; i++) {
+            for (int t : succ[i]) {
+                pred[t][--inDegree[t]] = i;
+            }
+        }
+    }
+
+    /** Groups the node indices by the components of the intraprocedural edges. */
+    private List<int[]> components() {
+        final int[] parent = new int[nodes.length];
+
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        for (int i = 0; i < nodes.length; i++) {
+            for (int t : succ[i]) {
+                final int a = find(parent, i);
+                final int b = find(parent, t);
+                if (a != b) {
+                    parent[a] = b;
+                }
+            }
+        }
+
+        final int[] size = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            size[find(parent, i)]++;
+        }
+
+        final int[][] members = new int[nodes.length][];
+        final List<int[]> result = new ArrayList<int[]>();
+
+        for (int i = 0; i < nodes.length; i++) {
+            final int root = find(parent, i);
+
+            if (members[root] == null) {
+                members[root] = new int[size[root]];
+                result.add(members[root]);
+            }
+
+            members[root][--size[root]] = i;
+        }
+
+        return result;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+
+        return i;
+    }
+
+    /** Computes the NTSCD edges of one component. */
+    private List<SDGEdge> compute(int[] component) {
+        // local indices: first the nodes reaching an exit node, in breadth-first order from the exits,
+        // then the rest. Only the first ones get an all-path relation, like in NTSCD.
+        final int[] order = new int[component.length];
+        final boolean[] seen = new boolean[component.length];
+        int reaching = 0;
+
+        for (int i = 0; i < component.length; i++) {
+            local[component[i]] = i;
+        }
+
+        for (int g : component) {
+            if (nodes[g].getKind() == SDGNode.Kind.EXIT) {
+                seen[local[g]] = true;
+                order[reaching++] = g;
+            }
+        }
+
+        for (int head = 0; head < reaching; head++) {
+            for (int p : pred[order[head]]) {
+                if (!seen[local[p]]) {
+                    seen[local[p]] = true;
+                    order[reaching++] = p;
+                }
+            }
+        }
+
+        int rest = reaching;
+        for (int g : component) {
+            if (!seen[local[g]]) {
+                order[rest++] = g;
+            }
+        }
+
+        for (int i = 0; i < order.length; i++) {
+            local[order[i]] = i;
+        }
+
+        final int words = (order.length + 63) >>> 6;
+        final long[][] paths = new long[order.length][];
+        final long[] pending = new long[words];
+        final long[] base = new long[words];
+
+        // as in NTSCD, a node is only visited over an edge to a node reaching an exit
+        for (int i = 0; i < reaching; i++) {
+            for (int t : succ[order[i]]) {
+                if (local[t] < reaching) {
+                    pending[i >>> 6] |= 1L << i;
+                    break;
+                }
+            }
+        }
+
+        // paths(n) = intersection of ({s} + paths(s)) over all successors s, least fixed point
+        int cursor = 0;
+
+        while (true) {
+            while (cursor < words && pending[cursor] == 0) {
+                cursor++;
+            }
+
+            if (cursor == words) break;
+
+            final int n = (cursor << 6) + Long.numberOfTrailingZeros(pending[cursor]);
+            pending[cursor] &= ~(1L << n);
+
+            final int[] s = succ[order[n]];
+            reachable(s[0], paths, base);
+
+            for (int k = 1; k < s.length; k++) {
+                retainReachable(s[k], paths, base);
+            }
+
+            long[] old = paths[n];
+            boolean changed = false;
+
+            for (int w = 0; w < words; w++) {
+                if ((base[w] & ~(old == null ? 0 : old[w])) != 0) {
+                    changed = true;
+                    break;
+                }
+            }
+
+            if (!changed) continue;
+
+            if (old == null) {
+                old = paths[n] = new long[words];
+            }
+
+            for (int w = 0; w < words; w++) {
+                old[w] |= base[w];
+            }
+
+            for (int p : pred[order[n]]) {
+                final int l = local[p];
+                pending[l >>> 6] |= 1L << l;
+
+                if ((l >>> 6) < cursor) {
+                    cursor = l >>> 6;
+                }
+            }
+        }
+
+        // n -NTSCD-> m iff m is reached on all paths from one successor of n,
+        // but not on all paths from another successor
+        final List<SDGEdge> result = new ArrayList<SDGEdge>();
+        final long[] reached = new long[words];
+        final long[] missed = new long[words];
+
+        for (int n = 0; n < order.length; n++) {
+            final int[] s = succ[order[n]];
+
+            if (s.length == 0) continue;
+
+            Arrays.fill(reached, 0);
+            Arrays.fill(missed, 0);
+
+            for (int t : s) {
+                final int l = local[t];
+                final long[] tPaths = paths[l];
+
+                for (int w = 0; w < words; w++) {
+                    final long p = (tPaths == null ? 0 : tPaths[w]);
+                    reached[w] |= p;
+                    // a successor is never missed on the paths starting at itself
+                    missed[w] |= (w == (l >>> 6) ? ~p & ~(1L << l) : ~p);
+                }
+
+                reached[l >>> 6] |= 1L << l;
+            }
+
+            for (int w = 0; w < words; w++) {
+                long edges = reached[w] & missed[w];
+
+                while (edges != 0) {
+                    final int m = (w << 6) + Long.numberOfTrailingZeros(edges);
+                    edges &= edges - 1;
+                    result.add(new SDGEdge(nodes[order[n]], nodes[order[m]], SDGEdge.Kind.NTSCD));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /** Sets row to {s} + paths(s). */
+    private void reachable(int s, long[][] paths, long[] row) {
+        final int l = local[s];
+        final long[] sPaths = paths[l];
+
+        if (sPaths == null) {
+            Arrays.fill(row, 0);
+        } else {
+            System.arraycopy(sPaths, 0, row, 0, row.length);
+        }
+
+        row[l >>> 6] |= 1L << l;
+    }
+
+    /** Intersects row with {s} + paths(s). */
+    private void retainReachable(int s, long[][] paths, long[] row) {
+        final int l = local[s];
+        final long[] sPaths = paths[l];
+        final long bit = (row[l >>> 6] & (1L << l));
+
+        if (sPaths == null) {
+            Arrays.fill(row, 0);
+        } else {
+            for (int w = 0; w < row.length; w++) {
+                row[w] &= sPaths[w];
+            }
+        }
+
+        row[l >>> 6] |= bit;
+    }
+}
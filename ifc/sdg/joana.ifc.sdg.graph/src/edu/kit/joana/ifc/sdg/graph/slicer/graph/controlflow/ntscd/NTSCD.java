@@ -11,8 +11,10 @@ import java.io.File;
 import java.io.FileWriter;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 import edu.kit.joana.ifc.sdg.graph.SDG;
@@ -21,11 +23,15 @@ import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.CFG;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.ICFGBuilder;
+import edu.kit.joana.util.Config;
 
 
 /** Computes Non-termination sensitive control flow as defined by Ranganath et al.
  * The algorithm uses the same underlying idea as that of Ranganath.
  *
+ * {@link #compute(CFG)} uses the equivalent {@link BitSetNTSCD} instead, if the option
+ * {@link Config#C_NTSCD_BITSETS} is set.
+ *
  * @author giffhorn
  */
 public class NTSCD {
@@ -45,6 +51,34 @@ public class NTSCD {
         evaluatePathRelation();
     }
 
+    /** Computes the NTSCD edges of a control flow graph, which is not modified.
+     * Uses {@link BitSetNTSCD} with {@link Config#C_NTSCD_THREADS} threads if the option
+     * {@link Config#C_NTSCD_BITSETS} is set.
+     *
+     * @return the NTSCD edges, each edge once.
+     */
+    public static List<SDGEdge> compute(CFG icfg) {
+        if (Config.getBool(Config.C_NTSCD_BITSETS, false)) {
+            final int threads = (Config.isDefined(Config.C_NTSCD_THREADS)
+                    ? Config.getInt(Config.C_NTSCD_THREADS, 1) : 1);
+
+            return new BitSetNTSCD(icfg, threads).compute();
+        }
+
+        NTSCD ntscd = new NTSCD(icfg);
+        ntscd.removeInterproceduralEdges();
+
+        try {
+            ntscd.computeAllPathRelation();
+            return new LinkedList<SDGEdge>(ntscd.collectEdges());
+
+        } finally {
+            for (SDGEdge e : ntscd.tmpEdges) {
+                icfg.addEdge(e);
+            }
+        }
+    }
+
     private void removeInterproceduralEdges() {
         for (SDGEdge e : icfg.edgeSet()) {
             if (e.getKind() == SDGEdge.Kind.CALL
@@ -168,7 +202,13 @@ public class NTSCD {
     }
 
     private void evaluatePathRelation() {
-        LinkedList<SDGEdge> newEdges = new LinkedList<SDGEdge>();
+        for (SDGEdge e : collectEdges()) {
+            icfg.addEdge(e);
+        }
+    }
+
+    private Set<SDGEdge> collectEdges() {
+        Set<SDGEdge> newEdges = new LinkedHashSet<SDGEdge>();
 
         for (SDGNode n : icfg.vertexSet()) {
             LinkedList<SDGNode> nodes = new LinkedList<SDGNode>();
@@ -199,9 +239,7 @@ public class NTSCD {
             }
         }
 
-        for (SDGEdge e : newEdges) {
-            icfg.addEdge(e);
-        }
+        return newEdges;
     }
 
 
@@ -210,8 +248,7 @@ public class NTSCD {
         SDG g = SDG.readFrom("/afs/info.uni-karlsruhe.de/user/giffhorn/giffhorn/pdg/tests.Dijkstra.pdg");
         CFG icfg = ICFGBuilder.extractICFG(g);
         //GraphModifier.inlineParameterVertices(sdg, icfg);
-        NTSCD ntscd = new NTSCD(icfg);
-        ntscd.compute();
+        List<SDGEdge> ntscd = NTSCD.compute(icfg);
 
         List<SDGEdge> l = new LinkedList<SDGEdge>();
 
@@ -230,10 +267,8 @@ public class NTSCD {
             g.removeEdge(e);
         }
 
-        for (SDGEdge e : icfg.edgeSet()) {
-            if (e.getKind() == SDGEdge.Kind.NTSCD) {
-                g.addEdge(new SDGEdge(e.getSource(), e.getTarget(), SDGEdge.Kind.DATA_DEP));
-            }
+        for (SDGEdge e : ntscd) {
+            g.addEdge(new SDGEdge(e.getSource(), e.getTarget(), SDGEdge.Kind.DATA_DEP));
         }
 
         String content = SDGSerializer.toPDGFormat(g);
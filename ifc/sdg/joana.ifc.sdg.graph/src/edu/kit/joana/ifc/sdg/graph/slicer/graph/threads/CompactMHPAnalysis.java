@@ -0,0 +1,273 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.ifc.sdg.graph.slicer.graph.threads;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.VirtualNode;
+
+
+/**
+ * The results of a {@link PreciseMHPAnalysis}, precomputed into arrays for fast queries.
+ * <ul>
+ * <li>For each thread a dense array maps node ids to the id of the node's thread region in that thread.</li>
+ * <li>The parallelism relation of the thread regions is a bit matrix with one row of longs per region,
+ * which already includes the test for equal, non-dynamic threads.</li>
+ * <li>The may-exist relation is a row of region bits per thread.</li>
+ * </ul>
+ * All answers are the same as those of the underlying PreciseMHPAnalysis. Additionally,
+ * batch queries return all regions or nodes parallel to a node as bit sets.
+ */
+public class CompactMHPAnalysis implements MHPAnalysis {
+
+	private static final int NO_REGION = -1;
+
+	private final PreciseMHPAnalysis precise;
+	private final ThreadRegions regions;
+	/** thread -> node id -> region id */
+	private final int[][] regionOf;
+	/** number of longs per row */
+	private final int words;
+	/** row r holds the regions that may happen in parallel to region r */
+	private final long[] parallel;
+	/** row t holds the regions whose nodes may exist while thread t runs */
+	private final long[] mayExist;
+	/** region id -> sorted ids of the nodes in the region */
+	private final int[][] nodesOf;
+	private final boolean[] dynamic;
+
+	private CompactMHPAnalysis(PreciseMHPAnalysis precise, int threads) {
+		this.precise = precise;
+		this.regions = precise.getTR();
+		final int size = regions.size();
+		this.words = (size + 63) >>> 6;
+		this.parallel = new long[size * words];
+		this.mayExist = new long[threads * words];
+		this.nodesOf = new int[size][];
+		this.regionOf = new int[threads][];
+		this.dynamic = new boolean[threads];
+
+		int maxId = 0;
+		for (ThreadRegion r : regions) {
+			for (SDGNode n : r.getNodes()) {
+				maxId = Math.max(maxId, n.getId());
+			}
+		}
+
+		for (int t = 0; t < threads; t++) {
+			regionOf[t] = new int[maxId + 1];
+			Arrays.fill(regionOf[t], NO_REGION);
+			dynamic[t] = precise.isDynamic(t);
+		}
+
+		for (ThreadRegion r : regions) {
+			final int[] nodes = new int[r.getNodes().size()];
+			final int[] ofThread = regionOf[r.getThread()];
+			int i = 0;
+
+			for (SDGNode n : r.getNodes()) {
+				ofThread[n.getId()] = r.getID();
+				nodes[i++] = n.getId();
+			}
+
+			Arrays.sort(nodes);
+			nodesOf[r.getID()] = nodes;
+		}
+
+		for (ThreadRegion r : regions) {
+			final int row = r.getID() * words;
+			final int mayExistRow = r.getThread() * words;
+
+			for (ThreadRegion s : regions) {
+				if (precise.isParallel(r, s)) {
+					final long bit = 1L << s.getID();
+					parallel[row + (s.getID() >>> 6)] |= bit;
+					mayExist[mayExistRow + (s.getID() >>> 6)] |= bit;
+				}
+			}
+		}
+	}
+
+	/** Needs a pre-processed cSDG.
+	 *
+	 * @param sdg
+	 * @return
+	 */
+	public static CompactMHPAnalysis analyze(SDG sdg) {
+		return create(PreciseMHPAnalysis.analyze(sdg), sdg.getNumberOfThreads());
+	}
+
+	/**
+	 * Precomputes the results of an existing precise MHP analysis.
+	 *
+	 * @param precise
+	 * @param threads  the number of threads of the analyzed SDG
+	 * @return
+	 */
+	public static CompactMHPAnalysis create(PreciseMHPAnalysis precise, int threads) {
+		return new CompactMHPAnalysis(precise, threads);
+	}
+
+	private int region(SDGNode node, int thread) {
+		final int[] ofThread = regionOf[thread];
+		final int id = node.getId();
+
+		if (id >= 0 && id < ofThread.length && ofThread[id] != NO_REGION) {
+			return ofThread[id];
+		}
+
+		// not part of any region - ask the thread regions, which report the error
+		return regions.getThreadRegion(node, thread).getID();
+	}
+
+	private boolean bit(long[] rows, int row, int column) {
+		return (rows[row * words + (column >>> 6)] & (1L << column)) != 0;
+	}
+
+	public boolean isParallel(SDGNode m, SDGNode n) {
+		final int[] nThreads = n.getThreadNumbers();
+
+		for (int mt : m.getThreadNumbers()) {
+			final int row = region(m, mt);
+
+			for (int nt : nThreads) {
+				if (bit(parallel, row, region(n, nt))) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	public boolean isParallel(VirtualNode m, VirtualNode n) {
+		return isParallel(m.getNode(), m.getNumber(), n.getNode(), n.getNumber());
+	}
+
+	public boolean isParallel(SDGNode m, int mThread, SDGNode n, int nThread) {
+		if (!dynamic[mThread] && mThread == nThread) {
+			return false;
+		}
+
+		return bit(parallel, region(m, mThread), region(n, nThread));
+	}
+
+	public boolean isParallel(SDGNode m, int mThread, int region) {
+		// as in PreciseMHPAnalysis, the region of m always belongs to mThread
+		if (!dynamic[mThread]) {
+			return false;
+		}
+
+		return bit(parallel, region(m, mThread), region);
+	}
+
+	public boolean isParallel(ThreadRegion r, ThreadRegion s) {
+		return bit(parallel, r.getID(), s.getID());
+	}
+
+	/**
+	 * Returns the ids of all thread regions which may happen in parallel to one of the instances of the given node.
+	 */
+	public BitSet getParallelRegions(SDGNode n) {
+		final long[] row = new long[words];
+
+		for (int nt : n.getThreadNumbers()) {
+			final int offset = region(n, nt) * words;
+			for (int i = 0; i < words; i++) {
+				row[i] |= parallel[offset + i];
+			}
+		}
+
+		return BitSet.valueOf(row);
+	}
+
+	/**
+	 * Returns the ids of all nodes which may happen in parallel to the given node,
+	 * that is all m with isParallel(n, m).
+	 */
+	public BitSet getParallelNodes(SDGNode n) {
+		final BitSet result = new BitSet();
+		final BitSet parallelRegions = getParallelRegions(n);
+
+		for (int r = parallelRegions.nextSetBit(0); r >= 0; r = parallelRegions.nextSetBit(r + 1)) {
+			for (int id : nodesOf[r]) {
+				result.set(id);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns true if some instance of m may happen in parallel to a region in the given set.
+	 * Compares whole words of the region rows.
+	 */
+	public boolean isParallelToAny(SDGNode m, BitSet regionIds) {
+		final long[] other = regionIds.toLongArray();
+		final int len = Math.min(words, other.length);
+
+		for (int mt : m.getThreadNumbers()) {
+			final int offset = region(m, mt) * words;
+			for (int i = 0; i < len; i++) {
+				if ((parallel[offset + i] & other[i]) != 0) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	public SDGNode getThreadExit(int thread) {
+		return precise.getThreadExit(thread);
+	}
+
+	public SDGNode getThreadEntry(int thread) {
+		return precise.getThreadEntry(thread);
+	}
+
+	public boolean isDynamic(int thread) {
+		return dynamic[thread];
+	}
+
+	public ThreadRegions getTR() {
+		return regions;
+	}
+
+	public Collection<ThreadRegion> getThreadRegions() {
+		return regions.getThreadRegions();
+	}
+
+	public ThreadRegion getThreadRegion(SDGNode node, int thread) {
+		return regions.getThreadRegion(region(node, thread));
+	}
+
+	public ThreadRegion getThreadRegion(VirtualNode node) {
+		return getThreadRegion(node.getNode(), node.getNumber());
+	}
+
+	public ThreadRegion getThreadRegion(int id) {
+		return regions.getThreadRegion(id);
+	}
+
+	public boolean mayExist(int thread, VirtualNode v) {
+		return mayExist(thread, v.getNode(), v.getNumber());
+	}
+
+	public boolean mayExist(int thread, SDGNode n, int nThread) {
+		return bit(mayExist, thread, region(n, nThread));
+	}
+
+	public String toString() {
+		return precise.toString();
+	}
+}
@@ -10,7 +10,6 @@ import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PBackward;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
-import edu.kit.joana.ifc.sdg.lattice.LatticeUtil;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 
 public class BetterORLSODChecker<L> extends ORLSODChecker<L> {
@@ -57,12 +56,12 @@ public class BetterORLSODChecker<L> extends ORLSODChecker<L> {
 				// clNew(m) = cl(m) meet cl(n) if m ->_PDG n
 				for (SDGNode m : backw.slice(n)) {
 					L newLevel = cl.containsKey(m) ? cl.get(m) : secLattice.getTop();
-					newLevel = secLattice.greatestLowerBound(newLevel, cl.get(n));
+					newLevel = greatestLowerBound(newLevel, cl.get(n));
 					L oldLevel = cl.put(m, newLevel);
 					if (oldLevel == null || !newLevel.equals(oldLevel) && !worklistSlice.contains(m)) {
 						worklistProb.add(m);
 					}
-					if (userAnn.get(m) != null && LatticeUtil.isLeq(secLattice, newLevel, userAnn.get(m))
+					if (userAnn.get(m) != null && isLeq(newLevel, userAnn.get(m))
 							&& !newLevel.equals(userAnn.get(m))) {
 						System.out.println("Violation detected!");
 					}
@@ -75,12 +74,12 @@ public class BetterORLSODChecker<L> extends ORLSODChecker<L> {
 				// clNew(m) = cl(m) meet cl(n) if m is a probabilistic influencer of n
 				for (SDGNode n0 : probInf.getProbabilisticInfluencers(n)) {
 					L newLevel = cl.containsKey(n0) ? cl.get(n0) : secLattice.getTop();
-					newLevel = secLattice.greatestLowerBound(newLevel, cl.get(n));
+					newLevel = greatestLowerBound(newLevel, cl.get(n));
 					L oldLevel = cl.put(n0, newLevel);
 					if (oldLevel == null || !newLevel.equals(oldLevel) && !worklistProb.contains(n0)) {
 						worklistSlice.add(n0);
 					}
-					if (userAnn.get(n0) != null && LatticeUtil.isLeq(secLattice, newLevel, userAnn.get(n0))
+					if (userAnn.get(n0) != null && isLeq(newLevel, userAnn.get(n0))
 							&& !newLevel.equals(userAnn.get(n0))) {
 						System.out.println("Violation detected!");
 					}
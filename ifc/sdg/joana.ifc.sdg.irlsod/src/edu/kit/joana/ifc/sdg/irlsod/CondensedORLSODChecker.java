@@ -0,0 +1,253 @@
+package edu.kit.joana.ifc.sdg.irlsod;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.kit.joana.ifc.sdg.core.SecurityNode;
+import edu.kit.joana.ifc.sdg.core.violations.IViolation;
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.lattice.IIntStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
+import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
+
+/**
+ * Computes the same classification, and hence the same violations, as {@link OptORLSODChecker}, but without
+ * slicing.
+ * <p>
+ * {@link OptORLSODChecker} propagates the security level of a node to all nodes whose backward slice or
+ * probabilistic influencers contain it, until a fixed point is reached. Every SDG edge m -&gt; n puts m into the
+ * (iterated two-phase) backward slice of n, and every node in that slice reaches n over SDG edges. So the fixed
+ * point assigns each node the join of the user annotations of all nodes which reach it in the dependence graph
+ * made of the SDG edges and edges from the probabilistic influencers of each node to the node. This checker
+ * computes exactly that: It condenses the strongly connected components of the dependence graph and propagates
+ * the levels once, in topological order, on the int encoding of the levels.
+ */
+public class CondensedORLSODChecker<L> extends ORLSODChecker<L> {
+
+	public CondensedORLSODChecker(final SDG sdg, final IStaticLattice<L> secLattice, final ProbInfComputer probInf) {
+		this(sdg, secLattice, null, probInf);
+	}
+
+	public CondensedORLSODChecker(final SDG sdg, final IStaticLattice<L> secLattice, final Map<SDGNode, L> userAnn,
+			final ProbInfComputer probInf) {
+		super(sdg, secLattice, userAnn, probInf, null);
+	}
+
+	@Override
+	public Collection<? extends IViolation<SecurityNode>> checkIFlow() throws NotInLatticeException {
+		inferUserAnnotationsOnDemand();
+
+		// 1.) encode the security levels
+		final IIntStaticLattice<L> lattice = getIntLattice();
+		final int bottom = lattice.getBottomIndex();
+
+		// 2.) build the dependence graph
+		final DepGraph dep = new DepGraph(sdg, probInf);
+
+		// 3.) condense it and propagate the levels in topological order
+		final int[] comp = dep.computeSCCs();
+		final int numComps = dep.numberOfSCCs();
+		final int[] compLevel = new int[numComps];
+		Arrays.fill(compLevel, bottom);
+		for (final Map.Entry<SDGNode, L> ann : userAnn.entrySet()) {
+			final int c = comp[dep.indexOf(ann.getKey())];
+			compLevel[c] = lattice.leastUpperBound(compLevel[c], lattice.indexOf(ann.getValue()));
+		}
+
+		// the components are numbered in reverse topological order
+		final int[] compMembers = dep.membersByComponent(comp, numComps);
+		final int[] compStart = dep.componentStarts(comp, numComps);
+		for (int c = numComps - 1; c >= 0; c--) {
+			final int lvl = compLevel[c];
+			if (lvl == bottom) {
+				continue;
+			}
+			for (int i = compStart[c]; i < compStart[c + 1]; i++) {
+				final int v = compMembers[i];
+				for (int j = dep.succStart[v]; j < dep.succStart[v + 1]; j++) {
+					final int d = comp[dep.succ[j]];
+					if (d != c) {
+						compLevel[d] = lattice.leastUpperBound(compLevel[d], lvl);
+					}
+				}
+			}
+		}
+
+		// 4.) check that sink levels comply
+		cl = new HashMap<SDGNode, L>();
+		for (int v = 0; v < dep.nodes.length; v++) {
+			cl.put(dep.nodes[v], lattice.elementAt(compLevel[comp[v]]));
+		}
+		return checkCompliance();
+	}
+
+	/**
+	 * The dependence graph in compressed sparse row format: The successors of the node with index v are
+	 * succ[succStart[v]], ..., succ[succStart[v + 1] - 1].
+	 */
+	private static final class DepGraph {
+		private final SDGNode[] nodes;
+		/** maps node ids to node indices */
+		private final int[] index;
+		private final int[] succStart;
+		private final int[] succ;
+		private int numComps;
+
+		private DepGraph(final SDG sdg, final ProbInfComputer probInf) {
+			nodes = sdg.vertexSet().toArray(new SDGNode[sdg.vertexSet().size()]);
+			int maxId = 0;
+			for (final SDGNode n : nodes) {
+				maxId = Math.max(maxId, n.getId());
+			}
+			index = new int[maxId + 1];
+			Arrays.fill(index, -1);
+			for (int v = 0; v < nodes.length; v++) {
+				index[nodes[v].getId()] = v;
+			}
+
+			// collect the edges as (source, target) pairs: SDG edges and probabilistic influencer -> node
+			int[] src = new int[Math.max(16, sdg.edgeSet().size())];
+			int[] tgt = new int[src.length];
+			int size = 0;
+			for (int v = 0; v < nodes.length; v++) {
+				for (final SDGEdge e : sdg.outgoingEdgesOf(nodes[v])) {
+					if (!e.getKind().isSDGEdge()) continue;
+					if (size == src.length) {
+						src = Arrays.copyOf(src, 2 * size);
+						tgt = Arrays.copyOf(tgt, 2 * size);
+					}
+					src[size] = v;
+					tgt[size] = indexOf(e.getTarget());
+					size++;
+				}
+				for (final SDGNode m : probInf.getProbabilisticInfluencers(nodes[v])) {
+					if (size == src.length) {
+						src = Arrays.copyOf(src, 2 * size);
+						tgt = Arrays.copyOf(tgt, 2 * size);
+					}
+					src[size] = indexOf(m);
+					tgt[size] = v;
+					size++;
+				}
+			}
+
+			succStart = new int[nodes.length + 1];
+			for (int i = 0; i < size; i++) {
+				succStart[src[i] + 1]++;
+			}
+			for (int v = 0; v < nodes.length; v++) {
+				succStart[v + 1] += succStart[v];
+			}
+			succ = new int[size];
+			final int[] pos = Arrays.copyOf(succStart, nodes.length);
+			for (int i = 0; i < size; i++) {
+				succ[pos[src[i]]++] = tgt[i];
+			}
+		}
+
+		private int indexOf(final SDGNode n) {
+			final int id = n.getId();
+			if (id < 0 || id >= index.length || index[id] < 0) {
+				throw new IllegalArgumentException("node is not part of the sdg: " + n);
+			}
+			return index[id];
+		}
+
+		/**
+		 * Tarjan's algorithm without recursion. Components are numbered in the order in which they are completed,
+		 * which is a reverse topological order.
+		 *
+		 * @return the component of each node
+		 */
+		private int[] computeSCCs() {
+			final int n = nodes.length;
+			final int[] comp = new int[n];
+			final int[] dfsNum = new int[n];
+			final int[] low = new int[n];
+			final int[] stack = new int[n];
+			final boolean[] onStack = new boolean[n];
+			final int[] callStack = new int[n];
+			final int[] edgePos = new int[n];
+			Arrays.fill(dfsNum, -1);
+			int counter = 0;
+			int sp = 0;
+			numComps = 0;
+
+			for (int root = 0; root < n; root++) {
+				if (dfsNum[root] >= 0) continue;
+
+				int csp = 0;
+				callStack[csp++] = root;
+				dfsNum[root] = low[root] = counter++;
+				edgePos[root] = succStart[root];
+				stack[sp++] = root;
+				onStack[root] = true;
+
+				while (csp > 0) {
+					final int v = callStack[csp - 1];
+					if (edgePos[v] < succStart[v + 1]) {
+						final int w = succ[edgePos[v]++];
+						if (dfsNum[w] < 0) {
+							dfsNum[w] = low[w] = counter++;
+							edgePos[w] = succStart[w];
+							stack[sp++] = w;
+							onStack[w] = true;
+							callStack[csp++] = w;
+						} else if (onStack[w] && dfsNum[w] < low[v]) {
+							low[v] = dfsNum[w];
+						}
+					} else {
+						csp--;
+						if (low[v] == dfsNum[v]) {
+							int w;
+							do {
+								w = stack[--sp];
+								onStack[w] = false;
+								comp[w] = numComps;
+							} while (w != v);
+							numComps++;
+						}
+						if (csp > 0) {
+							final int u = callStack[csp - 1];
+							if (low[v] < low[u]) {
+								low[u] = low[v];
+							}
+						}
+					}
+				}
+			}
+
+			return comp;
+		}
+
+		private int numberOfSCCs() {
+			return numComps;
+		}
+
+		/** @return the node indices sorted by component, see {@link #componentStarts(int[], int)} */
+		private int[] membersByComponent(final int[] comp, final int numComps) {
+			final int[] pos = Arrays.copyOf(componentStarts(comp, numComps), numComps);
+			final int[] members = new int[comp.length];
+			for (int v = 0; v < comp.length; v++) {
+				members[pos[comp[v]]++] = v;
+			}
+			return members;
+		}
+
+		/** @return the position of the first member of each component in the members array, and its length */
+		private int[] componentStarts(final int[] comp, final int numComps) {
+			final int[] start = new int[numComps + 1];
+			for (int v = 0; v < comp.length; v++) {
+				start[comp[v] + 1]++;
+			}
+			for (int c = 0; c < numComps; c++) {
+				start[c + 1] += start[c];
+			}
+			return start;
+		}
+	}
+}
@@ -17,4 +17,12 @@ import edu.kit.joana.ifc.sdg.graph.slicer.graph.VirtualNode;
  */
 public interface ICDomOracle {
 	VirtualNode cdom(SDGNode n1, int threadN1, SDGNode n2, int threadN2);
+
+	/**
+	 * @return true if cdom(n1, threadN1, n2, threadN2) only depends on threadN1 and threadN2, so users may compute it
+	 *         once per pair of threads
+	 */
+	default boolean isThreadModular() {
+		return false;
+	}
 }
\ No newline at end of file
@@ -16,7 +16,6 @@ import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.I2PBackward;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
-import edu.kit.joana.ifc.sdg.lattice.LatticeUtil;
 import edu.kit.joana.ifc.sdg.lattice.NotInLatticeException;
 
 public class ORLSODChecker<L> extends IFC<L> {
@@ -86,7 +85,7 @@ public class ORLSODChecker<L> extends IFC<L> {
 		for (final Map.Entry<SDGNode, L> userAnnEntry : userAnn.entrySet()) {
 			final SDGNode s = userAnnEntry.getKey();
 			final L userLvl = userAnnEntry.getValue();
-			if (!LatticeUtil.isLeq(secLattice, cl.get(s), userLvl)) {
+			if (!isLeq(cl.get(s), userLvl)) {
 				ret.add(new UnaryViolation<SecurityNode, L>(new SecurityNode(s), userLvl, cl.get(s)));
 				System.out.println("Violation at node " + s + ": user-annotated level is " + userLvl
 						+ ", computed level is " + cl.get(s));
@@ -108,7 +107,7 @@ public class ORLSODChecker<L> extends IFC<L> {
 		for (final Map.Entry<SDGNode, L> userAnnEntry : userAnn.entrySet()) {
 			final SDGNode s = userAnnEntry.getKey();
 			final L userLvl = userAnnEntry.getValue();
-			if (!LatticeUtil.isLeq(secLattice, userLvl, cl.get(s))) {
+			if (!isLeq(userLvl, cl.get(s))) {
 				ret.add(new UnaryViolation<SecurityNode, L>(new SecurityNode(s), userLvl, cl.get(s)));
 				System.out.println("Violation at node " + s + ": user-annotated level is " + userLvl
 						+ ", computed level is " + cl.get(s));
@@ -186,7 +185,7 @@ public class ORLSODChecker<L> extends IFC<L> {
 					throw new IllegalArgumentException(predecessorMethod.toString());
 				}
 				for (final SDGNode m : predecessors) {
-					newLevel = secLattice.leastUpperBound(newLevel, cl.get(m));
+					newLevel = leastUpperBound(newLevel, cl.get(m));
 					if (secLattice.getTop().equals(newLevel)) {
 						break; // we can abort the loop here - level cannot get
 						// any higher
@@ -196,7 +195,7 @@ public class ORLSODChecker<L> extends IFC<L> {
 				final Collection<? extends SDGNode> pi = probInf.getProbabilisticInfluencers(n);
 				System.out.println(String.format("ProbInf(%s) = %s", n, pi));
 				for (final SDGNode cp : pi) {
-					newLevel = secLattice.leastUpperBound(newLevel, cl.get(cp));
+					newLevel = leastUpperBound(newLevel, cl.get(cp));
 					if (secLattice.getTop().equals(newLevel)) {
 						break; // we can abort the loop here - level cannot get
 						// any higher
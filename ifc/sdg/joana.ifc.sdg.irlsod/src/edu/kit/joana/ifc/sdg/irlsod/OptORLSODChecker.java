@@ -57,7 +57,7 @@ public class OptORLSODChecker<L> extends ORLSODChecker<L> {
 			final L oldLevel = cl.get(next);
 			L newLevel = userAnn.containsKey(next) ? userAnn.get(next) : oldLevel;
 			for (final SDGNode m : backwDep.get(next)) {
-				newLevel = secLattice.leastUpperBound(newLevel, cl.get(m));
+				newLevel = leastUpperBound(newLevel, cl.get(m));
 			}
 			if (!newLevel.equals(oldLevel)) {
 				cl.put(next, newLevel);
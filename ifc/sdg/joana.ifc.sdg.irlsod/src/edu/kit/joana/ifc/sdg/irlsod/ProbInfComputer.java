@@ -1,69 +1,286 @@
 package edu.kit.joana.ifc.sdg.irlsod;
 
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.CFGBackward;
+import edu.kit.joana.ifc.sdg.graph.slicer.conc.CFGForward;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.CFG;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.ICFGBuilder;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.ThreadRegion;
 import edu.kit.joana.ifc.sdg.mhpoptimization.CSDGPreprocessor;
+import edu.kit.joana.util.ParallelUtil;
 
 /**
  * This provides a computation of the probabilistic influencers of a given node. It relies on a function cdom which
  * outputs a common dominator of any two nodes n,m. The set of probabilistic influencers of n (with respect to cdom) is
  * defined as the least with the following property: Let m be a node which may happen in parallel to n and c =
  * cdom(n,m). Any node in the cfg chop between c and n is a probabilistic influencer of n.
+ * <p>
+ * The influencers are computed in batches: If the influencers of a node are requested, those of all nodes in its
+ * thread regions are computed along with them. The cfg chops between the common dominators c and n are all restricted
+ * to the same backward slice of n, so they are computed in a single forward traversal from the set of all c. If the
+ * cdom oracle is {@link ICDomOracle#isThreadModular() thread-modular}, these sets are computed once per pair of threads.
+ * The chops of a batch can be computed in parallel, by a pool of threads which is shared by all batches. The results are kept as bit sets of node ids in a cache which
+ * evicts the least recently used ones.
  *
  * @author Martin Mohr&lt;martin.mohr@kit.edu&gt;
  *
  */
 public class ProbInfComputer {
 
+	/** default number of nodes whose influencers are cached */
+	public static final int DEFAULT_CACHE_SIZE = 4096;
+
+	private final SDG sdg;
 	private final CFG icfg;
 	private final PreciseMHPAnalysis mhp;
 	private final ICDomOracle cdomOracle;
-	private final Map<SDGNode, Collection<? extends SDGNode>> cache = new HashMap<SDGNode, Collection<? extends SDGNode>>();
+	private final CFGForward forw;
+	private final CFGBackward backw;
+	private final int cacheSize;
+	/** computes the chops of a batch, null if they are computed by the calling thread */
+	private final ExecutorService executor;
+	private final Map<SDGNode, BitSet> cache;
+	/** the thread regions which may happen in parallel to a thread region */
+	private final Map<ThreadRegion, List<ThreadRegion>> parallelRegions = new HashMap<ThreadRegion, List<ThreadRegion>>();
+	/** the common dominators of pairs of threads, if the oracle is thread-modular */
+	private final Map<Long, SDGNode> threadCDoms = new HashMap<Long, SDGNode>();
 
 	public ProbInfComputer(final SDG sdg, final ICDomOracle cdomOracle) {
+		this(sdg, cdomOracle, DEFAULT_CACHE_SIZE, 1);
+	}
+
+	/**
+	 * @param cacheSize    the number of nodes whose influencers are cached, also the maximal size of a batch
+	 * @param parallelism  the number of threads which compute the chops of a batch
+	 */
+	public ProbInfComputer(final SDG sdg, final ICDomOracle cdomOracle, final int cacheSize, final int parallelism) {
+		if (cacheSize < 1) {
+			throw new IllegalArgumentException("cacheSize has to be at least 1: " + cacheSize);
+		}
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+		}
+		this.sdg = sdg;
 		this.icfg = ICFGBuilder.extractICFG(sdg);
 		CSDGPreprocessor.preprocessSDG(sdg);
 		this.mhp = PreciseMHPAnalysis.analyze(sdg);
 		this.cdomOracle = cdomOracle;
+		this.forw = new CFGForward(icfg);
+		this.backw = new CFGBackward(icfg);
+		this.cacheSize = cacheSize;
+		this.executor = (parallelism > 1 ? ParallelUtil.newPool(parallelism, "prob-inf") : null);
+		this.cache = new LinkedHashMap<SDGNode, BitSet>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<SDGNode, BitSet> eldest) {
+				return size() > ProbInfComputer.this.cacheSize;
+			}
+		};
 	}
 
 	public Collection<? extends SDGNode> getProbabilisticInfluencers(final SDGNode n) {
-		if (!cache.containsKey(n)) {
-			cache.put(n, computeProbabilisticInfluencers(n));
+		if (!icfg.containsVertex(n)) {
+			return Collections.emptyList();
 		}
-		return cache.get(n);
+		BitSet ret = cache.get(n);
+		if (ret == null) {
+			ret = computeBatch(n);
+		}
+		return new NodeView(sdg, ret);
 	}
 
-	private Collection<? extends SDGNode> computeProbabilisticInfluencers(final SDGNode n) {
-		if (!icfg.containsVertex(n)) {
-			return Collections.emptyList();
-		} else {
-			final Set<SDGNode> ret = new HashSet<SDGNode>();
-			final SimpleTCFGChopper tcfgChopper = new SimpleTCFGChopper(icfg);
-			for (final int threadN : n.getThreadNumbers()) {
-				ThreadRegion trN = mhp.getThreadRegion(n, threadN);
-				for (ThreadRegion trM : mhp.getThreadRegions()) {
-					if (mhp.isParallel(trN, trM)) {
-						for (SDGNode m : trM.getNodes()) {
-							final Collection<? extends SDGNode> cfgChop = tcfgChopper
-									.chop(cdomOracle.cdom(n, threadN, m, trM.getThread()).getNode(), n);
-							ret.addAll(cfgChop);
-						}
+	/* computes the influencers of n and of the other nodes in its thread regions, returns those of n */
+	private BitSet computeBatch(final SDGNode n) {
+		final Set<SDGNode> batch = new LinkedHashSet<SDGNode>();
+		batch.add(n);
+		for (final int threadN : n.getThreadNumbers()) {
+			for (final SDGNode m : mhp.getThreadRegion(n, threadN).getNodes()) {
+				if (batch.size() >= cacheSize) {
+					break;
+				}
+				if (icfg.containsVertex(m) && !cache.containsKey(m)) {
+					batch.add(m);
+				}
+			}
+		}
+
+		// the oracle need not be thread-safe, so the sources of the chops are determined up front
+		final List<SDGNode> nodes = new ArrayList<SDGNode>(batch);
+		final List<BitSet> sources = new ArrayList<BitSet>(nodes.size());
+		for (final SDGNode m : nodes) {
+			sources.add(cdoms(m));
+		}
+
+		final List<BitSet> results = chopAll(nodes, sources);
+		for (int i = 0; i < nodes.size(); i++) {
+			cache.put(nodes.get(i), results.get(i));
+		}
+
+		return results.get(0);
+	}
+
+	/* the common dominators of n and all nodes which may happen in parallel to n */
+	private BitSet cdoms(final SDGNode n) {
+		final BitSet ret = new BitSet();
+		for (final int threadN : n.getThreadNumbers()) {
+			final ThreadRegion trN = mhp.getThreadRegion(n, threadN);
+			for (final ThreadRegion trM : parallelRegions(trN)) {
+				if (trM.getNodes().isEmpty()) {
+					continue;
+				}
+				if (cdomOracle.isThreadModular()) {
+					final Long key = ((long) threadN << 32) | (trM.getThread() & 0xffffffffL);
+					SDGNode c = threadCDoms.get(key);
+					if (c == null) {
+						c = cdomOracle.cdom(n, threadN, trM.getNodes().iterator().next(), trM.getThread()).getNode();
+						threadCDoms.put(key, c);
+					}
+					ret.set(c.getId());
+				} else {
+					for (final SDGNode m : trM.getNodes()) {
+						ret.set(cdomOracle.cdom(n, threadN, m, trM.getThread()).getNode().getId());
 					}
 				}
 			}
+		}
+		return ret;
+	}
+
+	private List<ThreadRegion> parallelRegions(final ThreadRegion trN) {
+		List<ThreadRegion> ret = parallelRegions.get(trN);
+		if (ret == null) {
+			ret = new ArrayList<ThreadRegion>();
+			for (final ThreadRegion trM : mhp.getThreadRegions()) {
+				if (mhp.isParallel(trN, trM)) {
+					ret.add(trM);
+				}
+			}
+			parallelRegions.put(trN, ret);
+		}
+		return ret;
+	}
+
+	private List<BitSet> chopAll(final List<SDGNode> nodes, final List<BitSet> sources) {
+		final List<BitSet> ret = new ArrayList<BitSet>(nodes.size());
+		if (executor == null || nodes.size() <= 1) {
+			for (int i = 0; i < nodes.size(); i++) {
+				ret.add(chop(sources.get(i), nodes.get(i)));
+			}
+			return ret;
+		}
+
+		final List<Future<BitSet>> futures = new LinkedList<Future<BitSet>>();
+		try {
+			for (int i = 0; i < nodes.size(); i++) {
+				final BitSet source = sources.get(i);
+				final SDGNode sink = nodes.get(i);
+				futures.add(executor.submit(new Callable<BitSet>() {
+					@Override
+					public BitSet call() {
+						return chop(source, sink);
+					}
+				}));
+			}
+
+			for (final Future<BitSet> future : futures) {
+				ret.add(ParallelUtil.waitFor(future));
+			}
+		} finally {
+			if (ret.size() < futures.size()) {
+				// a chop failed, the pool is kept for the next batch, so drop the remaining ones
+				for (final Future<BitSet> future : futures) {
+					future.cancel(true);
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	/*
+	 * The union of the cfg chops from each source to the sink, see SimpleTCFGChopper. The slicers only keep their
+	 * state on the stack, so they can be shared by the threads.
+	 */
+	private BitSet chop(final BitSet source, final SDGNode sink) {
+		final BitSet ret = new BitSet();
+		if (source.isEmpty()) {
 			return ret;
 		}
+		final Collection<SDGNode> bwSlice = backw.slice(sink);
+		final List<SDGNode> start = new ArrayList<SDGNode>();
+		for (int id = source.nextSetBit(0); id >= 0; id = source.nextSetBit(id + 1)) {
+			final SDGNode c = sdg.getNode(id);
+			if (bwSlice.contains(c)) {
+				start.add(c);
+			}
+		}
+		for (final SDGNode m : forw.subgraphSlice(start, bwSlice)) {
+			ret.set(m.getId());
+		}
+		return ret;
+	}
+
+	/** A read-only view of a bit set of node ids as a collection of nodes. */
+	private static final class NodeView extends AbstractCollection<SDGNode> {
+		private final SDG sdg;
+		private final BitSet bits;
+
+		NodeView(final SDG sdg, final BitSet bits) {
+			this.sdg = sdg;
+			this.bits = bits;
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return (o instanceof SDGNode) && ((SDGNode) o).getId() >= 0 && bits.get(((SDGNode) o).getId());
+		}
+
+		@Override
+		public Iterator<SDGNode> iterator() {
+			return new Iterator<SDGNode>() {
+				private int next = bits.nextSetBit(0);
+
+				@Override
+				public boolean hasNext() {
+					return next >= 0;
+				}
+
+				@Override
+				public SDGNode next() {
+					if (next < 0) {
+						throw new NoSuchElementException();
+					}
+					final SDGNode n = sdg.getNode(next);
+					next = bits.nextSetBit(next + 1);
+					return n;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return bits.cardinality();
+		}
 	}
 }
@@ -73,6 +73,14 @@ public class ThreadModularCDomOracle implements ICDomOracle {
 		return cdom;
 	}
 
+	/**
+	 * The common dominator computed by this oracle only depends on the two threads.
+	 */
+	@Override
+	public boolean isThreadModular() {
+		return true;
+	}
+
 	private SDGNode findIndirectForkSite(final ThreadInstance anc, final int forkedThread) {
 		final ThreadInstance descendant = sdg.getThreadsInfo().getThread(forkedThread);
 		// find the child of anc which is an ancestor of descendant
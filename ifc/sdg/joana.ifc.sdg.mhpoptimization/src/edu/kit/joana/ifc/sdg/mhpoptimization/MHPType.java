@@ -8,5 +8,7 @@
 package edu.kit.joana.ifc.sdg.mhpoptimization;
 
 public enum MHPType {
-	NONE, SIMPLE, PRECISE;
+	NONE, SIMPLE, PRECISE,
+	/** Same results as PRECISE, but precomputed into arrays for fast queries. */
+	COMPACT;
 }
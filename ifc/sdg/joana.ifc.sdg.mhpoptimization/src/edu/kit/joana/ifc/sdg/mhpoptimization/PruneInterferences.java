@@ -13,6 +13,7 @@ import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.slicer.conc.CFGForward;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.ICFGBuilder;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.CompactMHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.MHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.PreciseMHPAnalysis;
 import edu.kit.joana.ifc.sdg.graph.slicer.graph.threads.SimpleMHPAnalysis;
@@ -37,7 +38,8 @@ public final class PruneInterferences {
 	 * and uses this MHPAnalysis for the actual pruning. The given SDG is expected to be {@link CSDGPreprocessor#preprocessSDG(SDG)
 	 *  preprocessed} since the used MHP algorithms require {@link ThreadsInformation information about the threads} to be available.<br>
 	 * The parameter 'mhpType' determines the algorithm, with which the MHP information is obtained. If 'mhpType' is
-	 * SIMPLE, then {@link SimpleMHPAnalysis} is used, if it is PRECISE, then {@link PreciseMHPAnalysis} is used. If it
+	 * SIMPLE, then {@link SimpleMHPAnalysis} is used, if it is PRECISE, then {@link PreciseMHPAnalysis} is used, if it
+	 * is COMPACT, then {@link CompactMHPAnalysis} is used. If it
 	 * is NONE, then this method returns immediately without analyzing or pruning anything.<br>
 	 * @param g SDG to prune interference edges from - must have been {@link CSDGPreprocessor#preprocessSDG(SDG) preprocessed}
 	 * @param mhpType determines which MHP algorithm is used (see method comment)
@@ -53,6 +55,9 @@ public final class PruneInterferences {
 		case PRECISE:
 			mhpAnalysis = PreciseMHPAnalysis.analyze(g);
 			break;
+		case COMPACT:
+			mhpAnalysis = CompactMHPAnalysis.analyze(g);
+			break;
 		default:
 			throw new IllegalStateException("unhandled case: " + mhpType);
 		}
@@ -52,6 +52,7 @@ import edu.kit.joana.ifc.sdg.core.violations.IViolation;
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
 import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+import edu.kit.joana.ifc.sdg.graph.slicer.SliceCache;
 import edu.kit.joana.ifc.sdg.io.graphml.SDG2GraphML;
 import edu.kit.joana.ifc.sdg.lattice.IEditableLattice;
 import edu.kit.joana.ifc.sdg.lattice.IStaticLattice;
@@ -67,6 +68,7 @@ import edu.kit.joana.ui.ifc.wala.console.io.IFCConsoleOutput.Answer;
 import edu.kit.joana.ui.ifc.wala.console.io.InvalidAnnotationFormatException;
 import edu.kit.joana.ui.ifc.wala.console.io.MethodNotFoundException;
 import edu.kit.joana.ui.ifc.wala.console.io.NumberedIFCAnnotationDumper;
+import edu.kit.joana.util.PhaseMetrics;
 import edu.kit.joana.util.Stubs;
 import edu.kit.joana.util.io.IOFactory;
 import edu.kit.joana.wala.core.NullProgressMonitor;
@@ -109,6 +111,9 @@ public class IFCConsole {
 							"Store current SDG in file specified by <filename>."),
 		EXPORT_SDG("exportSDG", 				1, 		"<filename>",
 				"Export current SDG in GraphML format to file specified by <filename>."),
+		SET_RECORD_METRICS("setRecordMetrics", 1, "true|false", "Sets whether the time, memory and graph size of each phase of the sdg construction shall be recorded, see saveMetrics."),
+		SAVE_METRICS(	"saveMetrics", 			1, 		"<filename>",
+							"Store the time, memory and graph size of each phase of the last sdg construction in JSON format in file specified by <filename>. The metrics are only recorded after setRecordMetrics true."),
 		SINK(			"sink", 				2, 		"<index> <level>",
 							"Annotate specified node with required security level <level>. <index> refers to the indices shown in the currently active method."),
 		CLEAR(			"clear", 				1, 		"<index>",
@@ -320,6 +325,8 @@ public class IFCConsole {
 	private String outputDirectory = "./";
 	private String latticeFile;
 	private Stubs stubsPath = Stubs.JRE_14;
+	private boolean recordMetrics = false;
+	private PhaseMetrics lastMetrics = null;
 
 	private List<String> script = new LinkedList<String>();
 
@@ -513,6 +520,35 @@ public class IFCConsole {
 		};
 	}
 
+	private Command makeCommandSetRecordMetrics() {
+		return new Command(CMD.SET_RECORD_METRICS) {
+
+			@Override
+			boolean execute(String[] args) {
+				if (!("true".equals(args[1]) || "false".equals(args[1]))) {
+					out.logln("invalid setting: " + args[1]);
+					return false;
+				} else {
+					setRecordMetrics("true".equals(args[1]));
+					out.logln("recordMetrics = " + args[1]);
+					return true;
+				}
+			}
+
+		};
+	}
+
+	private Command makeCommandSaveMetrics() {
+		return new Command(CMD.SAVE_METRICS) {
+
+			@Override
+			boolean execute(String[] args) {
+				return saveMetrics(args[1]);
+			}
+
+		};
+	}
+
 	private Command makeCommandExportSDG() {
 		return new Command(CMD.EXPORT_SDG) {
 
@@ -895,6 +931,8 @@ public class IFCConsole {
 		repo.addCommand(makeCommandLoadSDG());
 		repo.addCommand(makeCommandSaveSDG());
 		repo.addCommand(makeCommandExportSDG());
+		repo.addCommand(makeCommandSetRecordMetrics());
+		repo.addCommand(makeCommandSaveMetrics());
 
 		// ifc commands
 
@@ -1123,6 +1161,10 @@ public class IFCConsole {
 		this.computeInterference = cmpInt;
 	}
 
+	public void setRecordMetrics(boolean record) {
+		this.recordMetrics = record;
+	}
+
 	public Stubs getStubsPath() {
 		return stubsPath;
 	}
@@ -1196,6 +1238,8 @@ public class IFCConsole {
 	private void setSDGProgram(SDGProgram newSDGProgram) {
 		if (ifcAnalysis == null) {
 			ifcAnalysis = new IFCAnalysis(newSDGProgram, this.secLattice);
+			// annotations change between the runs, the slices do not
+			ifcAnalysis.setSliceCache(new SliceCache());
 		} else {
 			ifcAnalysis.setProgram(newSDGProgram);
 			ifcAnalysis.setLattice(this.secLattice);
@@ -1211,6 +1255,7 @@ public class IFCConsole {
 		out.logln("entry = " + (loc.getActiveEntry() == null ? "<none>" : loc.getActiveEntry()));
 		out.logln("output directory = " + outputDirectory);
 		out.logln("points-to = " + pointsTo.desc);
+		out.logln("record metrics = " + recordMetrics);
 		out.logln("lattice = " + latticeFile);
 		// out.logln("sdg = " + sdgFile);
 
@@ -1546,7 +1591,14 @@ public class IFCConsole {
 				config.setExceptionAnalysis(exA);
 				config.setPointsToPrecision(pointsTo);
 				config.setFieldPropagation(FieldPropagation.OBJ_GRAPH_SIMPLE_PROPAGATION);
+				final PhaseMetrics metrics = (recordMetrics ? new PhaseMetrics("buildSDG") : null);
+				config.setMetrics(metrics);
+				lastMetrics = null;
 				program = SDGProgram.createSDGProgram(config, out.getPrintStream(), monitor);
+				if (metrics != null) {
+					metrics.endAll();
+					lastMetrics = metrics;
+				}
 			} catch (ClassHierarchyException e) {
 				out.error(e.getMessage());
 				return false;
@@ -1584,6 +1636,21 @@ public class IFCConsole {
 		return true;
 	}
 	
+	public synchronized boolean saveMetrics(String path) {
+		if (lastMetrics == null) {
+			out.info("No metrics have been recorded. Use setRecordMetrics true before buildSDG.");
+		} else {
+			try {
+				lastMetrics.writeJSON(path);
+			} catch (IOException e) {
+				out.error("I/O problem while writing metrics into file " + path + "!");
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	public synchronized boolean exportGraphML(String path) {
 		if (ifcAnalysis == null || ifcAnalysis.getProgram() == null) {
 			out.info("No active program.");
@@ -1784,6 +1851,10 @@ public class IFCConsole {
 		return computeInterference;
 	}
 
+	public boolean getRecordMetrics() {
+		return recordMetrics;
+	}
+
 	public MHPType getMHPType() {
 		return mhpType;
 	}
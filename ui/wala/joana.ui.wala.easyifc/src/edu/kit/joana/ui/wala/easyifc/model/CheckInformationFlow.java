@@ -467,6 +467,9 @@ public final class CheckInformationFlow {
 			case PRECISE:
 				sb.append("precise analysis");
 				break;
+			case COMPACT:
+				sb.append("precise analysis (precomputed)");
+				break;
 			}
 		}
 		
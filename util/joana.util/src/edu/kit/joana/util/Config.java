@@ -30,6 +30,9 @@ public final class Config {
 	public static final String C_SIDEEFFECT_DETECTOR 					= "sideeffect.detector";
 	public static final String C_SIDEEFFECT_DETECTOR_VAR 				= "sideeffect.detector-var";
 	public static final String C_SDG_DATAFLOW_FOR_GET_FROM_FIELD		= "sdg.dataflow-for-get-from-field";
+	public static final String C_NTSCD_BITSETS							= "ntscd.bitsets";
+	public static final String C_NTSCD_THREADS							= "ntscd.threads";
+	public static final String C_KILLDEF_MAX_ACCESSES					= "killdef.max-accesses";
 	
 	private static final String PROP_FILE = "joana-options.properties";
 	
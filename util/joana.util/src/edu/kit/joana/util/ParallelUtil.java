@@ -0,0 +1,105 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools and waiting for the results of tasks, as used by the analyses that split their work among several
+ * threads.
+ * <p>
+ * The waitFor methods rethrow the exception of a failed task as it is, if it is unchecked or one of the given
+ * checked types, so the caller sees the same exceptions as with a sequential computation. Other checked exceptions
+ * are wrapped in an {@link IllegalStateException}. If the waiting thread is interrupted, the interrupt status is
+ * restored and a {@link CancellationException} is thrown.
+ */
+public final class ParallelUtil {
+
+	/** Idle threads of the pools created by {@link #newPool(int, String)} terminate after this many seconds. */
+	private static final long KEEP_ALIVE_SECONDS = 10;
+
+	private ParallelUtil() {}
+
+	/**
+	 * Creates a pool with the given number of daemon threads. Idle threads terminate after a few seconds, so a pool
+	 * that is kept by a long-living object for repeated computations does not have to be shut down. Pools that are
+	 * only used by a single computation should still be shut down when it is done.
+	 * @param threads the number of threads, at least 1
+	 * @param name prefix of the names of the threads
+	 */
+	public static ExecutorService newPool(final int threads, final String name) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("number of threads has to be at least 1: " + threads);
+		}
+
+		final AtomicInteger count = new AtomicInteger();
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		pool.allowCoreThreadTimeOut(true);
+
+		return pool;
+	}
+
+	/**
+	 * Waits for the result of a task that does not throw checked exceptions.
+	 */
+	public static <T> T waitFor(final Future<T> future) {
+		return waitFor(future, RuntimeException.class, RuntimeException.class);
+	}
+
+	/**
+	 * Waits for the result of a task that may throw a checked exception of the given type.
+	 */
+	public static <T, E extends Exception> T waitFor(final Future<T> future, final Class<E> checked) throws E {
+		return waitFor(future, checked, checked);
+	}
+
+	/**
+	 * Waits for the result of a task that may throw checked exceptions of the two given types.
+	 */
+	public static <T, E1 extends Exception, E2 extends Exception> T waitFor(final Future<T> future,
+			final Class<E1> checked1, final Class<E2> checked2) throws E1, E2 {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			final CancellationException exc = new CancellationException("interrupted while waiting for a task");
+			exc.initCause(e);
+			throw exc;
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (checked1.isInstance(cause)) {
+				throw checked1.cast(cause);
+			} else if (checked2.isInstance(cause)) {
+				throw checked2.cast(cause);
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new IllegalStateException(cause);
+		}
+	}
+}
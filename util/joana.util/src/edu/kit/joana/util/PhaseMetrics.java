@@ -0,0 +1,298 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records wall time, cpu time, allocated bytes and arbitrary counters of nested phases, e.g. of the sdg
+ * construction. Phases are started and ended in a stack-like manner by the thread that runs the computation:
+ * <pre>
+ * metrics.begin("heap");
+ * ...
+ * metrics.count("edges", n);
+ * metrics.end();
+ * </pre>
+ * Cpu time and allocated bytes are those of the calling thread, so work delegated to other threads is only
+ * contained in the wall time. They are -1 if the jvm does not support measuring them.
+ * <p>
+ * The recorded phases can be exported as JSON with {@link #toJSON()}.
+ */
+public final class PhaseMetrics {
+
+	/**
+	 * A finished or running phase.
+	 */
+	public static final class Phase {
+		private final String name;
+		private final List<Phase> children = new ArrayList<Phase>();
+		private final Map<String, Long> counters = new LinkedHashMap<String, Long>();
+		private final long startWall;
+		private final long startCpu;
+		private final long startAlloc;
+		private long wallNanos = -1;
+		private long cpuNanos = -1;
+		private long allocatedBytes = -1;
+
+		private Phase(String name) {
+			this.name = name;
+			this.startCpu = cpuTime();
+			this.startAlloc = allocatedBytes();
+			this.startWall = System.nanoTime();
+		}
+
+		private void finish() {
+			wallNanos = System.nanoTime() - startWall;
+			final long cpu = cpuTime();
+			cpuNanos = (cpu < 0 || startCpu < 0 ? -1 : cpu - startCpu);
+			final long alloc = allocatedBytes();
+			allocatedBytes = (alloc < 0 || startAlloc < 0 ? -1 : alloc - startAlloc);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<Phase> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		public Map<String, Long> getCounters() {
+			return Collections.unmodifiableMap(counters);
+		}
+
+		/**
+		 * @return the wall time in nanoseconds, -1 while the phase is running.
+		 */
+		public long getWallNanos() {
+			return wallNanos;
+		}
+
+		public long getCpuNanos() {
+			return cpuNanos;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * @return the first child phase with the given name, or null.
+		 */
+		public Phase getChild(String name) {
+			for (Phase p : children) {
+				if (p.name.equals(name)) {
+					return p;
+				}
+			}
+
+			return null;
+		}
+
+		private void toJSON(StringBuilder sb, String indent) {
+			sb.append(indent).append("{\n");
+			final String in = indent + "  ";
+			sb.append(in).append("\"name\": ").append(quote(name)).append(",\n");
+			sb.append(in).append("\"wallNanos\": ").append(wallNanos).append(",\n");
+			sb.append(in).append("\"cpuNanos\": ").append(cpuNanos).append(",\n");
+			sb.append(in).append("\"allocatedBytes\": ").append(allocatedBytes).append(",\n");
+			sb.append(in).append("\"counters\": {");
+			boolean first = true;
+			for (Map.Entry<String, Long> c : counters.entrySet()) {
+				sb.append(first ? "" : ",").append(' ').append(quote(c.getKey())).append(": ").append(c.getValue());
+				first = false;
+			}
+			sb.append(first ? "" : " ").append("},\n");
+			sb.append(in).append("\"phases\": [");
+			for (int i = 0; i < children.size(); i++) {
+				sb.append(i == 0 ? "\n" : ",\n");
+				children.get(i).toJSON(sb, in + "  ");
+			}
+			sb.append(children.isEmpty() ? "" : "\n" + in).append("]\n");
+			sb.append(indent).append("}");
+		}
+
+		public String toString() {
+			return name + ": " + (wallNanos / 1000000) + "ms " + counters;
+		}
+	}
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private final Phase root;
+	private final LinkedList<Phase> running = new LinkedList<Phase>();
+
+	public PhaseMetrics() {
+		this("total");
+	}
+
+	/**
+	 * @param name  the name of the root phase, which starts now and ends with the last call to {@link #end()}.
+	 */
+	public PhaseMetrics(String name) {
+		this.root = new Phase(name);
+		running.push(root);
+	}
+
+	private static long cpuTime() {
+		try {
+			return (THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1);
+		} catch (UnsupportedOperationException e) {
+			return -1;
+		}
+	}
+
+	private static long allocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			try {
+				return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+			} catch (UnsupportedOperationException e) {
+				return -1;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Starts a sub-phase of the current phase.
+	 */
+	public synchronized void begin(String name) {
+		final Phase current = running.peek();
+		if (current == null) {
+			throw new IllegalStateException("all phases have ended, can not begin " + name);
+		}
+
+		final Phase p = new Phase(name);
+		current.children.add(p);
+		running.push(p);
+	}
+
+	/**
+	 * Ends the current phase.
+	 */
+	public synchronized void end() {
+		if (running.isEmpty()) {
+			throw new IllegalStateException("no running phase");
+		}
+
+		running.pop().finish();
+	}
+
+	/**
+	 * Ends the current phase, which has to have the given name. Use it to detect unbalanced calls.
+	 */
+	public synchronized void end(String name) {
+		final Phase current = running.peek();
+		if (current == null || !current.name.equals(name)) {
+			throw new IllegalStateException("current phase is " + (current == null ? "none" : current.name)
+					+ ", not " + name);
+		}
+
+		end();
+	}
+
+	/**
+	 * Sets a counter of the current phase, e.g. the number of nodes after it.
+	 */
+	public synchronized void count(String counter, long value) {
+		final Phase current = (running.isEmpty() ? root : running.peek());
+		current.counters.put(counter, value);
+	}
+
+	/**
+	 * Adds to a counter of the current phase.
+	 */
+	public synchronized void add(String counter, long value) {
+		final Phase current = (running.isEmpty() ? root : running.peek());
+		final Long old = current.counters.get(counter);
+		current.counters.put(counter, (old == null ? value : old + value));
+	}
+
+	/**
+	 * Ends all running phases, including the root phase.
+	 */
+	public synchronized void endAll() {
+		while (!running.isEmpty()) {
+			end();
+		}
+	}
+
+	public synchronized Phase getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the recorded phases as JSON. Running phases have a wall time of -1.
+	 */
+	public synchronized String toJSON() {
+		final StringBuilder sb = new StringBuilder();
+		root.toJSON(sb, "");
+		sb.append('\n');
+
+		return sb.toString();
+	}
+
+	public void writeJSON(Writer out) throws IOException {
+		out.write(toJSON());
+		out.flush();
+	}
+
+	public void writeJSON(String file) throws IOException {
+		final Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writeJSON(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static String quote(String str) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < str.length(); i++) {
+			final char c = str.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+
+		return sb.append('"').toString();
+	}
+
+	public synchronized String toString() {
+		return toJSON();
+	}
+}
@@ -24,6 +24,12 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	
 	private final DirectedPseudograph<V,E> delegate;
 
+	/* counts the changes of the nodes and edges, see getModificationCount() */
+	private int modCount = 0;
+
+	/* changes are not counted while this is unset, see setCountModifications(boolean) */
+	private boolean countModifications = true;
+
 	/**
 	 * @param defaultEdgeFactory edge factory to use for e.g. adding new edges
 	 * @see org.jgrapht.graph.DirectedPseudograph
@@ -39,6 +45,38 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 		this.delegate = new DirectedPseudograph<V,E>(edgeClass);
 	}
 
+	/**
+	 * Returns the number of changes of the nodes and edges of this graph so far. Users that keep results computed
+	 * on this graph can compare it with the count at the time of the computation, to detect that the graph has been
+	 * modified in the meantime.
+	 */
+	public int getModificationCount() {
+		return modCount;
+	}
+
+	/**
+	 * Turns the counting of changes for {@link #getModificationCount()} on or off. Subclasses that materialize
+	 * parts of the graph lazily turn it off while doing so, as these nodes and edges have been part of the graph
+	 * all along for its users.
+	 */
+	protected final void setCountModifications(boolean count) {
+		countModifications = count;
+	}
+
+	private boolean modified(boolean changed) {
+		if (changed && countModifications) {
+			modCount++;
+		}
+		return changed;
+	}
+
+	private E modified(E edge) {
+		if (edge != null && countModifications) {
+			modCount++;
+		}
+		return edge;
+	}
+
 	/**
 	 * @param arg0
 	 * @param arg1
@@ -47,7 +85,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractBaseGraph#addEdge(java.lang.Object, java.lang.Object, java.lang.Object)
 	 */
 	public boolean addEdge(V arg0, V arg1, E arg2) {
-		return delegate.addEdge(arg0, arg1, arg2);
+		return modified(delegate.addEdge(arg0, arg1, arg2));
 	}
 
 	/**
@@ -57,7 +95,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractBaseGraph#addEdge(java.lang.Object, java.lang.Object)
 	 */
 	public E addEdge(V arg0, V arg1) {
-		return delegate.addEdge(arg0, arg1);
+		return modified(delegate.addEdge(arg0, arg1));
 	}
 
 	/**
@@ -66,7 +104,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractBaseGraph#addVertex(java.lang.Object)
 	 */
 	public boolean addVertex(V arg0) {
-		return delegate.addVertex(arg0);
+		return modified(delegate.addVertex(arg0));
 	}
 
 	/**
@@ -264,7 +302,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractGraph#removeAllEdges(java.util.Collection)
 	 */
 	public boolean removeAllEdges(Collection<? extends E> arg0) {
-		return delegate.removeAllEdges(arg0);
+		return modified(delegate.removeAllEdges(arg0));
 	}
 
 	/**
@@ -274,7 +312,11 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractGraph#removeAllEdges(java.lang.Object, java.lang.Object)
 	 */
 	public Set<E> removeAllEdges(V arg0, V arg1) {
-		return delegate.removeAllEdges(arg0, arg1);
+		final Set<E> removed = delegate.removeAllEdges(arg0, arg1);
+		if (removed != null && !removed.isEmpty() && countModifications) {
+			modCount++;
+		}
+		return removed;
 	}
 
 	/**
@@ -283,7 +325,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractGraph#removeAllVertices(java.util.Collection)
 	 */
 	public boolean removeAllVertices(Collection<? extends V> arg0) {
-		return delegate.removeAllVertices(arg0);
+		return modified(delegate.removeAllVertices(arg0));
 	}
 
 	/**
@@ -292,7 +334,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractBaseGraph#removeEdge(java.lang.Object)
 	 */
 	public boolean removeEdge(E arg0) {
-		return delegate.removeEdge(arg0);
+		return modified(delegate.removeEdge(arg0));
 	}
 
 	/**
@@ -302,7 +344,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractBaseGraph#removeEdge(java.lang.Object, java.lang.Object)
 	 */
 	public E removeEdge(V arg0, V arg1) {
-		return delegate.removeEdge(arg0, arg1);
+		return modified(delegate.removeEdge(arg0, arg1));
 	}
 
 	/**
@@ -311,7 +353,7 @@ public class AbstractJoanaGraph<V, E> implements DirectedGraph<V,E> {
 	 * @see org.jgrapht.graph.AbstractBaseGraph#removeVertex(java.lang.Object)
 	 */
 	public boolean removeVertex(V arg0) {
-		return delegate.removeVertex(arg0);
+		return modified(delegate.removeVertex(arg0));
 	}
 
 	/**
@@ -174,7 +174,7 @@ public final class CallGraph extends AbstractJoanaGraph<CallGraph.Node, CallGrap
 
 			final Node curNode = findOrCreate(current);
 
-			if (filter.ignoreCallsFrom(current.getMethod())) {
+			if (filter.ignoreCallsFrom(current)) {
 				continue;
 			}
 
@@ -272,12 +272,13 @@ public final class CallGraph extends AbstractJoanaGraph<CallGraph.Node, CallGrap
 		boolean ignoreCallsTo(IMethod method);
 
 		/**
-		 * Returns true iff a call from this method can be ignored.
+		 * Returns true iff a call from this call graph node can be ignored.
 		 * This happens for immutable classes we create stubs for (String)
-		 * @param method The method in quesion.
-		 * @return true if the method can be ignored.
+		 * and for library methods with stored summary information.
+		 * @param node The call graph node in quesion.
+		 * @return true if the calls from the node can be ignored.
 		 */
-		boolean ignoreCallsFrom(IMethod method);
+		boolean ignoreCallsFrom(CGNode node);
 
 		/**
 		 * Returns true if the artificial calls to static initializers
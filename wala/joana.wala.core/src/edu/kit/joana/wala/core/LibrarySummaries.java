@@ -0,0 +1,482 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.JarFileModule;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.intset.OrdinalSet;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.wala.summary.LibrarySummaryStore;
+import edu.kit.joana.wala.summary.LibrarySummaryStore.Context;
+import edu.kit.joana.wala.summary.LibrarySummaryStore.MethodSummary;
+
+/**
+ * Connects the sdg computation to a {@link LibrarySummaryStore}.
+ * <p>
+ * Calls from a call graph node of a library method are not followed when the call graph is converted, if the store
+ * holds summary information for the alias context of the node. So the pdgs of its callees are not built. Its own
+ * pdg is built and its formal-outs are connected to the formal-ins they depend on, as stored. If its formal
+ * parameters differ from the stored ones, the node is a {@link #hasMisses() miss}: the sdg has to be built again
+ * with the callees of the missed nodes, and the summary is marked so that later analyses build them right away.
+ * Nothing that is reachable from a missed node is pruned in the new build, as the stored information of its
+ * callees has not been checked. So a single new build suffices.
+ * <p>
+ * After the summary edges are computed, the summary information of all library methods that only call library
+ * code is added to the store. Library methods are all methods that are not loaded by the application class loader.
+ * A library method is identified by its signature and a digest of the modules of its class loader and of the
+ * points-to precision, field propagation and exception analysis options, so changing the libraries or these options
+ * invalidates the stored information. We assume that library code never calls back into application
+ * code except through the call graph edges seen when the summary was recorded.
+ */
+public final class LibrarySummaries {
+
+	private static final String NO_ALIAS = "-";
+	private static final String THREAD_START = "java.lang.Thread.start()V";
+
+	private final SDGBuilder builder;
+	private final LibrarySummaryStore store;
+	private final Map<ClassLoaderReference, String> digests = new HashMap<ClassLoaderReference, String>();
+	/* call graph node -> alias context of its summary if its callees are pruned, null otherwise */
+	private final Map<CGNode, String> pruned = new HashMap<CGNode, String>();
+	/* the pruned nodes whose formal parameters do not fit the stored ones */
+	private final Set<CGNode> misses = new HashSet<CGNode>();
+	/* the nodes whose callees must not be pruned, because they are reachable from the misses of a previous build */
+	private final Set<CGNode> rejected;
+
+	/**
+	 * A library method whose summary information may be recorded once the summary edges are known.
+	 */
+	public static final class Candidate {
+		private final int entryId;
+		private final String signature;
+		private final String digest;
+		private final String aliasContext;
+
+		private Candidate(int entryId, String signature, String digest, String aliasContext) {
+			this.entryId = entryId;
+			this.signature = signature;
+			this.digest = digest;
+			this.aliasContext = aliasContext;
+		}
+
+		public String toString() {
+			return signature + "@" + aliasContext;
+		}
+	}
+
+	LibrarySummaries(SDGBuilder builder, LibrarySummaryStore store) {
+		this(builder, store, Collections.<CGNode>emptySet());
+	}
+
+	private LibrarySummaries(SDGBuilder builder, LibrarySummaryStore store, Set<CGNode> rejected) {
+		this.builder = builder;
+		this.store = store;
+		this.rejected = rejected;
+	}
+
+	/**
+	 * @return the library summaries of a new build of the sdg, which builds the callees of the misses of this and of
+	 * all previous builds. The callees of the missed nodes were not part of this build, so whether their own stored
+	 * information fits is unknown. Pruning them could lead to another miss and yet another build, so no node that
+	 * is reachable from a missed node is pruned.
+	 */
+	synchronized LibrarySummaries rebuild(SDGBuilder next) {
+		final com.ibm.wala.ipa.callgraph.CallGraph cg = builder.getNonPrunedWalaCallGraph();
+		final Set<CGNode> all = new HashSet<CGNode>(rejected);
+		final LinkedList<CGNode> work = new LinkedList<CGNode>(misses);
+
+		while (!work.isEmpty()) {
+			final CGNode node = work.removeFirst();
+
+			if (all.add(node)) {
+				for (final Iterator<CGNode> it = cg.getSuccNodes(node); it.hasNext();) {
+					work.add(it.next());
+				}
+			}
+		}
+
+		return new LibrarySummaries(next, store, all);
+	}
+
+	public LibrarySummaryStore getStore() {
+		return store;
+	}
+
+	private static boolean isApplication(IMethod m) {
+		return m.getDeclaringClass().getClassLoader().getReference().equals(ClassLoaderReference.Application);
+	}
+
+	private boolean isLibrary(IMethod m) {
+		return !isApplication(m) && !m.isSynthetic()
+				&& !builder.isImmutableStub(m.getDeclaringClass().getReference());
+	}
+
+	/**
+	 * Checks if the callees of the given call graph node are pruned, because the store contains prunable summary
+	 * information for its library method in its alias context. Call this once the points-to analysis is done. The
+	 * result is remembered, so the call graph and the pdgs see the same answer.
+	 */
+	public synchronized boolean isPruned(CGNode node) {
+		if (!pruned.containsKey(node)) {
+			final IMethod m = node.getMethod();
+			String aliasContext = null;
+
+			if (isLibrary(m) && !rejected.contains(node)) {
+				aliasContext = aliasContext(node);
+				final Context ctx = getContext(m, aliasContext);
+
+				if (ctx == null || !ctx.isPrunable()) {
+					aliasContext = null;
+				}
+			}
+
+			pruned.put(node, aliasContext);
+		}
+
+		return pruned.get(node) != null;
+	}
+
+	private Context getContext(IMethod m, String aliasContext) {
+		final MethodSummary sum;
+
+		try {
+			sum = store.get(m.getSignature(), digest(m));
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read library summary of " + m.getSignature(), e);
+		}
+
+		return (sum == null ? null : sum.getContext(aliasContext));
+	}
+
+	/**
+	 * Replaces the data dependencies between the formal parameters of the pdg of a pruned node by the stored ones.
+	 * If the formal parameters of the pdg differ from the stored ones, the node is a miss and the summary is marked
+	 * as not prunable in the store.
+	 *
+	 * @return false on a miss, the pdg is not changed then.
+	 */
+	public boolean apply(PDG pdg) {
+		final IMethod m = pdg.getMethod();
+		final String aliasContext;
+
+		synchronized (this) {
+			aliasContext = pruned.get(pdg.cgNode);
+		}
+
+		final Context ctx = getContext(m, aliasContext);
+		final Map<String, PDGNode> ins = new HashMap<String, PDGNode>();
+		final Map<String, PDGNode> outs = new HashMap<String, PDGNode>();
+		if (!formalKeys(pdg, ins, outs) || !ins.keySet().equals(ctx.getFormalIns())
+				|| !outs.keySet().equals(ctx.getFormalOuts())) {
+			synchronized (this) {
+				misses.add(pdg.cgNode);
+			}
+
+			try {
+				store.markNotPrunable(m.getSignature(), digest(m), aliasContext);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not write library summary of " + m.getSignature(), e);
+			}
+
+			return false;
+		}
+
+		final List<PDGEdge> toRemove = new LinkedList<PDGEdge>();
+		for (final PDGNode in : ins.values()) {
+			for (final PDGEdge e : pdg.outgoingEdgesOf(in)) {
+				if (isData(e)) {
+					toRemove.add(e);
+				}
+			}
+		}
+
+		for (final PDGNode out : outs.values()) {
+			for (final PDGEdge e : pdg.incomingEdgesOf(out)) {
+				if (isData(e)) {
+					toRemove.add(e);
+				}
+			}
+		}
+
+		pdg.removeAllEdges(toRemove);
+
+		for (final Map.Entry<String, PDGNode> out : outs.entrySet()) {
+			for (final String in : ctx.getDependencies(out.getKey())) {
+				pdg.addEdge(ins.get(in), out.getValue(), PDGEdge.Kind.DATA_DEP);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return true if the formal parameters of a pruned node did not fit the stored ones, so the sdg misses the
+	 * effects of its callees and has to be built again, see {@link #rebuild(SDGBuilder)}.
+	 */
+	public synchronized boolean hasMisses() {
+		return !misses.isEmpty();
+	}
+
+	private static boolean isData(PDGEdge e) {
+		return e.kind == PDGEdge.Kind.DATA_DEP || e.kind == PDGEdge.Kind.DATA_HEAP
+				|| e.kind == PDGEdge.Kind.DATA_ALIAS;
+	}
+
+	/**
+	 * Names the formal parameters like {@link LibrarySummaryStore#summarize(SDG, SDGNode)}.
+	 *
+	 * @return false if two formal parameters get the same name.
+	 */
+	private static boolean formalKeys(PDG pdg, Map<String, PDGNode> ins, Map<String, PDGNode> outs) {
+		final Map<PDGNode, String> paths = new HashMap<PDGNode, String>();
+		final LinkedList<PDGNode> work = new LinkedList<PDGNode>();
+		paths.put(pdg.entry, "");
+		work.add(pdg.entry);
+
+		while (!work.isEmpty()) {
+			final PDGNode n = work.removeFirst();
+			final String path = paths.get(n);
+
+			for (final PDGEdge e : pdg.outgoingEdgesOf(n)) {
+				if (e.kind != PDGEdge.Kind.PARAM_STRUCT) {
+					continue;
+				}
+
+				final String childPath = LibrarySummaryStore.formalKey(path, e.to.getBytecodeName(),
+						e.to.getBytecodeIndex());
+				final String old = paths.get(e.to);
+
+				if (old == null || childPath.compareTo(old) < 0) {
+					paths.put(e.to, childPath);
+					work.add(e.to);
+				}
+			}
+		}
+
+		for (final Map.Entry<PDGNode, String> e : paths.entrySet()) {
+			final PDGNode n = e.getKey();
+
+			switch (n.getKind()) {
+			case FORMAL_IN:
+				if (ins.put(LibrarySummaryStore.formalInKey(e.getValue()), n) != null) {
+					return false;
+				}
+				break;
+			case FORMAL_OUT:
+			case EXIT:
+				if (outs.put(LibrarySummaryStore.formalOutKey(e.getValue()), n) != null) {
+					return false;
+				}
+				break;
+			default: // nothing to do here
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * The alias context of a call graph node lists the pairs of reference parameters whose points-to sets intersect.
+	 */
+	private String aliasContext(CGNode node) {
+		final IMethod m = node.getMethod();
+		final PointerAnalysis<InstanceKey> pts = builder.getPointerAnalysis();
+		final List<Integer> refParams = new LinkedList<Integer>();
+		final List<OrdinalSet<InstanceKey>> refPts = new LinkedList<OrdinalSet<InstanceKey>>();
+
+		for (int i = 0; i < m.getNumberOfParameters(); i++) {
+			if (m.getParameterType(i).isReferenceType()) {
+				final PointerKey pk = pts.getHeapModel().getPointerKeyForLocal(node, i + 1);
+				refParams.add(i);
+				refPts.add(pts.getPointsToSet(pk));
+			}
+		}
+
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < refParams.size(); i++) {
+			for (int j = i + 1; j < refParams.size(); j++) {
+				if (intersects(refPts.get(i), refPts.get(j))) {
+					sb.append(sb.length() == 0 ? "" : ",").append(refParams.get(i)).append("~").append(refParams.get(j));
+				}
+			}
+		}
+
+		return (sb.length() == 0 ? NO_ALIAS : sb.toString());
+	}
+
+	private static boolean intersects(OrdinalSet<InstanceKey> a, OrdinalSet<InstanceKey> b) {
+		for (final InstanceKey ik : a) {
+			if (b.contains(ik)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Collects the library pdgs whose summary information is recorded after the summary edges have been computed.
+	 * These are the library methods whose callees are not pruned and that can not reach application code, a
+	 * synthetic method or a thread start through calls. Call this before the builder is discarded.
+	 */
+	public List<Candidate> candidates() {
+		final Map<PDG, Set<PDG>> callers = new HashMap<PDG, Set<PDG>>();
+		final LinkedList<PDG> bad = new LinkedList<PDG>();
+		final Set<PDG> reachesBad = new HashSet<PDG>();
+
+		for (final PDG pdg : builder.getAllPDGs()) {
+			final IMethod m = pdg.getMethod();
+			if (isApplication(m) || m.isSynthetic() || THREAD_START.equals(m.getSignature())) {
+				bad.add(pdg);
+				reachesBad.add(pdg);
+			}
+
+			for (final PDGNode call : pdg.getCalls()) {
+				for (final PDG tgt : builder.getPossibleTargets(call)) {
+					Set<PDG> cls = callers.get(tgt);
+					if (cls == null) {
+						cls = new HashSet<PDG>();
+						callers.put(tgt, cls);
+					}
+
+					cls.add(pdg);
+				}
+			}
+		}
+
+		while (!bad.isEmpty()) {
+			final PDG pdg = bad.removeFirst();
+			final Set<PDG> cls = callers.get(pdg);
+
+			if (cls != null) {
+				for (final PDG caller : cls) {
+					if (reachesBad.add(caller)) {
+						bad.add(caller);
+					}
+				}
+			}
+		}
+
+		final List<Candidate> result = new LinkedList<Candidate>();
+		for (final PDG pdg : builder.getAllPDGs()) {
+			final IMethod m = pdg.getMethod();
+			if (!reachesBad.contains(pdg) && isLibrary(m) && !isPruned(pdg.cgNode)) {
+				result.add(new Candidate(pdg.entry.getId(), m.getSignature(), digest(m), aliasContext(pdg.cgNode)));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds the summary information of the candidates to the store. The sdg has to contain the summary edges.
+	 *
+	 * @return the number of recorded methods.
+	 */
+	public static int record(LibrarySummaryStore store, SDG sdg, List<Candidate> candidates) {
+		int recorded = 0;
+
+		for (final Candidate c : candidates) {
+			final SDGNode entry = sdg.getNode(c.entryId);
+			final Context ctx = (entry == null ? null : LibrarySummaryStore.summarize(sdg, entry));
+
+			if (ctx != null) {
+				try {
+					store.put(c.signature, c.digest, c.aliasContext, ctx);
+				} catch (IOException e) {
+					throw new IllegalStateException("Could not write library summary of " + c.signature, e);
+				}
+
+				recorded++;
+			}
+		}
+
+		return recorded;
+	}
+
+	/**
+	 * The digest of a method is the hash of the content of all jar files of its class loader, followed by the
+	 * analysis options that change the summary information.
+	 */
+	private String digest(IMethod m) {
+		final SDGBuilder.SDGBuilderConfig cfg = builder.cfg;
+
+		return loaderDigest(m) + "/" + cfg.pts + "/" + cfg.fieldPropagation + "/" + cfg.exceptions;
+	}
+
+	private synchronized String loaderDigest(IMethod m) {
+		final ClassLoaderReference loader = m.getDeclaringClass().getClassLoader().getReference();
+		String digest = digests.get(loader);
+
+		if (digest == null) {
+			try {
+				final MessageDigest sha = MessageDigest.getInstance("SHA-1");
+				sha.update(loader.getName().toString().getBytes("UTF-8"));
+
+				for (final Module mod : builder.cfg.scope.getModules(loader)) {
+					if (mod instanceof JarFileModule) {
+						update(sha, new File(((JarFileModule) mod).getJarFile().getName()));
+					} else {
+						sha.update(mod.toString().getBytes("UTF-8"));
+					}
+				}
+
+				final StringBuilder sb = new StringBuilder();
+				for (final byte b : sha.digest()) {
+					sb.append(String.format("%02x", b & 0xff));
+				}
+
+				digest = sb.toString();
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not compute digest of class loader " + loader, e);
+			}
+
+			digests.put(loader, digest);
+		}
+
+		return digest;
+	}
+
+	private static void update(MessageDigest sha, File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+
+		try {
+			final byte[] buf = new byte[64 * 1024];
+			for (int read = in.read(buf); read >= 0; read = in.read(buf)) {
+				sha.update(buf, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
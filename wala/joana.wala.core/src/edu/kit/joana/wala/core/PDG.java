@@ -8,6 +8,7 @@
 package edu.kit.joana.wala.core;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -78,9 +79,24 @@ public final class PDG extends DependenceGraph implements INodeWithNumber {
 	public static PDG build(SDGBuilder builder, String name, CGNode node, int id,
 			ExternalCallCheck ext, PrintStream out, IProgressMonitor progress)
 	throws UnsoundGraphException, CancelException {
-		PDG pdg = new PDG(builder, name, node, id);
+		PDG pdg = new PDG(builder, name, node, id, false);
 
-		pdg.run(node.getIR(), ext, out, progress);
+		pdg.run(builder.getIR(node), ext, out, progress);
+
+		return pdg;
+	}
+
+	/**
+	 * Builds the intraprocedural pdg of a method without drawing node ids from the builder. The nodes get provisional
+	 * negative ids instead, so multiple pdgs can be built concurrently. The final node ids and the check for
+	 * calls to external modules are done by {@link #assignDeferredNodeIds(ExternalCallCheck, PrintStream)}, which has
+	 * to be called in the same order in which the pdgs would have been built sequentially.
+	 */
+	public static PDG buildWithDeferredNodeIds(SDGBuilder builder, String name, CGNode node, int id,
+			IProgressMonitor progress) throws UnsoundGraphException, CancelException {
+		PDG pdg = new PDG(builder, name, node, id, true);
+
+		pdg.run(builder.getIR(node), null, null, progress);
 
 		return pdg;
 	}
@@ -88,7 +104,7 @@ public final class PDG extends DependenceGraph implements INodeWithNumber {
 	public static PDG buildDummy(SDGBuilder builder, String name, CGNode node, int id,
 			ExternalCallCheck ext, PrintStream out, IProgressMonitor progress)
 	throws UnsoundGraphException, CancelException {
-		PDG pdg = new PDG(builder, name, node, id);
+		PDG pdg = new PDG(builder, name, node, id, false);
 
 		// calling run with an empty IR triggers dummy creation.
 		pdg.run(null, ext, out, progress);
@@ -147,8 +163,16 @@ public final class PDG extends DependenceGraph implements INodeWithNumber {
 	private final boolean ignoreStaticFields;
 	private final boolean keepPhiNodes;
 	private final boolean noBasePointerDependency;
-
-	private PDG(final SDGBuilder builder, final String name, final CGNode node, final int pdgId) {
+	/** nodes with provisional ids in order of creation. null if node ids are taken directly from the builder. */
+	private List<PDGNode> deferredNodes;
+	/** the node ids shared by the nodes in deferredNodes */
+	private final PDGNode.DeferredIds deferredIds;
+	private boolean externalCallCheckDeferred = false;
+
+	private PDG(final SDGBuilder builder, final String name, final CGNode node, final int pdgId,
+			final boolean deferNodeIds) {
+		this.deferredNodes = (deferNodeIds ? new ArrayList<PDGNode>() : null);
+		this.deferredIds = (deferNodeIds ? new PDGNode.DeferredIds() : null);
 		this.id = pdgId;
 		this.nodeID = pdgId;
 		this.cgNode = node;
@@ -186,13 +210,48 @@ public final class PDG extends DependenceGraph implements INodeWithNumber {
 			if (dumpSSA.isEnabled()) {
 				dumpSSA.outln(PrettyWalaNames.ir2string(ir));
 			}
-			addNodesForInstructions(ir);
-			addSourcecodeInfoToNodes(ir);
+			// node creation resolves fields and types and reads bytecode information through the class hierarchy
+			synchronized (builder.getWalaLock()) {
+				addNodesForInstructions(ir);
+				addSourcecodeInfoToNodes(ir);
+			}
 			addControlFlow(progress, ir);
 			addControlDependence();
 			addDataFlowSSA(ir);
 			removeNopAndPhiNodes();
 			addRootParameterStructure();
+			if (deferredNodes == null) {
+				checkForExternalCalls(ext, out);
+			} else {
+				externalCallCheckDeferred = true;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the provisional node ids of a pdg created with
+	 * {@link #buildWithDeferredNodeIds(SDGBuilder, String, CGNode, int, IProgressMonitor)} with ids from the builder.
+	 * Ids are assigned in order of node creation, so the result matches a sequential build of the same pdg.
+	 */
+	public void assignDeferredNodeIds(final ExternalCallCheck ext, final PrintStream out) {
+		if (deferredNodes == null) {
+			throw new IllegalStateException("Node ids of " + this + " have already been assigned.");
+		}
+
+		final int first = builder.reserveNodeIds(deferredNodes.size());
+		deferredIds.assign(first);
+		for (int i = 0; i < deferredNodes.size(); i++) {
+			final PDGNode node = deferredNodes.get(i);
+			// the number of the node in this graph is its id, unless it has been renumbered in the meantime
+			if (node.getGraphNodeId() == -(i + 1)) {
+				node.setGraphNodeId(first + i);
+			}
+		}
+
+		deferredNodes = null;
+
+		if (externalCallCheckDeferred) {
+			externalCallCheckDeferred = false;
 			checkForExternalCalls(ext, out);
 		}
 	}
@@ -499,8 +558,10 @@ public final class PDG extends DependenceGraph implements INodeWithNumber {
 							// determine call targets and their respective receiver types
 							// only add control dependency if there are at least two receiever types
 							Set<TypeReference> recvs = new HashSet<TypeReference>();
-							for (CGNode tgt : builder.getWalaCallGraph().getPossibleTargets(this.cgNode, invk.getCallSite())) {
-								recvs.add(tgt.getMethod().getDeclaringClass().getReference());
+							synchronized (builder.getWalaLock()) {
+								for (CGNode tgt : builder.getWalaCallGraph().getPossibleTargets(this.cgNode, invk.getCallSite())) {
+									recvs.add(tgt.getMethod().getDeclaringClass().getReference());
+								}
 							}
 							if (recvs.size() > 1) {
 								addEdge(in[0], call, PDGEdge.Kind.CONTROL_DEP /* this may be a virtual control dependency */);
@@ -1364,8 +1425,13 @@ public final class PDG extends DependenceGraph implements INodeWithNumber {
 	}
 	
 	public PDGNode createNode(final String label, final PDGNode.Kind kind, final TypeReference type) {
-		final int nodeId = builder.getNextNodeId();
-		final PDGNode node = new PDGNode(nodeId, id, label, kind, type);
+		final PDGNode node;
+		if (deferredNodes == null) {
+			node = new PDGNode(builder.getNextNodeId(), id, label, kind, type);
+		} else {
+			node = new PDGNode(deferredIds, deferredNodes.size(), id, label, kind, type);
+			deferredNodes.add(node);
+		}
 		addVertex(node);
 
 		return node;
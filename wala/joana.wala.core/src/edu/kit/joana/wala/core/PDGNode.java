@@ -141,8 +141,16 @@ public final class PDGNode implements INodeWithNumber {
         }
 	}
 
-    /* The ID of the node. Should be unique in the graph. Negative IDs are permitted.*/
-    private final Integer id;
+    /* The ID of the node. Should be unique in the graph. Negative IDs are permitted.
+     * For a node of a PDG that is built with deferred node ids this is the index of the node in the ids of the PDG. */
+    private final int id;
+
+    /* The ids of the PDG built with deferred node ids this node belongs to, or null if id is the id of the node. */
+    private final DeferredIds deferredIds;
+
+    /* The hash code of the node. It only depends on final fields, so it does not change when deferred ids are
+     * assigned. */
+    private final int hashCode;
 
 	/* The ID of the procedure to which the node belongs.*/
     private final int proc;
@@ -194,7 +202,31 @@ public final class PDGNode implements INodeWithNumber {
     }
 
     public int getId() {
-		return id;
+		return (deferredIds == null ? id : deferredIds.id(id));
+	}
+
+	/**
+	 * The node ids of a PDG that is built concurrently with other PDGs. The ids are assigned as a consecutive block
+	 * once the PDG is built, in the order in which the PDGs would have been built sequentially. Until then the node
+	 * with index i has the provisional id -(i + 1).
+	 * @see PDG#assignDeferredNodeIds(ExternalCallCheck, java.io.PrintStream)
+	 */
+	static final class DeferredIds {
+
+		/* the id of the first node, 0 while the ids are not assigned. Node ids drawn from the builder are positive. */
+		private int first = 0;
+
+		void assign(final int first) {
+			if (this.first != 0) {
+				throw new IllegalStateException("node ids have already been assigned.");
+			}
+
+			this.first = first;
+		}
+
+		int id(final int index) {
+			return (first == 0 ? -(index + 1) : first + index);
+		}
 	}
 
 	public int getPdgId() {
@@ -266,8 +298,22 @@ public final class PDGNode implements INodeWithNumber {
 	}
 
 	public PDGNode(int id, int pdgId, String label, Kind kind, TypeReference type) {
+		this(id, null, pdgId, label, kind, type);
+    }
+
+	/**
+	 * Creates the node with the given index in the deferred ids of a PDG.
+	 */
+	PDGNode(DeferredIds deferredIds, int index, int pdgId, String label, Kind kind, TypeReference type) {
+		this(index, deferredIds, pdgId, label, kind, type);
+	}
+
+	private PDGNode(int id, DeferredIds deferredIds, int pdgId, String label, Kind kind, TypeReference type) {
     	this.id = id;
-    	this.nodeID = id;
+    	this.deferredIds = deferredIds;
+    	this.hashCode = (deferredIds == null ? System.identityHashCode(Integer.valueOf(id))
+    			: 31 * System.identityHashCode(deferredIds) + id);
+    	this.nodeID = getId();
     	this.proc = pdgId;
     	this.label = label;
     	this.kind = kind;
@@ -286,13 +332,14 @@ public final class PDGNode implements INodeWithNumber {
      * @return A representation of this node. Currently just the ID.
      */
     public String toString() {
-        return String.valueOf(id) + "|" + kind.value + "|" + label + (debug == null ? "" : " " + debug);
+        return String.valueOf(getId()) + "|" + kind.value + "|" + label + (debug == null ? "" : " " + debug);
     }
 
     /**
      * There are two cases in which two nodes can be equal.
      * 1. They point to the same object. This holds if the nodes stem from the same graph. This case is checked first.
-     * 2. They have the same id.
+     * 2. They have the same id. Nodes of a PDG built with deferred node ids are only equal to the nodes of the same
+     * PDG, so equality does not change when the ids are assigned.
      */
     public boolean equals(Object obj) {
     	if (obj == this) {
@@ -301,14 +348,14 @@ public final class PDGNode implements INodeWithNumber {
 
     	if (obj instanceof PDGNode) {
     		PDGNode other = (PDGNode) obj;
-    		return id.intValue() == other.id.intValue();
+    		return deferredIds == other.deferredIds && id == other.id;
     	}
 
     	return false;
     }
 
     public int hashCode() {
-    	return System.identityHashCode(id);
+    	return hashCode;
     }
 
     /**
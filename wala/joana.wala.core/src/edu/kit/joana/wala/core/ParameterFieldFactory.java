@@ -8,6 +8,8 @@
 package edu.kit.joana.wala.core;
 
 import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import com.ibm.wala.classLoader.IClass;
@@ -25,6 +27,11 @@ import com.ibm.wala.util.strings.Atom;
  * Factory for object fields. As Wala treat array fields different from normal
  * object fields, we use this class to combine them.
  *
+ * The factory may be used concurrently by multiple threads. As the ordinals of the fields
+ * depend on the order in which they are requested first, concurrent users should record their
+ * requests with {@link #startRecording()} and restore the sequential order afterwards with
+ * {@link #reorder(int, Iterable)}.
+ *
  * @author Juergen Graf <graf@kit.edu>
  *
  */
@@ -33,9 +40,11 @@ public final class ParameterFieldFactory {
 	private final Map<IField, ObjectField> ifield2field;
 	private final Map<TypeReference, ArrayField> type2field;
 
-	private final MutableMapping<ParameterField> fieldMapping;
+	private MutableMapping<ParameterField> fieldMapping;
+
+	/** fields requested by the current thread, if recording is enabled */
+	private final ThreadLocal<List<ParameterField>> recorded = new ThreadLocal<List<ParameterField>>();
 
-	
 	public ParameterFieldFactory() {
 		ifield2field = HashMapFactory.make();
 		type2field = HashMapFactory.make();
@@ -51,7 +60,7 @@ public final class ParameterFieldFactory {
 	 * @param field IField
 	 * @return ParamterField
 	 */
-	public ParameterField getObjectField(IField field) {
+	public synchronized ParameterField getObjectField(IField field) {
 		if (field == null) {
 			throw new IllegalArgumentException("Field should not be null.");
 		}
@@ -63,6 +72,8 @@ public final class ParameterFieldFactory {
 			fieldMapping.add(ofield);
 		}
 
+		record(ofield);
+
 		return ofield;
 	}
 
@@ -74,7 +85,7 @@ public final class ParameterFieldFactory {
 	 * @param elemType type of the referenced objects in the array
 	 * @return ParameterField
 	 */
-	public ParameterField getArrayField(final TypeReference elemType) {
+	public synchronized ParameterField getArrayField(final TypeReference elemType) {
 		if (elemType == null) {
 			throw new IllegalArgumentException("Element type should not be null.");
 		}
@@ -86,12 +97,75 @@ public final class ParameterFieldFactory {
 			fieldMapping.add(aField);
 		}
 
+		record(aField);
+
 		return aField;
 	}
 
-	public OrdinalSetMapping<ParameterField> getMapping() {
+	public synchronized OrdinalSetMapping<ParameterField> getMapping() {
 		return fieldMapping;
 	}
+
+	private void record(final ParameterField field) {
+		final List<ParameterField> fields = recorded.get();
+		if (fields != null) {
+			fields.add(field);
+		}
+	}
+
+	/**
+	 * Starts recording all fields requested by the current thread.
+	 */
+	public void startRecording() {
+		recorded.set(new LinkedList<ParameterField>());
+	}
+
+	/**
+	 * Stops recording for the current thread.
+	 * @return The fields requested by the current thread since {@link #startRecording()} in order of request.
+	 */
+	public List<ParameterField> stopRecording() {
+		final List<ParameterField> fields = recorded.get();
+		recorded.remove();
+
+		if (fields == null) {
+			throw new IllegalStateException("Recording has not been started for this thread.");
+		}
+
+		return fields;
+	}
+
+	/**
+	 * Reassigns the ordinals of all fields. The first <tt>keep</tt> fields keep their ordinal, all other fields
+	 * are numbered in the order of their first occurrence in <tt>firstUse</tt>. Fields that do not occur in
+	 * <tt>firstUse</tt> are appended in their current order.
+	 * This method must not be called while other threads are requesting fields or use the ordinals of the fields.
+	 * @param keep Number of fields whose ordinals are not changed.
+	 * @param firstUse The fields in the order a sequential computation would have requested them.
+	 */
+	public synchronized void reorder(final int keep, final Iterable<ParameterField> firstUse) {
+		final MutableMapping<ParameterField> old = fieldMapping;
+		final MutableMapping<ParameterField> mapping = MutableMapping.make();
+
+		for (int i = 0; i < keep; i++) {
+			mapping.add(old.getMappedObject(i));
+		}
+
+		for (final ParameterField field : firstUse) {
+			if (!mapping.hasMappedIndex(field)) {
+				mapping.add(field);
+			}
+		}
+
+		for (int i = keep; i < old.getSize(); i++) {
+			final ParameterField field = old.getMappedObject(i);
+			if (!mapping.hasMappedIndex(field)) {
+				mapping.add(field);
+			}
+		}
+
+		fieldMapping = mapping;
+	}
 	
 	private static final Atom LOCK_NAME = Atom.findOrCreateAsciiAtom("<lock>");
 	private static final FieldReference FIELD_REF = FieldReference.findOrCreate(TypeReference.JavaLangObject, LOCK_NAME, TypeReference.Boolean);
@@ -10,12 +10,17 @@ package edu.kit.joana.wala.core;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jgrapht.DirectedGraph;
 
@@ -46,6 +51,7 @@ import com.ibm.wala.ipa.callgraph.pruned.PrunedCallGraph;
 import com.ibm.wala.ipa.callgraph.pruned.PruningPolicy;
 import com.ibm.wala.ipa.cfg.ExceptionPrunedCFG;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.IR;
 import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.ssa.SSAInvokeInstruction;
 import com.ibm.wala.ssa.analysis.ExplodedControlFlowGraph;
@@ -66,6 +72,8 @@ import edu.kit.joana.util.Config;
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.LogUtil;
 import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.ParallelUtil;
+import edu.kit.joana.util.PhaseMetrics;
 import edu.kit.joana.wala.core.CallGraph.CallGraphFilter;
 import edu.kit.joana.wala.core.CallGraph.Edge;
 import edu.kit.joana.wala.core.CallGraph.Node;
@@ -89,6 +97,7 @@ import edu.kit.joana.wala.core.params.objgraph.ModRefCandidates;
 import edu.kit.joana.wala.core.params.objgraph.ObjGraphParams;
 import edu.kit.joana.wala.core.params.objgraph.SideEffectDetectorConfig;
 import edu.kit.joana.wala.flowless.util.Util;
+import edu.kit.joana.wala.summary.LibrarySummaryStore;
 import edu.kit.joana.wala.summary.SummaryComputation;
 import edu.kit.joana.wala.summary.WorkPackage;
 import edu.kit.joana.wala.summary.WorkPackage.EntryPoint;
@@ -364,14 +373,14 @@ public class SDGBuilder implements CallGraphFilter {
 		SDGBuilder builder = new SDGBuilder(cfg);
 		builder.run(progress);
 
-		return builder;
+		return builder.rebuildLibrarySummaryMisses(progress);
 	}
 
 	public static SDGBuilder create(final SDGBuilderConfig cfg, final IProgressMonitor progress) throws UnsoundGraphException, CancelException {
 		SDGBuilder builder = new SDGBuilder(cfg);
 		builder.run(progress);
 
-		return builder;
+		return builder.rebuildLibrarySummaryMisses(progress);
 	}
 
 
@@ -382,31 +391,32 @@ public class SDGBuilder implements CallGraphFilter {
 		SDGBuilder builder = new SDGBuilder(cfg);
 		builder.run(walaCG, pts, progress);
 
-		return builder;
+		return builder.rebuildLibrarySummaryMisses(progress);
 	}
 
 	public static SDG build(final SDGBuilderConfig cfg, final com.ibm.wala.ipa.callgraph.CallGraph walaCG,
 			final PointerAnalysis<InstanceKey> pts) throws UnsoundGraphException, CancelException {
 		SDG sdg = null;
 		WorkPackage pack = null;
+		List<LibrarySummaries.Candidate> librarySummaryCandidates = null;
 		IProgressMonitor progress = NullProgressMonitor.INSTANCE;
 
 		/* additional scope so SDGBuilder object can be garbage collected */{
 			SDGBuilder builder = new SDGBuilder(cfg);
 			builder.run(walaCG, pts, progress);
+			builder = builder.rebuildLibrarySummaryMisses(progress);
 			sdg = convertToJoana(cfg.out, builder, progress);
 
 			if (cfg.computeSummary) {
-				pack = createSummaryWorkPackage(cfg.out, builder, sdg, progress);
+				pack = createSummaryWorkPackage(cfg.out, builder, sdg, cfg.packedSummaryPathEdges, progress);
+				librarySummaryCandidates = builder.findLibrarySummaryCandidates();
 			}
 		}
 
 		if (cfg.computeSummary) {
-			if (cfg.accessPath) {
-				computeDataAndAliasSummaryEdges(cfg.out, pack, sdg, progress);
-			} else {
-				computeSummaryEdges(cfg.out, pack, sdg, progress);
-			}
+			computeSummaryEdges(cfg, pack, sdg, progress);
+
+			recordLibrarySummaries(cfg, sdg, librarySummaryCandidates);
 		}
 
 		return sdg;
@@ -418,31 +428,32 @@ public class SDGBuilder implements CallGraphFilter {
 		SDGBuilder builder = new SDGBuilder(cfg);
 		builder.run(walaCG, pts, progress);
 
-		return builder;
+		return builder.rebuildLibrarySummaryMisses(progress);
 	}
 
 
 	public static SDG build(final SDGBuilderConfig cfg, IProgressMonitor progress) throws UnsoundGraphException, CancelException {
 		SDG sdg = null;
 		WorkPackage pack = null;
+		List<LibrarySummaries.Candidate> librarySummaryCandidates = null;
 
 		/* additional scope so SDGBuilder object can be garbage collected */{
 			SDGBuilder builder = new SDGBuilder(cfg);
 			builder.run(progress);
 			if (cfg.abortAfterCG) return null;
+			builder = builder.rebuildLibrarySummaryMisses(progress);
 			sdg = convertToJoana(cfg.out, builder, progress);
 
 			if (cfg.computeSummary) {
-				pack = createSummaryWorkPackage(cfg.out, builder, sdg, progress);
+				pack = createSummaryWorkPackage(cfg.out, builder, sdg, cfg.packedSummaryPathEdges, progress);
+				librarySummaryCandidates = builder.findLibrarySummaryCandidates();
 			}
 		}
 
 		if (cfg.computeSummary) {
-			if (cfg.accessPath) {
-				computeDataAndAliasSummaryEdges(cfg.out, pack, sdg, progress);
-			} else {
-				computeSummaryEdges(cfg.out, pack, sdg, progress);
-			}
+			computeSummaryEdges(cfg, pack, sdg, progress);
+
+			recordLibrarySummaries(cfg, sdg, librarySummaryCandidates);
 		}
 
 		return sdg;
@@ -455,18 +466,17 @@ public class SDGBuilder implements CallGraphFilter {
 
 		SDGBuilder builder = new SDGBuilder(cfg);
 		builder.run(progress);
+		builder = builder.rebuildLibrarySummaryMisses(progress);
 		sdg = convertToJoana(cfg.out, builder, progress);
 
 		if (cfg.computeSummary) {
-			pack = createSummaryWorkPackage(cfg.out, builder, sdg, progress);
+			pack = createSummaryWorkPackage(cfg.out, builder, sdg, cfg.packedSummaryPathEdges, progress);
 		}
 
 		if (cfg.computeSummary) {
-			if (cfg.accessPath) {
-				computeDataAndAliasSummaryEdges(cfg.out, pack, sdg, progress);
-			} else {
-				computeSummaryEdges(cfg.out, pack, sdg, progress);
-			}
+			computeSummaryEdges(cfg, pack, sdg, progress);
+
+			recordLibrarySummaries(cfg, sdg, builder.findLibrarySummaryCandidates());
 		}
 
 		return Pair.make(sdg, builder);
@@ -480,14 +490,130 @@ public class SDGBuilder implements CallGraphFilter {
 	public static SDG convertToJoana(PrintStream out, SDGBuilder builder, IProgressMonitor progress)
 			throws CancelException {
 		out.print("convert");
-		final SDG sdg = JoanaConverter.convert(builder, progress);
+		beginPhase(builder.cfg, "convert");
+		SDG sdg = null;
+		try {
+			sdg = JoanaConverter.convert(builder, progress);
+		} finally {
+			endPhase(builder.cfg, sdg);
+		}
 		out.print(".");
 
 		return sdg;
 	}
 
+	private static void computeSummaryEdges(SDGBuilderConfig cfg, WorkPackage pack, SDG sdg,
+			IProgressMonitor progress) throws CancelException {
+		beginPhase(cfg, "summary");
+		try {
+			if (cfg.accessPath) {
+				computeDataAndAliasSummaryEdges(cfg.out, pack, sdg, cfg.parallelism, progress);
+			} else {
+				computeSummaryEdges(cfg.out, pack, sdg, cfg.parallelism, progress);
+			}
+		} finally {
+			endPhase(cfg, sdg);
+		}
+	}
+
+	/**
+	 * Starts a phase of the sdg construction if {@link SDGBuilderConfig#metrics} are recorded.
+	 */
+	private static void beginPhase(SDGBuilderConfig cfg, String name) {
+		if (cfg.metrics != null) {
+			cfg.metrics.begin(name);
+		}
+	}
+
+	/**
+	 * Ends the current phase of the sdg construction and records the size of the sdg, if it is already built.
+	 */
+	private static void endPhase(SDGBuilderConfig cfg, SDG sdg) {
+		if (cfg.metrics != null) {
+			if (sdg != null) {
+				cfg.metrics.count("nodes", sdg.vertexSet().size());
+				cfg.metrics.count("edges", sdg.edgeSet().size());
+			}
+			cfg.metrics.end();
+		}
+	}
+
+	private void beginPhase(String name) {
+		beginPhase(cfg, name);
+	}
+
+	/**
+	 * Ends the current phase of the sdg construction and records the number and size of the pdgs built so far.
+	 */
+	private void endPhase() {
+		if (cfg.metrics != null) {
+			long nodes = 0;
+			long edges = 0;
+			for (PDG pdg : pdgs) {
+				nodes += pdg.vertexSet().size();
+				edges += pdg.edgeSet().size();
+			}
+			cfg.metrics.count("pdgs", pdgs.size());
+			cfg.metrics.count("nodes", nodes);
+			cfg.metrics.count("edges", edges);
+			cfg.metrics.end();
+		}
+	}
+
+	/**
+	 * Builds the sdg again, with the callees of the library methods whose stored summary information did not fit,
+	 * until all stored summaries used fit. The call graph and points-to analysis are reused. Nothing that is
+	 * reachable from a missed method is pruned in the new build (see {@link LibrarySummaries#rebuild(SDGBuilder)}),
+	 * and the pruned methods have already been checked in the previous build, so a single new build suffices.
+	 * The misses are marked in the store, so later analyses do not build the sdg twice for them.
+	 *
+	 * @return the builder of the last build.
+	 */
+	private SDGBuilder rebuildLibrarySummaryMisses(final IProgressMonitor progress) throws UnsoundGraphException,
+			CancelException {
+		SDGBuilder builder = this;
+
+		while (builder.librarySummaries != null && builder.librarySummaries.hasMisses()) {
+			debug.outln("library summaries did not fit, building the sdg again with their callees");
+			final SDGBuilder next = new SDGBuilder(cfg, builder.librarySummaries);
+			next.run(builder.nonPrunedCG, builder.pts, progress);
+			builder = next;
+		}
+
+		return builder;
+	}
+
+	/**
+	 * @return the library methods whose summary information is recorded once the summary edges are computed, or
+	 * null if no library summary store is used.
+	 */
+	private List<LibrarySummaries.Candidate> findLibrarySummaryCandidates() {
+		return (librarySummaries != null ? librarySummaries.candidates() : null);
+	}
+
+	private static void recordLibrarySummaries(SDGBuilderConfig cfg, SDG sdg,
+			List<LibrarySummaries.Candidate> candidates) {
+		if (candidates != null) {
+			cfg.out.print("libsum");
+			beginPhase(cfg, "libsum");
+			final int recorded;
+			try {
+				recorded = LibrarySummaries.record(cfg.librarySummaries, sdg, candidates);
+				if (cfg.metrics != null) {
+					cfg.metrics.count("recorded", recorded);
+					cfg.metrics.count("candidates", candidates.size());
+				}
+			} finally {
+				endPhase(cfg, null);
+			}
+			debug.outln("recorded " + recorded + " of " + candidates.size() + " library summaries in "
+					+ cfg.librarySummaries.getDirectory());
+			cfg.out.print(".");
+		}
+	}
+
 	private static WorkPackage createSummaryWorkPackage(PrintStream out, SDGBuilder builder, SDG sdg,
-			IProgressMonitor progress) {
+			boolean packedPathEdges, IProgressMonitor progress) {
 		out.print("summary");
 		Set<EntryPoint> entries = new TreeSet<EntryPoint>();
 		PDG pdg = builder.getMainPDG();
@@ -501,30 +627,37 @@ public class SDGBuilder implements CallGraphFilter {
 		EntryPoint ep = new EntryPoint(pdg.entry.getId(), formIns, formOuts);
 		entries.add(ep);
 		WorkPackage pack = WorkPackage.create(sdg, entries, sdg.getName());
+		pack.setPackedPathEdges(packedPathEdges);
 		out.print(".");
 
 		return pack;
 	}
 
-	private static void computeSummaryEdges(PrintStream out, WorkPackage pack, SDG sdg, IProgressMonitor progress)
-			throws CancelException {
-		SummaryComputation.compute(pack, progress);
+	private static void computeSummaryEdges(PrintStream out, WorkPackage pack, SDG sdg, int threads,
+			IProgressMonitor progress) throws CancelException {
+		SummaryComputation.compute(pack, threads, progress);
 		out.print(".");
 	}
 
-	private static void computeDataAndAliasSummaryEdges(PrintStream out, WorkPackage pack, SDG sdg,
+	private static void computeDataAndAliasSummaryEdges(PrintStream out, WorkPackage pack, SDG sdg, int threads,
 			IProgressMonitor progress) throws CancelException {
-		SummaryComputation.computeNoAliasDataDep(pack, progress);
+		SummaryComputation.computeNoAliasDataDep(pack, threads, progress);
 		out.print(".");
-		SummaryComputation.computeFullAliasDataDep(pack, progress);
+		SummaryComputation.computeFullAliasDataDep(pack, threads, progress);
 		out.print(".");
 	}
 
 	private APResult apResult = null;
 	private final ParameterFieldFactory params = new ParameterFieldFactory();
-	private int currentNodeId = 1;
+	private final AtomicInteger currentNodeId = new AtomicInteger(1);
 	private int pdgId = getMainId();
 	private final List<PDG> pdgs = new LinkedList<PDG>();
+	private final Map<CGNode, PDG> cgNode2pdg = new HashMap<CGNode, PDG>();
+	/**
+	 * guards the shared state of wala that is not thread-safe: the ir cache, the lazily initialized method, field
+	 * and bytecode information of the class hierarchy and the call graph. See {@link #getWalaLock()}.
+	 */
+	private final Object walaLock = new Object();
 	/**
 	 * currently unused - could later be used to append static initializer calls
 	 * to it
@@ -533,11 +666,22 @@ public class SDGBuilder implements CallGraphFilter {
 
 	private CallGraph cg = null;
 	private com.ibm.wala.ipa.callgraph.CallGraph nonPrunedCG = null;
+	private PointerAnalysis<InstanceKey> pts = null;
 	private Map<PDGNode, TIntSet> call2alloc = null;
 	private InterprocAnalysisResult<SSAInstruction, IExplodedBasicBlock> interprocExceptionResult = null;
+	private final LibrarySummaries librarySummaries;
 
 	private SDGBuilder(final SDGBuilderConfig cfg) {
 		this.cfg = cfg;
+		this.librarySummaries = (cfg.librarySummaries != null ? new LibrarySummaries(this, cfg.librarySummaries) : null);
+	}
+
+	/**
+	 * A builder for another build of the sdg, which does not prune the misses of the given library summaries.
+	 */
+	private SDGBuilder(final SDGBuilderConfig cfg, final LibrarySummaries previous) {
+		this.cfg = cfg;
+		this.librarySummaries = previous.rebuild(this);
 	}
 
 	private void run(final IProgressMonitor progress) throws UnsoundGraphException, CancelException {
@@ -547,7 +691,16 @@ public class SDGBuilder implements CallGraphFilter {
 		}
 		cfg.out.print("\n\tcallgraph: ");
 		progress.beginTask("building call graph...", IProgressMonitor.UNKNOWN);
-		final CGResult walaCG = buildCallgraph(progress);
+		beginPhase("callgraph");
+		final CGResult walaCG;
+		try {
+			walaCG = buildCallgraph(progress);
+			if (cfg.metrics != null) {
+				cfg.metrics.count("cgNodes", walaCG.cg.getNumberOfNodes());
+			}
+		} finally {
+			endPhase();
+		}
 		progress.done();
 		if (cfg.cgConsumer != null) {
 			cfg.cgConsumer.consume(walaCG.cg, walaCG.pts);
@@ -569,8 +722,18 @@ public class SDGBuilder implements CallGraphFilter {
 	private void run(final CGResult initalCG, final IProgressMonitor progress) throws UnsoundGraphException,
 			CancelException {
 		nonPrunedCG = initalCG.cg;
+		pts = initalCG.pts;
 		progress.beginTask("pruning call graph...", IProgressMonitor.UNKNOWN);
-		cg = convertAndPruneCallGraph(cfg.prunecg, initalCG, progress);
+		beginPhase("prune");
+		try {
+			cg = convertAndPruneCallGraph(cfg.prunecg, initalCG, progress);
+			if (cfg.metrics != null) {
+				cfg.metrics.count("cgNodes", cg.vertexSet().size());
+				cfg.metrics.count("cgEdges", cg.edgeSet().size());
+			}
+		} finally {
+			endPhase();
+		}
 		progress.done();
 		if (cfg.debugCallGraphDotOutput) {
 			debugDumpGraph(cg, "callgraph.dot");
@@ -581,6 +744,7 @@ public class SDGBuilder implements CallGraphFilter {
 		if (cfg.exceptions == ExceptionAnalysis.INTERPROC) {
 			cfg.out.print("\tinterproc exception analysis... ");
 			progress.beginTask("interproc exception analysis... ", IProgressMonitor.UNKNOWN);
+			beginPhase("exceptions");
 
 			try {
 				interprocExceptionResult = NullPointerAnalysis.computeInterprocAnalysis(
@@ -588,6 +752,8 @@ public class SDGBuilder implements CallGraphFilter {
 						progress, cfg.pruneDDEdgesToDanglingExceptionNodes);
 			} catch (WalaException e) {
 				throw new CancelException(e);
+			} finally {
+				endPhase();
 			}
 
 			progress.done();
@@ -595,70 +761,88 @@ public class SDGBuilder implements CallGraphFilter {
 		}
 
 		pdgId = getMainId();
-		{
-			// create main pdg
-			final CGNode cgm = cg.getRoot().node;
-			final PDG pdg = createAndAddPDG(cgm, progress);
-			MonitorUtil.throwExceptionIfCanceled(progress);
-
-			if (cfg.debugManyGraphsDotOutput) {
-				debugOutput(pdg);
+		beginPhase("intraproc");
+		try {
+			{
+				// create main pdg
+				final CGNode cgm = cg.getRoot().node;
+				final PDG pdg = createAndAddPDG(cgm, progress);
+				MonitorUtil.throwExceptionIfCanceled(progress);
+
+				if (cfg.debugManyGraphsDotOutput) {
+					debugOutput(pdg);
+				}
 			}
-		}
 
-		cfg.out.print("\tintraproc: ");
-		progress.beginTask("computing intraprocedural flow", cg.vertexSet().size());
-		int currentNum = 1;
+			cfg.out.print("\tintraproc: ");
+			progress.beginTask("computing intraprocedural flow", cg.vertexSet().size());
 
-		for (CallGraph.Node node : cg.vertexSet()) {
-			if (node.node == cg.getRoot().node) {
-				continue;
-			}
+			if (cfg.parallelism > 1) {
+				createAndAddPDGsParallel(progress);
+			} else {
+				int currentNum = 1;
 
-			final CGNode cgm = node.node;
-			final PDG pdg = createAndAddPDG(cgm, progress);
+				for (CallGraph.Node node : cg.vertexSet()) {
+					if (node.node == cg.getRoot().node) {
+						continue;
+					}
+
+					final CGNode cgm = node.node;
+					final PDG pdg = createAndAddPDG(cgm, progress);
 
-			progress.worked(currentNum++);
+					progress.worked(currentNum++);
 
-			MonitorUtil.throwExceptionIfCanceled(progress);
+					MonitorUtil.throwExceptionIfCanceled(progress);
 
-			if (cfg.debugManyGraphsDotOutput) {
-				debugOutput(pdg);
+					if (cfg.debugManyGraphsDotOutput) {
+						debugOutput(pdg);
+					}
+				}
 			}
+		} finally {
+			endPhase();
 		}
 		progress.done();
 
 		cfg.out.print("calls");
 		progress.beginTask("interproc: connect call sites", pdgs.size());
-		currentNum = 0;
-		// connect call sites
-		for (PDG pdg : pdgs) {
-			if (isImmutableStub(pdg.getMethod().getDeclaringClass().getReference())) {
-				continue;
-			}
+		beginPhase("calls");
+		try {
+			int currentNum = 0;
+			// connect call sites
+			for (PDG pdg : pdgs) {
+				if (isImmutableStub(pdg.getMethod().getDeclaringClass().getReference()) || isSummarised(pdg.cgNode)) {
+					continue;
+				}
 
-			for (PDGNode call : pdg.getCalls()) {
-				Set<PDG> tgts = findPossibleTargets(cg, pdg, call);
-				pdg.connectCall(call, tgts);
-				if (!tgts.isEmpty()) {
-					// we only need to record the signature of the call target
-					// if it is a native method, or if there is no PDG
-					// to jump to, respectively
-					call.setUnresolvedCallTarget(null);
+				for (PDGNode call : pdg.getCalls()) {
+					Set<PDG> tgts = findPossibleTargets(cg, pdg, call);
+					pdg.connectCall(call, tgts);
+					if (!tgts.isEmpty()) {
+						// we only need to record the signature of the call target
+						// if it is a native method, or if there is no PDG
+						// to jump to, respectively
+						call.setUnresolvedCallTarget(null);
+					}
 				}
-			}
 
-			progress.worked(currentNum++);
+				progress.worked(currentNum++);
+			}
+		} finally {
+			endPhase();
 		}
-
 		cfg.out.print(".");
 		progress.worked(1);
 
 
 		if (cfg.mergeFieldsOfPrunedCalls) {
 			cfg.out.print("mergeable");
-
-			partitions = SearchFieldsOfPrunedCalls.compute(this, progress);
+			beginPhase("mergeable");
+			try {
+				partitions = SearchFieldsOfPrunedCalls.compute(this, progress);
+			} finally {
+				endPhase();
+			}
 
 			cfg.out.print(".");
 			progress.worked(1);
@@ -672,16 +856,21 @@ public class SDGBuilder implements CallGraphFilter {
 		if (cfg.staticInitializers != StaticInitializationTreatment.NONE) {
 			progress.beginTask("interproc: handling static initializers (clinit)...", IProgressMonitor.UNKNOWN);
 			cfg.out.print("clinit");
-			switch (cfg.staticInitializers) {
-			case SIMPLE:
-				// nothing to do, this is handled though fakeWorldClinit of wala
-				// callgraph
-				break;
-			case ACCURATE:
-				StaticInitializers.compute(this, progress);
-				break;
-			default:
-				throw new IllegalStateException("Unknown option: " + cfg.staticInitializers);
+			beginPhase("clinit");
+			try {
+				switch (cfg.staticInitializers) {
+				case SIMPLE:
+					// nothing to do, this is handled though fakeWorldClinit of wala
+					// callgraph
+					break;
+				case ACCURATE:
+					StaticInitializers.compute(this, progress);
+					break;
+				default:
+					throw new IllegalStateException("Unknown option: " + cfg.staticInitializers);
+				}
+			} finally {
+				endPhase();
 			}
 			cfg.out.print(".");
 
@@ -690,26 +879,46 @@ public class SDGBuilder implements CallGraphFilter {
 		cfg.out.print("statics");
 		// propagate static root nodes and add dataflow
 		progress.beginTask("interproc: adding data flow for static fields...", IProgressMonitor.UNKNOWN);
-		addDataFlowForStaticFields(progress);
+		beginPhase("statics");
+		try {
+			addDataFlowForStaticFields(progress);
+		} finally {
+			endPhase();
+		}
 		progress.done();
 		cfg.out.print(".");
 
 		cfg.out.print("heap");
 		// compute dataflow through heap/fields (no-alias)
-		addDataFlowForHeapFields(progress);
+		beginPhase("heap");
+		try {
+			addDataFlowForHeapFields(progress);
+		} finally {
+			endPhase();
+		}
 		cfg.out.print(".");
 
 		cfg.out.print("misc");
 		// compute dummy connections for unresolved calls
 		progress.beginTask("interproc: adding dummy data flow to unresolved calls...", IProgressMonitor.UNKNOWN);
-		addDummyDataFlowToUnresolvedCalls();
+		beginPhase("misc");
+		try {
+			addDummyDataFlowToUnresolvedCalls();
+		} finally {
+			endPhase();
+		}
 		progress.done();
 		cfg.out.print(".");
 
 		if (cfg.localKillingDefs) {
 			cfg.out.print("killdef");
 			progress.beginTask("interproc: computing local killing defintions...", IProgressMonitor.UNKNOWN);
-			LocalKillingDefs.run(this, progress);
+			beginPhase("killdef");
+			try {
+				LocalKillingDefs.run(this, progress);
+			} finally {
+				endPhase();
+			}
 			progress.done();
 			cfg.out.print(".");
 		}
@@ -719,7 +928,12 @@ public class SDGBuilder implements CallGraphFilter {
 			cfg.out.print("accesspath");
 			progress.beginTask("interproc: computing access path information...", IProgressMonitor.UNKNOWN);
 			// compute access path info
-			this.apResult = AccessPath.compute(this, getMainPDG());
+			beginPhase("accesspath");
+			try {
+				this.apResult = AccessPath.compute(this, getMainPDG());
+			} finally {
+				endPhase();
+			}
 			progress.done();
 			cfg.out.print(".");
 		}
@@ -735,16 +949,31 @@ public class SDGBuilder implements CallGraphFilter {
 
 		if (cfg.computeInterference) {
 			cfg.out.print("interference");
-			ThreadInformationProvider tiProvider = new ThreadInformationProvider(this);
+			beginPhase("interference");
+			try {
+				ThreadInformationProvider tiProvider = new ThreadInformationProvider(this);
 
-			if (!cfg.computeAllocationSites) {
-				call2alloc = tiProvider.getAllocationSitesForThreadStartCalls();
-			}
+				if (!cfg.computeAllocationSites) {
+					call2alloc = tiProvider.getAllocationSitesForThreadStartCalls();
+				}
 
-			progress.beginTask("adding interference edges...", IProgressMonitor.UNKNOWN);
-			addInterferenceEdges(tiProvider, progress);
-			progress.subTask("introducing fork edges...");
-			introduceForkEdges(tiProvider);
+				progress.beginTask("adding interference edges...", IProgressMonitor.UNKNOWN);
+				beginPhase("edges");
+				try {
+					addInterferenceEdges(tiProvider, progress);
+				} finally {
+					endPhase();
+				}
+				progress.subTask("introducing fork edges...");
+				beginPhase("fork");
+				try {
+					introduceForkEdges(tiProvider);
+				} finally {
+					endPhase();
+				}
+			} finally {
+				endPhase();
+			}
 			cfg.out.print(".");
 		}
 
@@ -775,10 +1004,18 @@ public class SDGBuilder implements CallGraphFilter {
 	public ControlFlowGraph<SSAInstruction, IExplodedBasicBlock> createIntraExceptionAnalyzedCFG(final CGNode n,
 			final IProgressMonitor progress) throws UnsoundGraphException, CancelException {
 		final ExceptionPruningAnalysis<SSAInstruction, IExplodedBasicBlock> npa = NullPointerAnalysis
-				.createIntraproceduralExplodedCFGAnalysis(DEFAULT_IGNORE_EXCEPTIONS, n.getIR(),
+				.createIntraproceduralExplodedCFGAnalysis(DEFAULT_IGNORE_EXCEPTIONS, getIR(n),
 						null, cfg.defaultExceptionMethodState, cfg.pruneDDEdgesToDanglingExceptionNodes);
 
-		npa.compute(progress);
+		if (cfg.defaultExceptionMethodState == null) {
+			// without a method state the analysis only reads the ir
+			npa.compute(progress);
+		} else {
+			// a method state may resolve the targets of calls through the class hierarchy
+			synchronized (walaLock) {
+				npa.compute(progress);
+			}
+		}
 
 		return npa.getCFG();
 	}
@@ -789,7 +1026,7 @@ public class SDGBuilder implements CallGraphFilter {
 
 		switch (cfg.exceptions) {
 		case ALL_NO_ANALYSIS: {
-			ecfg = ExplodedControlFlowGraph.make(n.getIR());
+			ecfg = ExplodedControlFlowGraph.make(getIR(n));
 		}
 			break;
 		case INTRAPROC: {
@@ -797,13 +1034,18 @@ public class SDGBuilder implements CallGraphFilter {
 		}
 			break;
 		case INTERPROC: {
-			final ExceptionPruningAnalysis<SSAInstruction, IExplodedBasicBlock> npa =
-					(interprocExceptionResult != null ? interprocExceptionResult.getResult(n) : null);
+			// the method states of the interprocedural analysis ask the wala call graph for the targets of calls
+			final ExceptionPruningAnalysis<SSAInstruction, IExplodedBasicBlock> npa;
+			synchronized (walaLock) {
+				npa = (interprocExceptionResult != null ? interprocExceptionResult.getResult(n) : null);
+
+				if (npa != null) {
+					npa.compute(progress);
+					ecfg = npa.getCFG();
+				}
+			}
 
-			if (npa != null) {
-				npa.compute(progress);
-				ecfg = npa.getCFG();
-			} else {
+			if (npa == null) {
 				// No result for this method or called at the wrong time. We do not keep the interprocedural analysis
 				// result during the whole computation due to memory usage. -> fallback intraproc analysis
 
@@ -812,7 +1054,7 @@ public class SDGBuilder implements CallGraphFilter {
 		}
 			break;
 		case IGNORE_ALL: {
-			ecfg = ExceptionPrunedCFG.make(ExplodedControlFlowGraph.make(n.getIR()));
+			ecfg = ExceptionPrunedCFG.make(ExplodedControlFlowGraph.make(getIR(n)));
 		}
 			break;
 		}
@@ -844,11 +1086,11 @@ public class SDGBuilder implements CallGraphFilter {
 		case IGNORE_ALL:
 			return false;
 		case INTRAPROC:
-			if (n.getIR() == null) {
+			if (getIR(n) == null) {
 				return true;
 			}
 			ExceptionPruningAnalysis<SSAInstruction, IExplodedBasicBlock> npa = NullPointerAnalysis
-			.createIntraproceduralExplodedCFGAnalysis(DEFAULT_IGNORE_EXCEPTIONS, n.getIR(),
+			.createIntraproceduralExplodedCFGAnalysis(DEFAULT_IGNORE_EXCEPTIONS, getIR(n),
 					null, cfg.defaultExceptionMethodState);
 			try {
 				npa.compute(NullProgressMonitor.INSTANCE);
@@ -939,7 +1181,7 @@ public class SDGBuilder implements CallGraphFilter {
 			EscapeAnalysis escapeAnalysis = new MethodEscapeAnalysis(new TrivialMethodEscape(
 					getNonPrunedWalaCallGraph(), getPointerAnalysis().getHeapGraph()));
 			Set<InterferenceEdge> interferences = InterferenceComputation.computeInterference(this, tiProvider, true,
-					false, escapeAnalysis, progress);
+					false, escapeAnalysis, cfg.indexedInterference, cfg.parallelism, progress);
 			assert interferences != null;
 			for (InterferenceEdge iEdge : interferences) {
 				iEdge.addToPDG();
@@ -1376,26 +1618,12 @@ public class SDGBuilder implements CallGraphFilter {
 		// connect call sites
 		for (final PDG pdg : pdgs) {
 			if (isImmutableStub(pdg.getMethod().getDeclaringClass().getReference())) {
-				// direct data deps from all formal-in to formal-outs
-				final List<PDGNode> inParam = new LinkedList<PDGNode>();
-				final List<PDGNode> outParam = new LinkedList<PDGNode>();
-				for (final PDGEdge e : pdg.outgoingEdgesOf(pdg.entry)) {
-					if (e.kind == PDGEdge.Kind.CONTROL_DEP_EXPR) {
-						switch (e.to.getKind()) {
-						case FORMAL_IN:
-							inParam.add(e.to);
-							break;
-						case EXIT:
-							if (pdg.isVoid()) break;
-						case FORMAL_OUT:
-							outParam.add(e.to);
-							break;
-						default: // nothing to do here
-						}
-					}
+				connectFormalIn2OutDummys(pdg);
+			} else if (isSummarised(pdg.cgNode)) {
+				// use the stored dependencies. if they do not fit, the sdg is built again with the callees
+				if (!librarySummaries.apply(pdg)) {
+					connectFormalIn2OutDummys(pdg);
 				}
-
-				connectIn2OutDummys(pdg, pdg.entry, inParam, outParam);
 			} else {
 				for (final PDGNode call : pdg.getCalls()) {
 					final Set<PDG> tgts = findPossibleTargets(cg, pdg, call);
@@ -1424,6 +1652,31 @@ public class SDGBuilder implements CallGraphFilter {
 		}
 	}
 
+	/**
+	 * Adds direct data deps from all formal-ins to all formal-outs of the pdg.
+	 */
+	private static void connectFormalIn2OutDummys(final PDG pdg) {
+		final List<PDGNode> inParam = new LinkedList<PDGNode>();
+		final List<PDGNode> outParam = new LinkedList<PDGNode>();
+		for (final PDGEdge e : pdg.outgoingEdgesOf(pdg.entry)) {
+			if (e.kind == PDGEdge.Kind.CONTROL_DEP_EXPR) {
+				switch (e.to.getKind()) {
+				case FORMAL_IN:
+					inParam.add(e.to);
+					break;
+				case EXIT:
+					if (pdg.isVoid()) break;
+				case FORMAL_OUT:
+					outParam.add(e.to);
+					break;
+				default: // nothing to do here
+				}
+			}
+		}
+
+		connectIn2OutDummys(pdg, pdg.entry, inParam, outParam);
+	}
+
 	private static void connectIn2OutDummys(final PDG pdg, final PDGNode parent, final List<PDGNode> inParam,
 			final List<PDGNode> outParam) {
 		final PDGNode m2m = pdg.createDummyNode("many2many");
@@ -1524,19 +1777,39 @@ public class SDGBuilder implements CallGraphFilter {
 	}
 
 	public PDG getPDGforMethod(CGNode n) {
-		for (PDG pdg : pdgs) {
-			if (n.equals(pdg.cgNode)) {
-				return pdg;
-			}
-		}
-
-		return null;
+		return cgNode2pdg.get(n);
 	}
 
 	public int getNextNodeId() {
-		final int id = currentNodeId;
-		currentNodeId++;
-		return id;
+		return currentNodeId.getAndIncrement();
+	}
+
+	/**
+	 * Reserves a block of consecutive node ids, as if {@link #getNextNodeId()} was called count times.
+	 * @return the first id of the block
+	 */
+	int reserveNodeIds(final int count) {
+		return currentNodeId.getAndAdd(count);
+	}
+
+	/**
+	 * Returns the ir of a call graph node. The ir cache of wala is not thread-safe, so all ir requests during
+	 * sdg construction should be routed through this method.
+	 */
+	public IR getIR(final CGNode n) {
+		synchronized (walaLock) {
+			return n.getIR();
+		}
+	}
+
+	/**
+	 * Returns the lock that guards the shared state of wala while pdgs are built concurrently. Code that resolves
+	 * types, fields or methods through the class hierarchy, asks the wala call graph or computes type inference for
+	 * an ir has to hold it. The ir itself is only read and may be used without the lock, so are the control flow
+	 * graphs built from it.
+	 */
+	Object getWalaLock() {
+		return walaLock;
 	}
 
 	public IClassHierarchy getClassHierarchy() {
@@ -1724,10 +1997,18 @@ public class SDGBuilder implements CallGraphFilter {
 	/**
 	 * @see CallGraph.CallGraphFilter
 	 */
-	public boolean ignoreCallsFrom(IMethod m) {
-		final TypeReference tr = m.getDeclaringClass().getReference();
+	public boolean ignoreCallsFrom(CGNode node) {
+		final TypeReference tr = node.getMethod().getDeclaringClass().getReference();
 
-		return isImmutableStub(tr);
+		return isImmutableStub(tr) || isSummarised(node);
+	}
+
+	/**
+	 * Checks if the summary information of the given call graph node of a library method is taken from the library
+	 * summary store instead of being computed from the pdgs of its callees.
+	 */
+	public boolean isSummarised(CGNode node) {
+		return librarySummaries != null && librarySummaries.isPruned(node);
 	}
 
 	/**
@@ -1738,7 +2019,7 @@ public class SDGBuilder implements CallGraphFilter {
 	}
 
 	public PointerAnalysis<InstanceKey> getPointerAnalysis() {
-		return cg.getPTS();
+		return pts;
 	}
 
 	public com.ibm.wala.ipa.callgraph.CallGraph getWalaCallGraph() {
@@ -1779,6 +2060,11 @@ public class SDGBuilder implements CallGraphFilter {
 		public MethodState defaultExceptionMethodState = null;
 		public boolean accessPath = false;
 		public boolean localKillingDefs = true;
+		/**
+		 * Methods with more heap accesses than this are skipped by the local killing definitions analysis. A
+		 * negative value analyzes all methods.
+		 */
+		public int localKillingDefsMaxAccesses = LocalKillingDefs.getDefaultMaxAccesses();
 		public boolean keepPhiNodes = true;
 		public int prunecg = DO_NOT_PRUNE;
 		public boolean mergeFieldsOfPrunedCalls = true;
@@ -1874,6 +2160,50 @@ public class SDGBuilder implements CallGraphFilter {
 		 * but wants to have it built exactly as the SDGBuilderConfig dictates.
 		 */
 		public boolean abortAfterCG = false;
+
+		/**
+		 * Number of threads used by each of these phases of the sdg construction:
+		 * <ul>
+		 * <li>building the intraprocedural pdgs,</li>
+		 * <li>solving the heap dataflow of the object graph parameter model,</li>
+		 * <li>computing local killing definitions,</li>
+		 * <li>computing summary edges per strongly connected component of the call graph,</li>
+		 * <li>computing interference edges, if {@link #indexedInterference} is set.</li>
+		 * </ul>
+		 * The phases run one after another, each with its own pool of threads, so at most this many threads work
+		 * at the same time. All other phases run in the calling thread.
+		 * A value of 1 runs all phases sequentially in the calling thread. The resulting sdg does not depend on
+		 * this value.
+		 */
+		public int parallelism = 1;
+
+		/**
+		 * Store the path edges of the summary computation as pairs of node indices packed into primitive longs
+		 * instead of edge objects. Needs less memory and is usually faster on large graphs. The computed summary
+		 * edges are the same.
+		 */
+		public boolean packedSummaryPathEdges = false;
+
+		/**
+		 * Compute interference edges from an index of the heap accesses by field and by the instance keys of their
+		 * base pointers instead of comparing the accesses of every pair of pdgs. The buckets of the index are
+		 * processed with cfg.parallelism threads. The computed interference edges are the same.
+		 */
+		public boolean indexedInterference = false;
+
+		/**
+		 * Store of the summary information of library methods. If set, library methods found in the store are
+		 * connected with the stored dependencies instead of building the pdgs of their callees, and the summary
+		 * information of the other library methods is added to the store after the summary edges are computed.
+		 * See {@link LibrarySummaries}.
+		 */
+		public transient LibrarySummaryStore librarySummaries = null;
+
+		/**
+		 * If set, the wall time, cpu time, allocated bytes and the size of the graphs are recorded for each phase of
+		 * the sdg construction as sub-phases of the currently running phase.
+		 */
+		public transient PhaseMetrics metrics = null;
 		
 		/**
 		 * This hook object can be used to capture the mapping between parameter nodes
@@ -1902,11 +2232,96 @@ public class SDGBuilder implements CallGraphFilter {
 			CancelException {
 		final PDG pdg = PDG.build(this, Util.methodName(cgm.getMethod()), cgm, pdgId, cfg.ext, cfg.out, progress);
 		pdgId++;
-		pdgs.add(pdg);
+		addPDG(pdg);
 
 		return pdg;
 	}
 
+	private void addPDG(final PDG pdg) {
+		pdgs.add(pdg);
+		if (!cgNode2pdg.containsKey(pdg.cgNode)) {
+			cgNode2pdg.put(pdg.cgNode, pdg);
+		}
+	}
+
+	/**
+	 * Builds the intraprocedural pdgs of all call graph nodes except the root with cfg.parallelism threads.
+	 * Pdg ids, node ids and field ordinals are assigned in the same order as in the sequential computation,
+	 * so the resulting pdgs are identical.
+	 * <p>
+	 * Each pdg is only modified by the thread that builds it. Shared state is accessed as follows:
+	 * <ul>
+	 * <li>Everything that touches wala beyond reading an ir - the ir cache, the class hierarchy, the wala call
+	 * graph and type inference - runs while holding {@link #getWalaLock()}, as wala computes much of this lazily
+	 * and does not synchronize it. The intraprocedural exception analysis only reads the ir and runs without the
+	 * lock, unless a method state that resolves calls is configured.</li>
+	 * <li>The {@link ParameterFieldFactory} is synchronized and records the field requests of each thread.</li>
+	 * <li>Node ids are assigned afterwards in the calling thread, so the node id counter of the builder is not used.</li>
+	 * </ul>
+	 * What runs concurrently is the translation of the ir and the control flow graph into the pdg and the
+	 * computation of its control and data dependencies.
+	 */
+	private void createAndAddPDGsParallel(final IProgressMonitor progress) throws UnsoundGraphException,
+			CancelException {
+		final int firstParallelField = params.getMapping().getSize();
+		final ExecutorService executor = ParallelUtil.newPool(cfg.parallelism, "pdg-builder");
+		final List<Future<Pair<PDG, List<ParameterField>>>> futures =
+				new LinkedList<Future<Pair<PDG, List<ParameterField>>>>();
+
+		try {
+			for (CallGraph.Node node : cg.vertexSet()) {
+				if (node.node == cg.getRoot().node) {
+					continue;
+				}
+
+				final CGNode cgm = node.node;
+				final int id = pdgId;
+				pdgId++;
+				futures.add(executor.submit(new Callable<Pair<PDG, List<ParameterField>>>() {
+					@Override
+					public Pair<PDG, List<ParameterField>> call() throws Exception {
+						final PDG pdg;
+						final List<ParameterField> fields;
+						params.startRecording();
+						try {
+							pdg = PDG.buildWithDeferredNodeIds(SDGBuilder.this, Util.methodName(cgm.getMethod()), cgm,
+									id, NullProgressMonitor.INSTANCE);
+						} finally {
+							fields = params.stopRecording();
+						}
+
+						return Pair.make(pdg, fields);
+					}
+				}));
+			}
+
+			final List<ParameterField> fieldOrder = new LinkedList<ParameterField>();
+			int currentNum = 1;
+
+			for (final Future<Pair<PDG, List<ParameterField>>> future : futures) {
+				final Pair<PDG, List<ParameterField>> result =
+						ParallelUtil.waitFor(future, UnsoundGraphException.class, CancelException.class);
+				final PDG pdg = result.fst;
+				// node ids are assigned in the order of the sequential computation
+				pdg.assignDeferredNodeIds(cfg.ext, cfg.out);
+				addPDG(pdg);
+				fieldOrder.addAll(result.snd);
+
+				progress.worked(currentNum++);
+
+				MonitorUtil.throwExceptionIfCanceled(progress);
+
+				if (cfg.debugManyGraphsDotOutput) {
+					debugOutput(pdg);
+				}
+			}
+
+			params.reorder(firstParallelField, fieldOrder);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	public long countNodes() {
 		long count = 0;
 
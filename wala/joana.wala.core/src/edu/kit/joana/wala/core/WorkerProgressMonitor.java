@@ -0,0 +1,60 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.core;
+
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+
+/**
+ * Progress monitor for tasks that run in the worker threads of a parallel computation. It reports no progress, as
+ * progress is reported by the calling thread, but it is canceled as soon as the monitor of the calling thread is
+ * canceled or {@link #cancel()} is called, so the workers stop at their next cancellation check.
+ */
+public class WorkerProgressMonitor implements IProgressMonitor {
+
+	private final IProgressMonitor parent;
+	private volatile boolean cancel = false;
+
+	/**
+	 * @param parent the monitor of the calling thread, may be null
+	 */
+	public WorkerProgressMonitor(final IProgressMonitor parent) {
+		this.parent = parent;
+	}
+
+	@Override
+	public void beginTask(String task, int totalWork) {
+	}
+
+	@Override
+	public void subTask(String subTask) {
+	}
+
+	@Override
+	public boolean isCanceled() {
+		return cancel || (parent != null && parent.isCanceled());
+	}
+
+	@Override
+	public void cancel() {
+		cancel = true;
+	}
+
+	@Override
+	public void done() {
+	}
+
+	@Override
+	public void worked(int units) {
+	}
+
+	@Override
+	public String getCancelMessage() {
+		return (parent != null && parent.isCanceled() ? parent.getCancelMessage() : "canceled.");
+	}
+
+}
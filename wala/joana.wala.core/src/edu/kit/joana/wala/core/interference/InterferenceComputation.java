@@ -7,12 +7,20 @@
  */
 package edu.kit.joana.wala.core.interference;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.ibm.wala.classLoader.IClass;
 import com.ibm.wala.classLoader.IField;
@@ -50,6 +58,7 @@ import com.ibm.wala.util.intset.SparseIntSet;
 
 import edu.kit.joana.util.Log;
 import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.ParallelUtil;
 import edu.kit.joana.wala.core.EscapeAnalysis;
 import edu.kit.joana.wala.core.PDG;
 import edu.kit.joana.wala.core.PDGField;
@@ -81,6 +90,8 @@ public class InterferenceComputation {
 	private final PointsToWrapper pts;
 	private final boolean optimizeThisAccess;
 	private final boolean ignoreClInits;
+	private final boolean indexed;
+	private final int parallelism;
 	private static final boolean DO_ARRAYS = true;
 	private static final boolean DO_SYNC = false;
 	private static final boolean DO_SYNC_METHODS = DO_SYNC;
@@ -113,11 +124,27 @@ public class InterferenceComputation {
 	public static Set<InterferenceEdge> computeInterference(final SDGBuilder builder,
 			final ThreadInformationProvider tiProvider,	final boolean optimizeThisAccess, final boolean ignoreClinits,
 			final EscapeAnalysis escape, final IProgressMonitor progress) throws CancelException {
+		return computeInterference(builder, tiProvider, optimizeThisAccess, ignoreClinits, escape, false, 1,
+				progress);
+	}
+
+	/**
+	 * Computes interference dependence for multi-threaded programs.
+	 * @param indexed If set, heap accesses are bucketed by field and by the instance keys of their base pointer and
+	 * only accesses in the same bucket are compared, instead of comparing the accesses of each pair of pdgs. The
+	 * resulting edges are the same.
+	 * @param parallelism Number of threads used to process the buckets in indexed mode.
+	 * @throws CancelException
+	 */
+	public static Set<InterferenceEdge> computeInterference(final SDGBuilder builder,
+			final ThreadInformationProvider tiProvider,	final boolean optimizeThisAccess, final boolean ignoreClinits,
+			final EscapeAnalysis escape, final boolean indexed, final int parallelism, final IProgressMonitor progress)
+			throws CancelException {
 		progress.subTask("Thread interference computation started..."); //$NON-NLS-1$
 		if (IS_DEBUG) debug.outln("Computing thread interference");
 
-		final InterferenceComputation ifcomp =
-				new InterferenceComputation(builder, tiProvider, optimizeThisAccess, ignoreClinits, escape);
+		final InterferenceComputation ifcomp = new InterferenceComputation(builder, tiProvider, optimizeThisAccess,
+				ignoreClinits, escape, indexed, parallelism);
 		final Set<InterferenceEdge> ret = ifcomp.compute(progress);
 
 		progress.done();
@@ -127,7 +154,8 @@ public class InterferenceComputation {
 	}
 
 	private InterferenceComputation(final SDGBuilder builder, final ThreadInformationProvider tiProvider,
-			final boolean optimizeThisAccess, final boolean ignoreClinits, final EscapeAnalysis escape) {
+			final boolean optimizeThisAccess, final boolean ignoreClinits, final EscapeAnalysis escape,
+			final boolean indexed, final int parallelism) {
 		this.builder = builder;
 		this.tiProvider = tiProvider;
 		this.threadIds = new TIntObjectHashMap<IntSet>();
@@ -135,6 +163,8 @@ public class InterferenceComputation {
 		this.optimizeThisAccess = optimizeThisAccess;
 		this.ignoreClInits = ignoreClinits;
 		this.escape = escape;
+		this.indexed = indexed;
+		this.parallelism = parallelism;
 		this.pff = new ParameterFieldFactory();
 		this.pts = new PointsToWrapper(builder.getPointerAnalysis());
 	}
@@ -147,7 +177,7 @@ public class InterferenceComputation {
 		}
 
 		if (tiProvider.getAllThreadStartNodesInCallGraph() != null) {
-			return computeInterference(progress);
+			return (indexed ? computeInterferenceIndexed(progress) : computeInterference(progress));
 		} else {
 			return null;
 		}
@@ -211,6 +241,198 @@ public class InterferenceComputation {
 		return ret;
 	}
 
+	/**
+	 * Same result as computeInterference, but each heap access is only compared with the accesses of the same
+	 * field that share at least one instance key of the base pointer. Accesses with an empty or without a base
+	 * (static fields) are compared within their own bucket. The buckets of each field are processed in parallel.
+	 * @throws CancelException
+	 */
+	private final Set<InterferenceEdge> computeInterferenceIndexed(final IProgressMonitor progress)
+			throws CancelException {
+		if (IS_DEBUG) debug.outln("Computing read-write/write-write interference for threads (indexed)");
+		final Map<ParameterField, FieldAccesses> fields = new IdentityHashMap<ParameterField, FieldAccesses>();
+
+		for (final PDG pdg : getPDGs()) {
+			if (pdg == null) {
+				continue;
+			}
+
+			if (!getThreadIds(pdg).isEmpty()) {
+				// a pdg that runs in no thread does not interfere with anything
+				for (final HeapRead read : getHeapReads(pdg)) {
+					getFieldAccesses(fields, read.field).add(pdg, read, false);
+				}
+
+				for (final HeapWrite write : getHeapWrites(pdg)) {
+					getFieldAccesses(fields, write.field).add(pdg, write, true);
+				}
+			}
+
+			if (progress.isCanceled()) {
+				throw CancelException.make("Computing interference canceled.");
+			}
+
+			progress.worked(1);
+		}
+
+		final List<FieldAccesses> written = new ArrayList<FieldAccesses>(fields.size());
+		for (final FieldAccesses acc : fields.values()) {
+			if (!acc.writes.isEmpty()) {
+				// fields that are only read have nothing to interfere with
+				written.add(acc);
+			}
+		}
+
+		final Set<InterferenceEdge> ret = new HashSet<InterferenceEdge>();
+
+		if (parallelism <= 1) {
+			for (final FieldAccesses acc : written) {
+				ret.addAll(acc.computeInterference());
+
+				if (progress.isCanceled()) {
+					throw CancelException.make("Computing interference canceled.");
+				}
+			}
+
+			return ret;
+		}
+
+		final ExecutorService executor = ParallelUtil.newPool(parallelism, "interference");
+		final List<Future<Set<InterferenceEdge>>> futures = new LinkedList<Future<Set<InterferenceEdge>>>();
+
+		try {
+			for (final FieldAccesses acc : written) {
+				futures.add(executor.submit(new Callable<Set<InterferenceEdge>>() {
+					@Override
+					public Set<InterferenceEdge> call() {
+						return acc.computeInterference();
+					}
+				}));
+			}
+
+			for (final Future<Set<InterferenceEdge>> future : futures) {
+				ret.addAll(ParallelUtil.waitFor(future));
+
+				if (progress.isCanceled()) {
+					throw CancelException.make("Computing interference canceled.");
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return ret;
+	}
+
+	private static FieldAccesses getFieldAccesses(final Map<ParameterField, FieldAccesses> fields,
+			final ParameterField field) {
+		FieldAccesses acc = fields.get(field);
+
+		if (acc == null) {
+			acc = new FieldAccesses();
+			fields.put(field, acc);
+		}
+
+		return acc;
+	}
+
+	/**
+	 * A heap access together with the pdg it belongs to.
+	 */
+	private static final class IndexedAccess {
+		private final int index;
+		private final PDG pdg;
+		private final HeapAccess access;
+		private final boolean isWrite;
+
+		private IndexedAccess(final int index, final PDG pdg, final HeapAccess access, final boolean isWrite) {
+			this.index = index;
+			this.pdg = pdg;
+			this.access = access;
+			this.isWrite = isWrite;
+		}
+	}
+
+	/**
+	 * All heap accesses of a single field, bucketed by the instance keys their base pointer may point to.
+	 * Two accesses alias iff they share a bucket (see HeapAccess.isAliasing).
+	 */
+	private final class FieldAccesses {
+		private final List<IndexedAccess> all = new ArrayList<IndexedAccess>();
+		private final List<IndexedAccess> writes = new ArrayList<IndexedAccess>();
+		private final List<IndexedAccess> noBase = new ArrayList<IndexedAccess>();
+		private final List<IndexedAccess> emptyBase = new ArrayList<IndexedAccess>();
+		private final Map<InstanceKey, List<IndexedAccess>> byInstance = new HashMap<InstanceKey, List<IndexedAccess>>();
+
+		private void add(final PDG pdg, final HeapAccess access, final boolean isWrite) {
+			final IndexedAccess acc = new IndexedAccess(all.size(), pdg, access, isWrite);
+			all.add(acc);
+
+			if (isWrite) {
+				writes.add(acc);
+			}
+
+			if (access.base == null) {
+				noBase.add(acc);
+			} else if (access.base.isEmpty()) {
+				emptyBase.add(acc);
+			} else {
+				for (final InstanceKey ik : access.base) {
+					List<IndexedAccess> bucket = byInstance.get(ik);
+
+					if (bucket == null) {
+						bucket = new ArrayList<IndexedAccess>();
+						byInstance.put(ik, bucket);
+					}
+
+					bucket.add(acc);
+				}
+			}
+		}
+
+		private Set<InterferenceEdge> computeInterference() {
+			final Set<InterferenceEdge> ret = new HashSet<InterferenceEdge>();
+			// marks the accesses already compared with the current write
+			final int[] lastSeen = new int[all.size()];
+			Arrays.fill(lastSeen, -1);
+
+			for (final IndexedAccess write : writes) {
+				final HeapAccess base = write.access;
+
+				if (base.base == null) {
+					compare(write, noBase, lastSeen, ret);
+				} else if (base.base.isEmpty()) {
+					compare(write, emptyBase, lastSeen, ret);
+				} else {
+					for (final InstanceKey ik : base.base) {
+						compare(write, byInstance.get(ik), lastSeen, ret);
+					}
+				}
+			}
+
+			return ret;
+		}
+
+		private void compare(final IndexedAccess write, final List<IndexedAccess> bucket, final int[] lastSeen,
+				final Set<InterferenceEdge> ret) {
+			for (final IndexedAccess other : bucket) {
+				if (lastSeen[other.index] == write.index) {
+					continue;
+				}
+
+				lastSeen[other.index] = write.index;
+
+				if (mayRunInParallelThreads(write.pdg, other.pdg)) {
+					if (other.isWrite) {
+						ret.add(addWriteWriteInterference((HeapWrite) write.access, (HeapWrite) other.access));
+					} else {
+						ret.add(addReadWriteInterference((HeapWrite) write.access, (HeapRead) other.access));
+					}
+				}
+			}
+		}
+	}
+
 	private Collection<PDG> getPDGs() {
 		return builder.getAllPDGs();
 	}
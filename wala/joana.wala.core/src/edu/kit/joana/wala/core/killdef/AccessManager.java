@@ -8,7 +8,7 @@
 package edu.kit.joana.wala.core.killdef;
 
 import edu.kit.joana.wala.core.ParameterField;
-import edu.kit.joana.wala.core.dataflow.GenReach;
+import edu.kit.joana.wala.core.killdef.Access.Kind;
 import edu.kit.joana.wala.core.killdef.Access.RW;
 import gnu.trove.map.hash.TIntObjectHashMap;
 
@@ -22,8 +22,6 @@ import java.util.Map;
 import java.util.Set;
 
 import com.ibm.wala.classLoader.CallSiteReference;
-import com.ibm.wala.dataflow.graph.BitVectorSolver;
-import com.ibm.wala.fixpoint.BitVectorVariable;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.util.CancelException;
@@ -32,8 +30,8 @@ import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.graph.Graph;
 import com.ibm.wala.util.graph.INodeWithNumber;
 import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.MutableMapping;
 import com.ibm.wala.util.intset.OrdinalSet;
-import com.ibm.wala.util.intset.OrdinalSetMapping;
 
 /**
  *
@@ -172,7 +170,6 @@ public final class AccessManager<T> {
 		return map;
 	}
 	
-	@SuppressWarnings("unused")
 	private void computeValueEquivClasses(final Reachability<T> reach, final IProgressMonitor progress)
 			throws CancelException {
 		final Map<ParameterField, List<FieldAccess<T>>> grouped = groupReadAccessesByField();
@@ -191,13 +188,12 @@ public final class AccessManager<T> {
 			 *
 			 * merge (v2, v3)
 			 */
-			for (final ParameterField f : grouped.keySet()) {
-				final List<FieldAccess<T>> freads = grouped.get(f);
-				
-				for (final FieldAccess<T> to : read) {
+			for (final List<FieldAccess<T>> freads : grouped.values()) {
+				// only accesses of the same field can be the same access
+				for (final FieldAccess<T> to : freads) {
 					final Value<Integer> val = to.getValue();
 	
-					for (final FieldAccess<T> from : read) {
+					for (final FieldAccess<T> from : freads) {
 						if (to == from) continue;
 	
 						if (to.isSameAccess(from) && reach.isReachFromTo(from, to)
@@ -223,26 +219,23 @@ public final class AccessManager<T> {
 			 *
 			 * merge (v3, v2) iff n1 dominates n3 and no other write to f is in between
 			 */
-			for (final ParameterField f : grouped.keySet()) {
-				final List<FieldAccess<T>> freads = grouped.get(f);
-				
+			for (final FieldAccess<T> readF : read) {
+				final FieldAccess<T> writeF = reach.findLastWriteDominating(readF);
+
+				if (writeF == null || !writeF.isSameAccess(readF)) continue;
+
 				for (final FieldAccess<T> readA : read) {
+					if (readA.getField().equals(readF.getField())) continue;
+
 					final Value<Integer> val = readA.getValue();
-	
-					for (final FieldAccess<T> readF : read) {
-						if (readA.getField().equals(readF.getField())) continue;
-	
-						final FieldAccess<T> writeF = reach.findLastWriteDominating(readF);
-	
-						if (writeF != null && writeF.getValue().equals(val) && reach.isDominating(readA, writeF)
-								&& writeF.isSameAccess(readF)) {
-							final Value<Integer> valReadF = readF.getValue();
-							boolean change = val.merge(valReadF);
-							changed |= change;
-							
-							if (DEBUG_PRINT && change) {
-								System.out.println("\tm2(v" + val + ", v" + valReadF + ")");
-							}
+
+					if (writeF.getValue().equals(val) && reach.isDominating(readA, writeF)) {
+						final Value<Integer> valReadF = readF.getValue();
+						boolean change = val.merge(valReadF);
+						changed |= change;
+						
+						if (DEBUG_PRINT && change) {
+							System.out.println("\tm2(v" + val + ", v" + valReadF + ")");
 						}
 					}
 				}
@@ -444,25 +437,38 @@ public final class AccessManager<T> {
 
 	}
 
-	private interface GenReachProvider<T> {
-		GenReach<T,Access<T>> create(Graph<T> flow, Map<T, Collection<Access<T>>> map);
-	}
-
-	private Map<T, OrdinalSet<Access<T>>> computeReachableAccesses(final GenReachProvider<T> genReachProvider,
-			final Graph<T> flow, final IProgressMonitor progress) throws CancelException {
+	/*
+	 * Dummy accesses are never looked up in the reachable sets, so they are left out of the domain. This keeps the
+	 * bit vectors small, and the nodes of most instructions have nothing to gen.
+	 */
+	private Map<T, OrdinalSet<Access<T>>> computeReachableAccesses(final boolean must, final Graph<T> flow,
+			final IProgressMonitor progress) throws CancelException {
 		// create gen maps
-		final Map<T, Collection<Access<T>>> map = new HashMap<T, Collection<Access<T>>>();
+		final MutableMapping<Access<T>> mapping = MutableMapping.make();
+		final Map<T, BitVector> gen = new HashMap<T, BitVector>();
 
 		for (final T bb : flow) {
 			final Set<Access<T>> accs = getAccess(bb);
-			map.put(bb, accs);
+			BitVector bv = null;
+			for (final Access<T> a : accs) {
+				if (a.getKind() == Kind.DUMMY) continue;
+
+				if (bv == null) {
+					bv = new BitVector();
+				}
+				bv.set(mapping.add(a));
+			}
+
+			if (bv != null) {
+				gen.put(bb, bv);
+			}
 		}
 		
 		if (DEBUG_PRINT){
 			System.out.println("Gen maps per node:");
 			for (final T bb : flow) {
 				if (bb instanceof INodeWithNumber) {
-					final Collection<Access<T>> accs = map.get(bb);
+					final Collection<Access<T>> accs = getAccess(bb);
 					System.out.print("bb" + ((INodeWithNumber) bb).getGraphNodeId() + ": ");
 					
 					for (final Access<T> a : accs) {
@@ -474,36 +480,22 @@ public final class AccessManager<T> {
 			}
 		}
 
-		final GenReach<T, Access<T>> genMayReach = genReachProvider.create(flow, map);
-		final BitVectorSolver<T> solver = new BitVectorSolver<T>(genMayReach);
+		final Map<T, BitVector> noKill = Collections.emptyMap();
+		final GenKillSolver<T> solver = (must ? GenKillSolver.intersection(flow, gen, noKill)
+				: GenKillSolver.union(flow, gen, noKill));
 		solver.solve(progress);
 
-		final Map<T, OrdinalSet<Access<T>>> reach = new HashMap<T, OrdinalSet<Access<T>>>();
-		final OrdinalSetMapping<Access<T>> mapping = genMayReach.getLatticeValues();
-		for (final T bb : flow) {
-			final BitVectorVariable bvv = solver.getIn(bb);
-			reach.put(bb, new OrdinalSet<Access<T>>(bvv.getValue(), mapping));
-		}
-
-		return reach;
+		return solver.getInSets(mapping);
 	}
 
 	public Map<T, OrdinalSet<Access<T>>> computeMayReachableAccesses(final Graph<T> flow,
 			final IProgressMonitor progress) throws CancelException {
-		return computeReachableAccesses(new GenReachProvider<T>() {
-			public GenReach<T, Access<T>> create(Graph<T> flow, Map<T, Collection<Access<T>>> map) {
-				return GenReach.createUnionFramework(flow, map);
-			}
-		}, flow, progress);
+		return computeReachableAccesses(false, flow, progress);
 	}
 
 	public Map<T, OrdinalSet<Access<T>>> computeMustReachableAccesses(final Graph<T> flow,
 			final IProgressMonitor progress) throws CancelException {
-		return computeReachableAccesses(new GenReachProvider<T>() {
-			public GenReach<T, Access<T>> create(Graph<T> flow, Map<T, Collection<Access<T>>> map) {
-				return GenReach.createIntersectionFramework(flow, map);
-			}
-		}, flow, progress);
+		return computeReachableAccesses(true, flow, progress);
 	}
 
 }
@@ -0,0 +1,282 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.core.killdef;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.OrdinalSet;
+import com.ibm.wala.util.intset.OrdinalSetMapping;
+
+/**
+ * Solves a forward gen/kill problem on a flow graph with a worklist that is processed in reverse postorder:
+ * out(n) = (in(n) \ kill(n)) u gen(n), where in(n) is the union or the intersection of the out values of the
+ * predecessors of n, and in(n) is empty for nodes without predecessors.
+ * <p>
+ * Like the WALA bit vector solver, the meet skips predecessors that have not been evaluated yet. For the union
+ * this is the same as starting with empty values, so the result is the least fixed point. For the intersection it
+ * is the same as starting with the full set at all nodes but the roots, so the value before a loop is not
+ * intersected with the empty initial value of the back edge, and the result is the greatest fixed point: the bits
+ * generated on every path to a node.
+ * <p>
+ * The solver is sparse in the sense that nodes without gen and kill sets and nodes with a single predecessor
+ * share the bit vector of their predecessor instead of copying it. In an exploded control flow graph most nodes
+ * are of this kind. The bit vectors returned by {@link #getIn(Object)} may thus be shared and must not be modified.
+ *
+ * @param <T> type of the nodes of the flow graph
+ */
+public final class GenKillSolver<T> {
+
+	private static final BitVector EMPTY = new BitVector();
+
+	private final boolean intersect;
+	private final List<T> nodes;
+	private final Map<T, Integer> pos;
+	private final int[][] preds;
+	private final int[][] succs;
+	private final BitVector[] gen;
+	private final BitVector[] kill;
+	private final BitVector[] in;
+	private final BitVector[] out;
+	private int evaluations = 0;
+
+	private GenKillSolver(final Graph<T> flow, final boolean intersect, final Map<T, BitVector> gen,
+			final Map<T, BitVector> kill) {
+		this.intersect = intersect;
+		this.nodes = reversePostorder(flow);
+		final int size = nodes.size();
+		this.pos = new HashMap<T, Integer>(2 * size);
+		for (int i = 0; i < size; i++) {
+			pos.put(nodes.get(i), i);
+		}
+
+		this.preds = new int[size][];
+		this.succs = new int[size][];
+		this.gen = new BitVector[size];
+		this.kill = new BitVector[size];
+		for (int i = 0; i < size; i++) {
+			final T n = nodes.get(i);
+			preds[i] = positions(flow.getPredNodes(n), flow.getPredNodeCount(n));
+			succs[i] = positions(flow.getSuccNodes(n), flow.getSuccNodeCount(n));
+			this.gen[i] = nonEmpty(gen.get(n));
+			this.kill[i] = nonEmpty(kill.get(n));
+		}
+
+		this.in = new BitVector[size];
+		this.out = new BitVector[size];
+	}
+
+	/**
+	 * Creates a solver whose meet operation is the union of the predecessor values.
+	 * @param gen Maps nodes to the bits they set. Missing entries and <tt>null</tt> are treated as empty sets.
+	 * @param kill Maps nodes to the bits they clear. Missing entries and <tt>null</tt> are treated as empty sets.
+	 */
+	public static <T> GenKillSolver<T> union(final Graph<T> flow, final Map<T, BitVector> gen,
+			final Map<T, BitVector> kill) {
+		return new GenKillSolver<T>(flow, false, gen, kill);
+	}
+
+	/**
+	 * Creates a solver whose meet operation is the intersection of the predecessor values.
+	 * @see #union(Graph, Map, Map)
+	 */
+	public static <T> GenKillSolver<T> intersection(final Graph<T> flow, final Map<T, BitVector> gen,
+			final Map<T, BitVector> kill) {
+		return new GenKillSolver<T>(flow, true, gen, kill);
+	}
+
+	private static BitVector nonEmpty(final BitVector bv) {
+		return (bv == null || bv.isZero() ? null : bv);
+	}
+
+	private int[] positions(final Iterator<T> it, final int count) {
+		final int[] result = new int[count];
+		int i = 0;
+		while (it.hasNext()) {
+			result[i++] = pos.get(it.next());
+		}
+
+		return result;
+	}
+
+	/*
+	 * Depth first search from all nodes without predecessors, then from all nodes that have not been reached yet.
+	 * The nodes are returned in the reverse order of their finishing times.
+	 */
+	private static <T> List<T> reversePostorder(final Graph<T> flow) {
+		final List<T> roots = new ArrayList<T>();
+		for (final T n : flow) {
+			if (flow.getPredNodeCount(n) == 0) {
+				roots.add(n);
+			}
+		}
+		for (final T n : flow) {
+			roots.add(n);
+		}
+
+		final List<T> postorder = new ArrayList<T>(flow.getNumberOfNodes());
+		final Map<T, Iterator<T>> visited = new HashMap<T, Iterator<T>>(2 * flow.getNumberOfNodes());
+		final List<T> stack = new ArrayList<T>();
+		for (final T root : roots) {
+			if (visited.containsKey(root)) {
+				continue;
+			}
+
+			visited.put(root, flow.getSuccNodes(root));
+			stack.add(root);
+			while (!stack.isEmpty()) {
+				final T n = stack.get(stack.size() - 1);
+				final Iterator<T> it = visited.get(n);
+				if (it.hasNext()) {
+					final T succ = it.next();
+					if (!visited.containsKey(succ)) {
+						visited.put(succ, flow.getSuccNodes(succ));
+						stack.add(succ);
+					}
+				} else {
+					stack.remove(stack.size() - 1);
+					postorder.add(n);
+				}
+			}
+		}
+
+		final List<T> result = new ArrayList<T>(postorder.size());
+		for (int i = postorder.size() - 1; i >= 0; i--) {
+			result.add(postorder.get(i));
+		}
+
+		return result;
+	}
+
+	public void solve(final IProgressMonitor progress) throws CancelException {
+		final int size = nodes.size();
+		evaluations = 0;
+		for (int i = 0; i < size; i++) {
+			// not evaluated yet
+			in[i] = null;
+			out[i] = null;
+		}
+
+		// sweep over the pending nodes in reverse postorder until nothing changes
+		final BitSet pending = new BitSet(size);
+		pending.set(0, size);
+		int i = pending.nextSetBit(0);
+		while (i >= 0) {
+			pending.clear(i);
+			evaluations++;
+
+			final BitVector newIn = meet(i);
+			final BitVector newOut = transfer(i, newIn);
+			in[i] = newIn;
+			// the first evaluation always counts as a change, as the successors may have skipped this node
+			if (out[i] == null || (newOut != out[i] && !newOut.sameBits(out[i]))) {
+				out[i] = newOut;
+				for (final int s : succs[i]) {
+					pending.set(s);
+				}
+			}
+
+			i = pending.nextSetBit(i + 1);
+			if (i < 0) {
+				MonitorUtil.throwExceptionIfCanceled(progress);
+				i = pending.nextSetBit(0);
+			}
+		}
+	}
+
+	/*
+	 * Predecessors that have not been evaluated yet are skipped. If there are none left, the value is empty.
+	 */
+	private BitVector meet(final int i) {
+		BitVector first = null;
+		BitVector result = null;
+		for (final int p : preds[i]) {
+			final BitVector value = out[p];
+			if (value == null || value == first) {
+				continue;
+			} else if (first == null) {
+				// shared as long as no other predecessor has a different value
+				first = value;
+			} else {
+				if (result == null) {
+					result = new BitVector(first);
+				}
+				if (intersect) {
+					result.and(value);
+				} else {
+					result.or(value);
+				}
+			}
+		}
+
+		return (result != null ? result : (first != null ? first : EMPTY));
+	}
+
+	private BitVector transfer(final int i, final BitVector value) {
+		if (gen[i] == null && kill[i] == null) {
+			return value;
+		}
+
+		final BitVector result = new BitVector(value);
+		if (kill[i] != null) {
+			result.andNot(kill[i]);
+		}
+		if (gen[i] != null) {
+			result.or(gen[i]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return The value before the given node. Must not be modified. <tt>null</tt> if the node is not part of the
+	 * flow graph.
+	 */
+	public BitVector getIn(final T node) {
+		final Integer i = pos.get(node);
+
+		return (i == null ? null : in[i]);
+	}
+
+	/**
+	 * Converts the values before all nodes to ordinal sets. Nodes that share their value also share the set.
+	 */
+	public <L> Map<T, OrdinalSet<L>> getInSets(final OrdinalSetMapping<L> mapping) {
+		final Map<T, OrdinalSet<L>> result = new HashMap<T, OrdinalSet<L>>(2 * nodes.size());
+		final Map<BitVector, OrdinalSet<L>> shared = new IdentityHashMap<BitVector, OrdinalSet<L>>();
+		for (int i = 0; i < nodes.size(); i++) {
+			OrdinalSet<L> set = shared.get(in[i]);
+			if (set == null) {
+				set = (in[i].isZero() ? OrdinalSet.<L>empty() : new OrdinalSet<L>(new BitVectorIntSet(in[i]), mapping));
+				shared.put(in[i], set);
+			}
+			result.put(nodes.get(i), set);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return The number of node evaluations of the last call to {@link #solve(IProgressMonitor)}.
+	 */
+	public int getNumberOfEvaluations() {
+		return evaluations;
+	}
+
+}
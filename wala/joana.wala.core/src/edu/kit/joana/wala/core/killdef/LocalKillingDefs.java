@@ -7,24 +7,19 @@
  */
 package edu.kit.joana.wala.core.killdef;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.ibm.wala.cfg.ControlFlowGraph;
 import com.ibm.wala.cfg.exc.intra.MutableCFG;
 import com.ibm.wala.classLoader.IField;
-import com.ibm.wala.dataflow.graph.AbstractMeetOperator;
-import com.ibm.wala.dataflow.graph.BitVectorFramework;
-import com.ibm.wala.dataflow.graph.BitVectorIdentity;
-import com.ibm.wala.dataflow.graph.BitVectorKillGen;
-import com.ibm.wala.dataflow.graph.BitVectorSolver;
-import com.ibm.wala.dataflow.graph.BitVectorUnion;
-import com.ibm.wala.dataflow.graph.ITransferFunctionProvider;
-import com.ibm.wala.fixpoint.BitVectorVariable;
-import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ssa.IR;
 import com.ibm.wala.ssa.SSAArrayLengthInstruction;
@@ -54,18 +49,24 @@ import com.ibm.wala.ssa.SSAUnaryOpInstruction;
 import com.ibm.wala.ssa.analysis.ExplodedControlFlowGraph;
 import com.ibm.wala.ssa.analysis.IExplodedBasicBlock;
 import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.WalaException;
 import com.ibm.wala.util.graph.Acyclic;
 import com.ibm.wala.util.graph.GraphIntegrity.UnsoundGraphException;
 import com.ibm.wala.util.graph.dominators.Dominators;
 import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.BitVectorIntSet;
 import com.ibm.wala.util.intset.IBinaryNaturalRelation;
 import com.ibm.wala.util.intset.IntPair;
 import com.ibm.wala.util.intset.MutableMapping;
 import com.ibm.wala.util.intset.OrdinalSet;
 import com.ibm.wala.util.intset.OrdinalSetMapping;
 
+import edu.kit.joana.util.Config;
+import edu.kit.joana.util.Log;
+import edu.kit.joana.util.Logger;
+import edu.kit.joana.util.ParallelUtil;
 import edu.kit.joana.wala.core.PDG;
 import edu.kit.joana.wala.core.PDGEdge;
 import edu.kit.joana.wala.core.PDGField;
@@ -73,6 +74,7 @@ import edu.kit.joana.wala.core.PDGNode;
 import edu.kit.joana.wala.core.ParameterField;
 import edu.kit.joana.wala.core.ParameterFieldFactory;
 import edu.kit.joana.wala.core.SDGBuilder;
+import edu.kit.joana.wala.core.WorkerProgressMonitor;
 import edu.kit.joana.wala.core.killdef.Access.Kind;
 import edu.kit.joana.wala.flowless.util.DotUtil;
 import edu.kit.joana.wala.flowless.util.ExtendedNodeDecorator;
@@ -89,6 +91,8 @@ public final class LocalKillingDefs {
 	private static final boolean DEBUG_PRINT = false;
 	private static final boolean INFO_PRINT = false;
 
+	private static final Logger logStats = Log.getLogger(Log.L_KILLDEF_STATS);
+
 	private final SDGBuilder sdg;
 	private final PDG pdg;
 	private final IR ir;
@@ -96,18 +100,82 @@ public final class LocalKillingDefs {
 	private final ParameterFieldFactory pfact;
 	private final AccessManager<IExplodedBasicBlock> accesses;
 	private int totalRemoved = 0;
-
+	private int killedReads = 0;
+	private int potentialReads = 0;
+	private int evaluations = 0;
+
+	/**
+	 * Removes the heap data dependencies of all pdgs that are killed by a write in the same method. With
+	 * sdg.cfg.parallelism &gt; 1 the pdgs are processed concurrently. Each pdg is only modified by the thread
+	 * that analyzes it, so the result does not depend on the number of threads.
+	 * <p>
+	 * The totals are recorded in the current phase of sdg.cfg.metrics, if there are metrics, and logged together
+	 * with the statistics of each method to {@link Log#L_KILLDEF_STATS}.
+	 */
 	public static int run(final SDGBuilder sdg, final IProgressMonitor progress) throws CancelException {
 		if (DEBUG_PRINT) System.out.println("\n>>>> local killing definitions");
+		final long start = System.currentTimeMillis();
 
-		int removed = 0;
-
+		final List<PDG> pdgs = new ArrayList<PDG>();
 		for (final PDG pdg : sdg.getAllPDGs()) {
 			final IR ir = pdg.cgNode.getIR();
 			if (ir != null) {
-				removed += run(sdg, pdg, progress);
+				pdgs.add(pdg);
+			}
+		}
+
+		final List<MethodStats> stats;
+		if (sdg.cfg.parallelism > 1 && pdgs.size() > 1) {
+			// the may-mod information is created lazily, so this has to happen before the threads share it
+			sdg.getFieldsMayMod();
+			stats = runParallel(sdg, pdgs, progress);
+		} else {
+			stats = new ArrayList<MethodStats>(pdgs.size());
+			for (final PDG pdg : pdgs) {
+				stats.add(analyze(sdg, pdg, progress));
+			}
+		}
+
+		final long wallTime = System.currentTimeMillis() - start;
+
+		int skipped = 0;
+		int removed = 0;
+		long killedReads = 0;
+		long potentialReads = 0;
+		long evaluations = 0;
+		// with several threads the times of the methods overlap, so their sum exceeds the wall time
+		long methodTime = 0;
+		if (logStats.isEnabled()) {
+			logStats.outln("\n---- BEGIN: Local Killing Definitions Statistics ----\n");
+		}
+		for (final MethodStats st : stats) {
+			skipped += (st.skipped ? 1 : 0);
+			removed += st.removed;
+			killedReads += st.killedReads;
+			potentialReads += st.potentialReads;
+			evaluations += st.evaluations;
+			methodTime += st.time;
+			if (logStats.isEnabled()) {
+				logStats.outln(st.toString());
 			}
 		}
+		if (logStats.isEnabled()) {
+			logStats.outln("\nanalyzed methods  : " + (stats.size() - skipped));
+			logStats.outln("skipped methods   : " + skipped);
+			logStats.outln("killed reads      : " + killedReads + " of " + potentialReads);
+			logStats.outln("removed edges     : " + removed);
+			logStats.outln("total time        : " + wallTime + " ms");
+			logStats.outln("sum of method time: " + methodTime + " ms with " + sdg.cfg.parallelism + " thread(s)");
+			logStats.outln("\n---- END: Local Killing Definitions Statistics ----\n");
+		}
+		if (sdg.cfg.metrics != null) {
+			sdg.cfg.metrics.count("methods", stats.size() - skipped);
+			sdg.cfg.metrics.count("skippedMethods", skipped);
+			sdg.cfg.metrics.count("killedReads", killedReads);
+			sdg.cfg.metrics.count("potentialReads", potentialReads);
+			sdg.cfg.metrics.count("removedEdges", removed);
+			sdg.cfg.metrics.count("evaluations", evaluations);
+		}
 
 		if (INFO_PRINT) {
 			System.out.println(sdg.getMainMethodName() + " - killed " + removed + " edges in total.");
@@ -119,22 +187,112 @@ public final class LocalKillingDefs {
 		return removed;
 	}
 
+	private static List<MethodStats> runParallel(final SDGBuilder sdg, final List<PDG> pdgs,
+			final IProgressMonitor progress) throws CancelException {
+		final ExecutorService executor = ParallelUtil.newPool(sdg.cfg.parallelism, "killing-defs");
+		final WorkerProgressMonitor workerProgress = new WorkerProgressMonitor(progress);
+		final List<Future<MethodStats>> futures = new ArrayList<Future<MethodStats>>(pdgs.size());
+
+		try {
+			for (final PDG pdg : pdgs) {
+				futures.add(executor.submit(new Callable<MethodStats>() {
+					@Override
+					public MethodStats call() throws CancelException {
+						return analyze(sdg, pdg, workerProgress);
+					}
+				}));
+			}
+
+			final List<MethodStats> stats = new ArrayList<MethodStats>(pdgs.size());
+			for (final Future<MethodStats> future : futures) {
+				stats.add(ParallelUtil.waitFor(future, CancelException.class));
+				MonitorUtil.throwExceptionIfCanceled(progress);
+			}
+
+			return stats;
+		} finally {
+			// stops the workers that are still running if the computation failed or was canceled
+			workerProgress.cancel();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Default for sdg.cfg.localKillingDefsMaxAccesses, unless {@link Config#C_KILLDEF_MAX_ACCESSES} is set. This is
+	 * the limit the analysis always had. Larger limits have not been measured yet, the statistics logged to
+	 * {@link Log#L_KILLDEF_STATS} show how long the analysis of the methods takes.
+	 */
 	public static final int MAX_ACCESSES_THRESHOLD = 200;
+
+	/**
+	 * @return The value of {@link Config#C_KILLDEF_MAX_ACCESSES}, if it is set, and {@link #MAX_ACCESSES_THRESHOLD}
+	 * otherwise.
+	 */
+	public static int getDefaultMaxAccesses() {
+		return (Config.isDefined(Config.C_KILLDEF_MAX_ACCESSES)
+				? Config.getInt(Config.C_KILLDEF_MAX_ACCESSES, MAX_ACCESSES_THRESHOLD) : MAX_ACCESSES_THRESHOLD);
+	}
 	
 	public static int run(final SDGBuilder sdg, final PDG pdg, final IProgressMonitor progress)
 			throws CancelException {
+		return analyze(sdg, pdg, progress).removed;
+	}
+
+	private static MethodStats analyze(final SDGBuilder sdg, final PDG pdg, final IProgressMonitor progress)
+			throws CancelException {
+		final long start = System.currentTimeMillis();
 		final int numberOfAccesses = pdg.getFieldReads().size() + pdg.getFieldWrites().size() + pdg.staticReads.length
 				+ pdg.staticWrites.length;
-		// currently the local killing definitions analysis does not scale well. We simply skip them for unusual large
-		// methods.
-		if (numberOfAccesses > MAX_ACCESSES_THRESHOLD) {
-			return 0;
+		final MethodStats stats = new MethodStats(pdg, numberOfAccesses);
+		// methods with a very large number of accesses may still take too long, they can be skipped
+		final int maxAccesses = sdg.cfg.localKillingDefsMaxAccesses;
+		if (maxAccesses >= 0 && numberOfAccesses > maxAccesses) {
+			stats.skipped = true;
+			return stats;
 		}
 		
 		final LocalKillingDefs lkd = new LocalKillingDefs(sdg, pdg);
 		lkd.run(progress);
 
-		return lkd.totalRemoved;
+		stats.removed = lkd.totalRemoved;
+		stats.killedReads = lkd.killedReads;
+		stats.potentialReads = lkd.potentialReads;
+		stats.evaluations = lkd.evaluations;
+		stats.time = System.currentTimeMillis() - start;
+
+		return stats;
+	}
+
+	/**
+	 * Precision and running time of the analysis of a single method.
+	 */
+	private static final class MethodStats {
+
+		private final PDG pdg;
+		private final int accesses;
+		private boolean skipped = false;
+		private int removed = 0;
+		/** pairs of a read and a write to the same location, and those where the write is killed before the read */
+		private int potentialReads = 0;
+		private int killedReads = 0;
+		private int evaluations = 0;
+		private long time = 0;
+
+		private MethodStats(final PDG pdg, final int accesses) {
+			this.pdg = pdg;
+			this.accesses = accesses;
+		}
+
+		public String toString() {
+			if (skipped) {
+				return pdg.getMethod().getSignature() + ": skipped, " + accesses + " accesses";
+			}
+
+			return pdg.getMethod().getSignature() + ": " + accesses + " accesses, killed " + killedReads + " of "
+					+ potentialReads + " reads from writes, removed " + removed + " edges, " + evaluations
+					+ " evaluations, " + time + " ms";
+		}
+
 	}
 
 	private LocalKillingDefs(final SDGBuilder sdg, final PDG pdg) {
@@ -306,12 +464,11 @@ public final class LocalKillingDefs {
 		}
 
 		if (DEBUG_PRINT) System.out.print("Solving data flow problem");
-		final BitVectorFramework<IExplodedBasicBlock, FieldAccess<IExplodedBasicBlock>> lkf =
-				new BitVectorFramework<IExplodedBasicBlock, FieldAccess<IExplodedBasicBlock>>(ecfg, lktf, map);
-		if (DEBUG_PRINT) System.out.print(".");
-		final BitVectorSolver<IExplodedBasicBlock> solver = new BitVectorSolver<IExplodedBasicBlock>(lkf);
+		final GenKillSolver<IExplodedBasicBlock> solver =
+				GenKillSolver.union(ecfg, lktf.bb2gen, lktf.bb2kill);
 		if (DEBUG_PRINT) System.out.print(".");
 		solver.solve(progress);
+		evaluations = solver.getNumberOfEvaluations();
 		if (DEBUG_PRINT) System.out.println("done.");
 
 		final Map<FieldAccess<IExplodedBasicBlock>, Set<FieldAccess<IExplodedBasicBlock>>> mustRead =
@@ -332,13 +489,12 @@ public final class LocalKillingDefs {
 			final IExplodedBasicBlock node = r.getNode();
 			if (node.isEntryBlock()) continue;
 
-			final BitVectorVariable bvIn = solver.getIn(node);
-			final OrdinalSet<FieldAccess<IExplodedBasicBlock>> inSet =
-					new OrdinalSet<FieldAccess<IExplodedBasicBlock>>(bvIn.getValue(), map);
+			final BitVector bvIn = solver.getIn(node);
 			
 			if (DEBUG_PRINT) {
 				System.out.print("bb" + r.getNode().getGraphNodeId() + " in: ");
-				for (FieldAccess<IExplodedBasicBlock> is : inSet) {
+				for (FieldAccess<IExplodedBasicBlock> is : new OrdinalSet<FieldAccess<IExplodedBasicBlock>>(
+						new BitVectorIntSet(bvIn), map)) {
 					System.out.print("bb" + is.getNode().getGraphNodeId() + " ");
 				}
 				System.out.println();
@@ -346,9 +502,11 @@ public final class LocalKillingDefs {
 			
 			final Set<FieldAccess<IExplodedBasicBlock>> nodeReads = mustRead.get(r);
 			if (nodeReads != null) {
+				potentialReads += nodeReads.size();
 				for (final FieldAccess<IExplodedBasicBlock> mayRead : nodeReads) {
-					if (!inSet.contains(mayRead)) {
+					if (!bvIn.get(map.getMappedIndex(mayRead))) {
 						// killed read - remove data deps iff there are any
+						killedReads++;
 						final int removed = removePotentialDataDep(mayRead, r);
 						if (DEBUG_PRINT && removed > 0) System.out.println(r + ": killed read from " + mayRead + ": "
 								+ removed + " edges removed");
@@ -428,13 +586,11 @@ public final class LocalKillingDefs {
 		return null;
 	}
 
-	private static class LocalKillTransferFunctions implements ITransferFunctionProvider<IExplodedBasicBlock, BitVectorVariable> {
+	private static class LocalKillTransferFunctions {
 
 		private final Map<IExplodedBasicBlock, BitVector> bb2kill;
 		private final Map<IExplodedBasicBlock, BitVector> bb2gen;
 
-		private static final BitVector EMPTY = new BitVector();
-
 		public static LocalKillTransferFunctions build(
 				final ControlFlowGraph<SSAInstruction, IExplodedBasicBlock> cfg,
 				final AccessManager<IExplodedBasicBlock> access,
@@ -528,42 +684,6 @@ public final class LocalKillingDefs {
 			this.bb2kill = bb2kill;
 		}
 
-		@Override
-		public UnaryOperator<BitVectorVariable> getNodeTransferFunction(final IExplodedBasicBlock node) {
-			final BitVector kill = bb2kill.get(node);
-			final BitVector gen = bb2gen.get(node);
-
-			if (kill == null && gen == null) {
-				return BitVectorIdentity.instance();
-			} else if (kill != null && gen == null) {
-				return new BitVectorKillGen(kill, EMPTY);
-			} else if (kill == null && gen != null) {
-				return new BitVectorKillGen(EMPTY, gen);
-			} else {
-				return new BitVectorKillGen(kill, gen);
-			}
-		}
-
-		@Override
-		public boolean hasNodeTransferFunctions() {
-			return true;
-		}
-
-		@Override
-		public UnaryOperator<BitVectorVariable> getEdgeTransferFunction(IExplodedBasicBlock src, IExplodedBasicBlock dst) {
-			return BitVectorIdentity.instance();
-		}
-
-		@Override
-		public boolean hasEdgeTransferFunctions() {
-			return false;
-		}
-
-		@Override
-		public AbstractMeetOperator<BitVectorVariable> getMeetOperator() {
-			return BitVectorUnion.instance();
-		}
-
 	}
 
 	private class AccessCreationVisitor extends SSAInstruction.Visitor {
@@ -12,6 +12,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.ibm.wala.dataflow.graph.BitVectorFramework;
 import com.ibm.wala.dataflow.graph.BitVectorSolver;
@@ -26,12 +29,14 @@ import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.OrdinalSet;
 import com.ibm.wala.util.intset.OrdinalSetMapping;
 
+import edu.kit.joana.util.ParallelUtil;
 import edu.kit.joana.wala.core.PDG;
 import edu.kit.joana.wala.core.PDGEdge;
 import edu.kit.joana.wala.core.PDGNode;
 import edu.kit.joana.wala.core.ParameterField;
 import edu.kit.joana.wala.core.SDGBuilder;
 import edu.kit.joana.wala.core.SDGBuilder.ExceptionAnalysis;
+import edu.kit.joana.wala.core.WorkerProgressMonitor;
 import edu.kit.joana.wala.core.params.objgraph.ModRefCandidateGraph;
 import edu.kit.joana.wala.core.params.objgraph.ModRefCandidates;
 import edu.kit.joana.wala.core.params.objgraph.ModRefFieldCandidate;
@@ -66,27 +71,21 @@ public class ModRefDataFlow {
 		final TIntObjectHashMap<ModRefFieldCandidate> pdgnode2modref =
 				new TIntObjectHashMap<ModRefFieldCandidate>();
 
-		for (final PDG pdg : sdg.getAllPDGs()) {
-			MonitorUtil.throwExceptionIfCanceled(progress);
-            if (progress != null) {
-                progress.subTask(pdg.getMethod().toString());
-                progress.worked(progressCtr++);
-            }
-
-			final ModRefControlFlowGraph cfg = ModRefControlFlowGraph.compute(modref, pdg, cg, progress);
-
-			final OrdinalSetMapping<Node> domain = ModRefProviderImpl.createDomain(cfg);
-			final ModRefProvider provider = ModRefProviderImpl.createProvider(cfg, domain);
-			final ITransferFunctionProvider<Node, BitVectorVariable> transfer =
-					new ModRefReachingDefTransferFunctions(domain, provider);
-			final BitVectorFramework<Node, Node> reachDef =	new BitVectorFramework<Node, Node>(cfg, transfer, domain);
-			final BitVectorSolver<Node> solver = new BitVectorSolver<Node>(reachDef);
-
-			solver.solve(progress);
-
-			final Map<Node, OrdinalSet<Node>> mayRead = computeLastReachingDefs(solver, domain, provider);
-			final Map<Node, PDGNode> node2pdg = createPDGNodes(cfg, pdg, pdgnode2modref);
-			addDataDepEdgesToPDG(node2pdg, mayRead, pdg);
+		if (sdg.cfg.parallelism > 1) {
+			solveParallel(modref, sdg, cg, pdgnode2modref, progress);
+		} else {
+			for (final PDG pdg : sdg.getAllPDGs()) {
+				MonitorUtil.throwExceptionIfCanceled(progress);
+	            if (progress != null) {
+	                progress.subTask(pdg.getMethod().toString());
+	                progress.worked(progressCtr++);
+	            }
+
+				final ModRefControlFlowGraph cfg = ModRefControlFlowGraph.compute(modref, pdg, cg, progress);
+				final Map<Node, OrdinalSet<Node>> mayRead = solve(cfg, progress);
+				final Map<Node, PDGNode> node2pdg = createPDGNodes(cfg, pdg, pdgnode2modref);
+				addDataDepEdgesToPDG(node2pdg, mayRead, pdg);
+			}
 		}
 
 		connectFormalAndActualParams(sdg, pdgnode2modref);
@@ -95,6 +94,89 @@ public class ModRefDataFlow {
         if (progress != null) progress.done();
 	}
 
+	/**
+	 * Computes the reaching definitions of the heap locations in the control flow graph of a single pdg.
+	 * Only reads the control flow graph, so the control flow graphs of different pdgs can be solved concurrently.
+	 * @return For each node of the control flow graph the definitions it may read.
+	 */
+	private static Map<Node, OrdinalSet<Node>> solve(final ModRefControlFlowGraph cfg,
+			final IProgressMonitor progress) throws CancelException {
+		final OrdinalSetMapping<Node> domain = ModRefProviderImpl.createDomain(cfg);
+		final ModRefProvider provider = ModRefProviderImpl.createProvider(cfg, domain);
+		final ITransferFunctionProvider<Node, BitVectorVariable> transfer =
+				new ModRefReachingDefTransferFunctions(domain, provider);
+		final BitVectorFramework<Node, Node> reachDef =	new BitVectorFramework<Node, Node>(cfg, transfer, domain);
+		final BitVectorSolver<Node> solver = new BitVectorSolver<Node>(reachDef);
+
+		solver.solve(progress);
+
+		return computeLastReachingDefs(solver, domain, provider);
+	}
+
+	/**
+	 * The number of pdgs per thread whose control flow graphs are built and solved ahead of the pdg that is
+	 * currently extended with its solution.
+	 */
+	private static final int TASKS_AHEAD_PER_THREAD = 2;
+
+	/**
+	 * Solves the dataflow of all pdgs with sdg.cfg.parallelism threads. The control flow graph of each pdg is
+	 * built in the calling thread right before its task is submitted: Candidates are looked up with a visitor
+	 * shared by all pdgs, and mergable candidates are updated on lookup. The solutions are added to the pdgs in the
+	 * calling thread in the order of getAllPDGs(), so the new pdg nodes get the same ids as in the sequential
+	 * computation. Only a few tasks per thread are submitted ahead of the pdg that is extended, so only the control
+	 * flow graphs and solutions of these pdgs are kept in memory at the same time.
+	 * The workers are canceled together with the given progress monitor.
+	 */
+	private static void solveParallel(final ModRefCandidates modref, final SDGBuilder sdg, final CallGraph cg,
+			final TIntObjectHashMap<ModRefFieldCandidate> pdgnode2modref, final IProgressMonitor progress)
+			throws CancelException {
+		final List<PDG> pdgs = sdg.getAllPDGs();
+		final ExecutorService executor = ParallelUtil.newPool(sdg.cfg.parallelism, "modref-dataflow");
+		final WorkerProgressMonitor workerProgress = new WorkerProgressMonitor(progress);
+		final int ahead = TASKS_AHEAD_PER_THREAD * sdg.cfg.parallelism;
+		// control flow graphs and solutions of the pdgs that have been submitted but not yet extended
+		final LinkedList<ModRefControlFlowGraph> cfgs = new LinkedList<ModRefControlFlowGraph>();
+		final LinkedList<Future<Map<Node, OrdinalSet<Node>>>> futures =
+				new LinkedList<Future<Map<Node, OrdinalSet<Node>>>>();
+		int submitted = 0;
+		int progressCtr = 0;
+
+		try {
+			for (int i = 0; i < pdgs.size(); i++) {
+				while (submitted < pdgs.size() && submitted <= i + ahead) {
+					MonitorUtil.throwExceptionIfCanceled(progress);
+					final ModRefControlFlowGraph cfg =
+							ModRefControlFlowGraph.compute(modref, pdgs.get(submitted), cg, progress);
+					cfgs.addLast(cfg);
+					futures.addLast(executor.submit(new Callable<Map<Node, OrdinalSet<Node>>>() {
+						@Override
+						public Map<Node, OrdinalSet<Node>> call() throws CancelException {
+							return solve(cfg, workerProgress);
+						}
+					}));
+					submitted++;
+				}
+
+				final PDG pdg = pdgs.get(i);
+				final Map<Node, OrdinalSet<Node>> mayRead =
+						ParallelUtil.waitFor(futures.removeFirst(), CancelException.class);
+				MonitorUtil.throwExceptionIfCanceled(progress);
+	            if (progress != null) {
+	                progress.subTask(pdg.getMethod().toString());
+	                progress.worked(progressCtr++);
+	            }
+
+				final Map<Node, PDGNode> node2pdg = createPDGNodes(cfgs.removeFirst(), pdg, pdgnode2modref);
+				addDataDepEdgesToPDG(node2pdg, mayRead, pdg);
+			}
+		} finally {
+			// stops the workers that are still running if the computation failed or was canceled
+			workerProgress.cancel();
+			executor.shutdownNow();
+		}
+	}
+
 	private static void connectParameterStructure(final SDGBuilder sdg,
 			final TIntObjectHashMap<ModRefFieldCandidate> pdgnode2modref) {
 		final PointsToWrapper pa = new PointsToWrapper(sdg.getPointerAnalysis());
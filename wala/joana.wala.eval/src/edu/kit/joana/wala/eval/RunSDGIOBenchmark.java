@@ -0,0 +1,103 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.eval;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.List;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
+
+/**
+ * Measures the throughput in MB/s of reading and writing the given .pdg files: sequential vs. parallel reading
+ * with SDGManualParser and writing with a PrintWriter vs. the streamed writer. Each file is written to a temporary
+ * file next to it, which is removed afterwards.
+ */
+public class RunSDGIOBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int runs = 3;
+		int threads = Runtime.getRuntime().availableProcessors();
+		final List<File> files = new LinkedList<File>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-runs") && args.length > i + 1) {
+				runs = Math.max(1, Integer.parseInt(args[i + 1]));
+				i++;
+			} else if (args[i].equals("-threads") && args.length > i + 1) {
+				threads = Math.max(1, Integer.parseInt(args[i + 1]));
+				i++;
+			} else if (args[i].equals("-help")) {
+				System.out.println("Usage: progname [-runs <numberofruns>] [-threads <numberofthreads>] <.pdg files>");
+				return;
+			} else {
+				final File f = new File(args[i]);
+				if (!f.canRead()) {
+					System.err.println("File is not readable: '" + args[i] + "' - skipping");
+				} else {
+					files.add(f);
+				}
+			}
+		}
+
+		for (final File f : files) {
+			run(f, runs, threads);
+		}
+	}
+
+	private static void run(final File f, final int runs, final int threads) throws IOException {
+		final double megs = f.length() / (1024.0 * 1024.0);
+		System.out.println(f.getName() + " (" + String.format("%.1f", megs) + " MB), " + runs + " runs, "
+				+ threads + " threads:");
+
+		final File tmp = new File(f.getPath() + ".tmp");
+		SDG sdg = null;
+		long readSeq = 0, readPar = 0, write = 0, writeStreamed = 0;
+
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+			sdg = SDG.readFromAndUseLessHeap(f.getPath());
+			readSeq += System.nanoTime() - start;
+			sdg = null;
+
+			start = System.nanoTime();
+			sdg = SDG.readFromInParallel(f.getPath(), null, threads);
+			readPar += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp));
+			SDGSerializer.toPDGFormat(sdg, out);
+			out.close();
+			write += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			out = new BufferedOutputStream(new FileOutputStream(tmp));
+			SDGSerializer.toPDGFormatStreamed(sdg, out);
+			out.close();
+			writeStreamed += System.nanoTime() - start;
+		}
+
+		tmp.delete();
+
+		System.out.println("\tread sequential:  " + throughput(megs, runs, readSeq));
+		System.out.println("\tread parallel:    " + throughput(megs, runs, readPar));
+		System.out.println("\twrite:            " + throughput(megs, runs, write));
+		System.out.println("\twrite streamed:   " + throughput(megs, runs, writeStreamed));
+	}
+
+	private static String throughput(final double megs, final int runs, final long nanos) {
+		final double seconds = nanos / 1e9;
+		return String.format("%8.1f MB/s (%d ms per run)", (megs * runs) / seconds, (nanos / 1000000) / runs);
+	}
+
+}
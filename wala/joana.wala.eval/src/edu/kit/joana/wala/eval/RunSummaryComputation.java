@@ -46,7 +46,7 @@ public class RunSummaryComputation {
 	
 	private static long NO_MULTIPLE_RUNS_THRESHOLD = 1000000; 
 	
-	public enum Variant { OLD, NEW, DELETE, COUNT_PARAMS };
+	public enum Variant { OLD, NEW, PARALLEL, PACKED, DELETE, COUNT_PARAMS };
 	
 	public static class Task {
 		String filename;
@@ -55,6 +55,7 @@ public class RunSummaryComputation {
 		long endTime;
 		int numOfSumEdges;
 		int numOfNodes;
+		long usedMemory;
 		
 		public long duration() {
 			return endTime - startTime;
@@ -67,6 +68,7 @@ public class RunSummaryComputation {
 		boolean lazy = true;
 		int runs = 1;
 		int timeout = -1;
+		int threads = Runtime.getRuntime().availableProcessors();
 		List<File> filelist = new LinkedList<File>();
 		
 		
@@ -111,12 +113,23 @@ public class RunSummaryComputation {
 						timeout = -1;
 						error("No timeout value provided - timeout not enabled.");
 					}
+				} else if (args[i].equals("-threads")) {
+					if (args.length > i + 1) {
+						try {
+							threads = Integer.parseInt(args[i+1]);
+							i++;
+						} catch (NumberFormatException nf) {
+							error("Number of threads is no number - using " + threads + " threads: " + nf.getMessage());
+						}
+					} else {
+						error("No number of threads provided - using " + threads + " threads.");
+					}
 				} else if (args[i].equals("-recursive")) {
 					recursive = true;
 				} else if (args[i].equals("-lazy")) {
 					lazy = true;
 				} else if (args[i].equals("-help")) {
-					println("Usage: progname [-variant [new|old|delete]] [-runs <numberofruns>] [-recursive] [-help] <files or dir>");
+					println("Usage: progname [-variant [new|old|parallel|packed|delete]] [-runs <numberofruns>] [-threads <numberofthreads>] [-recursive] [-help] <files or dir>");
 					return;
 				} else {
 					// must be a file or directory name
@@ -142,11 +155,15 @@ public class RunSummaryComputation {
 		
 		final List<Task> tasks = buildTaskList(filelist, recursive, lazy, v);
 		for (final Task t : tasks) {
-			work(t, v, runs, timeout);
+			work(t, v, runs, timeout, threads);
 		}
 	}
 	
 	static void work(final Task t, final Variant v, final int runs, final int timeout) {
+		work(t, v, runs, timeout, 1);
+	}
+
+	static void work(final Task t, final Variant v, final int runs, final int timeout, final int threads) {
 		PrintStream log = null;
 		if (v != Variant.DELETE) {
 			try {
@@ -182,6 +199,12 @@ public class RunSummaryComputation {
 		case OLD:
 			su = SummaryEdgeDriver.getOldVariant();
 			break;
+		case PARALLEL:
+			su = SummaryEdgeDriver.getParallelVariant(threads);
+			break;
+		case PACKED:
+			su = SummaryEdgeDriver.getPackedVariant();
+			break;
 		case DELETE:
 			su = delete;
 			break;
@@ -209,6 +232,7 @@ public class RunSummaryComputation {
 					t.endTime = r.endTime;
 					t.numOfSumEdges = r.numSumEdges;
 					t.numOfNodes = sdg.vertexSet().size();
+					t.usedMemory = r.usedMemory;
 				}
 				
 				if (t.duration() > NO_MULTIPLE_RUNS_THRESHOLD) {
@@ -241,14 +265,16 @@ public class RunSummaryComputation {
 		}
 		
 		if (!error) {
-			println(t.numOfSumEdges + " edges in " + t.duration() + " ms. " + t.numOfNodes + " nodes.");
+			println(t.numOfSumEdges + " edges in " + t.duration() + " ms. " + t.numOfNodes + " nodes. "
+					+ (t.usedMemory / (1024 * 1024)) + "M used.");
 		} else {
 			println(timeoutOccured ? "TIMEOUT ERROR" : "ERROR");
 		}
 		
 		if (v != Variant.DELETE && log != null) {
 			if (!error) {
-				log.println(t.numOfSumEdges + " edges in " + t.duration() + " ms for " + t.filename);
+				log.println(t.numOfSumEdges + " edges in " + t.duration() + " ms and " + (t.usedMemory / (1024 * 1024))
+						+ "M for " + t.filename);
 			} else {
 				log.println(timeoutOccured ? "TIMEOUT ERROR" : "ERROR");
 			}
@@ -265,6 +291,10 @@ public class RunSummaryComputation {
 			return pdgFile + "-sumnew.log";
 		case OLD:
 			return pdgFile + "-sumold.log";
+		case PARALLEL:
+			return pdgFile + "-sumpar.log";
+		case PACKED:
+			return pdgFile + "-sumpacked.log";
 		case COUNT_PARAMS:
 			return pdgFile + "-paramcount.log";
 		}
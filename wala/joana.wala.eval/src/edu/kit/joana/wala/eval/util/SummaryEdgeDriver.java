@@ -34,6 +34,8 @@ public abstract class SummaryEdgeDriver {
 		public int numSumEdges;
 		public long startTime;
 		public long endTime;
+		/** heap growth during the computation in bytes. Only a hint, as the garbage collector may run meanwhile. */
+		public long usedMemory;
 		
 		public long duration() {
 			return endTime - startTime;
@@ -43,6 +45,23 @@ public abstract class SummaryEdgeDriver {
 	public abstract Result compute(final SDG sdg, final IProgressMonitor progress) throws CancelException;
 
 	public static SummaryEdgeDriver getNewVariant() {
+		return getParallelVariant(1);
+	}
+
+	public static SummaryEdgeDriver getPackedVariant() {
+		return getVariant(1, true);
+	}
+
+	public static SummaryEdgeDriver getParallelVariant(final int threads) {
+		return getVariant(threads, false);
+	}
+
+	private static long usedHeap() {
+		final Runtime rt = Runtime.getRuntime();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static SummaryEdgeDriver getVariant(final int threads, final boolean packedPathEdges) {
 		return new SummaryEdgeDriver() {
 			@Override
 			public Result compute(final SDG sdg, final IProgressMonitor progress) throws CancelException {
@@ -64,10 +83,14 @@ public abstract class SummaryEdgeDriver {
 				entries.add(ep);
 
 				final WorkPackage pack = WorkPackage.create(sdg, entries, sdg.getName() + "-summaryedgedriver");
+				pack.setPackedPathEdges(packedPathEdges);
 
+				System.gc();
+				final long heapBefore = usedHeap();
 				r.startTime = System.currentTimeMillis();
-				SummaryComputation.compute(pack, progress);
+				SummaryComputation.compute(pack, threads, progress);
 				r.endTime = System.currentTimeMillis();
+				r.usedMemory = usedHeap() - heapBefore;
 				
 				int numSum = 0;
 				for (final SDGEdge e : sdg.edgeSet()) {
@@ -122,6 +122,7 @@ public class ExecutionOptions {
     private URI exclusions;
     private String entryMethod = null;
     private URI sdgFile;
+    private String metricsFile = null;
     private String manifest = null;
     private ScanMode scan = ScanMode.OFF;
     private BuildMode construct = BuildMode.OFF;
@@ -379,6 +380,20 @@ public class ExecutionOptions {
         return this.sdgFile;
     }
 
+    /**
+     *  Where to write the metrics of the SDG-construction phases to (JSON).
+     *
+     *  If null no metrics are recorded.
+     *
+     *  @param  metricsFile Path where to write the file to
+     */
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+    public String getMetricsFile() {
+        return this.metricsFile;
+    }
+
     /**
      *  Set an extracted AndroidManifest.xml to read.
      *
@@ -91,6 +91,13 @@ public class JoDroidCLI {
                 .hasArg() //.isRequired() 
                 .withArgName("FILE")
                 .create("o") );
+        options.addOption(  //"M", "metrics", 
+                OptionBuilder.withLongOpt( "metrics" )
+                .withDescription( "write the time, memory and graph size of each phase of the SDG construction " +
+                    "in JSON format to FILE")
+                .hasArg()
+                .withArgName("FILE")
+                .create("M") );
         options.addOption(  //"e", "entrypoint", 
                 OptionBuilder.withLongOpt( "entrypoint" )
                 .withDescription( 
@@ -199,6 +206,10 @@ public class JoDroidCLI {
                 p.setSdgFile(commandLine.getOptionValue("outfile"));
             }
 
+            if ( commandLine.hasOption( "metrics" ) ) {
+                p.setMetricsFile(commandLine.getOptionValue("metrics"));
+            }
+
             if ( commandLine.hasOption( "lib" ) ) {
                 p.setAndroidLib(commandLine.getOptionValue("lib"));
             }
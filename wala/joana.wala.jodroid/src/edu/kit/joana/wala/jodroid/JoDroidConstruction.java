@@ -57,6 +57,7 @@ import com.ibm.wala.dalvik.ipa.callgraph.androidModel.IntentModel;
 
 import edu.kit.joana.ifc.sdg.graph.SDG;
 import edu.kit.joana.wala.core.SDGBuilder;
+import edu.kit.joana.util.PhaseMetrics;
 import edu.kit.joana.ifc.sdg.graph.SDGSerializer;
 
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
@@ -445,22 +446,34 @@ public class JoDroidConstruction {
      */
     public static void dispatch(final ExecutionOptions ex) throws SDGConstructionException, IOException {
         final AnalysisScope scope = makeScope(null, null, ex);
+        final PhaseMetrics metrics = (ex.getMetricsFile() != null ? new PhaseMetrics("jodroid") : null);
 
         final IClassHierarchy cha;
         { // Build cha
+            if (metrics != null) {
+                metrics.begin("cha");
+            }
             try {
                 if (ex.getOutput() == AnalysisPresets.OutputDescription.QUIET) {
                     cha = ClassHierarchy.make(scope, new NullProgressMonitor());
                 } else {
                     cha = ClassHierarchy.make(scope, Preset.aem.getProgressMonitor());
                 }
+                if (metrics != null) {
+                    metrics.count("classes", cha.getNumberOfClasses());
+                }
             } catch (ClassHierarchyException e) {
                 throw new SDGConstructionException(e);
+            } finally {
+                if (metrics != null) {
+                    metrics.end();
+                }
             }
         }
 
         Preset p = AnalysisPresets.make(ex.getPreset(), scope, cha);
         AnalysisPresets.applyOutput(ex.getOutput(), p);
+        p.scfg.metrics = metrics;
         final JoDroidConstruction constr = new JoDroidConstruction(p);
 
         constr.loadAndroidManifest(ex.getManifestFile());
@@ -531,6 +544,11 @@ public class JoDroidConstruction {
             }
         }
 
+        if (metrics != null) { // Write the metrics-file
+            metrics.endAll();
+            metrics.writeJSON(ex.getMetricsFile());
+        }
+
         { // Pretty :/
             final java.util.Map< com.ibm.wala.classLoader.CallSiteReference, com.ibm.wala.dalvik.ipa.callgraph.propagation.cfa.Intent > seen = Preset.aem.getSeen ();
             
@@ -140,6 +140,27 @@ public class EntryPointCache {
 		return new EntryPointCache(directory);
 	}
 
+	/**
+	 * Checks if summary information for the given entry is available, either in memory or as a file that has been
+	 * stored by a previous run.
+	 */
+	public boolean contains(int entryId) {
+		return data.contains(entryId) || getFileOfEntryPoint(entryId).isFile();
+	}
+
+	/**
+	 * Drops the summary information of the given entry, e.g. because the code of the procedure has changed or it
+	 * has been removed. Does nothing if there is no information for the entry.
+	 */
+	public void invalidate(int entryId) throws StoreEntryPointException {
+		data.remove(entryId);
+
+		final File epFile = getFileOfEntryPoint(entryId);
+		if (epFile.exists() && !epFile.delete()) {
+			throw new StoreEntryPointException("Could not delete " + epFile.getAbsolutePath());
+		}
+	}
+
 	public void put(EntryPoint ep) throws StoreEntryPointException {
 		if (ep == null) {
 			throw new IllegalArgumentException("Parameter is null.");
@@ -401,8 +401,59 @@ public class GraphUtil {
 
 				// will lead to direct summary edges at all callsites.
 				SDGEdge ddEdge = new SDGEdge(formalIn, formalOut, SDGEdge.Kind.DATA_DEP);
-				sdg.addEdge(ddEdge);
-				newEdges++;
+				if (sdg.addEdge(ddEdge)) {
+					newEdges++;
+				}
+			}
+		}
+
+		return newEdges;
+	}
+
+	/**
+	 * Adds the summary edges described by the entry point of the callee to the given call site.
+	 * @return The number of summary edges added. Edges that already exist in the sdg are not counted.
+	 */
+	public static int adjustCallsite(SDG sdg, SDGNode callNode, EntryPoint ep) {
+		assert callNode.getKind() == SDGNode.Kind.CALL;
+
+		int newEdges = 0;
+
+		for (TIntIterator itFin = ep.iterateFormalIns(); itFin.hasNext();) {
+			final int fInId = itFin.next();
+			final SDGNode formalIn = sdg.getNode(fInId);
+
+			assert (formalIn.getKind() == SDGNode.Kind.FORMAL_IN);
+
+			final SDGNode actualIn = sdg.getActualIn(callNode, formalIn);
+
+			if (actualIn == null) {
+				debug("WARN: No matching actIn found. For node " + formalIn.getId() + " of call " + callNode.getLabel() + " - SKIPPING");
+				continue;
+			}
+
+			TIntList influenced = ep.getInfluencedFormOuts(fInId);
+			if (influenced == null) {
+				continue;
+			}
+
+			for (TIntIterator itFout = influenced.iterator(); itFout.hasNext();) {
+				final int fOutId = itFout.next();
+				final SDGNode formalOut = sdg.getNode(fOutId);
+
+				assert (formalOut.getKind() == SDGNode.Kind.FORMAL_OUT);
+
+				final SDGNode actualOut = sdg.getActualOut(callNode, formalOut);
+
+				if (actualOut == null) {
+					debug("WARN: No matching actualOut found.");
+					continue;
+				}
+
+				SDGEdge sumEdge = new SDGEdge(actualIn, actualOut, SDGEdge.Kind.SUMMARY);
+				if (sdg.addEdge(actualIn, actualOut, sumEdge)) {
+					newEdges++;
+				}
 			}
 		}
 
@@ -0,0 +1,301 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.summary;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.CallGraph;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.FoldedCallGraph;
+import edu.kit.joana.ifc.sdg.graph.slicer.graph.building.GraphFolder;
+import edu.kit.joana.wala.summary.EntryPointCache.LoadEntryPointException;
+import edu.kit.joana.wala.summary.EntryPointCache.StoreEntryPointException;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+
+/**
+ * Updates the summary edges of an sdg after some procedures have been changed, without recomputing the summary
+ * edges of the whole graph.
+ *
+ * The summary information of each procedure is kept in an {@link EntryPointCache}. A procedure is recomputed iff
+ * it has changed, it has no cached summary information, or it calls a procedure whose recomputed summary
+ * information differs from the cached one. The candidates - all transitive callers of changed or uncached
+ * procedures - are processed bottom-up along the folded call graph: each strongly connected component is
+ * computed on its own subgraph, where calls to procedures outside the component are represented by their cached
+ * summary information (see {@link Main}). A component whose callees all kept their summary information is
+ * skipped, so the update stops at the first callers that are not affected by the change. Afterwards the summary
+ * edges of all call sites of recomputed procedures are replaced in the sdg. Summary edges of the remaining call
+ * sites are left untouched.
+ *
+ * Only edges of kind {@link SDGEdge.Kind#SUMMARY} are computed here, so summary edges of other kinds, e.g.
+ * {@link SDGEdge.Kind#SUMMARY_DATA} or {@link SDGEdge.Kind#SUMMARY_NO_ALIAS}, are neither removed nor replaced.
+ *
+ * With an empty cache all procedures are computed, so the same method can be used for the initial run.
+ */
+public final class IncrementalSummaryComputation {
+
+	private IncrementalSummaryComputation() {}
+
+	/**
+	 * Computes the summary information of all procedures that are not yet cached and updates the sdg accordingly.
+	 * @return The number of summary edges added to the sdg.
+	 */
+	public static int compute(SDG sdg, EntryPointCache cache, IProgressMonitor progress) throws CancelException,
+			LoadEntryPointException, StoreEntryPointException {
+		return update(sdg, cache, new TIntHashSet(), new TIntHashSet(), progress);
+	}
+
+	/**
+	 * Updates the summary edges of the sdg after the given procedures have been changed or removed.
+	 *
+	 * The sdg has to contain the current code of all procedures and the summary edges of the previous computation
+	 * for all call sites of unchanged procedures. Callers of a removed procedure have changed as well, so they
+	 * have to be part of the changed procedures.
+	 *
+	 * @param sdg The sdg that is updated.
+	 * @param cache Summary information of the previous computation. Updated for all recomputed procedures.
+	 * @param changed Ids of the entry nodes of procedures that have changed since the previous computation.
+	 * @param removed Ids of the entry nodes of procedures that are no longer part of the sdg.
+	 * @return The number of summary edges added to the sdg.
+	 */
+	public static int update(SDG sdg, EntryPointCache cache, TIntSet changed, TIntSet removed,
+			IProgressMonitor progress) throws CancelException, LoadEntryPointException, StoreEntryPointException {
+		for (TIntIterator it = removed.iterator(); it.hasNext();) {
+			cache.invalidate(it.next());
+		}
+
+		final CallGraph cg = GraphUtil.buildCallGraph(sdg);
+		final Set<SDGNode> candidates = findCandidateEntries(sdg, cg, cache, changed);
+
+		if (candidates.isEmpty()) {
+			return 0;
+		}
+
+		final List<Component> components = buildComponents(cg, candidates);
+		final LinkedList<Component> worklist = new LinkedList<Component>();
+		for (final Component c : components) {
+			for (final SDGNode entry : c.entries) {
+				if (changed.contains(entry.getId()) || !cache.contains(entry.getId())) {
+					c.outdated = true;
+				}
+			}
+
+			if (c.pendingCallees == 0) {
+				worklist.add(c);
+			}
+		}
+
+		final Set<SDGNode> callSites = new HashSet<SDGNode>();
+		int done = 0;
+		while (!worklist.isEmpty()) {
+			MonitorUtil.throwExceptionIfCanceled(progress);
+
+			final Component current = worklist.removeFirst();
+			if (current.outdated) {
+				// summary edges of call sites to recomputed procedures are outdated, this includes the recursive
+				// calls within the component
+				for (final SDGNode entry : current.entries) {
+					for (final SDGNode call : sdg.getCallers(entry)) {
+						if (callSites.add(call)) {
+							removeSummaryEdges(sdg, call);
+						}
+					}
+				}
+
+				if (computeComponent(sdg, current, cache, progress)) {
+					for (final Component caller : current.callers) {
+						caller.outdated = true;
+					}
+				}
+			}
+			done++;
+
+			for (final Component caller : current.callers) {
+				caller.pendingCallees--;
+				if (caller.pendingCallees == 0) {
+					worklist.add(caller);
+				}
+			}
+		}
+
+		if (done != components.size()) {
+			throw new IllegalStateException("Only " + done + " of " + components.size()
+					+ " components have been processed.");
+		}
+
+		int newSumEdges = 0;
+		for (final SDGNode call : callSites) {
+			for (final SDGNode callee : sdg.getPossibleTargets(call)) {
+				newSumEdges += GraphUtil.adjustCallsite(sdg, call, cache.getEntryPoint(callee.getId()));
+			}
+		}
+
+		return newSumEdges;
+	}
+
+	/**
+	 * Removes the summary edges of kind {@link SDGEdge.Kind#SUMMARY} that start at the actual-in nodes of the given
+	 * call site. These are the edges {@link GraphUtil#adjustCallsite} adds again.
+	 */
+	private static void removeSummaryEdges(SDG sdg, SDGNode call) {
+		final List<SDGEdge> summary = new LinkedList<SDGEdge>();
+		final LinkedList<SDGNode> worklist = new LinkedList<SDGNode>();
+		worklist.add(call);
+
+		while (!worklist.isEmpty()) {
+			final SDGNode next = worklist.removeFirst();
+
+			for (final SDGEdge e : sdg.outgoingEdgesOf(next)) {
+				switch (e.getKind()) {
+				case CONTROL_DEP_EXPR:
+					if (e.getTarget().getKind() == SDGNode.Kind.ACTUAL_IN) {
+						worklist.add(e.getTarget());
+					}
+					break;
+				case SUMMARY:
+					summary.add(e);
+					break;
+				default:
+					break;
+				}
+			}
+		}
+
+		sdg.removeAllEdges(summary);
+	}
+
+	/**
+	 * Collects the entries of all procedures that have changed or are not cached, as well as their transitive
+	 * callers. Only these procedures may have to be recomputed.
+	 */
+	private static Set<SDGNode> findCandidateEntries(SDG sdg, CallGraph cg, EntryPointCache cache,
+			TIntSet changed) {
+		final LinkedList<SDGNode> worklist = new LinkedList<SDGNode>();
+		for (final SDGNode entry : cg.vertexSet()) {
+			if (changed.contains(entry.getId()) || !cache.contains(entry.getId())) {
+				worklist.add(entry);
+			}
+		}
+
+		final Set<SDGNode> candidates = new HashSet<SDGNode>(worklist);
+		while (!worklist.isEmpty()) {
+			final SDGNode entry = worklist.removeFirst();
+
+			for (final SDGEdge call : cg.incomingEdgesOf(entry)) {
+				final SDGNode caller = call.getSource();
+				if (candidates.add(caller)) {
+					worklist.add(caller);
+				}
+			}
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Groups the candidate entries by the strongly connected components of the call graph. As all callers of a
+	 * candidate are candidates as well, each component only waits for candidate callees.
+	 */
+	private static List<Component> buildComponents(CallGraph cg, Set<SDGNode> candidates) {
+		final FoldedCallGraph fcg = GraphFolder.foldCallGraph(cg);
+		final Map<SDGNode, Component> fold2component = new HashMap<SDGNode, Component>();
+		final List<Component> components = new LinkedList<Component>();
+
+		for (final SDGNode entry : candidates) {
+			final SDGNode fold = fcg.map(entry);
+			Component c = fold2component.get(fold);
+			if (c == null) {
+				c = new Component();
+				fold2component.put(fold, c);
+				components.add(c);
+			}
+
+			c.entries.add(entry);
+		}
+
+		for (final SDGNode entry : candidates) {
+			final Component caller = fold2component.get(fcg.map(entry));
+
+			for (final SDGEdge call : cg.outgoingEdgesOf(entry)) {
+				final Component callee = fold2component.get(fcg.map(call.getTarget()));
+				if (callee != null && callee != caller && callee.callers.add(caller)) {
+					caller.pendingCallees++;
+				}
+			}
+		}
+
+		return components;
+	}
+
+	/**
+	 * Recomputes the summary information of all procedures of the component and stores it in the cache.
+	 * @return {@code true} iff the summary information of at least one procedure differs from the cached one.
+	 */
+	private static boolean computeComponent(SDG sdg, Component current, EntryPointCache cache,
+			IProgressMonitor progress) throws CancelException, LoadEntryPointException, StoreEntryPointException {
+		final Set<WorkPackage.EntryPoint> entryPoints = new HashSet<WorkPackage.EntryPoint>();
+		for (final SDGNode entry : current.entries) {
+			entryPoints.add(GraphUtil.extractEntryPoint(sdg, entry));
+		}
+
+		final SDG stripped = GraphUtil.stripGraph(sdg, current.entries);
+
+		// callees outside of the component have already been computed or did not change
+		final TIntArrayList callees = new TIntArrayList();
+		for (final SDGNode n : stripped.vertexSet()) {
+			if (n.getKind() == SDGNode.Kind.ENTRY && !current.entries.contains(n)) {
+				callees.add(n.getId());
+			}
+		}
+
+		GraphUtil.adjustSubgraphWithSummaries(stripped, callees, cache);
+
+		final WorkPackage pack = WorkPackage.create(stripped, entryPoints, sdg.getName());
+		stripped.setName(pack.getName());
+		SummaryComputation.compute(pack, progress);
+
+		boolean differs = false;
+		for (final WorkPackage.EntryPoint ep : pack.getEntryPoints()) {
+			if (!cache.contains(ep.getEntryId()) || !cache.getEntryPoint(ep.getEntryId()).hasSameSummaries(ep)) {
+				differs = true;
+			}
+
+			cache.invalidate(ep.getEntryId());
+			cache.put(ep);
+		}
+
+		return differs;
+	}
+
+	/**
+	 * A strongly connected component of the call graph that may have to be recomputed.
+	 */
+	private static final class Component {
+
+		private final List<SDGNode> entries = new LinkedList<SDGNode>();
+		private final Set<Component> callers = new HashSet<Component>();
+		private int pendingCallees = 0;
+		/** Set if a procedure of the component or the summary information of a callee has changed. */
+		private boolean outdated = false;
+
+	}
+
+}
@@ -0,0 +1,496 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.summary;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import edu.kit.joana.ifc.sdg.graph.SDG;
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+
+/**
+ * An on-disk store of the summary information of library methods, so that later analyses of other programs linking
+ * the same libraries can reuse it instead of building the PDGs of the library code again.
+ * <p>
+ * A method is identified by its signature and a digest of the library it comes from and of the analysis options
+ * the summary depends on. For each alias context of the method the store holds the formal-in and formal-out
+ * parameters and which formal-ins each formal-out depends on.
+ * Parameters are named by the path of their bytecode names in the parameter structure, see {@link #formalKey}, as
+ * node ids change from one analysis to the next.
+ * <p>
+ * Each method is stored in its own file, named by a hash of signature and digest. A file is written to a temporary
+ * file first and then renamed, so concurrent analyses sharing the directory never read a partially written file.
+ */
+public class LibrarySummaryStore {
+
+	/**
+	 * The parameters and dependencies of a method in one alias context.
+	 */
+	public static final class Context {
+		private final Set<String> formalIns = new TreeSet<String>();
+		private final Set<String> formalOuts = new TreeSet<String>();
+		private final Map<String, Set<String>> out2ins = new TreeMap<String, Set<String>>();
+		private boolean prunable = true;
+
+		public Set<String> getFormalIns() {
+			return Collections.unmodifiableSet(formalIns);
+		}
+
+		public Set<String> getFormalOuts() {
+			return Collections.unmodifiableSet(formalOuts);
+		}
+
+		/**
+		 * @return the formal-ins the given formal-out depends on.
+		 */
+		public Set<String> getDependencies(String formalOut) {
+			final Set<String> ins = out2ins.get(formalOut);
+			return (ins == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(ins));
+		}
+
+		/**
+		 * @return false if an analysis that did not build the callees of the method found other formal parameters
+		 * than the stored ones, so the callees have to be built anyway.
+		 */
+		public boolean isPrunable() {
+			return prunable;
+		}
+
+		private void addDependency(String formalOut, String formalIn) {
+			Set<String> ins = out2ins.get(formalOut);
+			if (ins == null) {
+				ins = new TreeSet<String>();
+				out2ins.put(formalOut, ins);
+			}
+
+			ins.add(formalIn);
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (!(obj instanceof Context)) {
+				return false;
+			}
+
+			final Context other = (Context) obj;
+			return formalIns.equals(other.formalIns) && formalOuts.equals(other.formalOuts)
+					&& out2ins.equals(other.out2ins);
+		}
+
+		public int hashCode() {
+			return out2ins.hashCode();
+		}
+
+		public String toString() {
+			return "[in:" + formalIns.size() + "][out:" + formalOuts.size() + "][deps:" + out2ins + "]";
+		}
+	}
+
+	/**
+	 * The summary information of a method for all alias contexts seen so far.
+	 */
+	public static final class MethodSummary {
+		private final String signature;
+		private final String digest;
+		private final Map<String, Context> contexts = new TreeMap<String, Context>();
+
+		private MethodSummary(String signature, String digest) {
+			this.signature = signature;
+			this.digest = digest;
+		}
+
+		public String getSignature() {
+			return signature;
+		}
+
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * @return the summary of the given alias context, or null if the method has not been analyzed in this context.
+		 */
+		public Context getContext(String aliasContext) {
+			return contexts.get(aliasContext);
+		}
+
+		public Set<String> getAliasContexts() {
+			return Collections.unmodifiableSet(contexts.keySet());
+		}
+
+		public String toString() {
+			return signature + " (" + digest + "): " + contexts.keySet();
+		}
+	}
+
+	private static final String FILE_SUFFIX = ".lsum";
+	private static final String IN = "in";
+	private static final String OUT = "out";
+
+	private final String directory;
+	/* file name -> summary, null if there is no file */
+	private final Map<String, MethodSummary> loaded = new HashMap<String, MethodSummary>();
+
+	private LibrarySummaryStore(String directory) {
+		this.directory = directory;
+	}
+
+	public static LibrarySummaryStore create(String directory) {
+		final File dir = new File(directory);
+
+		if (dir.exists() && dir.isFile()) {
+			throw new IllegalArgumentException(directory + " is a file and not a directory.");
+		}
+
+		if (!dir.exists()) {
+			dir.mkdirs();
+		}
+
+		if (!dir.exists() || dir.isFile()) {
+			throw new IllegalArgumentException("Could not create a dir with name: " + directory);
+		}
+
+		return new LibrarySummaryStore(directory);
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Checks if summary information for the given method is available, either in memory or as a file that has been
+	 * stored by a previous run.
+	 */
+	public synchronized boolean contains(String signature, String digest) throws IOException {
+		return get(signature, digest) != null;
+	}
+
+	/**
+	 * @return the summary information of the given method, or null if there is none.
+	 */
+	public synchronized MethodSummary get(String signature, String digest) throws IOException {
+		final String name = fileName(signature, digest);
+
+		if (loaded.containsKey(name)) {
+			return loaded.get(name);
+		}
+
+		final File file = new File(directory, name);
+		MethodSummary sum = null;
+
+		if (file.isFile()) {
+			try {
+				sum = readFromFile(file);
+			} catch (ParseException e) {
+				throw new IOException(file.getAbsolutePath() + ":" + e.getErrorOffset() + ": " + e.getMessage(), e);
+			}
+
+			if (!sum.signature.equals(signature) || !sum.digest.equals(digest)) {
+				// hash collision - treat as missing, the next put overwrites it
+				sum = null;
+			}
+		}
+
+		loaded.put(name, sum);
+
+		return sum;
+	}
+
+	/**
+	 * Adds or replaces the summary of a method in the given alias context and writes the method's file.
+	 */
+	public synchronized void put(String signature, String digest, String aliasContext, Context context)
+			throws IOException {
+		MethodSummary sum = get(signature, digest);
+
+		if (sum == null) {
+			sum = new MethodSummary(signature, digest);
+			loaded.put(fileName(signature, digest), sum);
+		} else if (context.equals(sum.contexts.get(aliasContext))) {
+			return;
+		}
+
+		sum.contexts.put(aliasContext, context);
+		writeToFile(new File(directory, fileName(signature, digest)), sum);
+	}
+
+	/**
+	 * Marks the summary of a method in the given alias context as not {@link Context#isPrunable() prunable}. Does
+	 * nothing if there is no such summary.
+	 */
+	public synchronized void markNotPrunable(String signature, String digest, String aliasContext)
+			throws IOException {
+		final MethodSummary sum = get(signature, digest);
+		final Context ctx = (sum == null ? null : sum.contexts.get(aliasContext));
+
+		if (ctx != null && ctx.prunable) {
+			ctx.prunable = false;
+			writeToFile(new File(directory, fileName(signature, digest)), sum);
+		}
+	}
+
+	/**
+	 * Drops the summary information of the given method. Does nothing if there is none.
+	 */
+	public synchronized void invalidate(String signature, String digest) throws IOException {
+		final String name = fileName(signature, digest);
+		loaded.put(name, null);
+
+		final File file = new File(directory, name);
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not delete " + file.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Extracts the summary information of the procedure with the given entry node. Each formal-out depends on the
+	 * formal-ins it is reachable from on intraprocedural dependences, including summary edges. So the summary edges
+	 * of the graph have to be computed first.
+	 *
+	 * @return the summary, or null if two formal parameters of the procedure get the same name.
+	 */
+	public static Context summarize(SDG sdg, SDGNode entry) {
+		final Context ctx = new Context();
+		final Map<SDGNode, String> keys = formalKeys(sdg, entry);
+
+		for (Map.Entry<SDGNode, String> e : keys.entrySet()) {
+			if (!(isFormalIn(e.getKey()) ? ctx.formalIns : ctx.formalOuts).add(e.getValue())) {
+				return null;
+			}
+		}
+
+		for (Map.Entry<SDGNode, String> e : keys.entrySet()) {
+			final SDGNode fOut = e.getKey();
+			if (isFormalIn(fOut)) {
+				continue;
+			}
+
+			final Set<SDGNode> visited = new HashSet<SDGNode>();
+			final LinkedList<SDGNode> work = new LinkedList<SDGNode>();
+			visited.add(fOut);
+			work.add(fOut);
+
+			while (!work.isEmpty()) {
+				final SDGNode n = work.removeFirst();
+
+				for (SDGEdge in : sdg.incomingEdgesOf(n)) {
+					final SDGNode pred = in.getSource();
+
+					if (in.getKind().isIntraSDGEdge() && pred.getProc() == entry.getProc() && visited.add(pred)) {
+						work.add(pred);
+
+						if (isFormalIn(pred) && keys.containsKey(pred)) {
+							ctx.addDependency(e.getValue(), keys.get(pred));
+						}
+					}
+				}
+			}
+		}
+
+		return ctx;
+	}
+
+	private static boolean isFormalIn(SDGNode n) {
+		return n.getKind() == SDGNode.Kind.FORMAL_IN;
+	}
+
+	/**
+	 * Names the formal parameters of a procedure by the path of their bytecode names along the parameter structure
+	 * edges starting at the entry node. If a parameter has several parents, the smallest name is taken.
+	 */
+	private static Map<SDGNode, String> formalKeys(SDG sdg, SDGNode entry) {
+		final Map<SDGNode, String> paths = new HashMap<SDGNode, String>();
+		final LinkedList<SDGNode> work = new LinkedList<SDGNode>();
+		paths.put(entry, "");
+		work.add(entry);
+
+		while (!work.isEmpty()) {
+			final SDGNode n = work.removeFirst();
+			final String path = paths.get(n);
+
+			for (SDGEdge e : sdg.getOutgoingEdgesOfKind(n, SDGEdge.Kind.PARAMETER_STRUCTURE)) {
+				final SDGNode child = e.getTarget();
+				final String childPath = formalKey(path, child.getBytecodeName(), child.getBytecodeIndex());
+				final String old = paths.get(child);
+
+				if (old == null || childPath.compareTo(old) < 0) {
+					paths.put(child, childPath);
+					work.add(child);
+				}
+			}
+		}
+
+		final Map<SDGNode, String> keys = new HashMap<SDGNode, String>();
+		for (Map.Entry<SDGNode, String> e : paths.entrySet()) {
+			final SDGNode n = e.getKey();
+
+			switch (n.getKind()) {
+			case FORMAL_IN:
+				keys.put(n, IN + e.getValue());
+				break;
+			case FORMAL_OUT:
+			case EXIT:
+				keys.put(n, OUT + e.getValue());
+				break;
+			default: // nothing to do here
+			}
+		}
+
+		return keys;
+	}
+
+	/**
+	 * Extends the path of the parent parameter by a child parameter. Prefix the result with "in" or "out" to get
+	 * the name of a formal-in or formal-out parameter.
+	 */
+	public static String formalKey(String parentPath, String bytecodeName, int bytecodeIndex) {
+		return parentPath + "/" + bytecodeName + "#" + bytecodeIndex;
+	}
+
+	public static String formalInKey(String path) {
+		return IN + path;
+	}
+
+	public static String formalOutKey(String path) {
+		return OUT + path;
+	}
+
+	private static String fileName(String signature, String digest) {
+		try {
+			final MessageDigest sha = MessageDigest.getInstance("SHA-1");
+			final byte[] hash = sha.digest((signature + "\n" + digest).getBytes("UTF-8"));
+			final StringBuilder sb = new StringBuilder();
+			for (byte b : hash) {
+				sb.append(String.format("%02x", b & 0xff));
+			}
+
+			return sb.append(FILE_SUFFIX).toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void writeToFile(File file, MethodSummary sum) throws IOException {
+		final File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+		final PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8"));
+		boolean written = false;
+
+		try {
+			pw.println("signature\t" + sum.signature);
+			pw.println("digest\t" + sum.digest);
+
+			for (Map.Entry<String, Context> e : sum.contexts.entrySet()) {
+				final Context ctx = e.getValue();
+				pw.println("context\t" + e.getKey());
+
+				if (!ctx.prunable) {
+					pw.println("noprune");
+				}
+
+				for (String in : ctx.formalIns) {
+					pw.println("in\t" + in);
+				}
+
+				for (String out : ctx.formalOuts) {
+					pw.println("out\t" + out);
+				}
+
+				for (Map.Entry<String, Set<String>> dep : ctx.out2ins.entrySet()) {
+					for (String in : dep.getValue()) {
+						pw.println("dep\t" + dep.getKey() + "\t" + in);
+					}
+				}
+			}
+
+			pw.close();
+			if (pw.checkError()) {
+				throw new IOException("Could not write " + tmp.getAbsolutePath());
+			}
+
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			written = true;
+		} finally {
+			pw.close();
+			if (!written) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private static MethodSummary readFromFile(File file) throws IOException, ParseException {
+		final BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+
+		try {
+			final String signature = expect(in.readLine(), "signature", 1);
+			final String digest = expect(in.readLine(), "digest", 2);
+			final MethodSummary sum = new MethodSummary(signature, digest);
+			Context ctx = null;
+			int lineNr = 2;
+
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				lineNr++;
+				final String[] tok = line.split("\t");
+
+				if ("context".equals(tok[0]) && tok.length == 2) {
+					ctx = new Context();
+					sum.contexts.put(tok[1], ctx);
+				} else if (ctx == null) {
+					throw new ParseException("\"context\" expected", lineNr);
+				} else if ("noprune".equals(tok[0]) && tok.length == 1) {
+					ctx.prunable = false;
+				} else if ("in".equals(tok[0]) && tok.length == 2) {
+					ctx.formalIns.add(tok[1]);
+				} else if ("out".equals(tok[0]) && tok.length == 2) {
+					ctx.formalOuts.add(tok[1]);
+				} else if ("dep".equals(tok[0]) && tok.length == 3) {
+					ctx.addDependency(tok[1], tok[2]);
+				} else {
+					throw new ParseException("unexpected line: " + line, lineNr);
+				}
+			}
+
+			return sum;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static String expect(String line, String token, int lineNr) throws ParseException {
+		if (line == null || !line.startsWith(token + "\t")) {
+			throw new ParseException("\"" + token + "\" expected", lineNr);
+		}
+
+		return line.substring(token.length() + 1);
+	}
+
+}
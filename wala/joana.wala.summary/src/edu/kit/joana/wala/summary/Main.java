@@ -274,7 +274,7 @@ public class Main {
 							continue;
 						}
 
-						adjustCallsite(sdg, callNode, node, ep, sdg);
+						GraphUtil.adjustCallsite(sdg, callNode, ep);
 					}
 				}
 			}
@@ -492,7 +492,7 @@ public class Main {
 //							throw new IllegalStateException();
 //						}
 //
-//						newSumEdges += adjustCallsite(sdg, callNode, callee, ep, toAdjust);
+//						newSumEdges += GraphUtil.adjustCallsite(toAdjust, callNode, ep);
 //					}
 //				}
 //			}
@@ -531,7 +531,7 @@ public class Main {
 						throw new IllegalStateException();
 					}
 
-					adjustCallsite(sdg, callNode, callee, ep, sdg);
+					GraphUtil.adjustCallsite(sdg, callNode, ep);
 				}
 			}
 		}
@@ -570,54 +570,6 @@ public class Main {
 		return newEdges;
 	}
 
-	private static int adjustCallsite(SDG sdg, SDGNode callNode, SDGNode callee, EntryPoint ep, SDG toAdjust) {
-		assert callNode.getKind() == SDGNode.Kind.CALL;
-		assert callee.getKind() == SDGNode.Kind.ENTRY;
-
-		int newEdges = 0;
-
-		for (TIntIterator itFin = ep.iterateFormalIns(); itFin.hasNext();) {
-			final int fInId = itFin.next();
-			final SDGNode formalIn = sdg.getNode(fInId);
-
-			assert (formalIn.getKind() == SDGNode.Kind.FORMAL_IN);
-
-			final SDGNode actualIn = sdg.getActualIn(callNode, formalIn);
-
-			if (actualIn == null) {
-				debug("WARN: No matching actIn found. For node " + formalIn.getId() + " of call " + callNode.getLabel() + " - SKIPPING");
-				continue;
-//				throw new IllegalStateException("No matching actIn found. For node " + formalIn.getId());
-			}
-
-			TIntList influenced = ep.getInfluencedFormOuts(fInId);
-			if (influenced == null) {
-				continue;
-			}
-
-			for (TIntIterator itFout = influenced.iterator(); itFout.hasNext();) {
-				final int fOutId = itFout.next();
-				final SDGNode formalOut = sdg.getNode(fOutId);
-
-				assert (formalOut.getKind() == SDGNode.Kind.FORMAL_OUT);
-
-				final SDGNode actualOut = sdg.getActualOut(callNode, formalOut);
-
-				if (actualOut == null) {
-					debug("WARN: No matching actualOut found.");
-					continue;
-//					throw new IllegalStateException("No matching actualOut found.");
-				}
-
-				SDGEdge sumEdge = new SDGEdge(actualIn, actualOut, SDGEdge.Kind.SUMMARY);
-				toAdjust.addEdge(actualIn, actualOut, sumEdge);
-				newEdges++;
-			}
-		}
-
-		return newEdges;
-	}
-
 	private static void info(String str) {
 		System.out.println(str);
 	}
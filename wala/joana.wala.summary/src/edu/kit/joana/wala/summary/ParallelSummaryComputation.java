@@ -0,0 +1,260 @@
+/**
+ * This file is part of the Joana IFC project. It is developed at the
+ * Programming Paradigms Group of the Karlsruhe Institute of Technology.
+ *
+ * For further details on licensing please read the information at
+ * http://joana.ipd.kit.edu or contact the authors.
+ */
+package edu.kit.joana.wala.summary;
+
+import edu.kit.joana.ifc.sdg.graph.SDGEdge;
+import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import gnu.trove.iterator.TIntObjectIterator;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.alg.StrongConnectivityInspector;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+
+import edu.kit.joana.util.ParallelUtil;
+
+/**
+ * Runs the summary edge computation of {@link SummaryComputation} for independent parts of the call graph
+ * concurrently.
+ *
+ * The procedures are folded to the strongly connected components of the call graph, as it is done by the
+ * <tt>GraphFolder</tt> for call graphs. Each component is computed by a single thread, starting from the
+ * formal-out nodes of its procedures. A component is scheduled as soon as all components it calls are done, so
+ * all summary edges of its call sites are known when it starts. Components that do not call each other run in
+ * parallel.
+ * <p>
+ * The shared state is the graph. A computation adds summary edges only at the call sites of its procedures,
+ * which belong to its own component or to a calling component, and checks for existing edges and looks up call
+ * sites while holding the lock of {@link SummaryComputation#restrictTo(Collection)}. All other reads, e.g. of the
+ * incoming edges of a node, are done without the lock. They only touch nodes of the procedures of the own
+ * component. Their edges are not modified concurrently: the components it calls are done before it is
+ * submitted, which orders their modifications before its reads, and the components that call it do not start
+ * before it is done.
+ *
+ * Procedures that are connected through an edge the computation may follow (e.g. synchronization edges
+ * between threads) are put into the same component, so a path never leaves its component.
+ */
+final class ParallelSummaryComputation {
+
+	private ParallelSummaryComputation() {}
+
+	/**
+	 * Computes the same summary edges as <tt>comp.computeSummaryEdges(progress)</tt> with the given number of
+	 * threads.
+	 * @return The summary edges between formal-in and formal-out nodes.
+	 */
+	static Collection<SDGEdge> computeSummaryEdges(final SummaryComputation comp, final int threads,
+			final IProgressMonitor progress) throws CancelException {
+		final List<Component> components = buildComponents(comp);
+
+		final ExecutorService executor = ParallelUtil.newPool(threads, "summary");
+		final CompletionService<Component> done = new ExecutorCompletionService<Component>(executor);
+		final Set<SDGEdge> formInOutSummaryEdge = new HashSet<SDGEdge>();
+
+		try {
+			int running = 0;
+			for (final Component c : components) {
+				if (c.pendingCallees == 0) {
+					c.submit(done, comp, progress);
+					running++;
+				}
+			}
+
+			int finished = 0;
+			while (running > 0) {
+				final Component c = waitFor(done);
+				running--;
+				finished++;
+				formInOutSummaryEdge.addAll(c.result);
+				c.result = null;
+
+				for (final Component caller : c.callers) {
+					caller.pendingCallees--;
+					if (caller.pendingCallees == 0) {
+						caller.submit(done, comp, progress);
+						running++;
+					}
+				}
+			}
+
+			if (finished != components.size()) {
+				throw new IllegalStateException("Only " + finished + " of " + components.size()
+						+ " components have been computed.");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return formInOutSummaryEdge;
+	}
+
+	private static Component waitFor(final CompletionService<Component> done) throws CancelException {
+		final Future<Component> next;
+		try {
+			next = done.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw CancelException.make("Summary computation has been interrupted.");
+		}
+
+		return ParallelUtil.waitFor(next, CancelException.class);
+	}
+
+	/**
+	 * Computes the components of the procedure dependency graph in an arbitrary order. Each component knows the
+	 * components that call it and the number of different components it calls.
+	 */
+	private static List<Component> buildComponents(final SummaryComputation comp) {
+		final DirectedGraph<SDGNode, SDGEdge> graph = comp.getGraph();
+		final TIntSet relevantProcs = comp.getRelevantProcs();
+		final DirectedGraph<Integer, DefaultEdge> deps = new DefaultDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+		final TIntObjectMap<List<SDGNode>> proc2seeds = new TIntObjectHashMap<List<SDGNode>>();
+		final TIntObjectMap<List<SDGNode>> out2in = comp.getOut2In();
+		final TIntIntMap id2proc = (out2in != null ? new TIntIntHashMap() : null);
+
+		for (final SDGNode n : graph.vertexSet()) {
+			final int proc = n.getProc();
+			if (relevantProcs != null && !relevantProcs.contains(proc)) {
+				continue;
+			}
+
+			deps.addVertex(proc);
+
+			if (id2proc != null) {
+				id2proc.put(n.getId(), proc);
+			}
+
+			if (n.getKind() == SDGNode.Kind.FORMAL_OUT || n.getKind() == SDGNode.Kind.EXIT) {
+				List<SDGNode> seeds = proc2seeds.get(proc);
+				if (seeds == null) {
+					seeds = new LinkedList<SDGNode>();
+					proc2seeds.put(proc, seeds);
+				}
+
+				seeds.add(n);
+			}
+		}
+
+		for (final SDGEdge e : graph.edgeSet()) {
+			final int from = e.getSource().getProc();
+			final int to = e.getTarget().getProc();
+			if (from == to || !deps.containsVertex(from) || !deps.containsVertex(to)) {
+				continue;
+			}
+
+			switch (e.getKind()) {
+			case PARAMETER_IN:
+				// summary edges of the caller depend on the callee
+				deps.addEdge(from, to);
+				break;
+			case PARAMETER_OUT:
+				deps.addEdge(to, from);
+				break;
+			default:
+				if (comp.mayFollow(e)) {
+					deps.addEdge(from, to);
+					deps.addEdge(to, from);
+				}
+			}
+		}
+
+		if (out2in != null) {
+			// actual-outs of fully connected calls lead directly to their actual-ins
+			for (final TIntObjectIterator<List<SDGNode>> it = out2in.iterator(); it.hasNext();) {
+				it.advance();
+				if (!id2proc.containsKey(it.key())) {
+					continue;
+				}
+
+				final int outProc = id2proc.get(it.key());
+				for (final SDGNode in : it.value()) {
+					final int inProc = in.getProc();
+					if (outProc != inProc && deps.containsVertex(inProc)) {
+						deps.addEdge(outProc, inProc);
+						deps.addEdge(inProc, outProc);
+					}
+				}
+			}
+		}
+
+		final StrongConnectivityInspector<Integer, DefaultEdge> sci =
+				new StrongConnectivityInspector<Integer, DefaultEdge>(deps);
+		final List<Set<Integer>> sccs = sci.stronglyConnectedSets();
+		final List<Component> components = new ArrayList<Component>(sccs.size());
+		final TIntIntMap proc2component = new TIntIntHashMap();
+
+		for (final Set<Integer> scc : sccs) {
+			final Component c = new Component();
+			for (final Integer proc : scc) {
+				proc2component.put(proc, components.size());
+				final List<SDGNode> seeds = proc2seeds.get(proc);
+				if (seeds != null) {
+					c.seeds.addAll(seeds);
+				}
+			}
+
+			components.add(c);
+		}
+
+		for (final DefaultEdge dep : deps.edgeSet()) {
+			final Component caller = components.get(proc2component.get(deps.getEdgeSource(dep)));
+			final Component callee = components.get(proc2component.get(deps.getEdgeTarget(dep)));
+			if (caller != callee && !callee.callers.contains(caller)) {
+				callee.callers.add(caller);
+				caller.pendingCallees++;
+			}
+		}
+
+		return components;
+	}
+
+	/**
+	 * A strongly connected component of the procedure dependency graph.
+	 */
+	private static final class Component {
+
+		private final List<SDGNode> seeds = new LinkedList<SDGNode>();
+		private final Set<Component> callers = new HashSet<Component>();
+		private int pendingCallees = 0;
+		private Collection<SDGEdge> result;
+
+		private void submit(final CompletionService<Component> done, final SummaryComputation comp,
+				final IProgressMonitor progress) {
+			done.submit(new Callable<Component>() {
+				@Override
+				public Component call() throws CancelException {
+					MonitorUtil.throwExceptionIfCanceled(progress);
+					result = comp.restrictTo(seeds).computeSummaryEdges(progress);
+					return Component.this;
+				}
+			});
+		}
+	}
+
+}
@@ -10,9 +10,14 @@ package edu.kit.joana.wala.summary;
 import edu.kit.joana.ifc.sdg.graph.BitVector;
 import edu.kit.joana.ifc.sdg.graph.SDGEdge;
 import edu.kit.joana.ifc.sdg.graph.SDGNode;
+import gnu.trove.iterator.TIntIterator;
 import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -33,9 +38,7 @@ import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
  */
 public class SummaryComputation {
 
-	private final HashSet<Edge> pathEdge;
-    private final HashMap<SDGNode, Set<Edge>> aoPaths;
-    private final LinkedList<Edge> worklist;
+	private final PathEdges paths;
     private final DirectedGraph<SDGNode, SDGEdge> graph;
     private final TIntSet relevantFormalIns;
     private final TIntSet relevantProcs;
@@ -45,26 +48,80 @@ public class SummaryComputation {
     private final SDGEdge.Kind sumEdgeKind;
     private final Set<SDGEdge.Kind> relevantEdges;
     private final String annotate;
+    /** formal-out and exit nodes the computation starts from. null if all of them are used. */
+    private final Collection<SDGNode> seeds;
+    /** guards modifications of the graph, as multiple computations may share it */
+    private final Object graphLock;
+    /** maps node ids to dense indices if path edges are stored as packed longs, null otherwise */
+    private final NodeIndex index;
 
 	private SummaryComputation(DirectedGraph<SDGNode, SDGEdge> graph, TIntSet relevantFormalIns,
 			TIntSet relevantProcs, TIntSet fullyConnected, TIntObjectMap<List<SDGNode>> out2in,
 			boolean rememberReached, SDGEdge.Kind sumEdgeKind, Set<SDGEdge.Kind> relevantEdges,
-			String annotate) {
+			String annotate, boolean packedPathEdges) {
+		this(graph, relevantFormalIns, relevantProcs, fullyConnected, out2in, rememberReached, sumEdgeKind,
+				relevantEdges, annotate, null, new Object(), (packedPathEdges ? new NodeIndex(graph) : null));
+	}
+
+	private SummaryComputation(DirectedGraph<SDGNode, SDGEdge> graph, TIntSet relevantFormalIns,
+			TIntSet relevantProcs, TIntSet fullyConnected, TIntObjectMap<List<SDGNode>> out2in,
+			boolean rememberReached, SDGEdge.Kind sumEdgeKind, Set<SDGEdge.Kind> relevantEdges,
+			String annotate, Collection<SDGNode> seeds, Object graphLock, NodeIndex index) {
     	this.graph = graph;
     	this.relevantFormalIns = relevantFormalIns;
     	this.relevantProcs = relevantProcs;
     	this.fullyConnected = fullyConnected;
-        this.pathEdge = new HashSet<Edge>();
-        this.aoPaths = new HashMap<SDGNode, Set<Edge>>();
-        this.worklist = new LinkedList<Edge>();
+        this.paths = (index != null ? new PackedPathEdges(index) : new ObjectPathEdges());
         this.out2in = out2in;
         this.rememberReached = rememberReached;
         this.sumEdgeKind = sumEdgeKind;
         this.relevantEdges = relevantEdges;
         this.annotate = annotate;
+        this.seeds = seeds;
+        this.graphLock = graphLock;
+        this.index = index;
+	}
+
+	/**
+	 * Creates a computation with the same configuration that only starts from the given formal-out and exit
+	 * nodes. All computations created this way share the lock that guards modifications of the graph.
+	 */
+	SummaryComputation restrictTo(Collection<SDGNode> seeds) {
+		return new SummaryComputation(graph, relevantFormalIns, relevantProcs, fullyConnected, out2in,
+				rememberReached, sumEdgeKind, relevantEdges, annotate, seeds, graphLock, index);
+	}
+
+	DirectedGraph<SDGNode, SDGEdge> getGraph() {
+		return graph;
+	}
+
+	TIntSet getRelevantProcs() {
+		return relevantProcs;
+	}
+
+	TIntObjectMap<List<SDGNode>> getOut2In() {
+		return out2in;
+	}
+
+	/**
+	 * Returns true if the computation may follow the given edge while searching for paths from formal-in to
+	 * formal-out nodes.
+	 */
+	boolean mayFollow(SDGEdge e) {
+		final SDGEdge.Kind kind = e.getKind();
+		return kind == sumEdgeKind || kind == SDGEdge.Kind.CONTROL_DEP_EXPR || relevantEdges.contains(kind);
 	}
 
 	public static int compute(WorkPackage pack, IProgressMonitor progress) throws CancelException {
+		return compute(pack, 1, progress);
+	}
+
+	/**
+	 * Computes the same summary edges as {@link #compute(WorkPackage, IProgressMonitor)}. Independent parts of the
+	 * call graph are processed concurrently by the given number of threads.
+	 * @see ParallelSummaryComputation
+	 */
+	public static int compute(WorkPackage pack, int threads, IProgressMonitor progress) throws CancelException {
 		// default summary computation follows control and date dependencies
 		Set<SDGEdge.Kind> relevantEdges = new HashSet<SDGEdge.Kind>();
 		relevantEdges.add(SDGEdge.Kind.DATA_DEP);
@@ -83,7 +140,7 @@ public class SummaryComputation {
 		relevantEdges.add(SDGEdge.Kind.SUMMARY_NO_ALIAS);
 		relevantEdges.add(SDGEdge.Kind.SYNCHRONIZATION);
 
-		return compute(pack, SDGEdge.Kind.SUMMARY, relevantEdges, progress);
+		return compute(pack, SDGEdge.Kind.SUMMARY, relevantEdges, null, threads, progress);
 	}
 
 	public static int computeAdjustedAliasDep(WorkPackage pack, IProgressMonitor progress) throws CancelException {
@@ -132,7 +189,17 @@ public class SummaryComputation {
 		return compute(pack, progress);
 	}
 
+	public static int computeFullAliasDataDep(WorkPackage pack, int threads, IProgressMonitor progress)
+			throws CancelException {
+		return compute(pack, threads, progress);
+	}
+
 	public static int computeNoAliasDataDep(WorkPackage pack, IProgressMonitor progress) throws CancelException {
+		return computeNoAliasDataDep(pack, 1, progress);
+	}
+
+	public static int computeNoAliasDataDep(WorkPackage pack, int threads, IProgressMonitor progress)
+			throws CancelException {
 		Set<SDGEdge.Kind> relevantEdges = new HashSet<SDGEdge.Kind>();
 		relevantEdges.add(SDGEdge.Kind.DATA_DEP);
 		relevantEdges.add(SDGEdge.Kind.DATA_HEAP);
@@ -150,7 +217,7 @@ public class SummaryComputation {
 		relevantEdges.add(SDGEdge.Kind.SUMMARY_NO_ALIAS);
 		relevantEdges.add(SDGEdge.Kind.SYNCHRONIZATION);
 
-		return compute(pack, SDGEdge.Kind.SUMMARY_NO_ALIAS, relevantEdges, progress);
+		return compute(pack, SDGEdge.Kind.SUMMARY_NO_ALIAS, relevantEdges, null, threads, progress);
 	}
 
 	public static int computeHeapDataDep(WorkPackage pack, IProgressMonitor progress) throws CancelException {
@@ -177,15 +244,17 @@ public class SummaryComputation {
 
 	private static int compute(WorkPackage pack, SDGEdge.Kind sumEdgeKind, Set<SDGEdge.Kind> relevantEdges,
 			IProgressMonitor progress) throws CancelException {
-		return compute(pack, sumEdgeKind, relevantEdges, null, progress);
+		return compute(pack, sumEdgeKind, relevantEdges, null, 1, progress);
 	}
 
 	private static int compute(WorkPackage pack, SDGEdge.Kind sumEdgeKind, Set<SDGEdge.Kind> relevantEdges,
-			String annotate, IProgressMonitor progress) throws CancelException {
+			String annotate, int threads, IProgressMonitor progress) throws CancelException {
 		SummaryComputation comp = new SummaryComputation(pack.getGraph(), pack.getAllFormalInIds(),
 				pack.getRelevantProcIds(), pack.getFullyConnected(), pack.getOut2In(),
-				pack.getRememberReached(), sumEdgeKind, relevantEdges, annotate);
-		Collection<SDGEdge> summary = comp.computeSummaryEdges(progress);
+				pack.getRememberReached(), sumEdgeKind, relevantEdges, annotate, pack.getPackedPathEdges());
+		Collection<SDGEdge> summary = (threads > 1
+				? ParallelSummaryComputation.computeSummaryEdges(comp, threads, progress)
+				: comp.computeSummaryEdges(progress));
 
 		for (SDGEdge edge : summary) {
 			pack.addSummaryDep(edge.getSource().getId(), edge.getTarget().getId());
@@ -198,11 +267,11 @@ public class SummaryComputation {
 	}
 
 
-    private Collection<SDGEdge> computeSummaryEdges(IProgressMonitor progress) throws CancelException {
+    Collection<SDGEdge> computeSummaryEdges(IProgressMonitor progress) throws CancelException {
     	HashSet<SDGEdge> actInOutSummaryEdge = new HashSet<SDGEdge>();
     	HashSet<SDGEdge> formInOutSummaryEdge = new HashSet<SDGEdge>();
 
-        for (SDGNode n : (Set<SDGNode>) graph.vertexSet()) {
+        for (SDGNode n : (seeds != null ? seeds : (Set<SDGNode>) graph.vertexSet())) {
             if (n.getKind() == SDGNode.Kind.FORMAL_OUT || n.getKind() == SDGNode.Kind.EXIT) {
             	if (relevantProcs != null && !relevantProcs.contains(n.getProc())) {
             		continue;
@@ -212,60 +281,53 @@ public class SummaryComputation {
             		continue;
             	}
 
-                pathEdge.add(new Edge(n,n));
-                worklist.add(new Edge(n,n));
+                paths.add(n, n);
             }
         }
 
-        while (!worklist.isEmpty()) {
+        while (!paths.isEmpty()) {
         	MonitorUtil.throwExceptionIfCanceled(progress);
 
-            Edge next = worklist.poll();
-            SDGNode.Kind k = next.source.getKind();
+        	paths.poll();
+        	final SDGNode source = paths.source();
+        	final SDGNode target = paths.target();
+            SDGNode.Kind k = source.getKind();
 
             switch(k) {
                 case ACTUAL_OUT:
-                	if (fullyConnected != null && fullyConnected.contains(next.source.getId())) {
-                		propagateAllActIns(next.source, next.target);
+                	if (fullyConnected != null && fullyConnected.contains(source.getId())) {
+                		propagateAllActIns(source, target);
                 	} else {
-	                    for (SDGEdge e : graph.incomingEdgesOf(next.source)) {
+	                    for (SDGEdge e : graph.incomingEdgesOf(source)) {
 	                    	final SDGEdge.Kind kind = e.getKind();
 	                        if (kind == sumEdgeKind
 	                        		|| ((kind == SDGEdge.Kind.DATA_DEP || kind == SDGEdge.Kind.DATA_HEAP
 	                        				|| kind == SDGEdge.Kind.DATA_ALIAS) && relevantEdges.contains(kind))
 	                                || (kind == SDGEdge.Kind.CONTROL_DEP_EXPR
 	                                        && e.getSource().getKind() == SDGNode.Kind.CALL)) {
-	                    		propagate(new Edge(e.getSource(), next.target));
+	                    		propagate(e.getSource(), target);
 	                        }
 	                    }
                 	}
                     break;
 
                 case FORMAL_IN:
-                	// next.source is relevant formal in then:
-                	if (relevantFormalIns.contains(next.source.getId())) {
+                	// source is relevant formal in then:
+                	if (relevantFormalIns.contains(source.getId())) {
 	                	SDGEdge fInOut;
 	                	if (annotate != null && !annotate.isEmpty()) {
-	                		fInOut = new SDGEdge(next.source, next.target, sumEdgeKind, annotate);
+	                		fInOut = new SDGEdge(source, target, sumEdgeKind, annotate);
 	                	} else {
-	                		fInOut = new SDGEdge(next.source, next.target, sumEdgeKind);
+	                		fInOut = new SDGEdge(source, target, sumEdgeKind);
 	                	}
 
 	                	formInOutSummaryEdge.add(fInOut);
                 	}
 
-                    Collection<Edge> aiaoPairs = aiaoPairs(next);
+                    Collection<Edge> aiaoPairs = aiaoPairs(source, target);
                     for (Edge e : aiaoPairs) {
                         if (e.source == null || e.target == null) continue;
 
-                        boolean connectedInPDG = false;
-                        for (SDGEdge eOut : graph.getAllEdges(e.source, e.target)) {
-                            if (eOut.getKind().isSDGEdge()) {
-                                connectedInPDG = true;
-                            }
-                        }
-                        if (connectedInPDG) continue; // already connected
-
                         SDGEdge sum;
                         if (annotate != null && !annotate.isEmpty()) {
                         	sum = new SDGEdge(e.source, e.target, sumEdgeKind, annotate);
@@ -273,30 +335,39 @@ public class SummaryComputation {
                         	sum = new SDGEdge(e.source, e.target, sumEdgeKind);
                         }
 
-                        if (graph.addEdge(e.source, e.target, sum)) {
+                        final boolean added;
+                        // the call site may be shared with other computations running in parallel
+                        synchronized (graphLock) {
+                        	boolean connectedInPDG = false;
+                        	for (SDGEdge eOut : graph.getAllEdges(e.source, e.target)) {
+                        		if (eOut.getKind().isSDGEdge()) {
+                        			connectedInPDG = true;
+                        		}
+                        	}
+                        	if (connectedInPDG) continue; // already connected
+
+                        	added = graph.addEdge(e.source, e.target, sum);
+                        }
+
+                        if (added) {
                             actInOutSummaryEdge.add(sum);
 
-                            Set<Edge> s = aoPaths.get(e.target);
-                            if (s != null) {
-                                for (Edge f : s) {
-                                    propagate(new Edge(sum.getSource(), f.target));
-                                }
-                            }
+                            paths.propagateAoPaths(this, sum.getSource(), e.target);
                         }
                     }
-                    for (SDGEdge e : graph.incomingEdgesOf(next.source)) {
+                    for (SDGEdge e : graph.incomingEdgesOf(source)) {
                     	final SDGEdge.Kind kind = e.getKind();
                     	if ((kind == SDGEdge.Kind.DATA_DEP || kind == SDGEdge.Kind.DATA_HEAP
                     			|| kind == SDGEdge.Kind.DATA_ALIAS) && relevantEdges.contains(kind)) {
-                        	propagate(new Edge(e.getSource(), next.target));
+                        	propagate(e.getSource(), target);
                         }
                     }
                     break;
 
                 case ACTUAL_IN:
                 	if (rememberReached) {
-                		BitVector bv = next.source.bv;
-                		int id = next.target.tmp;
+                		BitVector bv = source.bv;
+                		int id = target.tmp;
 
                 		if (bv.contains(id)) {
                 			continue;
@@ -305,14 +376,14 @@ public class SummaryComputation {
                 		bv.set(id);
                 	}
 
-                	for (SDGEdge e : graph.incomingEdgesOf(next.source)) {
+                	for (SDGEdge e : graph.incomingEdgesOf(source)) {
                         if (e.getKind() == SDGEdge.Kind.CONTROL_DEP_EXPR) {
                             if (e.getSource().getKind() == SDGNode.Kind.CALL) {
-                                propagate(new Edge(e.getSource(), next.target));
+                                propagate(e.getSource(), target);
                             }
 
                         } else if (relevantEdges.contains(e.getKind())) {
-                            propagate(new Edge(e.getSource(), next.target));
+                            propagate(e.getSource(), target);
                         }
                     }
 
@@ -320,36 +391,36 @@ public class SummaryComputation {
 
                 case FORMAL_OUT:
                 case EXIT:
-                	if (fullyConnected != null && fullyConnected.contains(next.source.getId())) {
-                		propagateAllActIns(next.source, next.target);
+                	if (fullyConnected != null && fullyConnected.contains(source.getId())) {
+                		propagateAllActIns(source, target);
                 	} else {
-                    for (SDGEdge e : graph.incomingEdgesOf(next.source)) {
+                    for (SDGEdge e : graph.incomingEdgesOf(source)) {
                         if (e.getKind() == SDGEdge.Kind.CONTROL_DEP_EXPR) {
                             if (e.getSource().getKind() == SDGNode.Kind.ENTRY) {
-                                propagate(new Edge(e.getSource(), next.target));
+                                propagate(e.getSource(), target);
                             }
 
                         } else if (relevantEdges.contains(e.getKind())) {
-                            propagate(new Edge(e.getSource(), next.target));
+                            propagate(e.getSource(), target);
                         }
                     }
                 	}
-//                    for (SDGEdge e : graph.incomingEdgesOf(next.source)) {
+//                    for (SDGEdge e : graph.incomingEdgesOf(source)) {
 //                        if (e.getKind() == SDGEdge.Kind.CONTROL_DEP_EXPR) {
 //                            if (e.getSource().getKind() == SDGNode.Kind.ENTRY) {
-//                                propagate(new Edge(e.getSource(), next.target));
+//                                propagate(e.getSource(), target);
 //                            }
 //
 //                        } else if (e.getKind().isIntraSDGEdge()) {
-//                            propagate(new Edge(e.getSource(), next.target));
+//                            propagate(e.getSource(), target);
 //                        }
 //                    }
                     break;
 
                 default:
-                    for (SDGEdge e : graph.incomingEdgesOf(next.source)) {
+                    for (SDGEdge e : graph.incomingEdgesOf(source)) {
                         if (relevantEdges.contains(e.getKind())) {
-                            propagate(new Edge(e.getSource(), next.target));
+                            propagate(e.getSource(), target);
                         }
                     }
                     break;
@@ -361,13 +432,13 @@ public class SummaryComputation {
 
     private void propagateAllActIns(SDGNode outNode, SDGNode target) {
     	for (SDGNode inNode : out2in.get(outNode.getId())) {
-    		propagate(new Edge(inNode, target));
+    		propagate(inNode, target);
     	}
     }
 
-    private void propagate(Edge e) {
-        if (relevantProcs != null && !(relevantProcs.contains(e.source.getProc())
-        		&& relevantProcs.contains(e.target.getProc()))) {
+    private void propagate(SDGNode source, SDGNode target) {
+        if (relevantProcs != null && !(relevantProcs.contains(source.getProc())
+        		&& relevantProcs.contains(target.getProc()))) {
             return;
         }
 
@@ -375,16 +446,9 @@ public class SummaryComputation {
 //    		return;
 //    	}
 //
-        if (pathEdge.add(e)) {
-            worklist.add(e);
-        }
-        if (e.source.getKind() == SDGNode.Kind.ACTUAL_OUT) {
-            Set<Edge> s = aoPaths.get(e.source);
-            if (s == null) {
-                s = new HashSet<Edge>();
-                aoPaths.put(e.source, s);
-            }
-            s.add(e);
+        paths.add(source, target);
+        if (source.getKind() == SDGNode.Kind.ACTUAL_OUT) {
+            paths.addAoPath(source, target);
         }
     }
 
@@ -399,10 +463,10 @@ public class SummaryComputation {
 
 
 
-    private Collection<Edge> aiaoPairs(Edge e) {
+    private Collection<Edge> aiaoPairs(SDGNode formIn, SDGNode formOut) {
         HashMap<SDGNode, Edge> result = new HashMap<SDGNode, Edge>();
 
-        for (SDGEdge pi : graph.incomingEdgesOf(e.source)) {
+        for (SDGEdge pi : graph.incomingEdgesOf(formIn)) {
             if (pi.getKind() == SDGEdge.Kind.PARAMETER_IN) {
                 SDGNode ai = pi.getSource();
 
@@ -411,7 +475,10 @@ public class SummaryComputation {
 //                }
 
 
-                SDGNode call = getCallSiteFor(ai);
+                SDGNode call;
+                synchronized (graphLock) {
+                	call = getCallSiteFor(ai);
+                }
 
                 if(call != null) {
                     result.put(call, new Edge(ai, null));
@@ -419,7 +486,7 @@ public class SummaryComputation {
             }
         }
 
-        for (SDGEdge po : graph.outgoingEdgesOf(e.target)) {
+        for (SDGEdge po : graph.outgoingEdgesOf(formOut)) {
             if (po.getKind() == SDGEdge.Kind.PARAMETER_OUT) {
                 SDGNode ao = po.getTarget();
 
@@ -427,7 +494,10 @@ public class SummaryComputation {
 //            		continue;
 //                }
 
-                SDGNode call = getCallSiteFor(ao);
+                SDGNode call;
+                synchronized (graphLock) {
+                	call = getCallSiteFor(ao);
+                }
 
                 Edge newE = result.get(call);
                 if (newE != null) {
@@ -484,6 +554,325 @@ public class SummaryComputation {
     }
 
 
+    /**
+     * Stores the path edges found so far and the worklist of path edges that still have to be processed.
+     */
+    private static abstract class PathEdges {
+
+    	/** Adds a path edge to the worklist, if it has not been found before. */
+    	abstract void add(SDGNode source, SDGNode target);
+
+    	abstract boolean isEmpty();
+
+    	/** Removes the next path edge from the worklist. Its nodes are returned by source() and target(). */
+    	abstract void poll();
+
+    	abstract SDGNode source();
+
+    	abstract SDGNode target();
+
+    	/** Remembers a path edge that starts at an actual-out node. */
+    	abstract void addAoPath(SDGNode actOut, SDGNode target);
+
+    	/**
+    	 * Propagates a path edge from the given actual-in node to the target of each remembered path edge starting
+    	 * at the given actual-out node.
+    	 */
+    	abstract void propagateAoPaths(SummaryComputation comp, SDGNode actIn, SDGNode actOut);
+
+    }
+
+    private static final class ObjectPathEdges extends PathEdges {
+
+    	private final HashSet<Edge> pathEdge = new HashSet<Edge>();
+        private final HashMap<SDGNode, Set<Edge>> aoPaths = new HashMap<SDGNode, Set<Edge>>();
+        private final LinkedList<Edge> worklist = new LinkedList<Edge>();
+        private Edge current;
+
+        void add(SDGNode source, SDGNode target) {
+        	final Edge e = new Edge(source, target);
+        	if (pathEdge.add(e)) {
+        		worklist.add(e);
+        	}
+        }
+
+        boolean isEmpty() {
+        	return worklist.isEmpty();
+        }
+
+        void poll() {
+        	current = worklist.poll();
+        }
+
+        SDGNode source() {
+        	return current.source;
+        }
+
+        SDGNode target() {
+        	return current.target;
+        }
+
+        void addAoPath(SDGNode actOut, SDGNode target) {
+            Set<Edge> s = aoPaths.get(actOut);
+            if (s == null) {
+                s = new HashSet<Edge>();
+                aoPaths.put(actOut, s);
+            }
+            s.add(new Edge(actOut, target));
+        }
+
+        void propagateAoPaths(SummaryComputation comp, SDGNode actIn, SDGNode actOut) {
+        	final Set<Edge> s = aoPaths.get(actOut);
+        	if (s != null) {
+        		// propagating from an actual-in does not add path edges starting at an actual-out
+        		for (Edge e : s) {
+        			comp.propagate(actIn, e.target);
+        		}
+        	}
+        }
+
+    }
+
+    /**
+     * Stores path edges as longs that contain the indices of source and target node. Avoids allocating an object
+     * for each path edge, which dominates the run time of the object based variant on large graphs.
+     */
+    private static final class PackedPathEdges extends PathEdges {
+
+    	private final NodeIndex index;
+    	private final LongSet pathEdge = new LongSet();
+    	private final TIntObjectHashMap<TIntHashSet> aoPaths = new TIntObjectHashMap<TIntHashSet>();
+    	private final IntPairQueue worklist = new IntPairQueue();
+    	private SDGNode source;
+    	private SDGNode target;
+
+    	private PackedPathEdges(NodeIndex index) {
+    		this.index = index;
+    	}
+
+    	private static long pack(int source, int target) {
+    		return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    	}
+
+    	void add(SDGNode source, SDGNode target) {
+    		final int s = index.indexOf(source);
+    		final int t = index.indexOf(target);
+    		if (pathEdge.add(pack(s, t))) {
+    			worklist.add(s, t);
+    		}
+    	}
+
+    	boolean isEmpty() {
+    		return worklist.isEmpty();
+    	}
+
+    	void poll() {
+    		worklist.poll();
+    		source = index.nodeAt(worklist.first());
+    		target = index.nodeAt(worklist.second());
+    	}
+
+    	SDGNode source() {
+    		return source;
+    	}
+
+    	SDGNode target() {
+    		return target;
+    	}
+
+    	void addAoPath(SDGNode actOut, SDGNode target) {
+    		final int ao = index.indexOf(actOut);
+    		TIntHashSet s = aoPaths.get(ao);
+    		if (s == null) {
+    			s = new TIntHashSet();
+    			aoPaths.put(ao, s);
+    		}
+    		s.add(index.indexOf(target));
+    	}
+
+    	void propagateAoPaths(SummaryComputation comp, SDGNode actIn, SDGNode actOut) {
+    		final TIntHashSet s = aoPaths.get(index.indexOf(actOut));
+    		if (s != null) {
+    			// propagating from an actual-in does not add path edges starting at an actual-out
+    			for (TIntIterator it = s.iterator(); it.hasNext();) {
+    				comp.propagate(actIn, index.nodeAt(it.next()));
+    			}
+    		}
+    	}
+
+    }
+
+    /**
+     * Maps the nodes of a graph to dense indices. Shared by all computations on the same graph, which only read it.
+     * If the node ids are dense themselves - as in sdgs built from scratch - an index is the id minus the smallest
+     * id. Otherwise the nodes are numbered in the order of the vertex set and a hash map translates the ids, so
+     * sparse ids, e.g. of a subgraph, do not blow up the index.
+     */
+    private static final class NodeIndex {
+
+    	private final SDGNode[] nodes;
+    	private final int minId;
+    	/** maps node ids to indices, null if the ids are dense */
+    	private final TIntIntHashMap id2index;
+
+    	private NodeIndex(DirectedGraph<SDGNode, SDGEdge> graph) {
+    		final Set<SDGNode> vertices = graph.vertexSet();
+    		int min = Integer.MAX_VALUE;
+    		int max = Integer.MIN_VALUE;
+    		for (SDGNode n : vertices) {
+    			min = Math.min(min, n.getId());
+    			max = Math.max(max, n.getId());
+    		}
+
+    		if (min <= max && (long) max - min < 2L * vertices.size()) {
+    			this.minId = min;
+    			this.id2index = null;
+    			this.nodes = new SDGNode[max - min + 1];
+    			for (SDGNode n : vertices) {
+    				nodes[n.getId() - minId] = n;
+    			}
+    		} else {
+    			this.minId = 0;
+    			this.id2index = new TIntIntHashMap(vertices.size());
+    			this.nodes = new SDGNode[vertices.size()];
+    			int i = 0;
+    			for (SDGNode n : vertices) {
+    				id2index.put(n.getId(), i);
+    				nodes[i] = n;
+    				i++;
+    			}
+    		}
+    	}
+
+    	private int indexOf(SDGNode node) {
+    		return (id2index == null ? node.getId() - minId : id2index.get(node.getId()));
+    	}
+
+    	private SDGNode nodeAt(int index) {
+    		return nodes[index];
+    	}
+
+    }
+
+    /**
+     * An open addressing set of non-negative longs with linear probing. Unlike the trove sets, the hash function
+     * mixes both halves of a key, so the packed node pairs do not collide on their xor.
+     */
+    private static final class LongSet {
+
+    	private static final long FREE = -1L;
+
+    	private long[] table = newTable(1 << 10);
+    	private int size = 0;
+
+    	private static long[] newTable(int capacity) {
+    		final long[] t = new long[capacity];
+    		Arrays.fill(t, FREE);
+    		return t;
+    	}
+
+    	private static int hash(long key) {
+    		// finalizer of MurmurHash3
+    		key ^= key >>> 33;
+    		key *= 0xff51afd7ed558ccdL;
+    		key ^= key >>> 33;
+    		key *= 0xc4ceb9fe1a85ec53L;
+    		key ^= key >>> 33;
+    		return (int) key;
+    	}
+
+    	/**
+    	 * @return <tt>true</tt> iff the key was not contained before.
+    	 */
+    	private boolean add(long key) {
+    		final int mask = table.length - 1;
+    		int pos = hash(key) & mask;
+    		while (table[pos] != FREE) {
+    			if (table[pos] == key) {
+    				return false;
+    			}
+    			pos = (pos + 1) & mask;
+    		}
+
+    		table[pos] = key;
+    		if (++size > (table.length >> 1) + (table.length >> 2)) {
+    			rehash();
+    		}
+
+    		return true;
+    	}
+
+    	private void rehash() {
+    		final long[] old = table;
+    		table = newTable(old.length * 2);
+    		final int mask = table.length - 1;
+    		for (long key : old) {
+    			if (key != FREE) {
+    				int pos = hash(key) & mask;
+    				while (table[pos] != FREE) {
+    					pos = (pos + 1) & mask;
+    				}
+    				table[pos] = key;
+    			}
+    		}
+    	}
+
+    }
+
+    /**
+     * A fifo queue of int pairs backed by a single growing ring buffer.
+     */
+    private static final class IntPairQueue {
+
+    	private int[] elems = new int[64];
+    	/** position of the first element of the next pair. Always even. */
+    	private int head = 0;
+    	/** number of stored ints. Always even. */
+    	private int size = 0;
+    	private int first;
+    	private int second;
+
+    	private void add(int a, int b) {
+    		if (size == elems.length) {
+    			final int[] grown = new int[elems.length * 2];
+    			System.arraycopy(elems, head, grown, 0, elems.length - head);
+    			System.arraycopy(elems, 0, grown, elems.length - head, head);
+    			elems = grown;
+    			head = 0;
+    		}
+
+    		final int tail = (head + size) & (elems.length - 1);
+    		elems[tail] = a;
+    		elems[tail + 1] = b;
+    		size += 2;
+    	}
+
+    	private boolean isEmpty() {
+    		return size == 0;
+    	}
+
+    	/** Removes the first pair of the queue. Its elements are returned by first() and second(). */
+    	private void poll() {
+    		if (size == 0) {
+    			throw new IllegalStateException("Queue is empty.");
+    		}
+
+    		first = elems[head];
+    		second = elems[head + 1];
+    		head = (head + 2) & (elems.length - 1);
+    		size -= 2;
+    	}
+
+    	private int first() {
+    		return first;
+    	}
+
+    	private int second() {
+    		return second;
+    	}
+
+    }
+
     private static class Edge {
         private SDGNode source;
         private SDGNode target;
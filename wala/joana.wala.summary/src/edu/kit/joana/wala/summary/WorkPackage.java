@@ -243,6 +243,30 @@ public class WorkPackage {
 			return entryId;
 		}
 
+		/**
+		 * Checks if the other entry point has the same formal nodes and the same summary dependencies between
+		 * them. The order in which the dependencies have been found does not matter.
+		 */
+		public boolean hasSameSummaries(EntryPoint other) {
+			if (entryId != other.entryId || !toSet(formalIns).equals(toSet(other.formalIns))
+					|| !toSet(formalOuts).equals(toSet(other.formalOuts))) {
+				return false;
+			}
+
+			for (TIntIterator it = formalIns.iterator(); it.hasNext();) {
+				final int formIn = it.next();
+				if (!toSet(formIn2out.get(formIn)).equals(toSet(other.formIn2out.get(formIn)))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private static TIntSet toSet(TIntCollection ints) {
+			return (ints == null ? new TIntHashSet() : new TIntHashSet(ints));
+		}
+
 		public void reset() {
 			formIn2out.clear();
 			summaryEdges = 0;
@@ -262,6 +286,7 @@ public class WorkPackage {
 	private final TIntObjectMap<List<SDGNode>> out2in;
 	private boolean immutable = false;
 	private final boolean rememberReached;
+	private boolean packedPathEdges = false;
 
 	private WorkPackage(DirectedGraph<SDGNode, SDGEdge> subgraph, Set<EntryPoint> entries, String name,
 			TIntSet relevantProcs, TIntSet fullyConnected, TIntObjectMap<List<SDGNode>> out2in,
@@ -331,6 +356,23 @@ public class WorkPackage {
 		return rememberReached;
 	}
 
+	/**
+	 * Selects how the summary computation stores path edges. Packed path edges are kept as pairs of node indices
+	 * in primitive collections. They need less memory and avoid allocating an object per path edge, which pays
+	 * off for large graphs. Both variants compute the same summary edges.
+	 */
+	public void setPackedPathEdges(boolean packedPathEdges) {
+		if (immutable) {
+			throw new IllegalStateException("WorkPackage has entered immutable state.");
+		}
+
+		this.packedPathEdges = packedPathEdges;
+	}
+
+	public boolean getPackedPathEdges() {
+		return packedPathEdges;
+	}
+
 	public void workIsDone() {
 		if (!immutable) {
 			immutable = true;